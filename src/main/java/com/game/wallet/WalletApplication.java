@@ -2,10 +2,17 @@ package com.game.wallet;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The reactive profile builds its own R2DBC pool; see ReactiveDataSourceConfig.
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@ConfigurationPropertiesScan
 @EnableRetry
+@EnableScheduling
 public class WalletApplication {
 
     public static void main(String[] args) {
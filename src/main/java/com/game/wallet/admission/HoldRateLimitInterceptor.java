@@ -0,0 +1,37 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.exception.RateLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Locale;
+
+/**
+ * Hold capture and release carry no body, so {@link RateLimitRequestBodyAdvice} never sees
+ * them. Finding the hold owner would need a database read before admission, so they are
+ * limited by an operation-wide bucket instead.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class HoldRateLimitInterceptor implements HandlerInterceptor {
+
+    private final UserRateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"POST".equals(request.getMethod()) || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        String operation = method.getMethod().getName().toLowerCase(Locale.ROOT);
+        if (!rateLimiter.tryAcquire(operation)) {
+            throw new RateLimitExceededException("Rate limit exceeded on " + operation);
+        }
+        return true;
+    }
+}
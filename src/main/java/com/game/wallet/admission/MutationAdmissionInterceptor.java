@@ -0,0 +1,72 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.exception.ServerBusyException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Takes a concurrency permit before a wallet mutation reaches the controller and gives it
+ * back once the response is complete. A request that has to wait elsewhere, such as on a
+ * hot wallet lane, hands its permit back for the wait through {@link #suspend} and
+ * {@link #resume} so waiters cannot hold every permit.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MutationAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = MutationAdmissionInterceptor.class.getName() + ".permit";
+    private static final String SUSPENDED_ATTRIBUTE = MutationAdmissionInterceptor.class.getName() + ".suspended";
+
+    private final MutationConcurrencyLimiter concurrencyLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw new ServerBusyException("Too many wallet operations in progress. Please retry.");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    /**
+     * Gives back the permit of {@code request}, if it holds one, until {@link #resume}.
+     */
+    public void suspend(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            concurrencyLimiter.release();
+            request.setAttribute(SUSPENDED_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Takes the permit back after {@link #suspend}, rejecting the request if the cap was
+     * reached in the meantime.
+     */
+    public void resume(HttpServletRequest request) {
+        if (request.getAttribute(SUSPENDED_ATTRIBUTE) == null) {
+            return;
+        }
+        request.removeAttribute(SUSPENDED_ATTRIBUTE);
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw new ServerBusyException("Too many wallet operations in progress. Please retry.");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            concurrencyLimiter.release();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps mutations in flight across all users. Requests over the cap are rejected at once
+ * rather than queued on the connection pool.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true")
+public class MutationConcurrencyLimiter {
+
+    private final int limit;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public MutationConcurrencyLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.limit = properties.getMaxConcurrentMutations();
+        this.permits = new Semaphore(limit);
+        this.rejected = Counter.builder("wallet.admission.rejected")
+                .tag("reason", "concurrency")
+                .tag("operation", "all")
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.in_flight", this, MutationConcurrencyLimiter::inFlight)
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int inFlight() {
+        return limit - permits.availablePermits();
+    }
+}
@@ -0,0 +1,79 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.controller.WalletController;
+import com.game.wallet.dto.*;
+import com.game.wallet.exception.RateLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Applies the per-user rate limit as soon as a mutation body is parsed, before the
+ * controller runs and before any database connection is taken. The operation name is the
+ * controller method name in lower case. A trade spends a token from every distinct sender
+ * of its legs.
+ */
+@ControllerAdvice(assignableTypes = WalletController.class)
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class RateLimitRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final UserRateLimiter rateLimiter;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        String operation = parameter.getExecutable().getName().toLowerCase(Locale.ROOT);
+        for (String userId : usersOf(body)) {
+            if (!rateLimiter.tryAcquire(operation, userId)) {
+                throw new RateLimitExceededException("Rate limit exceeded for user " + userId + " on " + operation);
+            }
+        }
+        return body;
+    }
+
+    static Set<String> usersOf(Object body) {
+        Set<String> users = new TreeSet<>();
+        if (body instanceof TopUpRequest request) {
+            addUser(users, request.getUserId());
+        } else if (body instanceof BonusRequest request) {
+            addUser(users, request.getUserId());
+        } else if (body instanceof SpendRequest request) {
+            addUser(users, request.getUserId());
+        } else if (body instanceof ReserveRequest request) {
+            addUser(users, request.getUserId());
+        } else if (body instanceof ReverseRequest request) {
+            addUser(users, request.getUserId());
+        } else if (body instanceof TransferRequest request) {
+            addUser(users, request.getFromUserId());
+        } else if (body instanceof TradeRequest request && request.getLegs() != null) {
+            for (TradeLeg leg : request.getLegs()) {
+                if (leg != null) {
+                    addUser(users, leg.getFromUserId());
+                }
+            }
+        }
+        return users;
+    }
+
+    private static void addUser(Set<String> users, String userId) {
+        if (userId != null) {
+            users.add(userId);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.game.wallet.admission;
+
+/**
+ * Classic token bucket refilled lazily from the elapsed time on each call.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized boolean isIdle(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
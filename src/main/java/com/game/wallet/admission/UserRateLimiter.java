@@ -0,0 +1,62 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process token buckets per (operation, userId). Buckets that have refilled completely
+ * carry no state worth keeping and are evicted periodically.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true")
+public class UserRateLimiter {
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public UserRateLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Operation-wide bucket for requests that do not name a user, such as hold capture and
+     * release. Configure a matching entry under wallet.admission.operations, since the
+     * per-user default is far too small to be shared.
+     */
+    public boolean tryAcquire(String operation) {
+        return tryAcquire(operation, "*");
+    }
+
+    public boolean tryAcquire(String operation, String userId) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(operation + ':' + userId, key -> {
+            AdmissionProperties.Limit limit = properties.limitFor(operation);
+            return new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now);
+        });
+        if (bucket.tryAcquire(now)) {
+            return true;
+        }
+        rejections.computeIfAbsent(operation, op -> Counter.builder("wallet.admission.rejected")
+                        .tag("reason", "rate-limit")
+                        .tag("operation", op)
+                        .register(meterRegistry))
+                .increment();
+        return false;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+}
@@ -0,0 +1,53 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Mutations allowed in flight at once. Keep it below the Hikari pool size so reads
+     * still get connections when mutations pile up on a hot wallet.
+     */
+    private int maxConcurrentMutations = 8;
+
+    /**
+     * Token bucket applied per user and operation unless overridden in {@link #operations}.
+     */
+    private Limit perUser = new Limit(20, 10);
+
+    /**
+     * Per-operation overrides keyed by operation name: topup, bonus, spend, transfer,
+     * trade, reserve or reverse. capture and release are limited per operation rather than
+     * per user, so their entries should be sized for all callers together.
+     */
+    private Map<String, Limit> operations = new HashMap<>();
+
+    public Limit limitFor(String operation) {
+        return operations.getOrDefault(operation, perUser);
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.game.wallet.config;
+
+import com.game.wallet.admission.HoldRateLimitInterceptor;
+import com.game.wallet.admission.MutationAdmissionInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AdmissionWebConfig implements WebMvcConfigurer {
+
+    private final MutationAdmissionInterceptor mutationAdmissionInterceptor;
+    private final HoldRateLimitInterceptor holdRateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(mutationAdmissionInterceptor).addPathPatterns("/v1/wallet/**");
+        registry.addInterceptor(holdRateLimitInterceptor)
+                .addPathPatterns("/v1/wallet/holds/*/capture", "/v1/wallet/holds/*/release");
+    }
+}
@@ -0,0 +1,21 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.balance.coalescing")
+public class BalanceCoalescingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a caller waits for a query already in flight for the same wallet before
+     * issuing its own.
+     */
+    private Duration maxWait = Duration.ofMillis(500);
+}
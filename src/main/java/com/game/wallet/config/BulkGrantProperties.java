@@ -0,0 +1,29 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.bulk-grant")
+public class BulkGrantProperties {
+
+    /**
+     * Directory grant files are read from. The file-based endpoint only accepts names
+     * inside this directory.
+     */
+    private String directory = "./bulk-grants";
+
+    /**
+     * Users per chunk. Each chunk is one transaction and one checkpoint.
+     */
+    private int chunkSize = 5000;
+
+    private int parallelism = 4;
+
+    /**
+     * Rows per multi-row INSERT statement, kept well below the driver's bind parameter limit.
+     */
+    private int rowsPerStatement = 1000;
+}
@@ -0,0 +1,54 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.contention")
+public class ContentionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Wallets tracked at once. Lighter wallets are evicted as heavier ones appear.
+     */
+    private int capacity = 64;
+
+    /**
+     * Lock acquisitions faster than this are treated as uncontended and not sampled.
+     */
+    private Duration minWait = Duration.ofMillis(2);
+
+    /**
+     * Accumulated lock wait, within the decaying window, at which a wallet counts as hot.
+     */
+    private Duration hotThreshold = Duration.ofMillis(500);
+
+    /**
+     * Every interval all accumulated waits are halved, so wallets cool down once
+     * contention stops.
+     */
+    private long decayIntervalMs = 10000;
+
+    private Queueing queueing = new Queueing();
+
+    @Getter
+    @Setter
+    public static class Queueing {
+
+        /**
+         * Queue mutations on hot wallets in process, before they take a connection, instead
+         * of letting them wait on the row lock in the database.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Longest a request waits in the queue before it is rejected as busy.
+         */
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,21 @@
+package com.game.wallet.config;
+
+import com.game.wallet.contention.HotWalletQueueInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.contention.queueing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ContentionWebConfig implements WebMvcConfigurer {
+
+    private final HotWalletQueueInterceptor hotWalletQueueInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(hotWalletQueueInterceptor).addPathPatterns("/v1/wallet/**");
+    }
+}
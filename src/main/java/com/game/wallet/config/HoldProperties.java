@@ -0,0 +1,30 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.holds")
+public class HoldProperties {
+
+    /**
+     * Lifetime of a hold when the reserve request does not ask for one.
+     */
+    private Duration defaultTtl = Duration.ofMinutes(15);
+
+    private Duration maxTtl = Duration.ofHours(24);
+
+    private Expiry expiry = new Expiry();
+
+    @Getter
+    @Setter
+    public static class Expiry {
+        private boolean enabled = false;
+        private int batchSize = 500;
+        private long intervalMs = 30000;
+    }
+}
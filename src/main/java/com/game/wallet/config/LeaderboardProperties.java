@@ -0,0 +1,38 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.leaderboard")
+public class LeaderboardProperties {
+
+    /**
+     * Most entries served per asset.
+     */
+    private int size = 100;
+
+    /**
+     * Wallets tracked per asset. The extra wallets below the served ones let the board
+     * absorb players dropping out of the top without a rebuild.
+     */
+    private int capacity = 200;
+
+    /**
+     * How often balances of wallets touched by committed mutations are read and applied.
+     */
+    private long refreshIntervalMs = 250;
+
+    /**
+     * How often every board is rebuilt from the wallet table, picking up balance changes
+     * made by other instances, bulk grants and replays.
+     */
+    private long rebuildIntervalMs = 600000;
+
+    /**
+     * Touched wallets buffered between refreshes; beyond this the boards are rebuilt instead.
+     */
+    private int maxPending = 100000;
+}
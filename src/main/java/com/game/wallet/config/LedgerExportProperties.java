@@ -0,0 +1,21 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.ledger.export")
+public class LedgerExportProperties {
+
+    /**
+     * Directory binary ledger files are written to and read from. Admin endpoints only
+     * accept file names inside this directory.
+     */
+    private String directory = "./ledger-export";
+
+    private int fetchSize = 10000;
+
+    private int batchSize = 10000;
+}
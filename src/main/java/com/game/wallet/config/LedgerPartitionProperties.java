@@ -0,0 +1,32 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.ledger.partitioning")
+public class LedgerPartitionProperties {
+
+    /**
+     * Enables monthly partition maintenance. Requires ledger_entry to be a
+     * partitioned PostgreSQL table (see schema.sql).
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of future monthly partitions kept created ahead of time.
+     */
+    private int premakeMonths = 3;
+
+    /**
+     * Months kept in the database. Older partitions are exported to the
+     * archive directory and dropped.
+     */
+    private int retentionMonths = 12;
+
+    private String archiveDirectory = "./ledger-archive";
+
+    private String maintenanceCron = "0 15 3 * * *";
+}
@@ -0,0 +1,43 @@
+package com.game.wallet.config;
+
+import com.game.wallet.reactive.ReactiveWalletDatabase;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveDataSourceConfig {
+
+    @Bean
+    public ReactiveWalletDatabase reactiveWalletDatabase(ReactiveDataSourceProperties properties,
+                                                         ReplicaRoutingProperties replicaProperties,
+                                                         ShardingProperties shardingProperties) {
+        if (replicaProperties.isEnabled() || shardingProperties.isEnabled()) {
+            throw new IllegalStateException("The reactive profile supports neither wallet.datasource.replica "
+                    + "nor wallet.datasource.sharding");
+        }
+
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("WalletReactivePool")
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .build());
+        return new ReactiveWalletDatabase(pool);
+    }
+}
@@ -0,0 +1,32 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * R2DBC pool used by the reactive wallet API. Only read with the reactive profile; the JPA
+ * DataSource stays configured from spring.datasource.* for scheduled jobs.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.datasource.reactive")
+public class ReactiveDataSourceProperties {
+
+    private String url = "r2dbc:postgresql://localhost:5432/testing";
+    private String username;
+    private String password;
+
+    private int initialSize = 10;
+
+    /**
+     * Connections are only held while a statement runs, so a small pool serves many more
+     * concurrent requests than the blocking stack's Hikari pool.
+     */
+    private int maxSize = 20;
+
+    private Duration maxAcquireTime = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofMinutes(30);
+}
@@ -0,0 +1,72 @@
+package com.game.wallet.config;
+
+import com.game.wallet.routing.ReadYourWritesTracker;
+import com.game.wallet.routing.ReplicaLagMonitor;
+import com.game.wallet.routing.ReplicaPools;
+import com.game.wallet.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with a routing one when replicas are enabled.
+ * The primary pool is still built from spring.datasource.*, so the existing profiles keep
+ * working unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaPools replicaPools(ReplicaRoutingProperties properties, DataSourceProperties dataSourceProperties) {
+        return new ReplicaPools(properties.getNodes(), dataSourceProperties.getDriverClassName());
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaPools replicaPools,
+                                               ReplicaRoutingProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaPools.dataSources(), properties.getMaxLag(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaPools replicaPools,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>(replicaPools.dataSources());
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new ArrayList<>(replicaPools.dataSources().keySet()),
+                replicaLagMonitor,
+                readYourWritesTracker,
+                meterRegistry);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,44 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.datasource.replica")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Routes read-only transactions to the replica pool. The primary keeps using
+     * spring.datasource.*.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Reads for a user go to the primary for this long after that user's last mutation.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * Replicas lagging more than this are skipped until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    private long lagCheckIntervalMs = 1000;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
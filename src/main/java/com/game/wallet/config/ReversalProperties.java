@@ -0,0 +1,22 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.reversals")
+public class ReversalProperties {
+
+    /**
+     * Most entries a single reverse call may cover; larger references go through the bulk
+     * reversal.
+     */
+    private int maxEntries = 100;
+
+    /**
+     * Entries reversed per transaction by a bulk reversal.
+     */
+    private int batchSize = 500;
+}
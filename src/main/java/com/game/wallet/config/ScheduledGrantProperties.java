@@ -0,0 +1,29 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.scheduled-grants")
+public class ScheduledGrantProperties {
+
+    /**
+     * Runs the poller that applies due grants and expires granted ones. Schedules can be
+     * posted either way.
+     */
+    private boolean enabled = false;
+
+    private long intervalMs = 1000;
+
+    /**
+     * Grants claimed, and applied or expired, per transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Users inserted per transaction while a schedule is posted.
+     */
+    private int chunkSize = 5000;
+}
@@ -0,0 +1,61 @@
+package com.game.wallet.config;
+
+import com.game.wallet.sharding.ShardPools;
+import com.game.wallet.sharding.ShardRouter;
+import com.game.wallet.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with one that routes by {@link ShardRouter}.
+ * The primary shard is still built from spring.datasource.*, so the existing profiles keep
+ * working unchanged; the other shards come from wallet.datasource.sharding.nodes.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.datasource.sharding", name = "enabled", havingValue = "true")
+public class ShardedDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryShardDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ShardPools shardPools(ShardingProperties properties,
+                                 ReplicaRoutingProperties replicaProperties,
+                                 DataSourceProperties dataSourceProperties) {
+        if (replicaProperties.isEnabled()) {
+            throw new IllegalStateException("wallet.datasource.sharding and wallet.datasource.replica cannot both be enabled");
+        }
+        return new ShardPools(properties.getNodes(), dataSourceProperties.getDriverClassName());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryShardDataSource,
+                                 ShardPools shardPools,
+                                 ShardRouter shardRouter) {
+        Map<Object, Object> targets = new HashMap<>(shardPools.dataSources());
+        targets.put(shardRouter.primaryShard(), primaryShardDataSource);
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shardRouter.primaryShard());
+        routing.setTargetDataSources(targets);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
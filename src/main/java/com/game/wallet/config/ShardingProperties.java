@@ -0,0 +1,65 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.datasource.sharding")
+public class ShardingProperties {
+
+    /**
+     * Routes each user's wallets, ledger entries, holds and idempotency keys to one of
+     * several databases. Cannot be combined with replica routing.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Name of the shard served by spring.datasource.*. It keeps the ledger archive
+     * directory it had before sharding was enabled.
+     */
+    private String primaryShard = "shard-1";
+
+    /**
+     * Users hash into this many buckets; buckets, not users, are assigned to shards. Must
+     * not change once data has been written.
+     */
+    private int buckets = 1024;
+
+    /**
+     * Buckets not listed in {@link #bucketMap} go to shard {@code bucket % shardCount},
+     * counting the primary shard first and then {@link #nodes} in order.
+     */
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Bucket to shard name overrides, e.g. buckets moved by the rebalancer. A move logs
+     * the entry to add here; without it a restart routes the bucket back.
+     */
+    private Map<Integer, String> bucketMap = new LinkedHashMap<>();
+
+    /**
+     * How long a bucket is frozen before its rows are copied, so transactions that were
+     * already routed to the source shard can finish.
+     */
+    private Duration moveDrain = Duration.ofSeconds(2);
+
+    private int moveBatchSize = 500;
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
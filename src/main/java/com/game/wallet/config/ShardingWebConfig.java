@@ -0,0 +1,21 @@
+package com.game.wallet.config;
+
+import com.game.wallet.sharding.ShardAdminInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.datasource.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardingWebConfig implements WebMvcConfigurer {
+
+    private final ShardAdminInterceptor shardAdminInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(shardAdminInterceptor).addPathPatterns("/v1/admin/**");
+    }
+}
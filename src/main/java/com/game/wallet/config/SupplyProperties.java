@@ -0,0 +1,27 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.supply")
+public class SupplyProperties {
+
+    /**
+     * Counter rows per asset. Concurrent writers land on different rows, so the counters
+     * never become a single hot row.
+     */
+    private int counterShards = 16;
+
+    private Monitoring monitoring = new Monitoring();
+
+    @Getter
+    @Setter
+    public static class Monitoring {
+        private boolean enabled = false;
+        private long refreshIntervalMs = 15000;
+        private String verifyCron = "0 */15 * * * *";
+    }
+}
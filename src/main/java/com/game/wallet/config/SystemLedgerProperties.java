@@ -0,0 +1,19 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.system-ledger")
+public class SystemLedgerProperties {
+
+    /**
+     * Bucket rows per asset and hour. Every top-up, bonus and spend touches one, so they are
+     * sharded like the supply counters.
+     */
+    private int shards = 16;
+
+    private int maxRangeDays = 31;
+}
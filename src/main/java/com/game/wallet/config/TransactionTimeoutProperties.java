@@ -0,0 +1,83 @@
+package com.game.wallet.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.transactions")
+public class TransactionTimeoutProperties {
+
+    /**
+     * Sets lock_timeout and statement_timeout at the start of every wallet transaction.
+     * PostgreSQL only; ignored on other databases.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a statement may wait for a row lock. Zero waits forever.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long a single statement may run, lock waits included. Zero means no limit.
+     */
+    private Duration statementTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Overrides by WalletService method name, e.g. trade or get-transactions. Unset fields
+     * fall back to the defaults above.
+     */
+    private Map<String, Timeouts> operations = new HashMap<>();
+
+    private Retry retry = new Retry();
+
+    public Duration lockTimeout(String operation) {
+        Timeouts timeouts = overrides(operation);
+        return timeouts != null && timeouts.getLockTimeout() != null ? timeouts.getLockTimeout() : lockTimeout;
+    }
+
+    public Duration statementTimeout(String operation) {
+        Timeouts timeouts = overrides(operation);
+        return timeouts != null && timeouts.getStatementTimeout() != null ? timeouts.getStatementTimeout() : statementTimeout;
+    }
+
+    // Keys may come in kebab case, e.g. get-transactions for getTransactions.
+    private Timeouts overrides(String operation) {
+        for (Map.Entry<String, Timeouts> entry : operations.entrySet()) {
+            if (entry.getKey().replace("-", "").equalsIgnoreCase(operation)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    @Setter
+    public static class Timeouts {
+        private Duration lockTimeout;
+        private Duration statementTimeout;
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+
+        /**
+         * Attempts per call, the first included, when a transaction loses a deadlock or a
+         * serialization conflict.
+         */
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofMillis(20);
+
+        private double multiplier = 2.0;
+
+        private Duration maxBackoff = Duration.ofMillis(500);
+    }
+}
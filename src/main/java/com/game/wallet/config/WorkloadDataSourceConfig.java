@@ -0,0 +1,66 @@
+package com.game.wallet.config;
+
+import com.game.wallet.routing.Workload;
+import com.game.wallet.routing.WorkloadContext;
+import com.game.wallet.routing.WorkloadPools;
+import com.game.wallet.routing.WorkloadRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with one pool per {@link Workload}, so a replay or
+ * a burst of history reads cannot take the connections spends need. All three pools connect
+ * to spring.datasource.url.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.datasource.bulkheads", name = "enabled", havingValue = "true")
+public class WorkloadDataSourceConfig {
+
+    @Bean
+    public WorkloadPools workloadPools(WorkloadPoolProperties properties,
+                                       ShardingProperties shardingProperties,
+                                       ReplicaRoutingProperties replicaProperties,
+                                       DataSourceProperties dataSourceProperties,
+                                       Environment environment,
+                                       MeterRegistry meterRegistry) {
+        if (shardingProperties.isEnabled() || replicaProperties.isEnabled()) {
+            throw new IllegalStateException(
+                    "wallet.datasource.bulkheads cannot be combined with wallet.datasource.sharding or wallet.datasource.replica");
+        }
+        return new WorkloadPools(properties, dataSourceProperties, Binder.get(environment), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(WorkloadPools workloadPools, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>(workloadPools.dataSources());
+
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(meterRegistry);
+        routing.setTargetDataSources(targets);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer adminWorkloadSchedulerCustomizer() {
+        return scheduler -> scheduler.setTaskDecorator(task -> () -> {
+            try (WorkloadContext.Scope ignored = WorkloadContext.on(Workload.ADMIN)) {
+                task.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.game.wallet.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.datasource.bulkheads")
+public class WorkloadPoolProperties {
+
+    /**
+     * Splits the primary pool into separate mutation, read, export and admin pools. The other
+     * spring.datasource.hikari.* settings apply to all four.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Spends, top-ups, transfers and every other read-write transaction of the wallet API.
+     */
+    private Pool mutations = new Pool(10, Duration.ofSeconds(2));
+
+    /**
+     * Read-only transactions of the wallet API: balances, history and summaries.
+     */
+    private Pool reads = new Pool(6, Duration.ofSeconds(5));
+
+    /**
+     * History exports. A download keeps its connection until the client has read it, so
+     * slow clients only ever wait on each other.
+     */
+    private Pool exports = new Pool(2, Duration.ofSeconds(5));
+
+    /**
+     * Admin endpoints, bulk grant workers and scheduled jobs. Needs at least two
+     * connections, so a scheduled job can run while an admin request holds one.
+     */
+    private Pool admin = new Pool(2, Duration.ofSeconds(30));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        private int maximumPoolSize;
+
+        /**
+         * How long a caller waits for a connection before failing.
+         */
+        private Duration connectionTimeout;
+    }
+}
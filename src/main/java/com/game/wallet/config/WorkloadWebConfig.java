@@ -0,0 +1,21 @@
+package com.game.wallet.config;
+
+import com.game.wallet.routing.AdminWorkloadInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.datasource.bulkheads", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class WorkloadWebConfig implements WebMvcConfigurer {
+
+    private final AdminWorkloadInterceptor adminWorkloadInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(adminWorkloadInterceptor).addPathPatterns("/v1/admin/**");
+    }
+}
@@ -0,0 +1,115 @@
+package com.game.wallet.contention;
+
+import com.game.wallet.config.ContentionProperties;
+import com.game.wallet.exception.ServerBusyException;
+import com.game.wallet.model.WalletId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets one mutation per hot wallet and instance through at a time. The rest wait here in
+ * FIFO order, without a database connection, instead of holding connections while they
+ * queue on the row lock. Wallets that are not hot pass straight through.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.contention.queueing", name = "enabled", havingValue = "true")
+public class HotWalletQueue {
+
+    private static final Comparator<WalletId> LOCK_ORDER =
+            Comparator.comparing(WalletId::getUserId).thenComparing(WalletId::getAsset);
+
+    private final WalletContentionTracker tracker;
+    private final long maxWaitNanos;
+    private final Map<WalletId, Semaphore> lanes = new ConcurrentHashMap<>();
+    private final Counter queued;
+    private final Counter timedOut;
+
+    public HotWalletQueue(WalletContentionTracker tracker, ContentionProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.maxWaitNanos = properties.getQueueing().getMaxWait().toNanos();
+        this.queued = Counter.builder("wallet.contention.queued")
+                .tag("result", "admitted")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("wallet.contention.queued")
+                .tag("result", "timeout")
+                .register(meterRegistry);
+    }
+
+    public boolean anyHot(Collection<WalletId> wallets) {
+        for (WalletId wallet : wallets) {
+            if (tracker.isHot(wallet.getUserId(), wallet.getAsset())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits for every hot wallet among {@code wallets}, in lock order so two requests never
+     * hold each other's lanes.
+     *
+     * @return the lanes to hand back to {@link #leave}, empty if none of the wallets is hot
+     */
+    public List<Semaphore> enter(Collection<WalletId> wallets) {
+        TreeSet<WalletId> hot = new TreeSet<>(LOCK_ORDER);
+        for (WalletId wallet : wallets) {
+            if (tracker.isHot(wallet.getUserId(), wallet.getAsset())) {
+                hot.add(wallet);
+            }
+        }
+        if (hot.isEmpty()) {
+            return List.of();
+        }
+
+        List<Semaphore> held = new ArrayList<>(hot.size());
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            for (WalletId wallet : hot) {
+                Semaphore lane = lanes.computeIfAbsent(wallet, w -> new Semaphore(1, true));
+                if (!lane.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    timedOut.increment();
+                    leave(held);
+                    throw new ServerBusyException("Wallet " + wallet.getUserId() + "/" + wallet.getAsset()
+                            + " is busy. Please retry.");
+                }
+                held.add(lane);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            leave(held);
+            throw new ServerBusyException("Interrupted while queued on a busy wallet");
+        }
+        queued.increment();
+        return held;
+    }
+
+    public void leave(List<Semaphore> held) {
+        for (Semaphore lane : held) {
+            lane.release();
+        }
+    }
+
+    /**
+     * Drops idle lanes of wallets that are no longer hot.
+     */
+    @Scheduled(fixedDelayString = "${wallet.contention.decay-interval-ms:10000}")
+    public void prune() {
+        lanes.entrySet().removeIf(e -> !tracker.isHot(e.getKey().getUserId(), e.getKey().getAsset())
+                && e.getValue().availablePermits() == 1
+                && !e.getValue().hasQueuedThreads());
+    }
+}
@@ -0,0 +1,104 @@
+package com.game.wallet.contention;
+
+import com.game.wallet.admission.MutationAdmissionInterceptor;
+import com.game.wallet.controller.WalletController;
+import com.game.wallet.dto.*;
+import com.game.wallet.model.WalletId;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Queues a parsed mutation on the {@link HotWalletQueue} for every wallet it will lock,
+ * including the SYSTEM wallet of the asset for grants and spends. A reversal does not name
+ * its asset, so it queues on every hot wallet of its user and of SYSTEM. The lanes are
+ * released by {@link HotWalletQueueInterceptor} once the response is complete. With admission
+ * control on, the request's global permit is handed back while it waits, so queued requests
+ * on one hot wallet cannot take every permit from mutations on other wallets.
+ */
+@ControllerAdvice(assignableTypes = WalletController.class)
+@ConditionalOnProperty(prefix = "wallet.contention.queueing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class HotWalletQueueAdvice extends RequestBodyAdviceAdapter {
+
+    static final String LANES_ATTRIBUTE = HotWalletQueueAdvice.class.getName() + ".lanes";
+
+    private static final String SYSTEM_USER = "SYSTEM";
+
+    private final HotWalletQueue hotWalletQueue;
+    private final WalletContentionTracker tracker;
+    private final ObjectProvider<MutationAdmissionInterceptor> admissionInterceptor;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        List<WalletId> wallets = walletsOf(body);
+        if (!hotWalletQueue.anyHot(wallets)) {
+            return body;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        MutationAdmissionInterceptor admission = admissionInterceptor.getIfAvailable();
+        if (admission != null) {
+            admission.suspend(request);
+        }
+        List<Semaphore> lanes = hotWalletQueue.enter(wallets);
+        if (!lanes.isEmpty()) {
+            request.setAttribute(LANES_ATTRIBUTE, lanes);
+        }
+        if (admission != null) {
+            admission.resume(request);
+        }
+        return body;
+    }
+
+    private List<WalletId> walletsOf(Object body) {
+        List<WalletId> wallets = new ArrayList<>(2);
+        if (body instanceof TopUpRequest request) {
+            withSystem(wallets, request.getUserId(), request.getAsset());
+        } else if (body instanceof BonusRequest request) {
+            withSystem(wallets, request.getUserId(), request.getAsset());
+        } else if (body instanceof SpendRequest request) {
+            withSystem(wallets, request.getUserId(), request.getAsset());
+        } else if (body instanceof ReserveRequest request) {
+            wallets.add(new WalletId(request.getUserId(), request.getAsset()));
+        } else if (body instanceof TransferRequest request) {
+            wallets.add(new WalletId(request.getFromUserId(), request.getAsset()));
+            wallets.add(new WalletId(request.getToUserId(), request.getAsset()));
+        } else if (body instanceof ReverseRequest request && request.getUserId() != null) {
+            wallets.addAll(tracker.hotWalletsOf(request.getUserId()));
+            wallets.addAll(tracker.hotWalletsOf(SYSTEM_USER));
+        } else if (body instanceof TradeRequest request && request.getLegs() != null) {
+            for (TradeLeg leg : request.getLegs()) {
+                wallets.add(new WalletId(leg.getFromUserId(), leg.getAsset()));
+                wallets.add(new WalletId(leg.getToUserId(), leg.getAsset()));
+            }
+        }
+        wallets.removeIf(wallet -> wallet.getUserId() == null || wallet.getAsset() == null);
+        return wallets;
+    }
+
+    private static void withSystem(List<WalletId> wallets, String userId, String asset) {
+        wallets.add(new WalletId(userId, asset));
+        wallets.add(new WalletId(SYSTEM_USER, asset));
+    }
+}
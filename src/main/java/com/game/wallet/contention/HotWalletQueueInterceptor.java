@@ -0,0 +1,32 @@
+package com.game.wallet.contention;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Hands back the hot-wallet lanes taken by {@link HotWalletQueueAdvice}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.contention.queueing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class HotWalletQueueInterceptor implements HandlerInterceptor {
+
+    private final HotWalletQueue hotWalletQueue;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object lanes = request.getAttribute(HotWalletQueueAdvice.LANES_ATTRIBUTE);
+        if (lanes != null) {
+            request.removeAttribute(HotWalletQueueAdvice.LANES_ATTRIBUTE);
+            hotWalletQueue.leave((List<Semaphore>) lanes);
+        }
+    }
+}
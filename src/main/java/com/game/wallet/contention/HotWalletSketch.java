@@ -0,0 +1,105 @@
+package com.game.wallet.contention;
+
+import com.game.wallet.model.WalletId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K sketch of lock wait per wallet. Holds at most {@code capacity} wallets;
+ * a new wallet replaces the lightest one and inherits its weight as error, so the weight of
+ * a tracked wallet is never under-estimated and {@code weight - error} is a lower bound.
+ */
+class HotWalletSketch {
+
+    private final int capacity;
+    private final Map<WalletId, Entry> entries;
+
+    HotWalletSketch(int capacity) {
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * @return the guaranteed weight of the wallet after the update
+     */
+    synchronized long add(WalletId wallet, long weight) {
+        Entry entry = entries.get(wallet);
+        if (entry == null) {
+            entry = new Entry(wallet);
+            if (entries.size() >= capacity) {
+                Entry lightest = lightest();
+                entries.remove(lightest.wallet);
+                entry.weight = lightest.weight;
+                entry.error = lightest.weight;
+            }
+            entries.put(wallet, entry);
+        }
+        entry.weight += weight;
+        entry.samples++;
+        return entry.weight - entry.error;
+    }
+
+    /**
+     * Halves every weight and drops wallets that decayed to nothing.
+     */
+    synchronized void decay() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            entry.weight >>= 1;
+            entry.error >>= 1;
+            entry.samples >>= 1;
+            if (entry.weight == 0) {
+                it.remove();
+            }
+        }
+    }
+
+    synchronized List<Entry> top(int limit) {
+        List<Entry> copy = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            copy.add(entry.copy());
+        }
+        copy.sort(Comparator.comparingLong(Entry::guaranteed).reversed());
+        return copy.size() > limit ? copy.subList(0, limit) : copy;
+    }
+
+    private Entry lightest() {
+        Entry lightest = null;
+        for (Entry entry : entries.values()) {
+            if (lightest == null || entry.weight < lightest.weight) {
+                lightest = entry;
+            }
+        }
+        return lightest;
+    }
+
+    static final class Entry {
+
+        final WalletId wallet;
+        long weight;
+        long error;
+        long samples;
+
+        private Entry(WalletId wallet) {
+            this.wallet = wallet;
+        }
+
+        long guaranteed() {
+            return weight - error;
+        }
+
+        private Entry copy() {
+            Entry copy = new Entry(wallet);
+            copy.weight = weight;
+            copy.error = error;
+            copy.samples = samples;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.game.wallet.contention;
+
+import com.game.wallet.config.ContentionProperties;
+import com.game.wallet.dto.HotWalletResponse;
+import com.game.wallet.model.WalletId;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples how long wallet row locks take to acquire and keeps the wallets with the most
+ * accumulated wait in a bounded {@link HotWalletSketch}. Every acquisition feeds the
+ * {@code wallet.lock.wait} timer; only waits above {@code min-wait} reach the sketch.
+ */
+@Component
+public class WalletContentionTracker {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final ContentionProperties properties;
+    private final HotWalletSketch sketch;
+    private final Timer lockWait;
+    private final Set<WalletId> hot = ConcurrentHashMap.newKeySet();
+    private final long minWaitNanos;
+    private final long hotThresholdNanos;
+
+    public WalletContentionTracker(ContentionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sketch = new HotWalletSketch(properties.getCapacity());
+        this.minWaitNanos = properties.getMinWait().toNanos();
+        this.hotThresholdNanos = properties.getHotThreshold().toNanos();
+        this.lockWait = Timer.builder("wallet.lock.wait")
+                .description("Time to acquire a wallet row lock")
+                .register(meterRegistry);
+        Gauge.builder("wallet.contention.hot_wallets", hot, Set::size)
+                .register(meterRegistry);
+    }
+
+    public void record(String userId, String asset, long waitNanos) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        lockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos < minWaitNanos) {
+            return;
+        }
+        WalletId wallet = new WalletId(userId, asset);
+        if (sketch.add(wallet, waitNanos) >= hotThresholdNanos) {
+            hot.add(wallet);
+        }
+    }
+
+    public boolean isHot(String userId, String asset) {
+        return !hot.isEmpty() && hot.contains(new WalletId(userId, asset));
+    }
+
+    /**
+     * The hot wallets of one user, for requests that do not name their asset up front.
+     */
+    public List<WalletId> hotWalletsOf(String userId) {
+        if (hot.isEmpty()) {
+            return List.of();
+        }
+        return hot.stream().filter(wallet -> wallet.getUserId().equals(userId)).toList();
+    }
+
+    public List<HotWalletResponse> hottest(int limit) {
+        return sketch.top(limit).stream()
+                .map(entry -> HotWalletResponse.builder()
+                        .userId(entry.wallet.getUserId())
+                        .asset(entry.wallet.getAsset())
+                        .lockWaitMillis(entry.guaranteed() / NANOS_PER_MILLI)
+                        .maxErrorMillis(entry.error / NANOS_PER_MILLI)
+                        .samples(entry.samples)
+                        .hot(hot.contains(entry.wallet))
+                        .build())
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.contention.decay-interval-ms:10000}")
+    public void decay() {
+        sketch.decay();
+        hot.retainAll(sketch.top(properties.getCapacity()).stream()
+                .filter(entry -> entry.guaranteed() >= hotThresholdNanos)
+                .map(entry -> entry.wallet)
+                .toList());
+    }
+}
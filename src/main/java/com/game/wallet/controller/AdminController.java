@@ -1,23 +1,172 @@
 package com.game.wallet.controller;
 
 import com.game.wallet.dto.ApiResponse;
+import com.game.wallet.dto.AssetSupplyResponse;
+import com.game.wallet.dto.BulkGrantRequest;
+import com.game.wallet.dto.BulkGrantResponse;
+import com.game.wallet.dto.BulkReversalResponse;
+import com.game.wallet.dto.HotWalletResponse;
+import com.game.wallet.dto.LedgerFileResponse;
+import com.game.wallet.dto.ScheduledGrantRequest;
+import com.game.wallet.dto.ScheduledGrantResponse;
+import com.game.wallet.dto.SupplyCheckResponse;
+import com.game.wallet.dto.SystemLedgerBucketResponse;
+import com.game.wallet.contention.WalletContentionTracker;
+import com.game.wallet.grant.GrantFileFormat;
+import com.game.wallet.service.AssetSupplyService;
+import com.game.wallet.service.BulkGrantService;
+import com.game.wallet.service.LedgerFileService;
 import com.game.wallet.service.LedgerReplayService;
+import com.game.wallet.service.LedgerReversalService;
+import com.game.wallet.service.ScheduledGrantService;
+import com.game.wallet.service.SystemLedgerService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Served by the servlet stack only; with the reactive profile run a servlet instance against
+ * the same database for administration.
+ */
 @RestController
 @RequestMapping("/v1/admin")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class AdminController {
 
     private final LedgerReplayService ledgerReplayService;
+    private final LedgerFileService ledgerFileService;
+    private final AssetSupplyService assetSupplyService;
+    private final SystemLedgerService systemLedgerService;
+    private final BulkGrantService bulkGrantService;
+    private final ScheduledGrantService scheduledGrantService;
+    private final LedgerReversalService ledgerReversalService;
+    private final WalletContentionTracker contentionTracker;
 
     @PostMapping("/ledger/replay")
     public ResponseEntity<ApiResponse<Void>> replay() {
         ledgerReplayService.replayAll();
         return ResponseEntity.ok(ApiResponse.success("Ledger replay completed"));
     }
+
+    @PostMapping("/ledger/export")
+    public ResponseEntity<ApiResponse<LedgerFileResponse>> export(@RequestParam String file) {
+        return ResponseEntity.ok(ApiResponse.success("Ledger export completed", ledgerFileService.export(file)));
+    }
+
+    @PostMapping("/ledger/import")
+    public ResponseEntity<ApiResponse<LedgerFileResponse>> importFile(@RequestParam String file) {
+        return ResponseEntity.ok(ApiResponse.success("Ledger import completed", ledgerFileService.importFile(file)));
+    }
+
+    @PostMapping("/ledger/replay-file")
+    public ResponseEntity<ApiResponse<LedgerFileResponse>> replayFile(@RequestParam String file) {
+        return ResponseEntity.ok(ApiResponse.success("Ledger replay from file completed", ledgerFileService.replay(file)));
+    }
+
+    @GetMapping("/supply")
+    public ResponseEntity<ApiResponse<List<AssetSupplyResponse>>> supply() {
+        return ResponseEntity.ok(ApiResponse.success("Asset supply fetched successfully", assetSupplyService.getSupply()));
+    }
+
+    @PostMapping("/supply/verify")
+    public ResponseEntity<ApiResponse<List<SupplyCheckResponse>>> verifySupply() {
+        return ResponseEntity.ok(ApiResponse.success("Supply verification completed", assetSupplyService.verify()));
+    }
+
+    @PostMapping("/supply/rebuild")
+    public ResponseEntity<ApiResponse<Void>> rebuildSupply() {
+        assetSupplyService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Supply counters rebuilt"));
+    }
+
+    @GetMapping("/system-ledger")
+    public ResponseEntity<ApiResponse<List<SystemLedgerBucketResponse>>> systemLedger(
+            @RequestParam(required = false) String asset,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(ApiResponse.success("SYSTEM ledger activity fetched successfully",
+                systemLedgerService.getActivity(asset, from, to)));
+    }
+
+    @GetMapping("/contention/hot-wallets")
+    public ResponseEntity<ApiResponse<List<HotWalletResponse>>> hotWallets(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success("Hot wallets fetched successfully",
+                contentionTracker.hottest(Math.max(1, Math.min(limit, 100)))));
+    }
+
+    @PostMapping("/grants")
+    public ResponseEntity<ApiResponse<BulkGrantResponse>> bulkGrant(@Valid @RequestBody BulkGrantRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Bulk grant completed", bulkGrantService.grant(request)));
+    }
+
+    @PostMapping(value = "/grants/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<BulkGrantResponse>> bulkGrantUpload(@RequestParam String grantId,
+                                                                          @RequestParam String asset,
+                                                                          @RequestParam(required = false) Long amount,
+                                                                          @RequestParam String reference,
+                                                                          @RequestParam MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload.csv";
+        BulkGrantRequest request = new BulkGrantRequest(grantId, fileName, asset, amount, reference);
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            BulkGrantResponse response = bulkGrantService.grant(request, reader, GrantFileFormat.fromFileName(fileName));
+            return ResponseEntity.ok(ApiResponse.success("Bulk grant completed", response));
+        }
+    }
+
+    @PostMapping("/grants/scheduled")
+    public ResponseEntity<ApiResponse<ScheduledGrantResponse>> scheduleGrant(@Valid @RequestBody ScheduledGrantRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Grant scheduled", scheduledGrantService.schedule(request)));
+    }
+
+    @PostMapping(value = "/grants/scheduled/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ScheduledGrantResponse>> scheduleGrantUpload(
+            @RequestParam String scheduleId,
+            @RequestParam String asset,
+            @RequestParam(required = false) Long amount,
+            @RequestParam String reference,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime grantAt,
+            @RequestParam(required = false) Integer expiresInDays,
+            @RequestParam MultipartFile file) throws IOException {
+        if (expiresInDays != null && expiresInDays <= 0) {
+            throw new IllegalArgumentException("expiresInDays must be positive");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload.csv";
+        ScheduledGrantRequest request = new ScheduledGrantRequest(scheduleId, fileName, asset, amount, reference,
+                grantAt, expiresInDays);
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            ScheduledGrantResponse response = scheduledGrantService.schedule(request, reader, GrantFileFormat.fromFileName(fileName));
+            return ResponseEntity.ok(ApiResponse.success("Grant scheduled", response));
+        }
+    }
+
+    @PostMapping("/ledger/reversals")
+    public ResponseEntity<ApiResponse<BulkReversalResponse>> reverseReference(@RequestParam String reference,
+                                                                              @RequestParam String reversalId) {
+        return ResponseEntity.ok(ApiResponse.success("Reversal completed",
+                ledgerReversalService.reverseReference(reference, reversalId)));
+    }
+
+    @PostMapping("/grants/scheduled/{scheduleId}/cancel")
+    public ResponseEntity<ApiResponse<Long>> cancelScheduledGrant(@PathVariable String scheduleId) {
+        return ResponseEntity.ok(ApiResponse.success("Pending grants cancelled", scheduledGrantService.cancel(scheduleId)));
+    }
 }
@@ -0,0 +1,151 @@
+package com.game.wallet.controller;
+
+import com.game.wallet.dto.*;
+import com.game.wallet.export.HistoryExport;
+import com.game.wallet.reactive.ReactiveWalletService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * WebFlux version of {@link WalletController} with the same paths and response bodies.
+ */
+@RestController
+@RequestMapping("/v1/wallet")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveWalletController {
+
+    private final ReactiveWalletService walletService;
+
+    @PostMapping("/topup")
+    public Mono<ResponseEntity<ApiResponse<Void>>> topUp(@Valid @RequestBody TopUpRequest request) {
+        return walletService.topUp(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.success("Wallet top-up successful"))));
+    }
+
+    @PostMapping("/bonus")
+    public Mono<ResponseEntity<ApiResponse<Void>>> bonus(@Valid @RequestBody BonusRequest request) {
+        return walletService.bonus(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.success("Bonus credited successfully"))));
+    }
+
+    @PostMapping("/spend")
+    public Mono<ResponseEntity<ApiResponse<Void>>> spend(@Valid @RequestBody SpendRequest request) {
+        return walletService.spend(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.success("Spend successful"))));
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<ApiResponse<Void>>> transfer(@Valid @RequestBody TransferRequest request) {
+        return walletService.transfer(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.success("Transfer successful"))));
+    }
+
+    @PostMapping("/trade")
+    public Mono<ResponseEntity<ApiResponse<Void>>> trade(@Valid @RequestBody TradeRequest request) {
+        return walletService.trade(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.success("Trade successful"))));
+    }
+
+    @PostMapping("/reverse")
+    public Mono<ResponseEntity<ApiResponse<ReversalResponse>>> reverse(@Valid @RequestBody ReverseRequest request) {
+        return walletService.reverse(request)
+                .map(response -> ResponseEntity.ok(ApiResponse.success("Reversal successful", response)));
+    }
+
+    @PostMapping("/holds")
+    public Mono<ResponseEntity<ApiResponse<HoldResponse>>> reserve(@Valid @RequestBody ReserveRequest request) {
+        return walletService.reserve(request)
+                .map(hold -> ResponseEntity.ok(ApiResponse.success("Funds reserved", hold)));
+    }
+
+    @PostMapping("/holds/{holdId}/capture")
+    public Mono<ResponseEntity<ApiResponse<HoldResponse>>> capture(@PathVariable Long holdId) {
+        return walletService.capture(holdId)
+                .map(hold -> ResponseEntity.ok(ApiResponse.success("Hold captured", hold)));
+    }
+
+    @PostMapping("/holds/{holdId}/release")
+    public Mono<ResponseEntity<ApiResponse<HoldResponse>>> release(@PathVariable Long holdId) {
+        return walletService.release(holdId)
+                .map(hold -> ResponseEntity.ok(ApiResponse.success("Hold released", hold)));
+    }
+
+    @GetMapping("/balance")
+    public Mono<ResponseEntity<ApiResponse<BalanceResponse>>> getBalance(@RequestParam String userId,
+                                                                         @RequestParam String asset) {
+        return walletService.getBalance(userId, asset)
+                .map(balance -> ResponseEntity.ok(ApiResponse.success("Balance fetched successfully", balance)));
+    }
+
+    @GetMapping("/transactions")
+    public Mono<ResponseEntity<Page<LedgerResponse>>> getTransactions(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String[] sort
+    ) {
+        return walletService.getTransactions(userId, TransactionPageRequests.of(page, size, sort))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/transactions/archive")
+    public Mono<ResponseEntity<ApiResponse<List<LedgerResponse>>>> getArchivedTransactions(
+            @RequestParam String userId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month
+    ) {
+        return walletService.getArchivedTransactions(userId, month)
+                .map(transactions -> ResponseEntity.ok(ApiResponse.success("Archived transactions fetched successfully",
+                        transactions)));
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<Flux<DataBuffer>> exportTransactions(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String asset
+    ) {
+        HistoryExport export = walletService.prepareExport(userId, format, from, to, asset);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(export.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(export.fileName()).build().toString())
+                .body(walletService.exportTransactions(export));
+    }
+
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<ApiResponse<TransactionSummaryResponse>>> getSummary(
+            @RequestParam String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return walletService.getSummary(userId, from, to)
+                .map(summary -> ResponseEntity.ok(ApiResponse.success("Transaction summary fetched successfully",
+                        summary)));
+    }
+
+    @GetMapping("/leaderboard")
+    public Mono<ResponseEntity<ApiResponse<LeaderboardResponse>>> getLeaderboard(@RequestParam String asset,
+                                                                                @RequestParam(defaultValue = "10") int limit) {
+        return walletService.getLeaderboard(asset, limit)
+                .map(leaderboard -> ResponseEntity.ok(ApiResponse.success("Leaderboard fetched successfully",
+                        leaderboard)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.game.wallet.controller;
+
+import com.game.wallet.dto.ApiResponse;
+import com.game.wallet.dto.ShardLocationResponse;
+import com.game.wallet.dto.ShardMapResponse;
+import com.game.wallet.dto.ShardMoveResponse;
+import com.game.wallet.service.ShardRebalanceService;
+import com.game.wallet.sharding.ShardMap;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/admin/shards")
+@ConditionalOnProperty(prefix = "wallet.datasource.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardAdminController {
+
+    private final ShardRouter shardRouter;
+    private final ShardRebalanceService shardRebalanceService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<ShardMapResponse>> shardMap() {
+        ShardMap shardMap = shardRouter.shardMap();
+        ShardMapResponse response = ShardMapResponse.builder()
+                .buckets(shardMap.buckets())
+                .bucketsPerShard(shardMap.bucketCounts())
+                .frozenBuckets(shardRouter.frozenBuckets())
+                .build();
+        return ResponseEntity.ok(ApiResponse.success("Shard map fetched successfully", response));
+    }
+
+    @GetMapping("/locate")
+    public ResponseEntity<ApiResponse<ShardLocationResponse>> locate(@RequestParam String userId) {
+        ShardMap shardMap = shardRouter.shardMap();
+        int bucket = shardMap.bucketOf(userId);
+        ShardLocationResponse response = ShardLocationResponse.builder()
+                .userId(userId)
+                .bucket(bucket)
+                .shard(shardMap.shardOfBucket(bucket))
+                .build();
+        return ResponseEntity.ok(ApiResponse.success("User located successfully", response));
+    }
+
+    @PostMapping("/buckets/{bucket}/move")
+    public ResponseEntity<ApiResponse<ShardMoveResponse>> move(@PathVariable int bucket, @RequestParam String target) {
+        return ResponseEntity.ok(ApiResponse.success("Bucket move completed", shardRebalanceService.moveBucket(bucket, target)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.game.wallet.controller;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+
+/**
+ * Turns the paging parameters of the transaction history endpoints into a {@link Pageable},
+ * clamping the page size and falling back to createdAt for unknown sort properties.
+ */
+final class TransactionPageRequests {
+
+    private TransactionPageRequests() {
+    }
+
+    static Pageable of(int page, int size, String[] sort) {
+        if (size > 100) {
+            size = 100;
+        }
+        if (size < 1) {
+            size = 20;
+        }
+
+        Sort.Order[] orders = Arrays.stream(sort)
+                .map(TransactionPageRequests::parseSortParameter)
+                .toArray(Sort.Order[]::new);
+
+        return PageRequest.of(page, size, Sort.by(orders));
+    }
+
+    private static Sort.Order parseSortParameter(String sortParam) {
+        String[] parts = sortParam.split(",");
+        String property = parts[0].trim();
+        Sort.Direction direction = Sort.Direction.DESC;
+
+        if (parts.length > 1 && parts[1].trim().equalsIgnoreCase("asc")) {
+            direction = Sort.Direction.ASC;
+        }
+
+        if (!isValidSortProperty(property)) {
+            property = "createdAt";
+        }
+
+        return new Sort.Order(direction, property);
+    }
+
+    private static boolean isValidSortProperty(String property) {
+        return property.matches("^[a-zA-Z]+$") &&
+                (property.equals("createdAt") ||
+                        property.equals("amount") ||
+                        property.equals("asset") ||
+                        property.equals("id"));
+    }
+}
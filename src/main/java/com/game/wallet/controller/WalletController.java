@@ -1,6 +1,10 @@
 package com.game.wallet.controller;
 
 import com.game.wallet.dto.*;
+import com.game.wallet.export.HistoryExport;
+import com.game.wallet.leaderboard.LeaderboardService;
+import com.game.wallet.service.LedgerSummaryService;
+import com.game.wallet.service.TransactionExportService;
 import com.game.wallet.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,22 +12,32 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Arrays;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 
 @RestController
 @RequestMapping("/v1/wallet")
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Tag(name = "Wallet Operations", description = "Endpoints for managing user balances and transactions")
 public class WalletController {
 
     private final WalletService walletService;
+    private final LedgerSummaryService ledgerSummaryService;
+    private final TransactionExportService transactionExportService;
+    private final LeaderboardService leaderboardService;
 
     @Operation(summary = "Top up wallet", description = "Adds funds from the system or unlimited supply to a user's wallet")
     @PostMapping("/topup")
@@ -46,6 +60,44 @@ public class WalletController {
         return ResponseEntity.ok(ApiResponse.success("Spend successful"));
     }
 
+    @Operation(summary = "Transfer funds", description = "Moves funds from one user's wallet to another's in a single transaction")
+    @PostMapping("/transfer")
+    public ResponseEntity<ApiResponse<Void>> transfer(@Valid @RequestBody TransferRequest request) {
+        walletService.transfer(request);
+        return ResponseEntity.ok(ApiResponse.success("Transfer successful"));
+    }
+
+    @Operation(summary = "Trade", description = "Applies several transfers between users atomically, e.g. A gives 100 GOLD and B gives 1 DIAMOND")
+    @PostMapping("/trade")
+    public ResponseEntity<ApiResponse<Void>> trade(@Valid @RequestBody TradeRequest request) {
+        walletService.trade(request);
+        return ResponseEntity.ok(ApiResponse.success("Trade successful"));
+    }
+
+    @Operation(summary = "Reverse", description = "Writes compensating entries for an earlier operation, found by its idempotency key or order ID; each entry can be reversed once")
+    @PostMapping("/reverse")
+    public ResponseEntity<ApiResponse<ReversalResponse>> reverse(@Valid @RequestBody ReverseRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Reversal successful", walletService.reverse(request)));
+    }
+
+    @Operation(summary = "Reserve funds", description = "Places a hold on part of a user's available balance until it is captured, released or expires")
+    @PostMapping("/holds")
+    public ResponseEntity<ApiResponse<HoldResponse>> reserve(@Valid @RequestBody ReserveRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Funds reserved", walletService.reserve(request)));
+    }
+
+    @Operation(summary = "Capture hold", description = "Spends the amount reserved by an active hold")
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<ApiResponse<HoldResponse>> capture(@PathVariable Long holdId) {
+        return ResponseEntity.ok(ApiResponse.success("Hold captured", walletService.capture(holdId)));
+    }
+
+    @Operation(summary = "Release hold", description = "Returns the amount reserved by an active hold to the available balance")
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<ApiResponse<HoldResponse>> release(@PathVariable Long holdId) {
+        return ResponseEntity.ok(ApiResponse.success("Hold released", walletService.release(holdId)));
+    }
+
     @Operation(summary = "View Balance", description = "Get current balance for a specific user and asset type")
     @GetMapping("/balance")
     public ResponseEntity<ApiResponse<BalanceResponse>> getBalance(
@@ -69,44 +121,69 @@ public class WalletController {
             @Parameter(description = "Sort criteria in format: property(,asc|desc). Supported properties: createdAt, amount, asset. Examples: 'createdAt,desc' or 'amount,asc'", required = false, schema = @Schema(defaultValue = "createdAt,desc"))
             @RequestParam(defaultValue = "createdAt,desc") String[] sort
     ) {
-        if (size > 100) {
-            size = 100;
-        }
-        if (size < 1) {
-            size = 20;
-        }
-
-        Sort.Order[] orders = Arrays.stream(sort)
-                .map(this::parseSortParameter)
-                .toArray(Sort.Order[]::new);
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(orders));
+        Pageable pageable = TransactionPageRequests.of(page, size, sort);
         Page<LedgerResponse> transactions = walletService.getTransactions(userId, pageable);
 
         return ResponseEntity.ok(transactions);
     }
 
-    private Sort.Order parseSortParameter(String sortParam) {
-        String[] parts = sortParam.split(",");
-        String property = parts[0].trim();
-        Sort.Direction direction = Sort.Direction.DESC;
-
-        if (parts.length > 1 && parts[1].trim().equalsIgnoreCase("asc")) {
-            direction = Sort.Direction.ASC;
-        }
+    @Operation(summary = "View Archived Transactions", description = "Get a user's transactions for a month whose ledger partition has been archived out of the database.")
+    @GetMapping("/transactions/archive")
+    public ResponseEntity<ApiResponse<List<LedgerResponse>>> getArchivedTransactions(
+            @Parameter(description = "User ID to fetch transactions for", required = true, example = "user123")
+            @RequestParam String userId,
+            @Parameter(description = "Archived month in format yyyy-MM", required = true, example = "2025-01")
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month
+    ) {
+        return ResponseEntity.ok(ApiResponse.success("Archived transactions fetched successfully",
+                walletService.getArchivedTransactions(userId, month)));
+    }
 
-        if (!isValidSortProperty(property)) {
-            property = "createdAt";
-        }
+    @Operation(summary = "Export Transactions", description = "Stream a user's complete transaction history, oldest first, as NDJSON or CSV. The response is written from a database cursor with chunked transfer encoding, so it has no size limit. Archived months are not included.")
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "User ID to export transactions for", required = true, example = "user123")
+            @RequestParam String userId,
+            @Parameter(description = "ndjson or csv", schema = @Schema(defaultValue = "ndjson"))
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "First day included, yyyy-MM-dd", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day included, yyyy-MM-dd", example = "2025-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only entries in this asset", example = "GOLD")
+            @RequestParam(required = false) String asset
+    ) {
+        HistoryExport export = transactionExportService.prepare(userId, format, from, to, asset);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(export.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(export.fileName()).build().toString())
+                .body(out -> transactionExportService.write(export, out));
+    }
 
-        return new Sort.Order(direction, property);
+    @Operation(summary = "View Transaction Summary", description = "Get per-asset and per-day totals credited to and debited from a user, answered from precomputed aggregates. Defaults to the last 30 days.")
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<TransactionSummaryResponse>> getSummary(
+            @Parameter(description = "User ID to summarize", required = true, example = "user123")
+            @RequestParam String userId,
+            @Parameter(description = "First day included, yyyy-MM-dd", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day included, yyyy-MM-dd", example = "2025-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(ApiResponse.success("Transaction summary fetched successfully",
+                ledgerSummaryService.getSummary(userId, from, to)));
     }
 
-    private boolean isValidSortProperty(String property) {
-        return property.matches("^[a-zA-Z]+$") &&
-                (property.equals("createdAt") ||
-                        property.equals("amount") ||
-                        property.equals("asset") ||
-                        property.equals("id"));
+    @Operation(summary = "View Leaderboard", description = "Get the users with the highest balance of an asset, served from an in-memory board that is updated shortly after each committed mutation.")
+    @GetMapping("/leaderboard")
+    public ResponseEntity<ApiResponse<LeaderboardResponse>> getLeaderboard(
+            @Parameter(description = "Asset code to rank by", required = true, example = "GOLD")
+            @RequestParam String asset,
+            @Parameter(description = "Number of entries (max wallet.leaderboard.size)", schema = @Schema(defaultValue = "10", minimum = "1"))
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success("Leaderboard fetched successfully",
+                leaderboardService.getLeaderboard(asset, limit)));
     }
-}
\ No newline at end of file
+}
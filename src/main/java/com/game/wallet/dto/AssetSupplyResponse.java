@@ -0,0 +1,14 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AssetSupplyResponse {
+    private String asset;
+    private Long issued;
+    private Long burned;
+    private Long circulating;
+    private Long systemReserve;
+}
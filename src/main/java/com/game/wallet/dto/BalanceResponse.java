@@ -6,10 +6,13 @@ import lombok.*;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class BalanceResponse {
 
     private String userId;
     private String asset;
     private Long balance;
+    private Long held;
+    private Long available;
     private Long version;
 }
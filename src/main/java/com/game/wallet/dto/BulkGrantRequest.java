@@ -0,0 +1,37 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Request object for granting an asset to every user listed in a file")
+public class BulkGrantRequest {
+
+    @NotBlank(message = "Grant ID is required")
+    @Schema(description = "Identifies the grant; re-running with the same ID resumes after the last completed chunk",
+            example = "season-12-rewards")
+    private String grantId;
+
+    @NotBlank(message = "File is required")
+    @Schema(description = "CSV (userId[,amount]) or NDJSON ({\"userId\":..,\"amount\":..}) file in the grant directory",
+            example = "season-12.csv")
+    private String file;
+
+    @NotBlank(message = "Asset code is required")
+    @Schema(description = "Asset code to grant", example = "GEMS")
+    private String asset;
+
+    @Positive(message = "Amount must be positive")
+    @Schema(description = "Amount for rows that do not carry their own", example = "100")
+    private Long amount;
+
+    @NotBlank(message = "Reference is required")
+    @Schema(description = "Ledger reference for every granted entry", example = "Season 12 rewards")
+    private String reference;
+}
@@ -0,0 +1,18 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkGrantResponse {
+
+    private String grantId;
+    private String asset;
+    private Long users;
+    private Long totalAmount;
+    private Long chunks;
+    private Long skippedChunks;
+    private Long elapsedMillis;
+    private Long usersPerSecond;
+}
@@ -0,0 +1,15 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkReversalResponse {
+
+    private String reference;
+    private String reversalId;
+    private Long reversed;
+    private Long skipped;
+    private Long elapsedMillis;
+}
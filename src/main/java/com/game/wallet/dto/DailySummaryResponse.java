@@ -0,0 +1,15 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class DailySummaryResponse {
+    private LocalDate date;
+    private Long credited;
+    private Long debited;
+    private Long entries;
+}
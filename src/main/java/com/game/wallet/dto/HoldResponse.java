@@ -0,0 +1,19 @@
+package com.game.wallet.dto;
+
+import com.game.wallet.model.HoldStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class HoldResponse {
+    private Long holdId;
+    private String userId;
+    private String asset;
+    private Long amount;
+    private HoldStatus status;
+    private String reference;
+    private LocalDateTime expiresAt;
+}
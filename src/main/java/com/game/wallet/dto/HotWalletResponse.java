@@ -0,0 +1,16 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HotWalletResponse {
+
+    private String userId;
+    private String asset;
+    private Long lockWaitMillis;
+    private Long maxErrorMillis;
+    private Long samples;
+    private Boolean hot;
+}
@@ -0,0 +1,12 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LeaderboardEntryResponse {
+    private int rank;
+    private String userId;
+    private long balance;
+}
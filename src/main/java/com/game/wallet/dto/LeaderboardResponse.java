@@ -0,0 +1,13 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class LeaderboardResponse {
+    private String asset;
+    private List<LeaderboardEntryResponse> entries;
+}
@@ -0,0 +1,15 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LedgerFileResponse {
+
+    private String file;
+    private Long entries;
+    private Long bytes;
+    private Long wallets;
+    private Long elapsedMillis;
+}
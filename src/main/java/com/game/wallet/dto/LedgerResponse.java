@@ -1,5 +1,6 @@
 package com.game.wallet.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class LedgerResponse {
     private String debitUser;
     private String creditUser;
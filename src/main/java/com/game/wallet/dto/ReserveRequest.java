@@ -0,0 +1,38 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Request object for reserving funds until a purchase is captured or released")
+public class ReserveRequest {
+
+    @NotBlank(message = "User ID is required")
+    @Schema(description = "Unique identifier of the user", example = "user_12345")
+    private String userId;
+
+    @NotBlank(message = "Asset code is required")
+    @Schema(description = "Asset code to reserve", example = "GOLD")
+    private String asset;
+
+    @Positive(message = "Amount must be positive")
+    @Schema(description = "Amount to reserve", example = "50")
+    private Long amount;
+
+    @NotBlank(message = "Idempotency key is required")
+    @Schema(description = "Unique key to prevent duplicate processing", example = "reserve-uuid-001")
+    private String idempotencyKey;
+
+    @Schema(description = "External order ID, stored on the ledger entry when captured", example = "ORD-998877")
+    private String reference;
+
+    @Positive(message = "TTL must be positive")
+    @Schema(description = "Seconds until the hold expires; defaults to the configured TTL", example = "900")
+    private Long ttlSeconds;
+}
@@ -0,0 +1,15 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ReversalResponse {
+
+    private String userId;
+    private String idempotencyKey;
+    private List<LedgerResponse> entries;
+}
@@ -0,0 +1,28 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Request object for reversing the ledger entries of an earlier operation")
+public class ReverseRequest {
+
+    @NotBlank(message = "User ID is required")
+    @Schema(description = "User the original operation belongs to", example = "user_12345")
+    private String userId;
+
+    @NotBlank(message = "Idempotency key is required")
+    @Schema(description = "Unique key of this reversal", example = "reverse-uuid-001")
+    private String idempotencyKey;
+
+    @Schema(description = "Idempotency key of the operation to reverse; give this or orderId", example = "spend-uuid-001")
+    private String originalIdempotencyKey;
+
+    @Schema(description = "Order ID of the operation to reverse; give this or originalIdempotencyKey", example = "ORD-998877")
+    private String orderId;
+}
@@ -0,0 +1,48 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Request object for granting an asset to every user listed in a file at a later time")
+public class ScheduledGrantRequest {
+
+    @NotBlank(message = "Schedule ID is required")
+    @Schema(description = "Identifies the schedule; posting it again only adds users not scheduled yet",
+            example = "weekend-bonus-2025-06")
+    private String scheduleId;
+
+    @NotBlank(message = "File is required")
+    @Schema(description = "CSV (userId[,amount]) or NDJSON ({\"userId\":..,\"amount\":..}) file in the grant directory",
+            example = "weekend-bonus.csv")
+    private String file;
+
+    @NotBlank(message = "Asset code is required")
+    @Schema(description = "Asset code to grant", example = "GEMS")
+    private String asset;
+
+    @Positive(message = "Amount must be positive")
+    @Schema(description = "Amount for rows that do not carry their own", example = "100")
+    private Long amount;
+
+    @NotBlank(message = "Reference is required")
+    @Schema(description = "Ledger reference for every granted entry", example = "Weekend bonus")
+    private String reference;
+
+    @Schema(description = "When to grant; now if omitted", example = "2025-06-07T00:00:00")
+    private LocalDateTime grantAt;
+
+    @Positive(message = "Expiry must be positive")
+    @Schema(description = "Days after the grant at which what is left of it is taken back; never if omitted. "
+            + "Only allowed for bonus assets",
+            example = "7")
+    private Integer expiresInDays;
+}
@@ -0,0 +1,18 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ScheduledGrantResponse {
+
+    private String scheduleId;
+    private String asset;
+    private Long users;
+    private Long totalAmount;
+    private LocalDateTime grantAt;
+    private Integer expiresInDays;
+}
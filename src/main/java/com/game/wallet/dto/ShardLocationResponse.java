@@ -0,0 +1,12 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ShardLocationResponse {
+    private String userId;
+    private int bucket;
+    private String shard;
+}
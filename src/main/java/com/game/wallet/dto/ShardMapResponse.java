@@ -0,0 +1,15 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Builder
+public class ShardMapResponse {
+    private int buckets;
+    private Map<String, Integer> bucketsPerShard;
+    private Set<Integer> frozenBuckets;
+}
@@ -0,0 +1,18 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ShardMoveResponse {
+    private int bucket;
+    private String source;
+    private String target;
+    private long users;
+    private long wallets;
+    private long holds;
+    private long ledgerEntries;
+    private long summaries;
+    private long elapsedMillis;
+}
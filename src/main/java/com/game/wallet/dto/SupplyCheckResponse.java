@@ -0,0 +1,15 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SupplyCheckResponse {
+    private String asset;
+    private Long counterIssued;
+    private Long ledgerIssued;
+    private Long counterBurned;
+    private Long ledgerBurned;
+    private boolean consistent;
+}
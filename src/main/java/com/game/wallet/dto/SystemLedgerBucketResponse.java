@@ -0,0 +1,18 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class SystemLedgerBucketResponse {
+    private LocalDateTime bucketStart;
+    private String asset;
+    private Long debited;
+    private Long credited;
+    private Long debitEntries;
+    private Long creditEntries;
+    private Long net;
+}
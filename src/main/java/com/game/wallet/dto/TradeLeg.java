@@ -0,0 +1,31 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "One movement of funds within a trade")
+public class TradeLeg {
+
+    @NotBlank(message = "Sender user ID is required")
+    @Schema(description = "User giving the asset", example = "user_12345")
+    private String fromUserId;
+
+    @NotBlank(message = "Recipient user ID is required")
+    @Schema(description = "User receiving the asset", example = "user_67890")
+    private String toUserId;
+
+    @NotBlank(message = "Asset code is required")
+    @Schema(description = "Asset code moved by this leg", example = "GOLD")
+    private String asset;
+
+    @Positive(message = "Amount must be positive")
+    @Schema(description = "Amount moved by this leg", example = "100")
+    private Long amount;
+}
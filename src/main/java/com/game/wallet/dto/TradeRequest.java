@@ -0,0 +1,32 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Request object for an atomic trade; either every leg is applied or none is")
+public class TradeRequest {
+
+    @NotEmpty(message = "At least one leg is required")
+    @Size(max = 20, message = "A trade can have at most 20 legs")
+    @Valid
+    @Schema(description = "Movements that make up the trade")
+    private List<TradeLeg> legs;
+
+    @NotBlank(message = "Idempotency key is required")
+    @Schema(description = "Unique key to prevent duplicate processing", example = "trade-uuid-001")
+    private String idempotencyKey;
+
+    @Schema(description = "Optional trade reference stored on every ledger entry", example = "TRADE-4411")
+    private String reference;
+}
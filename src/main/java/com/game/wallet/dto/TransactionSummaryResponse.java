@@ -0,0 +1,27 @@
+package com.game.wallet.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class TransactionSummaryResponse {
+
+    private String userId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<AssetSummary> assets;
+
+    @Data
+    @Builder
+    public static class AssetSummary {
+        private String asset;
+        private Long credited;
+        private Long debited;
+        private Long entries;
+        private List<DailySummaryResponse> days;
+    }
+}
@@ -0,0 +1,38 @@
+package com.game.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Request object for moving funds from one user's wallet to another's")
+public class TransferRequest {
+
+    @NotBlank(message = "Sender user ID is required")
+    @Schema(description = "User the funds are taken from", example = "user_12345")
+    private String fromUserId;
+
+    @NotBlank(message = "Recipient user ID is required")
+    @Schema(description = "User the funds are given to", example = "user_67890")
+    private String toUserId;
+
+    @NotBlank(message = "Asset code is required")
+    @Schema(description = "Asset code to transfer", example = "GOLD")
+    private String asset;
+
+    @Positive(message = "Amount must be positive")
+    @Schema(description = "Amount to transfer", example = "100")
+    private Long amount;
+
+    @NotBlank(message = "Idempotency key is required")
+    @Schema(description = "Unique key to prevent duplicate processing", example = "transfer-uuid-001")
+    private String idempotencyKey;
+
+    @Schema(description = "Optional free-text reference stored on the ledger entry", example = "gift")
+    private String reference;
+}
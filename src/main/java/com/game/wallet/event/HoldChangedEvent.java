@@ -0,0 +1,21 @@
+package com.game.wallet.event;
+
+import com.game.wallet.model.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published synchronously, inside the writing transaction, whenever a hold is placed,
+ * captured, released or expired. These change the wallet's held and available amounts
+ * without necessarily writing a ledger entry.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class HoldChangedEvent {
+
+    private final String userId;
+    private final String asset;
+    private final HoldStatus status;
+}
@@ -0,0 +1,22 @@
+package com.game.wallet.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published synchronously by {@link com.game.wallet.service.WalletService} for every ledger
+ * entry it writes, inside the writing transaction. Listeners that must only see committed
+ * data should use {@code @TransactionalEventListener}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LedgerPostedEvent {
+
+    private final String debitUser;
+    private final String creditUser;
+    private final String asset;
+    private final long amount;
+    private final String reference;
+}
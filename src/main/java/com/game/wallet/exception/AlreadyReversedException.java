@@ -0,0 +1,7 @@
+package com.game.wallet.exception;
+
+public class AlreadyReversedException extends RuntimeException {
+    public AlreadyReversedException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@ package com.game.wallet.exception;
 
 import com.game.wallet.dto.ApiResponse;
 import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -9,6 +11,9 @@ import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -37,12 +42,69 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("WALLET_NOT_FOUND", ex.getMessage()));
     }
 
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleHoldNotFound(HoldNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error("HOLD_NOT_FOUND", ex.getMessage()));
+    }
+
+    @ExceptionHandler(HoldNotActiveException.class)
+    public ResponseEntity<ApiResponse<Void>> handleHoldNotActive(HoldNotActiveException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("HOLD_NOT_ACTIVE", ex.getMessage()));
+    }
+
+    @ExceptionHandler(LedgerEntryNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleLedgerEntryNotFound(LedgerEntryNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error("ENTRY_NOT_FOUND", ex.getMessage()));
+    }
+
+    @ExceptionHandler(AlreadyReversedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleAlreadyReversed(AlreadyReversedException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("ALREADY_REVERSED", ex.getMessage()));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("RATE_LIMITED", ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServerBusy(ServerBusyException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("SERVER_BUSY", ex.getMessage()));
+    }
+
     @ExceptionHandler(OptimisticLockException.class)
     public ResponseEntity<ApiResponse<Void>> handleOptimisticLock(OptimisticLockException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(ApiResponse.error("CONCURRENT_MODIFICATION", "Resource was modified by another transaction. Please retry."));
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("CONCURRENT_MODIFICATION", "Resource was modified by another transaction. Please retry."));
+    }
+
+    @ExceptionHandler(OperationTimeoutException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOperationTimeout(OperationTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("OPERATION_TIMEOUT", "The wallet is busy. Please retry with the same idempotency key."));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("INVALID_REQUEST", ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Void>> handleValidationErrors(MethodArgumentNotValidException ex) {
         String errorMessage = ex.getBindingResult().getFieldErrors().stream()
@@ -53,18 +115,40 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("VALIDATION_ERROR", errorMessage));
     }
 
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiResponse<Void>> handleValidationErrors(WebExchangeBindException ex) {
+        String errorMessage = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .findFirst()
+                .orElse("Validation error");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("VALIDATION_ERROR", errorMessage));
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ApiResponse<Void>> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error("INVALID_REQUEST_BODY", "Invalid request body format"));
     }
 
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServerWebInput(ServerWebInputException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("INVALID_REQUEST_BODY", "Invalid request body format"));
+    }
+
     @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
     public ResponseEntity<ApiResponse<Void>> handleMediaTypeNotSupported(HttpMediaTypeNotSupportedException ex) {
         return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
                 .body(ApiResponse.error("UNSUPPORTED_MEDIA_TYPE", "Content-Type not supported"));
     }
 
+    @ExceptionHandler(UnsupportedMediaTypeStatusException.class)
+    public ResponseEntity<ApiResponse<Void>> handleMediaTypeNotSupported(UnsupportedMediaTypeStatusException ex) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .body(ApiResponse.error("UNSUPPORTED_MEDIA_TYPE", "Content-Type not supported"));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,7 @@
+package com.game.wallet.exception;
+
+public class HoldNotActiveException extends RuntimeException {
+    public HoldNotActiveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.game.wallet.exception;
+
+public class LedgerEntryNotFoundException extends RuntimeException {
+    public LedgerEntryNotFoundException(String message) {
+        super(message);
+    }
+}
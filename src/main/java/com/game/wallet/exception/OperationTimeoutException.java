@@ -0,0 +1,7 @@
+package com.game.wallet.exception;
+
+public class OperationTimeoutException extends RuntimeException {
+    public OperationTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
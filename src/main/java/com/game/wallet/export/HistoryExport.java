@@ -0,0 +1,25 @@
+package com.game.wallet.export;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A validated history export request. {@code from} is inclusive and {@code to} exclusive;
+ * null bounds and a null asset do not filter.
+ */
+@Getter
+@Builder
+public class HistoryExport {
+
+    private final String userId;
+    private final HistoryExportFormat format;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String asset;
+
+    public String fileName() {
+        return "transactions-" + userId + "." + format.getExtension();
+    }
+}
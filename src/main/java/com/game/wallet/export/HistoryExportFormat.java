@@ -0,0 +1,24 @@
+package com.game.wallet.export;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+@Getter
+@RequiredArgsConstructor
+public enum HistoryExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    public static HistoryExportFormat of(String format) {
+        try {
+            return valueOf(format.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + ". Use ndjson or csv");
+        }
+    }
+}
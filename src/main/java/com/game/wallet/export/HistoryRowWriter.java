@@ -0,0 +1,102 @@
+package com.game.wallet.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Writes history rows one at a time through a fixed buffer, so output size is not bounded
+ * by memory. CSV starts with a header line and quotes fields that need it; NDJSON writes
+ * one object per line. The underlying stream is flushed but never closed.
+ */
+public class HistoryRowWriter implements Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String CSV_HEADER = "id,debitUser,creditUser,asset,amount,reference,createdAt";
+
+    private final HistoryExportFormat format;
+    private final BufferedWriter writer;
+    private final JsonGenerator json;
+    private long rows;
+
+    public HistoryRowWriter(OutputStream out, HistoryExportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == HistoryExportFormat.NDJSON) {
+            this.json = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                    .setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(long id, String debitUser, String creditUser, String asset, long amount,
+                      String reference, LocalDateTime createdAt) throws IOException {
+        if (format == HistoryExportFormat.NDJSON) {
+            json.writeStartObject();
+            json.writeNumberField("id", id);
+            json.writeStringField("debitUser", debitUser);
+            json.writeStringField("creditUser", creditUser);
+            json.writeStringField("asset", asset);
+            json.writeNumberField("amount", amount);
+            json.writeStringField("reference", reference);
+            json.writeStringField("createdAt", createdAt.toString());
+            json.writeEndObject();
+            json.flush();
+        } else {
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writeCsvField(debitUser);
+            writer.write(',');
+            writeCsvField(creditUser);
+            writer.write(',');
+            writeCsvField(asset);
+            writer.write(',');
+            writer.write(Long.toString(amount));
+            writer.write(',');
+            writeCsvField(reference);
+            writer.write(',');
+            writer.write(createdAt.toString());
+        }
+        writer.write('\n');
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
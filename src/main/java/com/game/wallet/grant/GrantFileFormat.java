@@ -0,0 +1,19 @@
+package com.game.wallet.grant;
+
+import java.util.Locale;
+
+public enum GrantFileFormat {
+    CSV,
+    NDJSON;
+
+    public static GrantFileFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported grant file type: " + fileName);
+    }
+}
@@ -0,0 +1,12 @@
+package com.game.wallet.grant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class GrantRow {
+
+    private final String userId;
+    private final long amount;
+}
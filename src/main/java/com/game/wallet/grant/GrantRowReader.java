@@ -0,0 +1,106 @@
+package com.game.wallet.grant;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads grant rows one line at a time, so input size is not bounded by memory.
+ * CSV lines are {@code userId[,amount]} with an optional header; NDJSON lines are objects
+ * with {@code userId} and an optional {@code amount}. Rows without an amount use the
+ * default amount. Blank lines are skipped.
+ */
+public class GrantRowReader implements Closeable {
+
+    private static final int MAX_USER_ID_LENGTH = 100;
+
+    private final BufferedReader reader;
+    private final GrantFileFormat format;
+    private final Long defaultAmount;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    public GrantRowReader(Reader reader, GrantFileFormat format, Long defaultAmount, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 1 << 16);
+        this.format = format;
+        this.defaultAmount = defaultAmount;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next row, or {@code null} at the end of the input
+     */
+    public GrantRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || (lineNumber == 1 && format == GrantFileFormat.CSV && isHeader(line))) {
+                continue;
+            }
+            return format == GrantFileFormat.CSV ? parseCsv(line) : parseJson(line);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private GrantRow parseCsv(String line) {
+        int comma = line.indexOf(',');
+        String userId = comma < 0 ? line : line.substring(0, comma).strip();
+        Long amount = null;
+        if (comma >= 0) {
+            String value = line.substring(comma + 1).strip();
+            try {
+                amount = value.isEmpty() ? null : Long.parseLong(value);
+            } catch (NumberFormatException ex) {
+                throw invalid("amount is not a number");
+            }
+        }
+        return row(userId, amount);
+    }
+
+    private GrantRow parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException ex) {
+            throw invalid("not a JSON object");
+        }
+        JsonNode userId = node.get("userId");
+        JsonNode amount = node.get("amount");
+        if (amount != null && !amount.isNull() && !amount.canConvertToExactIntegral()) {
+            throw invalid("amount is not a whole number");
+        }
+        return row(userId != null ? userId.asText() : null,
+                amount != null && !amount.isNull() ? amount.asLong() : null);
+    }
+
+    private GrantRow row(String userId, Long amount) {
+        if (userId == null || userId.isBlank() || userId.length() > MAX_USER_ID_LENGTH) {
+            throw invalid("missing or invalid userId");
+        }
+        long value = amount != null ? amount : defaultAmount != null ? defaultAmount : 0;
+        if (value <= 0) {
+            throw invalid("amount must be positive");
+        }
+        return new GrantRow(userId, value);
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Invalid grant row at line " + lineNumber + ": " + reason);
+    }
+
+    private static boolean isHeader(String line) {
+        int comma = line.indexOf(',');
+        String first = (comma < 0 ? line : line.substring(0, comma)).strip();
+        return first.equalsIgnoreCase("userId") || first.equalsIgnoreCase("user_id");
+    }
+}
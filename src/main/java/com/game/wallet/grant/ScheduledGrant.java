@@ -0,0 +1,20 @@
+package com.game.wallet.grant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A scheduled_grant row claimed by the poller, either due to be granted or due to expire.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ScheduledGrant {
+
+    private final long id;
+    private final String scheduleId;
+    private final String userId;
+    private final String asset;
+    private final long amount;
+    private final String reference;
+    private final Long expiresInSeconds;
+}
@@ -0,0 +1,129 @@
+package com.game.wallet.leaderboard;
+
+import com.game.wallet.dto.LeaderboardEntryResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The richest wallets of one asset, tracking at most {@code capacity} of them in balance
+ * order. {@code floor} is the highest balance an untracked wallet may have, so a tracked
+ * wallet is correctly ranked while its balance is at least the floor. Wallets that fall
+ * below the floor are dropped; once fewer than {@code size} ranked wallets remain the board
+ * needs a rebuild from the wallet table. Tracking more wallets than are served keeps
+ * rebuilds rare.
+ *
+ * <p>Writers synchronize; readers get an immutable snapshot of the top {@code size}.
+ */
+class BalanceLeaderboard {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong((Entry entry) -> entry.balance).reversed()
+            .thenComparing(entry -> entry.userId);
+
+    private final int size;
+    private final int capacity;
+    private final NavigableSet<Entry> ranking = new TreeSet<>(RANKING);
+    private final Map<String, Entry> tracked = new ConcurrentHashMap<>();
+    private long floor = -1;
+    private volatile List<LeaderboardEntryResponse> top = List.of();
+
+    BalanceLeaderboard(int size, int capacity) {
+        if (capacity < size) {
+            throw new IllegalArgumentException("Leaderboard capacity must be at least its size");
+        }
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param richest balances of the richest wallets by user, at most {@code capacity}
+     * @param floor   the balance of the richest wallet left out, or -1 if none was
+     */
+    synchronized void reset(Map<String, Long> richest, long floor) {
+        ranking.clear();
+        tracked.clear();
+        richest.forEach((userId, balance) -> {
+            Entry entry = new Entry(userId, balance);
+            ranking.add(entry);
+            tracked.put(userId, entry);
+        });
+        this.floor = floor;
+        publish();
+    }
+
+    boolean isTracked(String userId) {
+        return tracked.containsKey(userId);
+    }
+
+    synchronized void update(String userId, long balance) {
+        Entry previous = tracked.remove(userId);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (balance >= floor) {
+            Entry entry = new Entry(userId, balance);
+            ranking.add(entry);
+            tracked.put(userId, entry);
+            if (ranking.size() > capacity) {
+                Entry evicted = ranking.pollLast();
+                tracked.remove(evicted.userId);
+                floor = Math.max(floor, evicted.balance);
+            }
+        }
+        if (previous != null || tracked.containsKey(userId)) {
+            publish();
+        }
+    }
+
+    synchronized void remove(String userId) {
+        Entry previous = tracked.remove(userId);
+        if (previous != null) {
+            ranking.remove(previous);
+            publish();
+        }
+    }
+
+    /**
+     * True when untracked wallets may exist and fewer than {@code size} wallets can be ranked.
+     */
+    synchronized boolean needsRebuild() {
+        return floor >= 0 && ranking.size() < size;
+    }
+
+    List<LeaderboardEntryResponse> top(int limit) {
+        List<LeaderboardEntryResponse> current = top;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    private void publish() {
+        List<LeaderboardEntryResponse> entries = new ArrayList<>(Math.min(size, ranking.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (entries.size() < size && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            entries.add(LeaderboardEntryResponse.builder()
+                    .rank(entries.size() + 1)
+                    .userId(entry.userId)
+                    .balance(entry.balance)
+                    .build());
+        }
+        top = Collections.unmodifiableList(entries);
+    }
+
+    private static final class Entry {
+        private final String userId;
+        private final long balance;
+
+        private Entry(String userId, long balance) {
+            this.userId = userId;
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.game.wallet.leaderboard;
+
+import com.game.wallet.config.LeaderboardProperties;
+import com.game.wallet.dto.BalanceResponse;
+import com.game.wallet.dto.LeaderboardResponse;
+import com.game.wallet.event.LedgerPostedEvent;
+import com.game.wallet.exception.AssetNotFoundException;
+import com.game.wallet.model.Asset;
+import com.game.wallet.model.WalletId;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.WalletRepository;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-asset balance leaderboards served from memory. Committed ledger entries queue the
+ * wallets they changed; a short-interval refresh reads those balances in batches and
+ * applies them to the {@link BalanceLeaderboard}s, so the request path never waits on the
+ * boards. Boards are rebuilt from the wallet table at startup, periodically, and whenever
+ * one runs short of ranked wallets. Balance changes that publish no ledger event, or that
+ * commit on another instance, show up at the next periodic rebuild.
+ */
+@Component
+@Slf4j
+public class LeaderboardService {
+
+    private static final Set<String> EXCLUDED = Set.of("SYSTEM", "GENESIS");
+    private static final int READ_BATCH = 500;
+    private static final Comparator<BalanceResponse> RICHEST_FIRST = Comparator
+            .comparing(BalanceResponse::getBalance).reversed()
+            .thenComparing(BalanceResponse::getUserId);
+
+    private final LeaderboardProperties properties;
+    private final WalletRepository walletRepository;
+    private final AssetRepository assetRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate primaryRead;
+    private final Map<String, BalanceLeaderboard> boards = new ConcurrentHashMap<>();
+    private final Set<WalletId> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final Counter rebuilds;
+
+    public LeaderboardService(LeaderboardProperties properties,
+                              WalletRepository walletRepository,
+                              AssetRepository assetRepository,
+                              ShardRouter shardRouter,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.walletRepository = walletRepository;
+        this.assetRepository = assetRepository;
+        this.shardRouter = shardRouter;
+        // Refresh and rebuild reads stay on the primary: a replica could still miss the commit
+        // that queued a wallet, or one that a rebuild has already dropped from pending.
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.rebuilds = Counter.builder("wallet.leaderboard.rebuilds")
+                .description("Leaderboards rebuilt from the wallet table")
+                .register(meterRegistry);
+        Gauge.builder("wallet.leaderboard.pending", pending, Set::size)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        touched(event.getAsset(), event.getDebitUser(), event.getCreditUser());
+    }
+
+    /**
+     * Queues the wallets changed by a committed entry for the next refresh.
+     */
+    public void touched(String asset, String debitUser, String creditUser) {
+        BalanceLeaderboard board = boards.get(asset);
+        // A debit only moves a wallet down, which matters only to a wallet on the board.
+        if (!EXCLUDED.contains(debitUser) && board != null && board.isTracked(debitUser)) {
+            queue(new WalletId(debitUser, asset));
+        }
+        if (!EXCLUDED.contains(creditUser)) {
+            queue(new WalletId(creditUser, asset));
+        }
+    }
+
+    public LeaderboardResponse getLeaderboard(String asset, int limit) {
+        if (limit < 1 || limit > properties.getSize()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + properties.getSize());
+        }
+        BalanceLeaderboard board = boards.get(asset);
+        if (board == null) {
+            board = build(asset);
+        }
+        return LeaderboardResponse.builder()
+                .asset(asset)
+                .entries(board.top(limit))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildAll();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.leaderboard.rebuild-interval-ms:600000}",
+            initialDelayString = "${wallet.leaderboard.rebuild-interval-ms:600000}")
+    public synchronized void rebuildAll() {
+        // Everything committed before the scans below is in them.
+        pending.clear();
+        overflowed.set(false);
+        for (Asset asset : assetRepository.findAll()) {
+            rebuild(asset.getCode());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.leaderboard.refresh-interval-ms:250}")
+    public synchronized void refresh() {
+        if (overflowed.get()) {
+            log.warn("More than {} wallets changed between leaderboard refreshes; rebuilding", properties.getMaxPending());
+            rebuildAll();
+            return;
+        }
+
+        Map<String, List<String>> byAsset = new HashMap<>();
+        for (Iterator<WalletId> iterator = pending.iterator(); iterator.hasNext(); ) {
+            WalletId wallet = iterator.next();
+            iterator.remove();
+            byAsset.computeIfAbsent(wallet.getAsset(), asset -> new ArrayList<>()).add(wallet.getUserId());
+        }
+        byAsset.forEach(this::apply);
+
+        boards.forEach((asset, board) -> {
+            if (board.needsRebuild()) {
+                rebuild(asset);
+            }
+        });
+    }
+
+    private synchronized BalanceLeaderboard build(String asset) {
+        BalanceLeaderboard board = boards.get(asset);
+        if (board != null) {
+            return board;
+        }
+        if (!assetRepository.existsById(asset)) {
+            throw new AssetNotFoundException("Asset not found: " + asset);
+        }
+        return rebuild(asset);
+    }
+
+    private void apply(String asset, List<String> userIds) {
+        BalanceLeaderboard board = boards.get(asset);
+        if (board == null) {
+            return;
+        }
+        Map<String, Long> balances = new HashMap<>();
+        shardRouter.partition(userIds).forEach((shard, users) -> {
+            try (ShardContext.Scope ignored = shardRouter.forShard(shard)) {
+                for (int from = 0; from < users.size(); from += READ_BATCH) {
+                    List<String> batch = users.subList(from, Math.min(users.size(), from + READ_BATCH));
+                    primaryRead.executeWithoutResult(status -> walletRepository.findBalances(asset, batch)
+                            .forEach(balance -> balances.put(balance.getUserId(), balance.getBalance())));
+                }
+            }
+        });
+        for (String userId : userIds) {
+            Long balance = balances.get(userId);
+            if (balance != null) {
+                board.update(userId, balance);
+            } else {
+                board.remove(userId);
+            }
+        }
+    }
+
+    private BalanceLeaderboard rebuild(String asset) {
+        int capacity = properties.getCapacity();
+        List<BalanceResponse> richest = new ArrayList<>();
+        for (List<BalanceResponse> shard : shardRouter.collect(() -> primaryRead.execute(status ->
+                walletRepository.findRichest(asset, EXCLUDED, PageRequest.of(0, capacity + 1))))) {
+            richest.addAll(shard);
+        }
+        richest.sort(RICHEST_FIRST);
+
+        Map<String, Long> tracked = new HashMap<>();
+        for (int i = 0; i < Math.min(capacity, richest.size()); i++) {
+            tracked.put(richest.get(i).getUserId(), richest.get(i).getBalance());
+        }
+        long floor = richest.size() > capacity ? richest.get(capacity).getBalance() : -1;
+
+        BalanceLeaderboard board = boards.computeIfAbsent(asset,
+                code -> new BalanceLeaderboard(properties.getSize(), capacity));
+        board.reset(tracked, floor);
+        rebuilds.increment();
+        log.debug("Rebuilt {} leaderboard with {} wallets", asset, tracked.size());
+        return board;
+    }
+
+    private void queue(WalletId wallet) {
+        if (pending.size() >= properties.getMaxPending()) {
+            overflowed.set(true);
+            return;
+        }
+        pending.add(wallet);
+    }
+}
@@ -0,0 +1,49 @@
+package com.game.wallet.ledger;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Layout of the binary ledger file:
+ * <pre>
+ * header   magic:int version:int
+ * block*   entries:int baseId:long baseMicros:long columnLength:int[COLUMNS] column bytes...
+ * footer   users:string[] assets:string[] blockOffsets:long[]
+ * trailer  footerOffset:long entries:long magic:int
+ * </pre>
+ * Columns hold zigzag varint deltas for ids and timestamps, varint dictionary indexes for
+ * users and assets, varint amounts, and length-prefixed UTF-8 for keys and references.
+ * Blocks are independent so readers can map and decode them one at a time.
+ */
+final class BinaryLedgerFormat {
+
+    static final int MAGIC = 0x574C4431;
+    static final int VERSION = 1;
+    static final int BLOCK_ENTRIES = 1 << 16;
+    static final int TRAILER_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    static final int COL_ID = 0;
+    static final int COL_CREATED_AT = 1;
+    static final int COL_DEBIT_USER = 2;
+    static final int COL_CREDIT_USER = 3;
+    static final int COL_ASSET = 4;
+    static final int COL_AMOUNT = 5;
+    static final int COL_IDEMPOTENCY_KEY = 6;
+    static final int COL_REFERENCE = 7;
+    static final int COLUMNS = 8;
+
+    static final int BLOCK_HEADER_BYTES = Integer.BYTES + Long.BYTES + Long.BYTES + COLUMNS * Integer.BYTES;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private BinaryLedgerFormat() {
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(EPOCH, time);
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,175 @@
+package com.game.wallet.ledger;
+
+import com.game.wallet.model.LedgerEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import static com.game.wallet.ledger.BinaryLedgerFormat.*;
+
+/**
+ * Memory-mapped reader for files produced by {@link BinaryLedgerWriter}. Blocks are mapped
+ * one at a time, so files larger than a single mapping are supported. {@link #scan} only
+ * decodes the columns needed for balance replay and allocates nothing per entry.
+ */
+public class BinaryLedgerReader implements Closeable {
+
+    private final FileChannel channel;
+    private final String[] users;
+    private final String[] assets;
+    private final long[] blockOffsets;
+    private final long footerOffset;
+    private final long entries;
+
+    public BinaryLedgerReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 2L * Integer.BYTES + TRAILER_BYTES) {
+                throw new IllegalStateException("Not a ledger file: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 2L * Integer.BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Unsupported ledger file: " + file);
+            }
+
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_BYTES, TRAILER_BYTES);
+            this.footerOffset = trailer.getLong();
+            this.entries = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IllegalStateException("Truncated ledger file: " + file);
+            }
+
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, footerOffset,
+                    size - TRAILER_BYTES - footerOffset);
+            this.users = readStrings(footer);
+            this.assets = readStrings(footer);
+            this.blockOffsets = new long[footer.getInt()];
+            for (int i = 0; i < blockOffsets.length; i++) {
+                blockOffsets[i] = footer.getLong();
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public String[] users() {
+        return users;
+    }
+
+    public String[] assets() {
+        return assets;
+    }
+
+    public long entries() {
+        return entries;
+    }
+
+    public void scan(LedgerEntryVisitor visitor) throws IOException {
+        for (int b = 0; b < blockOffsets.length; b++) {
+            MappedByteBuffer block = mapBlock(b);
+            int count = block.getInt();
+            long id = block.getLong();
+            long micros = block.getLong();
+            ByteBuffer[] columns = sliceColumns(block);
+
+            ByteBuffer ids = columns[COL_ID];
+            ByteBuffer times = columns[COL_CREATED_AT];
+            ByteBuffer debits = columns[COL_DEBIT_USER];
+            ByteBuffer credits = columns[COL_CREDIT_USER];
+            ByteBuffer assetCol = columns[COL_ASSET];
+            ByteBuffer amounts = columns[COL_AMOUNT];
+
+            for (int i = 0; i < count; i++) {
+                id += Varints.unZigZag(Varints.readVarLong(ids));
+                micros += Varints.unZigZag(Varints.readVarLong(times));
+                visitor.visit(id, micros,
+                        (int) Varints.readVarLong(debits),
+                        (int) Varints.readVarLong(credits),
+                        (int) Varints.readVarLong(assetCol),
+                        Varints.readVarLong(amounts));
+            }
+        }
+    }
+
+    public void forEachEntry(Consumer<LedgerEntry> consumer) throws IOException {
+        for (int b = 0; b < blockOffsets.length; b++) {
+            MappedByteBuffer block = mapBlock(b);
+            int count = block.getInt();
+            long id = block.getLong();
+            long micros = block.getLong();
+            ByteBuffer[] columns = sliceColumns(block);
+
+            for (int i = 0; i < count; i++) {
+                id += Varints.unZigZag(Varints.readVarLong(columns[COL_ID]));
+                micros += Varints.unZigZag(Varints.readVarLong(columns[COL_CREATED_AT]));
+                String debitUser = users[(int) Varints.readVarLong(columns[COL_DEBIT_USER])];
+                String creditUser = users[(int) Varints.readVarLong(columns[COL_CREDIT_USER])];
+                String asset = assets[(int) Varints.readVarLong(columns[COL_ASSET])];
+                long amount = Varints.readVarLong(columns[COL_AMOUNT]);
+                String key = readString(columns[COL_IDEMPOTENCY_KEY],
+                        (int) Varints.readVarLong(columns[COL_IDEMPOTENCY_KEY]));
+                int referenceLength = (int) Varints.readVarLong(columns[COL_REFERENCE]);
+                String reference = referenceLength == 0 ? null : readString(columns[COL_REFERENCE], referenceLength - 1);
+
+                consumer.accept(LedgerEntry.builder()
+                        .id(id)
+                        .debitUser(debitUser)
+                        .creditUser(creditUser)
+                        .asset(asset)
+                        .amount(amount)
+                        .idempotencyKey(key)
+                        .reference(reference)
+                        .createdAt(fromMicros(micros))
+                        .build());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer mapBlock(int index) throws IOException {
+        long start = blockOffsets[index];
+        long end = index + 1 < blockOffsets.length ? blockOffsets[index + 1] : footerOffset;
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    private static ByteBuffer[] sliceColumns(ByteBuffer block) {
+        int[] lengths = new int[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            lengths[c] = block.getInt();
+        }
+        ByteBuffer[] columns = new ByteBuffer[COLUMNS];
+        int position = BLOCK_HEADER_BYTES;
+        for (int c = 0; c < COLUMNS; c++) {
+            columns[c] = block.slice(position, lengths[c]);
+            position += lengths[c];
+        }
+        return columns;
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(buffer, buffer.getInt());
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
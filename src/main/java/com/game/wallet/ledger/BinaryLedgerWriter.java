@@ -0,0 +1,181 @@
+package com.game.wallet.ledger;
+
+import com.game.wallet.model.LedgerEntry;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.game.wallet.ledger.BinaryLedgerFormat.*;
+
+/**
+ * Streams ledger rows into the columnar format described in {@link BinaryLedgerFormat}.
+ * Rows must be appended in id order. Only one block is buffered in memory at a time.
+ */
+public class BinaryLedgerWriter implements Closeable {
+
+    private final OutputStream out;
+    private final ColumnBuffer[] columns = new ColumnBuffer[COLUMNS];
+    private final Map<String, Integer> userIndex = new HashMap<>();
+    private final List<String> users = new ArrayList<>();
+    private final Map<String, Integer> assetIndex = new HashMap<>();
+    private final List<String> assets = new ArrayList<>();
+    private final List<Long> blockOffsets = new ArrayList<>();
+
+    private long position;
+    private long entries;
+    private int blockEntries;
+    private long baseId;
+    private long baseMicros;
+    private long lastId;
+    private long lastMicros;
+    private boolean finished;
+
+    public BinaryLedgerWriter(Path file) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20);
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new ColumnBuffer();
+        }
+        writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    public void append(LedgerEntry entry) {
+        append(entry.getId(), entry.getDebitUser(), entry.getCreditUser(), entry.getAsset(),
+                entry.getAmount(), entry.getIdempotencyKey(), entry.getReference(), entry.getCreatedAt());
+    }
+
+    public void append(long id, String debitUser, String creditUser, String asset, long amount,
+                       String idempotencyKey, String reference, LocalDateTime createdAt) {
+        long micros = toMicros(createdAt);
+        if (blockEntries == 0) {
+            baseId = id;
+            baseMicros = micros;
+            lastId = id;
+            lastMicros = micros;
+        }
+
+        columns[COL_ID].writeVarLong(Varints.zigZag(id - lastId));
+        columns[COL_CREATED_AT].writeVarLong(Varints.zigZag(micros - lastMicros));
+        columns[COL_DEBIT_USER].writeVarLong(intern(debitUser, userIndex, users));
+        columns[COL_CREDIT_USER].writeVarLong(intern(creditUser, userIndex, users));
+        columns[COL_ASSET].writeVarLong(intern(asset, assetIndex, assets));
+        columns[COL_AMOUNT].writeVarLong(amount);
+        columns[COL_IDEMPOTENCY_KEY].writeBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+        if (reference == null) {
+            columns[COL_REFERENCE].writeVarLong(0);
+        } else {
+            byte[] bytes = reference.getBytes(StandardCharsets.UTF_8);
+            columns[COL_REFERENCE].writeVarLong(bytes.length + 1L);
+            columns[COL_REFERENCE].writeRaw(bytes);
+        }
+
+        lastId = id;
+        lastMicros = micros;
+        entries++;
+        if (++blockEntries == BLOCK_ENTRIES) {
+            try {
+                flushBlock();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot write ledger file", ex);
+            }
+        }
+    }
+
+    public long entries() {
+        return entries;
+    }
+
+    public long bytesWritten() {
+        return position;
+    }
+
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flushBlock();
+
+        long footerOffset = position;
+        writeStrings(users);
+        writeStrings(assets);
+        writeInt(blockOffsets.size());
+        for (long offset : blockOffsets) {
+            writeLong(offset);
+        }
+
+        writeLong(footerOffset);
+        writeLong(entries);
+        writeInt(MAGIC);
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockEntries == 0) {
+            return;
+        }
+        blockOffsets.add(position);
+        writeInt(blockEntries);
+        writeLong(baseId);
+        writeLong(baseMicros);
+        for (ColumnBuffer column : columns) {
+            writeInt(column.size());
+        }
+        for (ColumnBuffer column : columns) {
+            column.writeTo(out);
+            position += column.size();
+            column.reset();
+        }
+        blockEntries = 0;
+    }
+
+    private static int intern(String value, Map<String, Integer> index, List<String> values) {
+        Integer existing = index.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int next = values.size();
+        index.put(value, next);
+        values.add(value);
+        return next;
+    }
+
+    private void writeStrings(List<String> values) throws IOException {
+        writeInt(values.size());
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            out.write(bytes);
+            position += bytes.length;
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+        position += Integer.BYTES;
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.game.wallet.ledger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+final class ColumnBuffer {
+
+    private byte[] data = new byte[4096];
+    private int size;
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        writeRaw(bytes);
+    }
+
+    void writeRaw(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, data, size, bytes.length);
+        size += bytes.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(data, 0, size);
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+}
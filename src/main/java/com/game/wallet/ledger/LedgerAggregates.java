@@ -0,0 +1,80 @@
+package com.game.wallet.ledger;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * The aggregate updates one ledger entry causes: a daily summary row for each user side, a
+ * supply counter change when exactly one side is SYSTEM or GENESIS, and a SYSTEM bucket
+ * change when exactly one side is SYSTEM. The JPA listeners and the reactive path apply
+ * them with their own statements, so the rules are kept here once.
+ */
+@Getter
+public class LedgerAggregates {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+    private static final Set<String> SOURCES = Set.of(SYSTEM_USER, "GENESIS");
+
+    private final String asset;
+    private final long amount;
+    private final boolean debitSummarized;
+    private final boolean creditSummarized;
+    private final long issued;
+    private final long burned;
+    private final long systemDebit;
+    private final long systemCredit;
+
+    private LedgerAggregates(String debitUser, String creditUser, String asset, long amount) {
+        boolean fromSource = SOURCES.contains(debitUser);
+        boolean toSource = SOURCES.contains(creditUser);
+        boolean systemDebited = SYSTEM_USER.equals(debitUser);
+        boolean systemCredited = SYSTEM_USER.equals(creditUser);
+
+        this.asset = asset;
+        this.amount = amount;
+        this.debitSummarized = !fromSource;
+        this.creditSummarized = !toSource;
+        this.issued = fromSource && !toSource ? amount : 0;
+        this.burned = toSource && !fromSource ? amount : 0;
+        this.systemDebit = systemDebited && !systemCredited ? amount : 0;
+        this.systemCredit = systemCredited && !systemDebited ? amount : 0;
+    }
+
+    public static LedgerAggregates of(String debitUser, String creditUser, String asset, long amount) {
+        return new LedgerAggregates(debitUser, creditUser, asset, amount);
+    }
+
+    public boolean changesSupply() {
+        return issued != 0 || burned != 0;
+    }
+
+    public boolean changesSystemBucket() {
+        return systemDebit != 0 || systemCredit != 0;
+    }
+
+    public long getSystemDebitCount() {
+        return systemDebit != 0 ? 1 : 0;
+    }
+
+    public long getSystemCreditCount() {
+        return systemCredit != 0 ? 1 : 0;
+    }
+
+    /**
+     * The hourly system_ledger_bucket an entry written at {@code time} counts in.
+     */
+    public static LocalDateTime systemBucket(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Keeps all counter rows touched by one transaction on the same counter shard, so two
+     * transactions never lock the same pair of rows in opposite order.
+     */
+    public static int shardForCurrentThread(int shards) {
+        return (int) (Thread.currentThread().threadId() % shards);
+    }
+}
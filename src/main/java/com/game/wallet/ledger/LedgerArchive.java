@@ -0,0 +1,283 @@
+package com.game.wallet.ledger;
+
+import com.game.wallet.config.LedgerPartitionProperties;
+import com.game.wallet.config.ShardingProperties;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed archive of ledger partitions that were moved out of the database.
+ * One file per month, one tab-separated row per entry in id order, escaped the same
+ * way as PostgreSQL's COPY text format. Shards other than the primary archive into a
+ * subdirectory named after the shard.
+ *
+ * <p>A finished export is first staged next to its archive file and only published once
+ * the partition it came from has been dropped, so readers never see a month both in the
+ * archive and in the database.
+ */
+@Component
+@Slf4j
+public class LedgerArchive {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String FILE_PREFIX = "ledger_entry_p";
+    private static final String FILE_SUFFIX = ".tsv.gz";
+    private static final String STAGED_SUFFIX = ".staged";
+    private static final String NULL = "\\N";
+
+    private final Path baseDirectory;
+    private final String primaryShard;
+
+    public LedgerArchive(LedgerPartitionProperties properties, ShardingProperties shardingProperties) {
+        this.baseDirectory = Paths.get(properties.getArchiveDirectory());
+        this.primaryShard = shardingProperties.getPrimaryShard();
+    }
+
+    public List<YearMonth> archivedMonths() {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                    .map(name -> name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()))
+                    .map(suffix -> YearMonth.parse(suffix, MONTH))
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot list ledger archive " + directory, ex);
+        }
+    }
+
+    public boolean contains(YearMonth month) {
+        return Files.exists(fileFor(month));
+    }
+
+    public List<YearMonth> stagedMonths() {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        String suffix = FILE_SUFFIX + STAGED_SUFFIX;
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(suffix))
+                    .map(name -> name.substring(FILE_PREFIX.length(), name.length() - suffix.length()))
+                    .map(value -> YearMonth.parse(value, MONTH))
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot list ledger archive " + directory, ex);
+        }
+    }
+
+    /**
+     * Makes a staged month visible to readers. Call only once its partition is gone.
+     */
+    public void publish(YearMonth month) {
+        Path staged = stagedFileFor(month);
+        Path target = fileFor(month);
+        try {
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Published ledger archive {}", target);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot publish ledger archive " + target, ex);
+        }
+    }
+
+    public long forEachEntry(Consumer<LedgerEntry> consumer) {
+        long count = 0;
+        for (YearMonth month : archivedMonths()) {
+            count += forEachEntry(month, consumer);
+        }
+        return count;
+    }
+
+    public long forEachEntry(YearMonth month, Consumer<LedgerEntry> consumer) {
+        Path file = fileFor(month);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), 1 << 16), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(parse(line));
+                count++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read ledger archive " + file, ex);
+        }
+        return count;
+    }
+
+    public ArchiveWriter open(YearMonth month) {
+        Path directory = directory();
+        try {
+            Files.createDirectories(directory);
+            Path staged = stagedFileFor(month);
+            Path temp = Files.createTempFile(directory, staged.getFileName().toString(), ".tmp");
+            return new ArchiveWriter(staged, temp);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create ledger archive in " + directory, ex);
+        }
+    }
+
+    private Path directory() {
+        String shard = ShardContext.current();
+        return shard == null || shard.equals(primaryShard) ? baseDirectory : baseDirectory.resolve(shard);
+    }
+
+    private Path fileFor(YearMonth month) {
+        return directory().resolve(FILE_PREFIX + month.format(MONTH) + FILE_SUFFIX);
+    }
+
+    private Path stagedFileFor(YearMonth month) {
+        return directory().resolve(FILE_PREFIX + month.format(MONTH) + FILE_SUFFIX + STAGED_SUFFIX);
+    }
+
+    private static LedgerEntry parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 8) {
+            throw new IllegalStateException("Corrupt ledger archive row: " + line);
+        }
+        return LedgerEntry.builder()
+                .id(Long.parseLong(fields[0]))
+                .debitUser(unescape(fields[1]))
+                .creditUser(unescape(fields[2]))
+                .asset(unescape(fields[3]))
+                .amount(Long.parseLong(fields[4]))
+                .idempotencyKey(unescape(fields[5]))
+                .reference(unescape(fields[6]))
+                .createdAt(LocalDateTime.parse(fields[7]))
+                .build();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String value) {
+        if (NULL.equals(value)) {
+            return null;
+        }
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes to a temporary file that only becomes the staged archive on {@link #complete()},
+     * so a failed export never leaves a truncated archive behind.
+     */
+    public static class ArchiveWriter implements Closeable {
+
+        private final Path target;
+        private final Path temp;
+        private final BufferedWriter out;
+        private long count;
+        private boolean completed;
+
+        private ArchiveWriter(Path target, Path temp) throws IOException {
+            this.target = target;
+            this.temp = temp;
+            this.out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16), StandardCharsets.UTF_8));
+        }
+
+        public void write(LedgerEntry entry) {
+            try {
+                out.write(Long.toString(entry.getId()));
+                out.write('\t');
+                out.write(escape(entry.getDebitUser()));
+                out.write('\t');
+                out.write(escape(entry.getCreditUser()));
+                out.write('\t');
+                out.write(escape(entry.getAsset()));
+                out.write('\t');
+                out.write(Long.toString(entry.getAmount()));
+                out.write('\t');
+                out.write(escape(entry.getIdempotencyKey()));
+                out.write('\t');
+                out.write(escape(entry.getReference()));
+                out.write('\t');
+                out.write(entry.getCreatedAt().toString());
+                out.write('\n');
+                count++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot write ledger archive " + temp, ex);
+            }
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public void complete() {
+            try {
+                out.close();
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                completed = true;
+                log.info("Staged {} ledger entries in {}", count, target);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot stage ledger archive " + target, ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!completed) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.game.wallet.ledger;
+
+/**
+ * Receives decoded ledger rows as primitives. User and asset arguments are indexes into
+ * {@link BinaryLedgerReader#users()} and {@link BinaryLedgerReader#assets()}.
+ */
+@FunctionalInterface
+public interface LedgerEntryVisitor {
+
+    void visit(long id, long createdAtMicros, int debitUser, int creditUser, int asset, long amount);
+}
@@ -0,0 +1,74 @@
+package com.game.wallet.ledger;
+
+import com.game.wallet.util.LongLongHashMap;
+
+/**
+ * Rebuilds balances for a fixed set of wallets. Wallets are registered up front and map
+ * from a packed (user ref, asset index) key to a dense index into a {@code long[]} of
+ * balances, so applying a row is two primitive map probes and no allocation.
+ */
+public class LedgerReplayEngine {
+
+    private final LongLongHashMap walletIndex;
+    private final long[] balances;
+    private int wallets;
+    private long applied;
+
+    public LedgerReplayEngine(int walletCount) {
+        this.walletIndex = new LongLongHashMap(walletCount);
+        this.balances = new long[walletCount];
+    }
+
+    public static long key(long userRef, int asset) {
+        return (userRef << 16) | asset;
+    }
+
+    public int addWallet(long userRef, int asset) {
+        int index = wallets++;
+        walletIndex.put(key(userRef, asset), index);
+        return index;
+    }
+
+    public void apply(LedgerRow row) {
+        int credit = indexOf(row.getCreditUserRef(), row.getAsset());
+        if (credit < 0) {
+            throw new IllegalStateException(
+                    "Missing credit wallet during replay. EntryId=" + row.getId()
+            );
+        }
+
+        if (row.getDebitUserRef() != LedgerRow.NO_DEBIT) {
+            int debit = indexOf(row.getDebitUserRef(), row.getAsset());
+            if (debit < 0) {
+                throw new IllegalStateException(
+                        "Missing debit wallet during replay. EntryId=" + row.getId()
+                );
+            }
+
+            long newDebitBalance = balances[debit] - row.getAmount();
+            if (newDebitBalance < 0) {
+                throw new IllegalStateException(
+                        "Negative balance during replay. UserRef=" + row.getDebitUserRef() +
+                                ", EntryId=" + row.getId()
+                );
+            }
+            balances[debit] = newDebitBalance;
+        }
+
+        balances[credit] += row.getAmount();
+        applied++;
+    }
+
+    public long balance(int walletIndex) {
+        return balances[walletIndex];
+    }
+
+    public long applied() {
+        return applied;
+    }
+
+    private int indexOf(long userRef, int asset) {
+        int slot = walletIndex.slotOf(key(userRef, asset));
+        return slot == LongLongHashMap.NOT_FOUND ? -1 : (int) walletIndex.valueAt(slot);
+    }
+}
@@ -0,0 +1,31 @@
+package com.game.wallet.ledger;
+
+import lombok.Getter;
+
+/**
+ * Reusable buffer for one ledger row on replay paths. Readers overwrite the same instance
+ * for every row, so consumers must not keep a reference past the callback.
+ */
+@Getter
+public class LedgerRow {
+
+    /**
+     * Debit ref used for rows minted from outside the ledger (GENESIS).
+     */
+    public static final long NO_DEBIT = 0L;
+
+    private long id;
+    private long debitUserRef;
+    private long creditUserRef;
+    private int asset;
+    private long amount;
+
+    public LedgerRow set(long id, long debitUserRef, long creditUserRef, int asset, long amount) {
+        this.id = id;
+        this.debitUserRef = debitUserRef;
+        this.creditUserRef = creditUserRef;
+        this.asset = asset;
+        this.amount = amount;
+        return this;
+    }
+}
@@ -0,0 +1,41 @@
+package com.game.wallet.ledger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Names the idempotency rows that mark ledger entries as reversed. A name is derived from
+ * the entry's content, not its id: ids are numbered per shard and change when a bucket
+ * moves, the content does not. Identical entries of one operation, such as two equal
+ * trade legs, are told apart by their position among each other, so one instance must see
+ * every entry of an idempotency key it names.
+ */
+public class ReversalMarkers {
+
+    public static final String OPERATION = "REVERSED";
+
+    private final Map<String, Integer> seen = new HashMap<>();
+
+    public String next(String idempotencyKey, String debitUser, String creditUser, String asset, long amount,
+                       LocalDateTime createdAt) {
+        String content = String.join("\u0000", idempotencyKey, debitUser, creditUser, asset,
+                Long.toString(amount), createdAt.truncatedTo(ChronoUnit.MICROS).toString());
+        int occurrence = seen.merge(content, 1, Integer::sum) - 1;
+        return "reversed:" + sha256(content + "\u0000" + occurrence);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
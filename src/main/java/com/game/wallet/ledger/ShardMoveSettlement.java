@@ -0,0 +1,85 @@
+package com.game.wallet.ledger;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps every shard's ledger replayable against its own wallets while users move between
+ * shards.
+ *
+ * <p>A transfer between a moving user and one who stays behind cannot live on both shards,
+ * because each copy would name a wallet the shard no longer has. Each side therefore
+ * records its half against SYSTEM instead: the target replaces the staying user, and the
+ * source replaces the moving one. The SYSTEM balance change of every entry written or
+ * removed is tracked per limited-supply asset, so the caller can apply it to the shard's
+ * SYSTEM wallet in the same transaction. Across both shards those changes cancel out; a
+ * settled transfer does count as issued on one shard and burned on the other, which leaves
+ * circulating supply unchanged.
+ */
+public class ShardMoveSettlement {
+
+    public static final String SYSTEM = "SYSTEM";
+    private static final Set<String> SOURCES = Set.of(SYSTEM, "GENESIS");
+
+    private final Set<String> movedUsers;
+    private final Set<String> limitedAssets;
+    private final Map<String, Long> systemDeltas = new TreeMap<>();
+
+    public ShardMoveSettlement(Collection<String> movedUsers, Collection<String> limitedAssets) {
+        this.movedUsers = Set.copyOf(movedUsers);
+        this.limitedAssets = Set.copyOf(limitedAssets);
+    }
+
+    public boolean staysBehind(String userId) {
+        return !movedUsers.contains(userId) && !SOURCES.contains(userId);
+    }
+
+    /**
+     * True if the entry involves a user who stays behind and so needs a settlement entry.
+     */
+    public boolean crossesShards(String debitUser, String creditUser) {
+        return staysBehind(debitUser) || staysBehind(creditUser);
+    }
+
+    public String onTarget(String userId) {
+        return staysBehind(userId) ? SYSTEM : userId;
+    }
+
+    public String onSource(String userId) {
+        return movedUsers.contains(userId) ? SYSTEM : userId;
+    }
+
+    public void written(String debitUser, String creditUser, String asset, long amount) {
+        track(debitUser, creditUser, asset, amount);
+    }
+
+    public void removed(String debitUser, String creditUser, String asset, long amount) {
+        track(debitUser, creditUser, asset, -amount);
+    }
+
+    /**
+     * Net change of the SYSTEM balance per asset; zero entries are left out.
+     */
+    public Map<String, Long> systemDeltas() {
+        systemDeltas.values().removeIf(delta -> delta == 0);
+        return systemDeltas;
+    }
+
+    private void track(String debitUser, String creditUser, String asset, long amount) {
+        if (!limitedAssets.contains(asset)) {
+            return;
+        }
+        long delta = 0;
+        if (SYSTEM.equals(debitUser)) {
+            delta -= amount;
+        }
+        if (SYSTEM.equals(creditUser)) {
+            delta += amount;
+        }
+        if (delta != 0) {
+            systemDeltas.merge(asset, delta, Long::sum);
+        }
+    }
+}
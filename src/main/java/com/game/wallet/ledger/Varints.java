@@ -0,0 +1,33 @@
+package com.game.wallet.ledger;
+
+import java.nio.ByteBuffer;
+
+final class Varints {
+
+    private Varints() {
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed varint in ledger file");
+            }
+        }
+    }
+}
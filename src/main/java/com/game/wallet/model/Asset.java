@@ -18,4 +18,15 @@ public class Asset {
 
     @Column(name = "limited_supply", nullable = false)
     private Boolean limitedSupply = false;
+
+    /**
+     * Only ever granted, never bought, so grants of it may expire without taking back
+     * purchased currency.
+     */
+    @Column(name = "bonus", nullable = false)
+    private Boolean bonus = false;
+
+    public Asset(String code, Boolean limitedSupply) {
+        this(code, limitedSupply, false);
+    }
 }
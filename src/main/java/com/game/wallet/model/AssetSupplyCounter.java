@@ -0,0 +1,32 @@
+package com.game.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One shard of the running issued and burned totals of an asset. The asset's totals are
+ * the sum over its shards.
+ */
+@Entity
+@Table(name = "asset_supply_counter")
+@IdClass(AssetSupplyCounterId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetSupplyCounter {
+
+    @Id
+    @Column(name = "asset", length = 20, nullable = false)
+    private String asset;
+
+    @Id
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    @Column(name = "issued", nullable = false)
+    private Long issued;
+
+    @Column(name = "burned", nullable = false)
+    private Long burned;
+}
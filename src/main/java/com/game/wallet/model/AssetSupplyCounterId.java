@@ -0,0 +1,16 @@
+package com.game.wallet.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AssetSupplyCounterId implements Serializable {
+
+    private String asset;
+    private Integer shard;
+}
@@ -0,0 +1,8 @@
+package com.game.wallet.model;
+
+public enum HoldStatus {
+    HELD,
+    CAPTURED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,41 @@
+package com.game.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Per user, asset and day totals of ledger movements, maintained in the same transaction
+ * as each ledger write. SYSTEM and GENESIS are not summarized.
+ */
+@Entity
+@Table(name = "ledger_daily_summary")
+@IdClass(LedgerDailySummaryId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerDailySummary {
+
+    @Id
+    @Column(name = "user_ref", nullable = false)
+    private Long userRef;
+
+    @Id
+    @Column(name = "asset", length = 20, nullable = false)
+    private String asset;
+
+    @Id
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "credit_total", nullable = false)
+    private Long creditTotal;
+
+    @Column(name = "debit_total", nullable = false)
+    private Long debitTotal;
+
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+}
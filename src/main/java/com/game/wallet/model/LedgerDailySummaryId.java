@@ -0,0 +1,18 @@
+package com.game.wallet.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class LedgerDailySummaryId implements Serializable {
+
+    private Long userRef;
+    private String asset;
+    private LocalDate entryDate;
+}
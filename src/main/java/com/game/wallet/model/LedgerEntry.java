@@ -9,8 +9,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "ledger_entry", indexes = {
     @Index(name = "idx_ledger_idempotency", columnList = "idempotency_key"),
-    @Index(name = "idx_ledger_debit_user", columnList = "debit_user"),
-    @Index(name = "idx_ledger_credit_user", columnList = "credit_user")
+    @Index(name = "idx_ledger_reference", columnList = "reference, id"),
+    @Index(name = "idx_ledger_debit_history", columnList = "debit_user_ref, created_at"),
+    @Index(name = "idx_ledger_credit_history", columnList = "credit_user_ref, created_at")
 })
 @Getter
 @Setter
@@ -30,6 +31,12 @@ public class LedgerEntry {
     @Column(name = "credit_user", length = 100, nullable = false)
     private String creditUser;
 
+    @Column(name = "debit_user_ref")
+    private Long debitUserRef;
+
+    @Column(name = "credit_user_ref")
+    private Long creditUserRef;
+
     @Column(name = "asset", length = 20, nullable = false)
     private String asset;
 
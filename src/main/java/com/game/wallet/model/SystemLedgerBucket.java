@@ -0,0 +1,44 @@
+package com.game.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One shard of the hourly SYSTEM ledger totals of an asset. SYSTEM entries are left out of
+ * the per-user history indexes; this table is how SYSTEM activity is read instead.
+ */
+@Entity
+@Table(name = "system_ledger_bucket")
+@IdClass(SystemLedgerBucketId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SystemLedgerBucket {
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(name = "asset", length = 20, nullable = false)
+    private String asset;
+
+    @Id
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    @Column(name = "debit_total", nullable = false)
+    private Long debitTotal;
+
+    @Column(name = "credit_total", nullable = false)
+    private Long creditTotal;
+
+    @Column(name = "debit_count", nullable = false)
+    private Long debitCount;
+
+    @Column(name = "credit_count", nullable = false)
+    private Long creditCount;
+}
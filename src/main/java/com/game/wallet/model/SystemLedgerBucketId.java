@@ -0,0 +1,18 @@
+package com.game.wallet.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SystemLedgerBucketId implements Serializable {
+
+    private LocalDateTime bucketStart;
+    private String asset;
+    private Integer shard;
+}
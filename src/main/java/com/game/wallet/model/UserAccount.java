@@ -0,0 +1,32 @@
+package com.game.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_account")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAccount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", length = 100, nullable = false, unique = true)
+    private String userId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public UserAccount(String userId) {
+        this.userId = userId;
+    }
+}
@@ -24,9 +24,19 @@ public class Wallet {
     @Column(name = "asset", length = 20, nullable = false)
     private String asset;
 
+    @Column(name = "user_ref")
+    private Long userRef;
+
     @Column(name = "balance", nullable = false)
     private Long balance = 0L;
 
+    /**
+     * Sum of active holds. Only changed by the conditional updates in WalletRepository,
+     * never by entity flushes, so a stale entity cannot overwrite it.
+     */
+    @Column(name = "held", nullable = false, updatable = false)
+    private Long held = 0L;
+
     @Version
     @Column(name = "version", nullable = false)
     private Long version;
@@ -50,9 +60,13 @@ public class Wallet {
         if (amount <= 0) {
             throw new IllegalArgumentException("Debit amount must be positive");
         }
-        if (this.balance < amount) {
+        if (getAvailable() < amount) {
             throw new IllegalStateException("Insufficient balance");
         }
         this.balance -= amount;
     }
+
+    public long getAvailable() {
+        return balance - (held != null ? held : 0L);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.game.wallet.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reactive counterpart of {@link com.game.wallet.service.UserDirectory}. Interning runs as
+ * its own auto-committed statement before the caller's transaction starts, so two requests
+ * interning the same new user never abort each other.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserDirectory {
+
+    private static final int MAX_CACHED = 1_000_000;
+
+    // The second branch finds users that already exist; ON CONFLICT returns nothing for them.
+    private static final String INTERN = """
+            WITH inserted AS (
+                INSERT INTO user_account (user_id, created_at)
+                VALUES (:userId, CURRENT_TIMESTAMP)
+                ON CONFLICT (user_id) DO NOTHING
+                RETURNING id
+            )
+            SELECT id FROM inserted
+            UNION ALL
+            SELECT id FROM user_account WHERE user_id = :userId
+            """;
+
+    private static final String SELECT = "SELECT id FROM user_account WHERE user_id = :userId";
+
+    private final ReactiveWalletDatabase database;
+    private final Map<String, Long> cache = new ConcurrentHashMap<>();
+
+    public Mono<Long> resolve(String userId) {
+        Long cached = cache.get(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        // A concurrent insert that commits while INTERN runs is invisible to its snapshot,
+        // so an empty result is read again with a fresh statement.
+        return query(INTERN, userId)
+                .switchIfEmpty(Mono.defer(() -> query(SELECT, userId)))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("User vanished while interning: " + userId)))
+                .doOnNext(ref -> remember(userId, ref));
+    }
+
+    public Mono<Long> find(String userId) {
+        Long cached = cache.get(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return query(SELECT, userId).doOnNext(ref -> remember(userId, ref));
+    }
+
+    private Mono<Long> query(String sql, String userId) {
+        return database.client().sql(sql)
+                .bind("userId", userId)
+                .map(row -> row.get(0, Long.class))
+                .first();
+    }
+
+    private void remember(String userId, long ref) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(userId, ref);
+    }
+}
@@ -0,0 +1,38 @@
+package com.game.wallet.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * The R2DBC pool with its client and transaction operator. Deliberately not exposed as a
+ * {@code ConnectionFactory} or {@code ReactiveTransactionManager} bean: either would make
+ * Spring Boot run the SQL init scripts over R2DBC and leave {@code @Transactional} with two
+ * transaction managers to choose from.
+ */
+public class ReactiveWalletDatabase implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+    private final TransactionalOperator transactions;
+
+    public ReactiveWalletDatabase(ConnectionPool pool) {
+        this.pool = pool;
+        this.client = DatabaseClient.create(pool);
+        this.transactions = TransactionalOperator.create(new R2dbcTransactionManager(pool));
+    }
+
+    public DatabaseClient client() {
+        return client;
+    }
+
+    public TransactionalOperator transactions() {
+        return transactions;
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,296 @@
+package com.game.wallet.reactive;
+
+import com.game.wallet.config.SupplyProperties;
+import com.game.wallet.config.SystemLedgerProperties;
+import com.game.wallet.dto.*;
+import com.game.wallet.exception.AssetNotFoundException;
+import com.game.wallet.exception.DuplicateRequestException;
+import com.game.wallet.exception.InsufficientBalanceException;
+import com.game.wallet.exception.WalletNotFoundException;
+import com.game.wallet.export.HistoryExport;
+import com.game.wallet.leaderboard.LeaderboardService;
+import com.game.wallet.ledger.LedgerAggregates;
+import com.game.wallet.service.LedgerSummaryService;
+import com.game.wallet.service.TransactionExportService;
+import com.game.wallet.service.WalletService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking version of the {@link WalletService} hot path: top-up, bonus, spend,
+ * transfer, balance and history. Each mutation is one R2DBC transaction with the same
+ * idempotency check, balance rules, ledger entry and aggregate updates as the JPA path, so
+ * both stacks can serve the same database. Wallets are debited with one conditional update
+ * instead of a locked read followed by a write, which saves a round trip under the row lock.
+ *
+ * <p>Trades, holds, reversals, archived history and summaries are rarer and keep running through the
+ * blocking services, on the bounded elastic scheduler so they never block an event loop.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveWalletService {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+
+    private final ReactiveWalletStore store;
+    private final ReactiveUserDirectory userDirectory;
+    private final TransactionalOperator transactions;
+    private final SupplyProperties supplyProperties;
+    private final SystemLedgerProperties systemLedgerProperties;
+    private final WalletService walletService;
+    private final LedgerSummaryService ledgerSummaryService;
+    private final TransactionExportService transactionExportService;
+    private final LeaderboardService leaderboardService;
+
+    public ReactiveWalletService(ReactiveWalletStore store,
+                                 ReactiveUserDirectory userDirectory,
+                                 ReactiveWalletDatabase database,
+                                 SupplyProperties supplyProperties,
+                                 SystemLedgerProperties systemLedgerProperties,
+                                 WalletService walletService,
+                                 LedgerSummaryService ledgerSummaryService,
+                                 TransactionExportService transactionExportService,
+                                 LeaderboardService leaderboardService) {
+        this.store = store;
+        this.userDirectory = userDirectory;
+        this.transactions = database.transactions();
+        this.supplyProperties = supplyProperties;
+        this.systemLedgerProperties = systemLedgerProperties;
+        this.walletService = walletService;
+        this.ledgerSummaryService = ledgerSummaryService;
+        this.transactionExportService = transactionExportService;
+        this.leaderboardService = leaderboardService;
+    }
+
+    public Mono<Void> topUp(TopUpRequest request) {
+        return store.findBonus(request.getAsset())
+                .flatMap(bonus -> bonus
+                        ? Mono.<Void>error(new IllegalArgumentException(
+                        "Bonus asset " + request.getAsset() + " is only granted, not bought"))
+                        : Mono.<Void>empty())
+                .then(Mono.defer(() -> grant("TOPUP", request.getUserId(), request.getAsset(),
+                        request.getAmount(), request.getIdempotencyKey(), "TOP-UP")));
+    }
+
+    public Mono<Void> bonus(BonusRequest request) {
+        return grant("BONUS", request.getUserId(), request.getAsset(), request.getAmount(),
+                request.getIdempotencyKey(), request.getReason());
+    }
+
+    public Mono<Void> spend(SpendRequest request) {
+        String userId = request.getUserId();
+        String asset = request.getAsset();
+        long amount = request.getAmount();
+        String key = request.getIdempotencyKey();
+
+        return resolve(userId, SYSTEM_USER).flatMap(refs -> checkDuplicate(key, "SPEND")
+                .then(debit(userId, asset, amount, "User wallet has insufficient balance"))
+                .then(getLimitedSupply(asset))
+                .flatMap(limited -> limited
+                        ? store.credit(SYSTEM_USER, refs.get(SYSTEM_USER), asset, amount)
+                        : Mono.<Void>empty())
+                .then(post(userId, SYSTEM_USER, refs, asset, amount, key, request.getOrderId()))
+                .then(saveIdempotency(key, "SPEND"))
+                .as(transactions::transactional)
+                .doOnSuccess(committed -> leaderboardService.touched(asset, userId, SYSTEM_USER)));
+    }
+
+    public Mono<Void> transfer(TransferRequest request) {
+        String from = request.getFromUserId();
+        String to = request.getToUserId();
+        String asset = request.getAsset();
+        long amount = request.getAmount();
+        String key = request.getIdempotencyKey();
+        String reference = request.getReference() != null ? request.getReference() : "TRANSFER";
+
+        if (from.equals(to)) {
+            return Mono.error(new IllegalArgumentException("Cannot transfer to the same user: " + from));
+        }
+        if (SYSTEM_USER.equals(from) || SYSTEM_USER.equals(to)) {
+            return Mono.error(new IllegalArgumentException("Transfers cannot involve the system wallet"));
+        }
+
+        return resolve(from, to).flatMap(refs -> checkDuplicate(key, "TRANSFER")
+                .then(getLimitedSupply(asset))
+                .then(store.lockWallets(asset, new TreeSet<>(List.of(from, to))))
+                .then(debit(from, asset, amount, "User " + from + " has insufficient balance"))
+                .then(store.credit(to, refs.get(to), asset, amount))
+                .then(post(from, to, refs, asset, amount, key, reference))
+                .then(saveIdempotency(key, "TRANSFER"))
+                .as(transactions::transactional)
+                .doOnSuccess(committed -> leaderboardService.touched(asset, from, to)));
+    }
+
+    public Mono<Void> trade(TradeRequest request) {
+        return blocking(() -> {
+            walletService.trade(request);
+            return null;
+        });
+    }
+
+    public Mono<ReversalResponse> reverse(ReverseRequest request) {
+        return blocking(() -> walletService.reverse(request));
+    }
+
+    public Mono<HoldResponse> reserve(ReserveRequest request) {
+        return blocking(() -> walletService.reserve(request));
+    }
+
+    public Mono<HoldResponse> capture(Long holdId) {
+        return blocking(() -> walletService.capture(holdId));
+    }
+
+    public Mono<HoldResponse> release(Long holdId) {
+        return blocking(() -> walletService.release(holdId));
+    }
+
+    public Mono<BalanceResponse> getBalance(String userId, String asset) {
+        return store.findBalance(userId, asset)
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException(
+                        "Wallet not found for user=" + userId + ", asset=" + asset)));
+    }
+
+    public Mono<Page<LedgerResponse>> getTransactions(String userId, Pageable pageable) {
+        if (SYSTEM_USER.equals(userId)) {
+            return Mono.error(new IllegalArgumentException("SYSTEM history is served by /v1/admin/system-ledger"));
+        }
+        return userDirectory.find(userId)
+                .flatMap(ref -> store.findHistory(ref, pageable).collectList()
+                        .zipWith(store.countHistory(ref))
+                        .map(page -> (Page<LedgerResponse>) new PageImpl<>(page.getT1(), pageable, page.getT2())))
+                .defaultIfEmpty(Page.empty(pageable));
+    }
+
+    public Mono<List<LedgerResponse>> getArchivedTransactions(String userId, YearMonth month) {
+        return blocking(() -> walletService.getArchivedTransactions(userId, month));
+    }
+
+    public Mono<TransactionSummaryResponse> getSummary(String userId, LocalDate from, LocalDate to) {
+        return blocking(() -> ledgerSummaryService.getSummary(userId, from, to));
+    }
+
+    public Mono<LeaderboardResponse> getLeaderboard(String asset, int limit) {
+        return blocking(() -> leaderboardService.getLeaderboard(asset, limit));
+    }
+
+    public HistoryExport prepareExport(String userId, String format, LocalDate from, LocalDate to, String asset) {
+        return transactionExportService.prepare(userId, format, from, to, asset);
+    }
+
+    /**
+     * Runs the blocking cursor export on the bounded elastic scheduler. The writer blocks
+     * while the client is slow to read, so memory stays bounded here too.
+     */
+    public Flux<DataBuffer> exportTransactions(HistoryExport export) {
+        return Flux.from(DataBufferUtils.outputStreamPublisher(
+                out -> transactionExportService.write(export, out),
+                DefaultDataBufferFactory.sharedInstance,
+                Schedulers.boundedElastic()::schedule));
+    }
+
+    private Mono<Void> grant(String operation, String userId, String asset, long amount,
+                             String key, String reference) {
+        return resolve(SYSTEM_USER, userId).flatMap(refs -> checkDuplicate(key, operation)
+                .then(getLimitedSupply(asset))
+                .flatMap(limited -> limited
+                        ? debit(SYSTEM_USER, asset, amount, "System wallet has insufficient balance")
+                        : Mono.<Void>empty())
+                .then(store.credit(userId, refs.get(userId), asset, amount))
+                .then(post(SYSTEM_USER, userId, refs, asset, amount, key, reference))
+                .then(saveIdempotency(key, operation))
+                .as(transactions::transactional)
+                .doOnSuccess(committed -> leaderboardService.touched(asset, SYSTEM_USER, userId)));
+    }
+
+    /**
+     * Writes the ledger entry and the {@link LedgerAggregates} the JPA path writes in its
+     * {@code LedgerPostedEvent} listeners: daily summaries, supply counters and SYSTEM buckets.
+     */
+    private Mono<Void> post(String debitUser, String creditUser, Map<String, Long> refs, String asset,
+                            long amount, String key, String reference) {
+        long debitRef = refs.get(debitUser);
+        long creditRef = refs.get(creditUser);
+        LedgerAggregates aggregates = LedgerAggregates.of(debitUser, creditUser, asset, amount);
+        LocalDate today = LocalDate.now();
+
+        List<Mono<Void>> writes = new ArrayList<>(5);
+        writes.add(store.insertEntry(debitUser, debitRef, creditUser, creditRef, asset, amount, key, reference));
+        if (aggregates.isDebitSummarized()) {
+            writes.add(store.addSummary(debitRef, asset, today, 0, amount));
+        }
+        if (aggregates.isCreditSummarized()) {
+            writes.add(store.addSummary(creditRef, asset, today, amount, 0));
+        }
+        if (aggregates.changesSupply()) {
+            writes.add(store.addSupply(asset,
+                    LedgerAggregates.shardForCurrentThread(supplyProperties.getCounterShards()),
+                    aggregates.getIssued(), aggregates.getBurned()));
+        }
+        if (aggregates.changesSystemBucket()) {
+            writes.add(store.addSystemBucket(LedgerAggregates.systemBucket(LocalDateTime.now()), asset,
+                    LedgerAggregates.shardForCurrentThread(systemLedgerProperties.getShards()),
+                    aggregates.getSystemDebit(), aggregates.getSystemCredit(),
+                    aggregates.getSystemDebitCount(), aggregates.getSystemCreditCount()));
+        }
+        // One connection runs one statement at a time, so the writes are chained, not merged.
+        return Flux.concat(writes).then();
+    }
+
+    private Mono<Void> debit(String userId, String asset, long amount, String insufficientMessage) {
+        return store.debit(userId, asset, amount)
+                .flatMap(updated -> updated > 0
+                        ? Mono.<Void>empty()
+                        : store.walletExists(userId, asset).flatMap(exists -> Mono.<Void>error(exists
+                        ? new InsufficientBalanceException(insufficientMessage)
+                        : new WalletNotFoundException(
+                        String.format("Wallet not found for user: %s, asset: %s", userId, asset)))));
+    }
+
+    private Mono<Boolean> getLimitedSupply(String asset) {
+        return store.findLimitedSupply(asset)
+                .switchIfEmpty(Mono.error(() -> new AssetNotFoundException("Asset not found: " + asset)));
+    }
+
+    private Mono<Void> checkDuplicate(String key, String operation) {
+        return store.idempotencyExists(key, operation)
+                .flatMap(exists -> exists ? Mono.<Void>error(new DuplicateRequestException()) : Mono.<Void>empty());
+    }
+
+    private Mono<Void> saveIdempotency(String key, String operation) {
+        return store.saveIdempotency(key, operation)
+                .onErrorMap(DataIntegrityViolationException.class, ex -> new DuplicateRequestException());
+    }
+
+    /**
+     * Interns the users before the transaction starts, in their own statements.
+     */
+    private Mono<Map<String, Long>> resolve(String... userIds) {
+        return Flux.fromArray(userIds)
+                .concatMap(userId -> userDirectory.resolve(userId).map(ref -> Map.entry(userId, ref)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,280 @@
+package com.game.wallet.reactive;
+
+import com.game.wallet.dto.BalanceResponse;
+import com.game.wallet.dto.LedgerResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The statements behind {@link ReactiveWalletService}, written against the same tables as
+ * the JPA and JDBC repositories. PostgreSQL only; the reactive profile has no H2 variant.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveWalletStore {
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "createdAt", "created_at",
+            "amount", "amount",
+            "asset", "asset",
+            "id", "id");
+
+    private static final String DEBIT = """
+            UPDATE wallet
+            SET balance = balance - :amount, version = version + 1, updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = :userId AND asset = :asset AND balance - held >= :amount
+            """;
+
+    private static final String CREDIT = """
+            INSERT INTO wallet (user_id, user_ref, asset, balance, held, version, created_at, updated_at)
+            VALUES (:userId, :userRef, :asset, :amount, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id, asset) DO UPDATE
+            SET balance = wallet.balance + EXCLUDED.balance,
+                user_ref = COALESCE(wallet.user_ref, EXCLUDED.user_ref),
+                version = wallet.version + 1,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String LOCK_WALLETS = """
+            SELECT user_id FROM wallet
+            WHERE asset = :asset AND user_id IN (:userIds)
+            ORDER BY user_id
+            FOR UPDATE
+            """;
+
+    private static final String INSERT_ENTRY = """
+            INSERT INTO ledger_entry (debit_user, credit_user, debit_user_ref, credit_user_ref, asset, amount,
+                                      idempotency_key, reference, created_at)
+            VALUES (:debitUser, :creditUser, :debitRef, :creditRef, :asset, :amount, :key, :reference, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String ADD_SUMMARY = """
+            INSERT INTO ledger_daily_summary (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+            VALUES (:userRef, :asset, :date, :credit, :debit, 1)
+            ON CONFLICT (user_ref, asset, entry_date) DO UPDATE
+            SET credit_total = ledger_daily_summary.credit_total + EXCLUDED.credit_total,
+                debit_total = ledger_daily_summary.debit_total + EXCLUDED.debit_total,
+                entry_count = ledger_daily_summary.entry_count + 1
+            """;
+
+    private static final String ADD_SUPPLY = """
+            INSERT INTO asset_supply_counter (asset, shard, issued, burned)
+            VALUES (:asset, :shard, :issued, :burned)
+            ON CONFLICT (asset, shard) DO UPDATE
+            SET issued = asset_supply_counter.issued + EXCLUDED.issued,
+                burned = asset_supply_counter.burned + EXCLUDED.burned
+            """;
+
+    private static final String ADD_SYSTEM_BUCKET = """
+            INSERT INTO system_ledger_bucket (bucket_start, asset, shard, debit_total, credit_total, debit_count, credit_count)
+            VALUES (:bucket, :asset, :shard, :debit, :credit, :debitCount, :creditCount)
+            ON CONFLICT (bucket_start, asset, shard) DO UPDATE
+            SET debit_total = system_ledger_bucket.debit_total + EXCLUDED.debit_total,
+                credit_total = system_ledger_bucket.credit_total + EXCLUDED.credit_total,
+                debit_count = system_ledger_bucket.debit_count + EXCLUDED.debit_count,
+                credit_count = system_ledger_bucket.credit_count + EXCLUDED.credit_count
+            """;
+
+    // The SYSTEM conditions repeat the predicates of the partial history indexes.
+    private static final String HISTORY_WHERE = """
+            WHERE (debit_user_ref = :userRef AND debit_user <> 'SYSTEM')
+               OR (credit_user_ref = :userRef AND credit_user <> 'SYSTEM')
+            """;
+
+    private final ReactiveWalletDatabase database;
+
+    public Mono<Boolean> findLimitedSupply(String asset) {
+        return client().sql("SELECT limited_supply FROM asset WHERE code = :asset")
+                .bind("asset", asset)
+                .map(row -> row.get(0, Boolean.class))
+                .first();
+    }
+
+    public Mono<Boolean> findBonus(String asset) {
+        return client().sql("SELECT bonus FROM asset WHERE code = :asset")
+                .bind("asset", asset)
+                .map(row -> row.get(0, Boolean.class))
+                .first();
+    }
+
+    public Mono<Boolean> idempotencyExists(String key, String operation) {
+        return client().sql("SELECT EXISTS (SELECT 1 FROM idempotency_key WHERE idempotency_key = :key AND operation = :operation)")
+                .bind("key", key)
+                .bind("operation", operation)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Mono<Void> saveIdempotency(String key, String operation) {
+        return client().sql("INSERT INTO idempotency_key (idempotency_key, operation, created_at) VALUES (:key, :operation, CURRENT_TIMESTAMP)")
+                .bind("key", key)
+                .bind("operation", operation)
+                .then();
+    }
+
+    public Mono<Boolean> walletExists(String userId, String asset) {
+        return client().sql("SELECT EXISTS (SELECT 1 FROM wallet WHERE user_id = :userId AND asset = :asset)")
+                .bind("userId", userId)
+                .bind("asset", asset)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    /**
+     * Debits the available balance with one conditional update.
+     *
+     * @return 1 if debited, 0 if the wallet is missing or short
+     */
+    public Mono<Long> debit(String userId, String asset, long amount) {
+        return client().sql(DEBIT)
+                .bind("userId", userId)
+                .bind("asset", asset)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Void> credit(String userId, long userRef, String asset, long amount) {
+        return client().sql(CREDIT)
+                .bind("userId", userId)
+                .bind("userRef", userRef)
+                .bind("asset", asset)
+                .bind("amount", amount)
+                .then();
+    }
+
+    /**
+     * Locks the existing wallets of {@code userIds} in user order, like
+     * {@code WalletRepository.findAllForUpdate}, so opposite transfers cannot deadlock.
+     */
+    public Mono<Void> lockWallets(String asset, Collection<String> userIds) {
+        return client().sql(LOCK_WALLETS)
+                .bind("asset", asset)
+                .bind("userIds", userIds)
+                .fetch()
+                .all()
+                .then();
+    }
+
+    public Mono<Void> insertEntry(String debitUser, long debitRef, String creditUser, long creditRef,
+                                  String asset, long amount, String key, String reference) {
+        DatabaseClient.GenericExecuteSpec spec = client().sql(INSERT_ENTRY)
+                .bind("debitUser", debitUser)
+                .bind("creditUser", creditUser)
+                .bind("debitRef", debitRef)
+                .bind("creditRef", creditRef)
+                .bind("asset", asset)
+                .bind("amount", amount)
+                .bind("key", key);
+        spec = reference != null ? spec.bind("reference", reference) : spec.bindNull("reference", String.class);
+        return spec.then();
+    }
+
+    public Mono<Void> addSummary(long userRef, String asset, LocalDate date, long credit, long debit) {
+        return client().sql(ADD_SUMMARY)
+                .bind("userRef", userRef)
+                .bind("asset", asset)
+                .bind("date", date)
+                .bind("credit", credit)
+                .bind("debit", debit)
+                .then();
+    }
+
+    public Mono<Void> addSupply(String asset, int shard, long issued, long burned) {
+        return client().sql(ADD_SUPPLY)
+                .bind("asset", asset)
+                .bind("shard", shard)
+                .bind("issued", issued)
+                .bind("burned", burned)
+                .then();
+    }
+
+    public Mono<Void> addSystemBucket(LocalDateTime bucket, String asset, int shard,
+                                      long debit, long credit, long debitCount, long creditCount) {
+        return client().sql(ADD_SYSTEM_BUCKET)
+                .bind("bucket", bucket)
+                .bind("asset", asset)
+                .bind("shard", shard)
+                .bind("debit", debit)
+                .bind("credit", credit)
+                .bind("debitCount", debitCount)
+                .bind("creditCount", creditCount)
+                .then();
+    }
+
+    public Mono<BalanceResponse> findBalance(String userId, String asset) {
+        return client().sql("SELECT user_id, asset, balance, held, version FROM wallet WHERE user_id = :userId AND asset = :asset")
+                .bind("userId", userId)
+                .bind("asset", asset)
+                .map(row -> {
+                    long balance = row.get("balance", Long.class);
+                    long held = row.get("held", Long.class);
+                    return BalanceResponse.builder()
+                            .userId(row.get("user_id", String.class))
+                            .asset(row.get("asset", String.class))
+                            .balance(balance)
+                            .held(held)
+                            .available(balance - held)
+                            .version(row.get("version", Long.class))
+                            .build();
+                })
+                .one();
+    }
+
+    public Flux<LedgerResponse> findHistory(long userRef, Pageable pageable) {
+        String sql = "SELECT debit_user, credit_user, asset, amount, reference, created_at FROM ledger_entry "
+                + HISTORY_WHERE + orderBy(pageable.getSort()) + " LIMIT :limit OFFSET :offset";
+        return client().sql(sql)
+                .bind("userRef", userRef)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(row -> LedgerResponse.builder()
+                        .debitUser(row.get("debit_user", String.class))
+                        .creditUser(row.get("credit_user", String.class))
+                        .asset(row.get("asset", String.class))
+                        .amount(row.get("amount", Long.class))
+                        .reference(row.get("reference", String.class))
+                        .createdAt(row.get("created_at", LocalDateTime.class))
+                        .build())
+                .all();
+    }
+
+    public Mono<Long> countHistory(long userRef) {
+        return client().sql("SELECT COUNT(*) FROM ledger_entry " + HISTORY_WHERE)
+                .bind("userRef", userRef)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " ORDER BY created_at DESC";
+        }
+        return sort.stream()
+                .map(order -> {
+                    String column = SORT_COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " ASC" : " DESC");
+                })
+                .collect(Collectors.joining(", ", " ORDER BY ", ""));
+    }
+
+    private DatabaseClient client() {
+        return database.client();
+    }
+}
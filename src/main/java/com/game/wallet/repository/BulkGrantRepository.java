@@ -0,0 +1,93 @@
+package com.game.wallet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grant registration, per-chunk checkpoints and the set-based wallet writes used by the
+ * bulk grant job. PostgreSQL only, like the other bulk loaders.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkGrantRepository {
+
+    private static final String UPSERT_WALLETS = "INSERT INTO wallet " +
+            "(user_id, user_ref, asset, balance, held, version, created_at, updated_at) VALUES ";
+    private static final String WALLET_ROW = "(?, ?, ?, ?, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+    private static final String ON_CONFLICT = " ON CONFLICT (user_id, asset) DO UPDATE " +
+            "SET balance = wallet.balance + EXCLUDED.balance, " +
+            "user_ref = COALESCE(wallet.user_ref, EXCLUDED.user_ref), " +
+            "version = wallet.version + 1, updated_at = CURRENT_TIMESTAMP";
+    private static final int WALLET_COLUMNS = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the grant on first use. A grant id can only be resumed for the asset it was
+     * started with.
+     */
+    public void register(String grantId, String asset, String reference) {
+        jdbcTemplate.update("""
+                INSERT INTO bulk_grant (grant_id, asset, reference, created_at)
+                VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+                ON CONFLICT (grant_id) DO NOTHING
+                """, grantId, asset, reference);
+        String existing = jdbcTemplate.queryForObject(
+                "SELECT asset FROM bulk_grant WHERE grant_id = ?", String.class, grantId);
+        if (!asset.equals(existing)) {
+            throw new IllegalArgumentException("Grant " + grantId + " was started for asset " + existing);
+        }
+    }
+
+    /**
+     * Writes the checkpoint for a chunk. Must run in the chunk's transaction, so the
+     * checkpoint commits exactly when the chunk does.
+     *
+     * @return {@code false} if the chunk was already completed by an earlier run
+     */
+    public boolean claimChunk(String grantId, long chunkNo, int users, long amount) {
+        return jdbcTemplate.update("""
+                INSERT INTO bulk_grant_chunk (grant_id, chunk_no, users, amount, completed_at)
+                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                ON CONFLICT (grant_id, chunk_no) DO NOTHING
+                """, grantId, chunkNo, users, amount) == 1;
+    }
+
+    /**
+     * @return {@code false} if the SYSTEM wallet's available balance does not cover the amount
+     */
+    public boolean debitSystem(String asset, long amount) {
+        return jdbcTemplate.update("""
+                UPDATE wallet
+                SET balance = balance - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP
+                WHERE user_id = 'SYSTEM' AND asset = ? AND balance - held >= ?
+                """, amount, asset, amount) == 1;
+    }
+
+    /**
+     * Creates or credits one wallet per user with a multi-row upsert. Users must be sorted,
+     * so wallet rows are locked in the same order as every other multi-wallet write.
+     */
+    public void creditWallets(String asset, List<String> userIds, Map<String, Long> amounts,
+                              Map<String, Long> userRefs) {
+        StringBuilder sql = new StringBuilder(UPSERT_WALLETS);
+        Object[] args = new Object[userIds.size() * WALLET_COLUMNS];
+        int i = 0;
+        for (String userId : userIds) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(WALLET_ROW);
+            args[i++] = userId;
+            args[i++] = userRefs.get(userId);
+            args[i++] = asset;
+            args[i++] = amounts.get(userId);
+        }
+        sql.append(ON_CONFLICT);
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
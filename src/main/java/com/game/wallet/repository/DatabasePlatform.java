@@ -0,0 +1,37 @@
+package com.game.wallet.repository;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Tells JDBC repositories which SQL dialect to emit for statements that have no portable
+ * form, such as upserts. Production runs on PostgreSQL; tests run on H2.
+ */
+@Component
+public class DatabasePlatform {
+
+    private final DataSource dataSource;
+    private volatile Boolean postgres;
+
+    public DatabasePlatform(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                result = "PostgreSQL".equalsIgnoreCase(product);
+            } catch (MetaDataAccessException ex) {
+                throw new IllegalStateException("Cannot determine database platform", ex);
+            }
+            postgres = result;
+        }
+        return result;
+    }
+}
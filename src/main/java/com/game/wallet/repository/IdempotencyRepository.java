@@ -2,10 +2,19 @@ package com.game.wallet.repository;
 
 import com.game.wallet.model.IdempotencyKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+
 @Repository
 public interface IdempotencyRepository extends JpaRepository<IdempotencyKey, Long> {
 
     boolean existsByIdempotencyKeyAndOperation(String idempotencyKey, String operation);
+
+    @Query("SELECT k.idempotencyKey FROM IdempotencyKey k " +
+            "WHERE k.operation = :operation AND k.idempotencyKey IN :keys")
+    Set<String> findExistingKeys(@Param("keys") Collection<String> keys, @Param("operation") String operation);
 }
\ No newline at end of file
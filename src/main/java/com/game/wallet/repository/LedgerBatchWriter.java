@@ -0,0 +1,54 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.model.LedgerEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes several ledger entries with one multi-row INSERT, so a trade costs a single round
+ * trip regardless of its number of legs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerBatchWriter {
+
+    private static final String INSERT = "INSERT INTO ledger_entry " +
+            "(debit_user, credit_user, debit_user_ref, credit_user_ref, asset, amount, idempotency_key, reference, created_at) " +
+            "VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 9;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT);
+        Object[] args = new Object[entries.size() * COLUMNS];
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int i = 0;
+        for (LedgerEntry entry : entries) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            args[i++] = entry.getDebitUser();
+            args[i++] = entry.getCreditUser();
+            args[i++] = entry.getDebitUserRef();
+            args[i++] = entry.getCreditUserRef();
+            args[i++] = entry.getAsset();
+            args[i++] = entry.getAmount();
+            args[i++] = entry.getIdempotencyKey();
+            args[i++] = entry.getReference();
+            args[i++] = entry.getCreatedAt() != null ? Timestamp.valueOf(entry.getCreatedAt()) : now;
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
@@ -0,0 +1,19 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.model.LedgerDailySummary;
+import com.game.wallet.model.LedgerDailySummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LedgerDailySummaryRepository extends JpaRepository<LedgerDailySummary, LedgerDailySummaryId> {
+
+    List<LedgerDailySummary> findByUserRefAndEntryDateBetweenOrderByAssetAscEntryDateAsc(
+            Long userRef,
+            LocalDate from,
+            LocalDate to
+    );
+}
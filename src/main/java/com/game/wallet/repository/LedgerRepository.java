@@ -1,9 +1,12 @@
 package com.game.wallet.repository;
 
+import com.game.wallet.dto.LedgerResponse;
 import com.game.wallet.model.LedgerEntry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,11 +14,35 @@ import java.util.List;
 @Repository
 public interface LedgerRepository extends JpaRepository<LedgerEntry, Long> {
 
-    Page<LedgerEntry> findByDebitUserOrCreditUser(
-            String debitUser,
-            String creditUser,
-            Pageable pageable
-    );
+    /**
+     * History of one user. The SYSTEM conditions repeat the predicates of the partial
+     * history indexes so PostgreSQL can use them; they never filter out a row of a real user.
+     * Rows are read straight into {@link LedgerResponse}, so no entity is hydrated or tracked.
+     */
+    @Query(value = "SELECT new com.game.wallet.dto.LedgerResponse(" +
+            "l.debitUser, l.creditUser, l.asset, l.amount, l.reference, l.createdAt) " +
+            "FROM LedgerEntry l " +
+            "WHERE (l.debitUserRef = :userRef AND l.debitUser <> 'SYSTEM') " +
+            "OR (l.creditUserRef = :userRef AND l.creditUser <> 'SYSTEM')",
+            countQuery = "SELECT COUNT(l) FROM LedgerEntry l " +
+                    "WHERE (l.debitUserRef = :userRef AND l.debitUser <> 'SYSTEM') " +
+                    "OR (l.creditUserRef = :userRef AND l.creditUser <> 'SYSTEM')")
+    Page<LedgerResponse> findUserHistory(@Param("userRef") Long userRef, Pageable pageable);
 
     List<LedgerEntry> findAllByOrderByIdAsc();
-}
\ No newline at end of file
+
+    @Query("SELECT l FROM LedgerEntry l WHERE l.idempotencyKey = :key " +
+            "AND (l.debitUser = :userId OR l.creditUser = :userId) ORDER BY l.id")
+    List<LedgerEntry> findByIdempotencyKeyForUser(@Param("key") String idempotencyKey, @Param("userId") String userId);
+
+    @Query("SELECT l FROM LedgerEntry l WHERE l.reference = :reference " +
+            "AND (l.debitUser = :userId OR l.creditUser = :userId) ORDER BY l.id")
+    List<LedgerEntry> findByReferenceForUser(@Param("reference") String reference, @Param("userId") String userId);
+
+    /**
+     * Keyset page of the entries posted under a reference, in id order.
+     */
+    @Query("SELECT l FROM LedgerEntry l WHERE l.reference = :reference AND l.id > :afterId ORDER BY l.id")
+    List<LedgerEntry> findByReferenceAfter(@Param("reference") String reference, @Param("afterId") long afterId,
+                                           Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.ledger.LedgerRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams ledger rows through a JDBC cursor into a single reused {@link LedgerRow}.
+ * User refs and asset indexes are resolved in SQL so no strings are materialized per row.
+ * Must run inside a transaction for the cursor to stream on PostgreSQL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerRowReader {
+
+    private static final String GENESIS = "GENESIS";
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param assets asset codes; a row's asset index is its position in this list
+     */
+    public void streamAll(List<String> assets, Consumer<LedgerRow> consumer) {
+        StringBuilder assetCase = new StringBuilder("CASE l.asset");
+        for (int i = 0; i < assets.size(); i++) {
+            assetCase.append(" WHEN ? THEN ").append(i);
+        }
+        assetCase.append(" ELSE -1 END");
+
+        String sql = "SELECT l.id, " +
+                "CASE WHEN l.debit_user = ? THEN 0 ELSE COALESCE(l.debit_user_ref, " +
+                "(SELECT u.id FROM user_account u WHERE u.user_id = l.debit_user)) END, " +
+                "COALESCE(l.credit_user_ref, (SELECT u.id FROM user_account u WHERE u.user_id = l.credit_user)), " +
+                assetCase + ", l.amount " +
+                "FROM ledger_entry l ORDER BY l.id";
+
+        LedgerRow row = new LedgerRow();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            int parameter = 1;
+            ps.setString(parameter++, GENESIS);
+            for (String asset : assets) {
+                ps.setString(parameter++, asset);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long id = rs.getLong(1);
+            long debitRef = rs.getLong(2);
+            if (rs.wasNull()) {
+                throw new IllegalStateException("Debit user not interned for ledger entry " + id
+                        + ". Run db/intern-users.sql");
+            }
+            long creditRef = rs.getLong(3);
+            if (rs.wasNull()) {
+                throw new IllegalStateException("Credit user not interned for ledger entry " + id
+                        + ". Run db/intern-users.sql");
+            }
+            int asset = rs.getInt(4);
+            if (asset < 0) {
+                throw new IllegalStateException("Missing credit wallet during replay. EntryId=" + id);
+            }
+            consumer.accept(row.set(id, debitRef, creditRef, asset, rs.getLong(5)));
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.game.wallet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds ledger movements to ledger_daily_summary with a single upsert per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerSummaryWriter {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO ledger_daily_summary (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_ref, asset, entry_date) DO UPDATE
+            SET credit_total = ledger_daily_summary.credit_total + EXCLUDED.credit_total,
+                debit_total = ledger_daily_summary.debit_total + EXCLUDED.debit_total,
+                entry_count = ledger_daily_summary.entry_count + EXCLUDED.entry_count
+            """;
+
+    private static final String STANDARD_MERGE = """
+            MERGE INTO ledger_daily_summary t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(20)), CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                           CAST(? AS BIGINT)))
+                AS s (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+            ON t.user_ref = s.user_ref AND t.asset = s.asset AND t.entry_date = s.entry_date
+            WHEN MATCHED THEN UPDATE
+                SET credit_total = t.credit_total + s.credit_total,
+                    debit_total = t.debit_total + s.debit_total,
+                    entry_count = t.entry_count + s.entry_count
+            WHEN NOT MATCHED THEN
+                INSERT (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+                VALUES (s.user_ref, s.asset, s.entry_date, s.credit_total, s.debit_total, s.entry_count)
+            """;
+
+    // Archived months have no ledger rows left to rebuild from, so only days from the oldest
+    // live entry on are replaced. An empty ledger replaces nothing.
+    private static final String DELETE_LIVE_DAYS = """
+            DELETE FROM ledger_daily_summary
+            WHERE entry_date >= (SELECT CAST(MIN(created_at) AS DATE) FROM ledger_entry)
+            """;
+
+    private static final String REBUILD = """
+            INSERT INTO ledger_daily_summary (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+            SELECT user_ref, asset, entry_date, SUM(credit), SUM(debit), COUNT(*)
+            FROM (
+                SELECT credit_user_ref AS user_ref, asset, CAST(created_at AS DATE) AS entry_date, amount AS credit, 0 AS debit
+                FROM ledger_entry WHERE credit_user NOT IN ('SYSTEM', 'GENESIS')
+                UNION ALL
+                SELECT debit_user_ref, asset, CAST(created_at AS DATE), 0, amount
+                FROM ledger_entry WHERE debit_user NOT IN ('SYSTEM', 'GENESIS')
+            ) movements
+            WHERE user_ref IS NOT NULL
+            GROUP BY user_ref, asset, entry_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public void add(long userRef, String asset, LocalDate date, long credit, long debit) {
+        jdbcTemplate.update(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE,
+                userRef, asset, Date.valueOf(date), credit, debit, 1L);
+    }
+
+    /**
+     * Adds one credit entry per user in a single batch, for bulk writers that post many
+     * entries of the same asset on the same day.
+     */
+    public void addCredits(String asset, LocalDate date, Map<Long, Long> creditsByUserRef) {
+        addCredits(asset, date, creditsByUserRef, Map.of());
+    }
+
+    /**
+     * Adds each user's credits as {@code entriesByUserRef} entries, one if the user is not
+     * in it, for writers that post several entries per user in one batch.
+     */
+    public void addCredits(String asset, LocalDate date, Map<Long, Long> creditsByUserRef,
+                           Map<Long, Long> entriesByUserRef) {
+        Date day = Date.valueOf(date);
+        List<Object[]> batch = new ArrayList<>(creditsByUserRef.size());
+        creditsByUserRef.forEach((userRef, credit) -> batch.add(
+                new Object[]{userRef, asset, day, credit, 0L, entriesByUserRef.getOrDefault(userRef, 1L)}));
+        jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE, batch);
+    }
+
+    /**
+     * Adds one debit entry per user in a single batch, the counterpart of {@link #addCredits}.
+     */
+    public void addDebits(String asset, LocalDate date, Map<Long, Long> debitsByUserRef) {
+        addDebits(asset, date, debitsByUserRef, Map.of());
+    }
+
+    public void addDebits(String asset, LocalDate date, Map<Long, Long> debitsByUserRef,
+                          Map<Long, Long> entriesByUserRef) {
+        Date day = Date.valueOf(date);
+        List<Object[]> batch = new ArrayList<>(debitsByUserRef.size());
+        debitsByUserRef.forEach((userRef, debit) -> batch.add(
+                new Object[]{userRef, asset, day, 0L, debit, entriesByUserRef.getOrDefault(userRef, 1L)}));
+        jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE, batch);
+    }
+
+    /**
+     * Recomputes the summary rows of the current shard from ledger_entry, keeping those of
+     * archived months. Used after bulk loads that write the ledger directly.
+     */
+    public int rebuild() {
+        jdbcTemplate.update(DELETE_LIVE_DAYS);
+        return jdbcTemplate.update(REBUILD);
+    }
+}
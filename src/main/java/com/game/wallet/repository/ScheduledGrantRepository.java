@@ -0,0 +1,162 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.grant.ScheduledGrant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The scheduled_grant table and the wallet writes of grant expiry. Claims use SKIP LOCKED,
+ * so several instances can poll at once without applying a grant twice. PostgreSQL only,
+ * like the other bulk loaders.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduledGrantRepository {
+
+    private static final String INSERT = """
+            INSERT INTO scheduled_grant (schedule_id, user_id, asset, amount, reference, grant_at, expires_in_seconds)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (schedule_id, user_id) DO NOTHING
+            """;
+
+    private static final String CLAIM_DUE = """
+            SELECT id, schedule_id, user_id, asset, amount, reference, expires_in_seconds FROM scheduled_grant
+            WHERE status = 'SCHEDULED' AND grant_at <= ?
+            ORDER BY grant_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String CLAIM_EXPIRED = """
+            SELECT id, schedule_id, user_id, asset, amount, reference, expires_in_seconds FROM scheduled_grant
+            WHERE status = 'GRANTED' AND expires_at <= ?
+            ORDER BY expires_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String MARK_GRANTED = "UPDATE scheduled_grant SET status = 'GRANTED', granted_at = ?, " +
+            "expires_at = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String MARK_EXPIRED = "UPDATE scheduled_grant SET status = 'EXPIRED', expired_amount = ?, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String MARK_FAILED =
+            "UPDATE scheduled_grant SET status = 'FAILED', updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String DEBIT_WALLET = "UPDATE wallet SET balance = balance - ?, version = version + 1, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE user_id = ? AND asset = ?";
+
+    private static final RowMapper<ScheduledGrant> ROW_MAPPER = (rs, rowNum) -> new ScheduledGrant(
+            rs.getLong("id"),
+            rs.getString("schedule_id"),
+            rs.getString("user_id"),
+            rs.getString("asset"),
+            rs.getLong("amount"),
+            rs.getString("reference"),
+            rs.getObject("expires_in_seconds", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the number of users newly scheduled; users already in the schedule are skipped
+     */
+    public int schedule(String scheduleId, String asset, String reference, LocalDateTime grantAt,
+                        Long expiresInSeconds, Map<String, Long> amounts) {
+        Timestamp at = Timestamp.valueOf(grantAt);
+        List<Object[]> batch = new ArrayList<>(amounts.size());
+        amounts.forEach((userId, amount) ->
+                batch.add(new Object[]{scheduleId, userId, asset, amount, reference, at, expiresInSeconds}));
+        int scheduled = 0;
+        for (int count : jdbcTemplate.batchUpdate(INSERT, batch)) {
+            scheduled += Math.max(count, 0);
+        }
+        return scheduled;
+    }
+
+    /**
+     * Cancels the grants of a schedule that have not been granted yet.
+     */
+    public int cancel(String scheduleId) {
+        return jdbcTemplate.update("UPDATE scheduled_grant SET status = 'CANCELLED', updated_at = CURRENT_TIMESTAMP " +
+                "WHERE schedule_id = ? AND status = 'SCHEDULED'", scheduleId);
+    }
+
+    public List<ScheduledGrant> claimDue(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE, ROW_MAPPER, Timestamp.valueOf(now), limit);
+    }
+
+    public List<ScheduledGrant> claimExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(CLAIM_EXPIRED, ROW_MAPPER, Timestamp.valueOf(now), limit);
+    }
+
+    public void markGranted(Collection<ScheduledGrant> grants, LocalDateTime grantedAt) {
+        Timestamp at = Timestamp.valueOf(grantedAt);
+        List<Object[]> batch = new ArrayList<>(grants.size());
+        for (ScheduledGrant grant : grants) {
+            Timestamp expiresAt = grant.getExpiresInSeconds() != null
+                    ? Timestamp.valueOf(grantedAt.plusSeconds(grant.getExpiresInSeconds()))
+                    : null;
+            batch.add(new Object[]{at, expiresAt, grant.getId()});
+        }
+        jdbcTemplate.batchUpdate(MARK_GRANTED, batch);
+    }
+
+    /**
+     * @param expiredAmounts grant id to the amount actually taken back
+     */
+    public void markExpired(Map<Long, Long> expiredAmounts) {
+        List<Object[]> batch = new ArrayList<>(expiredAmounts.size());
+        expiredAmounts.forEach((id, amount) -> batch.add(new Object[]{amount, id}));
+        jdbcTemplate.batchUpdate(MARK_EXPIRED, batch);
+    }
+
+    public void markFailed(Collection<ScheduledGrant> grants) {
+        List<Object[]> batch = new ArrayList<>(grants.size());
+        grants.forEach(grant -> batch.add(new Object[]{grant.getId()}));
+        jdbcTemplate.batchUpdate(MARK_FAILED, batch);
+    }
+
+    /**
+     * Locks the wallets of the given users in one asset, in user order like every other
+     * multi-wallet write.
+     *
+     * @return available balance by user; users without a wallet are left out
+     */
+    public Map<String, Long> lockAvailable(String asset, List<String> sortedUserIds) {
+        StringBuilder sql = new StringBuilder("SELECT user_id, balance - held AS available FROM wallet " +
+                "WHERE asset = ? AND user_id IN (");
+        Object[] args = new Object[sortedUserIds.size() + 1];
+        args[0] = asset;
+        for (int i = 0; i < sortedUserIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args[i + 1] = sortedUserIds.get(i);
+        }
+        sql.append(") ORDER BY user_id FOR UPDATE");
+
+        Map<String, Long> available = new HashMap<>(sortedUserIds.size() * 2);
+        jdbcTemplate.query(sql.toString(), rs -> {
+            available.put(rs.getString("user_id"), rs.getLong("available"));
+        }, args);
+        return available;
+    }
+
+    /**
+     * Debits wallets locked by {@link #lockAvailable} in the same transaction.
+     */
+    public void debitWallets(String asset, Map<String, Long> amounts) {
+        List<Object[]> batch = new ArrayList<>(amounts.size());
+        amounts.forEach((userId, amount) -> batch.add(new Object[]{amount, userId, asset}));
+        jdbcTemplate.batchUpdate(DEBIT_WALLET, batch);
+    }
+}
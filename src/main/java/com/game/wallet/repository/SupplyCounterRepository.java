@@ -0,0 +1,90 @@
+package com.game.wallet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sharded issued/burned counters per asset, plus the ledger aggregation they are checked
+ * and rebuilt against.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SupplyCounterRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO asset_supply_counter (asset, shard, issued, burned)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (asset, shard) DO UPDATE
+            SET issued = asset_supply_counter.issued + EXCLUDED.issued,
+                burned = asset_supply_counter.burned + EXCLUDED.burned
+            """;
+
+    private static final String STANDARD_MERGE = """
+            MERGE INTO asset_supply_counter t
+            USING (VALUES (CAST(? AS VARCHAR(20)), CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS s (asset, shard, issued, burned)
+            ON t.asset = s.asset AND t.shard = s.shard
+            WHEN MATCHED THEN UPDATE
+                SET issued = t.issued + s.issued,
+                    burned = t.burned + s.burned
+            WHEN NOT MATCHED THEN
+                INSERT (asset, shard, issued, burned)
+                VALUES (s.asset, s.shard, s.issued, s.burned)
+            """;
+
+    private static final String LEDGER_TOTALS = """
+            SELECT asset,
+                SUM(CASE WHEN debit_user IN ('SYSTEM', 'GENESIS') AND credit_user NOT IN ('SYSTEM', 'GENESIS')
+                    THEN amount ELSE 0 END),
+                SUM(CASE WHEN debit_user NOT IN ('SYSTEM', 'GENESIS') AND credit_user IN ('SYSTEM', 'GENESIS')
+                    THEN amount ELSE 0 END)
+            FROM ledger_entry
+            GROUP BY asset
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public void add(String asset, int shard, long issued, long burned) {
+        jdbcTemplate.update(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE,
+                asset, shard, issued, burned);
+    }
+
+    /**
+     * @return asset code to {issued, burned}, summed over all shards
+     */
+    public Map<String, long[]> counterTotals() {
+        return totals("SELECT asset, SUM(issued), SUM(burned) FROM asset_supply_counter GROUP BY asset ORDER BY asset");
+    }
+
+    /**
+     * @return asset code to {issued, burned}, aggregated from ledger_entry
+     */
+    public Map<String, long[]> ledgerTotals() {
+        return totals(LEDGER_TOTALS);
+    }
+
+    /**
+     * Replaces all counters with the given totals, each stored in shard 0. On PostgreSQL
+     * the counter table is locked first so concurrent writers wait instead of being lost.
+     */
+    public void replaceAll(Map<String, long[]> totals) {
+        if (databasePlatform.isPostgres()) {
+            jdbcTemplate.execute("LOCK TABLE asset_supply_counter IN EXCLUSIVE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM asset_supply_counter");
+        totals.forEach((asset, values) -> add(asset, 0, values[0], values[1]));
+    }
+
+    private Map<String, long[]> totals(String sql) {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            totals.put(rs.getString(1), new long[]{rs.getLong(2), rs.getLong(3)});
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,115 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.dto.SystemLedgerBucketResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sharded hourly SYSTEM debit and credit totals per asset, plus the ledger aggregation they
+ * are rebuilt from.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SystemLedgerRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO system_ledger_bucket (bucket_start, asset, shard, debit_total, credit_total, debit_count, credit_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (bucket_start, asset, shard) DO UPDATE
+            SET debit_total = system_ledger_bucket.debit_total + EXCLUDED.debit_total,
+                credit_total = system_ledger_bucket.credit_total + EXCLUDED.credit_total,
+                debit_count = system_ledger_bucket.debit_count + EXCLUDED.debit_count,
+                credit_count = system_ledger_bucket.credit_count + EXCLUDED.credit_count
+            """;
+
+    private static final String STANDARD_MERGE = """
+            MERGE INTO system_ledger_bucket t
+            USING (VALUES (CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(20)), CAST(? AS INT),
+                           CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS s (bucket_start, asset, shard, debit_total, credit_total, debit_count, credit_count)
+            ON t.bucket_start = s.bucket_start AND t.asset = s.asset AND t.shard = s.shard
+            WHEN MATCHED THEN UPDATE
+                SET debit_total = t.debit_total + s.debit_total,
+                    credit_total = t.credit_total + s.credit_total,
+                    debit_count = t.debit_count + s.debit_count,
+                    credit_count = t.credit_count + s.credit_count
+            WHEN NOT MATCHED THEN
+                INSERT (bucket_start, asset, shard, debit_total, credit_total, debit_count, credit_count)
+                VALUES (s.bucket_start, s.asset, s.shard, s.debit_total, s.credit_total, s.debit_count, s.credit_count)
+            """;
+
+    private static final String SELECT_BUCKETS = """
+            SELECT bucket_start, asset, SUM(debit_total), SUM(credit_total), SUM(debit_count), SUM(credit_count)
+            FROM system_ledger_bucket
+            WHERE bucket_start >= ? AND bucket_start < ? AND (CAST(? AS VARCHAR(20)) IS NULL OR asset = ?)
+            GROUP BY bucket_start, asset
+            ORDER BY bucket_start, asset
+            """;
+
+    private static final String DELETE_LIVE_BUCKETS = """
+            DELETE FROM system_ledger_bucket
+            WHERE bucket_start >= COALESCE((SELECT DATE_TRUNC('hour', MIN(created_at)) FROM ledger_entry), bucket_start)
+            """;
+
+    private static final String REBUILD = """
+            INSERT INTO system_ledger_bucket (bucket_start, asset, shard, debit_total, credit_total, debit_count, credit_count)
+            SELECT DATE_TRUNC('hour', created_at), asset, 0,
+                SUM(CASE WHEN debit_user = 'SYSTEM' THEN amount ELSE 0 END),
+                SUM(CASE WHEN credit_user = 'SYSTEM' THEN amount ELSE 0 END),
+                SUM(CASE WHEN debit_user = 'SYSTEM' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN credit_user = 'SYSTEM' THEN 1 ELSE 0 END)
+            FROM ledger_entry
+            WHERE debit_user = 'SYSTEM' OR credit_user = 'SYSTEM'
+            GROUP BY DATE_TRUNC('hour', created_at), asset
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public void add(LocalDateTime bucketStart, String asset, int shard,
+                    long debit, long credit, long debitCount, long creditCount) {
+        jdbcTemplate.update(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE,
+                Timestamp.valueOf(bucketStart), asset, shard, debit, credit, debitCount, creditCount);
+    }
+
+    /**
+     * @param asset asset code, or {@code null} for all assets
+     * @return buckets in {@code [from, to)}, summed over shards
+     */
+    public List<SystemLedgerBucketResponse> findBuckets(String asset, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(SELECT_BUCKETS, (rs, rowNum) -> {
+            long debited = rs.getLong(3);
+            long credited = rs.getLong(4);
+            return SystemLedgerBucketResponse.builder()
+                    .bucketStart(rs.getTimestamp(1).toLocalDateTime())
+                    .asset(rs.getString(2))
+                    .debited(debited)
+                    .credited(credited)
+                    .debitEntries(rs.getLong(5))
+                    .creditEntries(rs.getLong(6))
+                    .net(credited - debited)
+                    .build();
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to), asset, asset);
+    }
+
+    /**
+     * Recomputes every bucket from the hour of the oldest live ledger entry on. Buckets of
+     * archived partitions are older and stay as they are; with an empty ledger all buckets
+     * are removed. On PostgreSQL the table is locked first so concurrent writers wait
+     * instead of being lost.
+     *
+     * @return number of buckets written
+     */
+    public int rebuild() {
+        if (databasePlatform.isPostgres()) {
+            jdbcTemplate.execute("LOCK TABLE system_ledger_bucket IN EXCLUSIVE MODE");
+        }
+        jdbcTemplate.update(DELETE_LIVE_BUCKETS);
+        return jdbcTemplate.update(REBUILD);
+    }
+}
@@ -0,0 +1,36 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.config.TransactionTimeoutProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds how long a wallet transaction can wait on row locks and run statements, so a
+ * blocked mutation fails fast instead of holding its request thread and connection.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionTimeouts {
+
+    // is_local = true: both settings end with the current transaction.
+    private static final String SET_TIMEOUTS =
+            "SELECT set_config('lock_timeout', ?, true) || set_config('statement_timeout', ?, true)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final TransactionTimeoutProperties properties;
+
+    /**
+     * Applies the timeouts of {@code operation} to the rest of the current transaction. Call
+     * it before the first statement that may block, on the shard the transaction uses.
+     */
+    public void apply(String operation) {
+        if (!properties.isEnabled() || !databasePlatform.isPostgres()) {
+            return;
+        }
+        jdbcTemplate.queryForObject(SET_TIMEOUTS, String.class,
+                properties.lockTimeout(operation).toMillis() + "ms",
+                properties.statementTimeout(operation).toMillis() + "ms");
+    }
+}
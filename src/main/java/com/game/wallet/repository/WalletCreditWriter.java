@@ -0,0 +1,61 @@
+package com.game.wallet.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Creates or credits a wallet with one upsert, so concurrent first credits for a new user
+ * serialize on the primary key instead of racing a lock-then-insert into a duplicate-key
+ * rollback.
+ *
+ * <p>Runs through the JPA persistence context rather than plain JDBC: pending entity
+ * changes are flushed first, so a wallet debited as an entity earlier in the same
+ * transaction is written before the upsert adds to it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletCreditWriter {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO wallet (user_id, user_ref, asset, balance, held, version, created_at, updated_at)
+            VALUES (:userId, :userRef, :asset, :amount, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id, asset) DO UPDATE
+            SET balance = wallet.balance + EXCLUDED.balance,
+                user_ref = COALESCE(wallet.user_ref, EXCLUDED.user_ref),
+                version = wallet.version + 1,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String STANDARD_MERGE = """
+            MERGE INTO wallet t
+            USING (VALUES (CAST(:userId AS VARCHAR(100)), CAST(:userRef AS BIGINT), CAST(:asset AS VARCHAR(20)),
+                    CAST(:amount AS BIGINT)))
+                AS s (user_id, user_ref, asset, amount)
+            ON t.user_id = s.user_id AND t.asset = s.asset
+            WHEN MATCHED THEN UPDATE
+                SET balance = t.balance + s.amount,
+                    user_ref = COALESCE(t.user_ref, s.user_ref),
+                    version = t.version + 1,
+                    updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, user_ref, asset, balance, held, version, created_at, updated_at)
+                VALUES (s.user_id, s.user_ref, s.asset, s.amount, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """;
+
+    private final EntityManager entityManager;
+    private final DatabasePlatform databasePlatform;
+
+    public void credit(String userId, Long userRef, String asset, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Credit amount must be positive");
+        }
+        entityManager.flush();
+        entityManager.createNativeQuery(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE)
+                .setParameter("userId", userId)
+                .setParameter("userRef", userRef)
+                .setParameter("asset", asset)
+                .setParameter("amount", amount)
+                .executeUpdate();
+    }
+}
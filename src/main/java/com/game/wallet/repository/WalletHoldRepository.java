@@ -0,0 +1,38 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.model.WalletHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface WalletHoldRepository extends JpaRepository<WalletHold, Long> {
+
+    /**
+     * Captures an active, unexpired hold. Returns 0 when the hold was already settled or has
+     * expired, so each hold is captured at most once.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE WalletHold h SET h.status = com.game.wallet.model.HoldStatus.CAPTURED, h.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE h.id = :id AND h.status = com.game.wallet.model.HoldStatus.HELD AND h.expiresAt > :now")
+    int markCaptured(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE WalletHold h SET h.status = com.game.wallet.model.HoldStatus.RELEASED, h.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE h.id = :id AND h.status = com.game.wallet.model.HoldStatus.HELD")
+    int markReleased(@Param("id") Long id);
+
+    /**
+     * Looks for a hold in its own read-only transaction, so a sharded caller can probe each
+     * shard before its own transaction is bound to one.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT COUNT(h) > 0 FROM WalletHold h WHERE h.id = :id")
+    boolean existsOnCurrentShard(@Param("id") Long id);
+}
@@ -1,14 +1,19 @@
 package com.game.wallet.repository;
 
+import com.game.wallet.dto.BalanceResponse;
 import com.game.wallet.model.Wallet;
 import com.game.wallet.model.WalletId;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +24,56 @@ public interface WalletRepository extends JpaRepository<Wallet, WalletId> {
     Optional<Wallet> findByUserIdAndAssetForUpdate(@Param("userId") String userId, @Param("asset") String asset);
 
     Optional<Wallet> findByUserIdAndAsset(String userId, String asset);
+
+    /**
+     * Reads the balance columns without hydrating a {@link Wallet}.
+     */
+    @Query("SELECT new com.game.wallet.dto.BalanceResponse(w.userId, w.asset, w.balance, w.held, " +
+            "w.balance - w.held, w.version) FROM Wallet w WHERE w.userId = :userId AND w.asset = :asset")
+    Optional<BalanceResponse> findBalance(@Param("userId") String userId, @Param("asset") String asset);
+
+    List<Wallet> findByUserId(String userId);
+
+    /**
+     * The richest wallets of an asset, for rebuilding the leaderboard. Scans the asset's
+     * wallets; balance is deliberately not indexed because it changes on every mutation.
+     */
+    @Query("SELECT new com.game.wallet.dto.BalanceResponse(w.userId, w.asset, w.balance, w.held, " +
+            "w.balance - w.held, w.version) FROM Wallet w " +
+            "WHERE w.asset = :asset AND w.userId NOT IN :excluded ORDER BY w.balance DESC, w.userId")
+    List<BalanceResponse> findRichest(@Param("asset") String asset, @Param("excluded") Collection<String> excluded,
+                                      Pageable pageable);
+
+    @Query("SELECT new com.game.wallet.dto.BalanceResponse(w.userId, w.asset, w.balance, w.held, " +
+            "w.balance - w.held, w.version) FROM Wallet w WHERE w.asset = :asset AND w.userId IN :userIds")
+    List<BalanceResponse> findBalances(@Param("asset") String asset, @Param("userIds") Collection<String> userIds);
+
+    /**
+     * Reserves funds in one statement, succeeding only when enough is available.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.held = w.held + :amount, w.version = w.version + 1, w.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE w.userId = :userId AND w.asset = :asset AND w.balance - w.held >= :amount")
+    int reserve(@Param("userId") String userId, @Param("asset") String asset, @Param("amount") long amount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.held = w.held - :amount, w.version = w.version + 1, w.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE w.userId = :userId AND w.asset = :asset AND w.held >= :amount")
+    int releaseHeld(@Param("userId") String userId, @Param("asset") String asset, @Param("amount") long amount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.held = w.held - :amount, w.balance = w.balance - :amount, " +
+            "w.version = w.version + 1, w.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE w.userId = :userId AND w.asset = :asset AND w.held >= :amount AND w.balance >= :amount")
+    int captureHeld(@Param("userId") String userId, @Param("asset") String asset, @Param("amount") long amount);
+
+    /**
+     * Locks every wallet of the given users in the given assets in one statement, in
+     * (userId, asset) order, so concurrent multi-wallet operations cannot deadlock each
+     * other. May lock a few more rows than needed when users hold several of the assets.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.userId IN :userIds AND w.asset IN :assets ORDER BY w.userId, w.asset")
+    List<Wallet> findAllForUpdate(@Param("userIds") Collection<String> userIds,
+                                  @Param("assets") Collection<String> assets);
 }
@@ -0,0 +1,62 @@
+package com.game.wallet.retry;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * The transient database failures a wallet transaction can end with, recognised by the
+ * SQLSTATE of the underlying {@link SQLException} whichever exception JPA or Spring wrapped
+ * it in.
+ */
+public enum SqlFailure {
+
+    LOCK_TIMEOUT(false),
+    STATEMENT_TIMEOUT(false),
+    DEADLOCK(true),
+    SERIALIZATION(true);
+
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    private final boolean retryable;
+
+    SqlFailure(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    /**
+     * True when running the whole transaction again is likely to succeed straight away.
+     * Timeouts are not retried here; the caller decides whether to try again later.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public String tag() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    public static Optional<SqlFailure> of(Throwable failure) {
+        Throwable current = failure;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (current instanceof SQLException sql && sql.getSQLState() != null) {
+                Optional<SqlFailure> match = ofSqlState(sql.getSQLState());
+                if (match.isPresent()) {
+                    return match;
+                }
+            }
+            current = current.getCause();
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<SqlFailure> ofSqlState(String sqlState) {
+        return switch (sqlState) {
+            // 55P03 lock_not_available on PostgreSQL; HYT00 is H2's lock timeout.
+            case "55P03", "HYT00" -> Optional.of(LOCK_TIMEOUT);
+            case "57014" -> Optional.of(STATEMENT_TIMEOUT);
+            case "40P01" -> Optional.of(DEADLOCK);
+            case "40001" -> Optional.of(SERIALIZATION);
+            default -> Optional.empty();
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.game.wallet.retry;
+
+import com.game.wallet.config.TransactionTimeoutProperties;
+import com.game.wallet.exception.OperationTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Wraps a transactional {@code WalletService} method, named by
+ * {@code @Retryable(interceptor = "transientFailureInterceptor")}. Transactions that lose a
+ * deadlock or a serialization conflict are run again with jittered exponential backoff;
+ * lock and statement timeouts become an {@link OperationTimeoutException} for the client to
+ * retry. Calls that join a caller's transaction are passed through, since only the caller
+ * can roll back and start over.
+ *
+ * <p>Metrics: wallet.transaction.timeouts and wallet.transaction.retries, both tagged with
+ * the operation and the failure.
+ */
+@Component
+@Slf4j
+public class TransientFailureInterceptor implements MethodInterceptor {
+
+    private final TransactionTimeoutProperties.Retry retry;
+    private final MeterRegistry meterRegistry;
+
+    public TransientFailureInterceptor(TransactionTimeoutProperties properties, MeterRegistry meterRegistry) {
+        this.retry = properties.getRetry();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+
+        String operation = invocation.getMethod().getName();
+        long backoff = retry.getInitialBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt == 1 ? invocation.proceed() : ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+            } catch (RuntimeException ex) {
+                Optional<SqlFailure> failure = SqlFailure.of(ex);
+                if (failure.isEmpty()) {
+                    throw ex;
+                }
+                SqlFailure kind = failure.get();
+                if (!kind.isRetryable()) {
+                    meterRegistry.counter("wallet.transaction.timeouts", "operation", operation, "failure", kind.tag())
+                            .increment();
+                    throw new OperationTimeoutException(operation + " timed out (" + kind.tag() + "); retry later", ex);
+                }
+                if (attempt >= retry.getMaxAttempts()) {
+                    log.warn("{} failed with {} after {} attempts", operation, kind.tag(), attempt);
+                    throw ex;
+                }
+                meterRegistry.counter("wallet.transaction.retries", "operation", operation, "failure", kind.tag())
+                        .increment();
+                sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+                backoff = Math.min(retry.getMaxBackoff().toMillis(), (long) (backoff * retry.getMultiplier()));
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off before a retry", ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.game.wallet.routing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs admin endpoints such as ledger replay, ledger files and bulk grants on the admin
+ * pool, whether their transactions read or write.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.datasource.bulkheads", name = "enabled", havingValue = "true")
+public class AdminWorkloadInterceptor implements HandlerInterceptor {
+
+    static final String SCOPE_ATTRIBUTE = AdminWorkloadInterceptor.class.getName() + ".scope";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SCOPE_ATTRIBUTE, WorkloadContext.on(Workload.ADMIN));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object scope = request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            ((WorkloadContext.Scope) scope).close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.game.wallet.routing;
+
+/**
+ * Names the user a read-only transaction is reading for, so routing can honour
+ * read-your-writes. Set it before the first query of the transaction.
+ */
+public final class ReadRoutingContext {
+
+    private static final ThreadLocal<String> USER = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+    }
+
+    public static Scope forUser(String userId) {
+        String previous = USER.get();
+        USER.set(userId);
+        return () -> {
+            if (previous == null) {
+                USER.remove();
+            } else {
+                USER.set(previous);
+            }
+        };
+    }
+
+    public static String currentUser() {
+        return USER.get();
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
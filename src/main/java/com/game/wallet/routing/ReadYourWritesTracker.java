@@ -0,0 +1,71 @@
+package com.game.wallet.routing;
+
+import com.game.wallet.config.ReplicaRoutingProperties;
+import com.game.wallet.event.HoldChangedEvent;
+import com.game.wallet.event.LedgerPostedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users mutated recently so their reads stay on the primary until the
+ * replicas have caught up. Ledger entries and hold changes both count, since a hold moves
+ * the available balance without a ledger entry. The write time is recorded when the ledger entry is written and
+ * again after commit, so long transactions do not shorten the window. State is local to
+ * this instance; deployments with several instances need sticky routing per user.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(ReplicaRoutingProperties properties) {
+        this.windowNanos = properties.getReadYourWritesWindow().toNanos();
+    }
+
+    @EventListener
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        markWrite(event.getDebitUser());
+        markWrite(event.getCreditUser());
+    }
+
+    @EventListener
+    public void onHoldChanged(HoldChangedEvent event) {
+        markWrite(event.getUserId());
+    }
+
+    public void markWrite(String userId) {
+        touch(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    touch(userId);
+                }
+            });
+        }
+    }
+
+    public boolean recentlyWrote(String userId) {
+        Long writtenAt = lastWrites.get(userId);
+        return writtenAt != null && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+    }
+
+    private void touch(String userId) {
+        lastWrites.put(userId, System.nanoTime());
+    }
+}
@@ -0,0 +1,78 @@
+package com.game.wallet.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Polls each replica for its replay lag. A replica that has replayed everything it received
+ * reports zero even when the primary has been idle; a replica that cannot be reached counts
+ * as infinitely behind.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+            END
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLag.toMillis();
+        for (String replica : replicas.keySet()) {
+            Gauge.builder("wallet.datasource.replica.lag", this, monitor -> monitor.lagMillis(replica))
+                    .tag("replica", replica)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.datasource.replica.lag-check-interval-ms:1000}")
+    public void refresh() {
+        replicas.forEach((name, dataSource) -> lagMillis.put(name, probe(name, dataSource)));
+    }
+
+    public boolean isHealthy(String replica) {
+        Long lag = lagMillis.get(replica);
+        return lag != null && lag <= maxLagMillis;
+    }
+
+    public double lagMillis(String replica) {
+        Long lag = lagMillis.get(replica);
+        return lag == null || lag == Long.MAX_VALUE ? Double.NaN : lag;
+    }
+
+    private long probe(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_SQL)) {
+            rs.next();
+            long lag = (long) rs.getDouble(1);
+            if (lag > maxLagMillis) {
+                log.warn("Replica {} is {} ms behind, routing its reads to the primary", name, lag);
+            }
+            return lag;
+        } catch (SQLException ex) {
+            log.warn("Replica {} lag check failed: {}", name, ex.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+}
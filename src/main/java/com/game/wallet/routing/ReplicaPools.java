@@ -0,0 +1,49 @@
+package com.game.wallet.routing;
+
+import com.game.wallet.config.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns one read-only Hikari pool per configured replica and closes them on shutdown.
+ */
+public class ReplicaPools implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public ReplicaPools(List<ReplicaRoutingProperties.Node> nodes, String driverClassName) {
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("wallet.datasource.replica.enabled is set but no replica nodes are configured");
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            ReplicaRoutingProperties.Node node = nodes.get(i);
+            String name = "replica-" + (i + 1);
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("WalletReplicaPool-" + (i + 1));
+            pool.setJdbcUrl(node.getUrl());
+            pool.setUsername(node.getUsername());
+            pool.setPassword(node.getPassword());
+            pool.setMaximumPoolSize(node.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            if (driverClassName != null) {
+                pool.setDriverClassName(driverClassName);
+            }
+            pools.put(name, pool);
+        }
+    }
+
+    public Map<String, DataSource> dataSources() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
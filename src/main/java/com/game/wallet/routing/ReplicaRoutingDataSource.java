@@ -0,0 +1,80 @@
+package com.game.wallet.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica, round robin, and everything else to the
+ * primary. Reads fall back to the primary while the user in {@link ReadRoutingContext} has
+ * written recently or when every replica is lagging. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is only fetched once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicas;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryWrites;
+    private final Counter primaryReadYourWrites;
+    private final Counter primaryReplicaLag;
+    private final Map<String, Counter> replicaReads = new HashMap<>();
+
+    public ReplicaRoutingDataSource(List<String> replicas, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.primaryWrites = routeCounter(meterRegistry, PRIMARY, "write");
+        this.primaryReadYourWrites = routeCounter(meterRegistry, PRIMARY, "read-your-writes");
+        this.primaryReplicaLag = routeCounter(meterRegistry, PRIMARY, "replica-lag");
+        for (String replica : this.replicas) {
+            replicaReads.put(replica, routeCounter(meterRegistry, replica, "read"));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            return PRIMARY;
+        }
+
+        String userId = ReadRoutingContext.currentUser();
+        if (userId != null && readYourWritesTracker.recentlyWrote(userId)) {
+            primaryReadYourWrites.increment();
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String replica = replicas.get((start + i) % size);
+            if (lagMonitor.isHealthy(replica)) {
+                replicaReads.get(replica).increment();
+                return replica;
+            }
+        }
+
+        primaryReplicaLag.increment();
+        return PRIMARY;
+    }
+
+    private static Counter routeCounter(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("wallet.datasource.route")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
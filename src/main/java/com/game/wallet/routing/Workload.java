@@ -0,0 +1,13 @@
+package com.game.wallet.routing;
+
+/**
+ * The connection pool bulkheads. Mutations serve the payment path, reads serve balance and
+ * history queries, exports serve history downloads, which hold their connection for as long
+ * as the client reads, and admin covers replay, bulk grants and scheduled jobs.
+ */
+public enum Workload {
+    MUTATION,
+    READ,
+    EXPORT,
+    ADMIN
+}
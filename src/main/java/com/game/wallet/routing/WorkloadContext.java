@@ -0,0 +1,35 @@
+package com.game.wallet.routing;
+
+/**
+ * Pins the work on the current thread to one {@link Workload}, overriding the routing by
+ * the transaction's read-only flag. Set it before the first query of the transaction.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> WORKLOAD = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Scope on(Workload workload) {
+        Workload previous = WORKLOAD.get();
+        WORKLOAD.set(workload);
+        return () -> {
+            if (previous == null) {
+                WORKLOAD.remove();
+            } else {
+                WORKLOAD.set(previous);
+            }
+        };
+    }
+
+    public static Workload current() {
+        return WORKLOAD.get();
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
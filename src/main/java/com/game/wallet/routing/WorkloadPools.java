@@ -0,0 +1,63 @@
+package com.game.wallet.routing;
+
+import com.game.wallet.config.WorkloadPoolProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Owns one Hikari pool per {@link Workload} against the primary database and closes them
+ * on shutdown. Each pool starts from spring.datasource.hikari.* and then takes its own
+ * name, size and connection timeout. The pools publish the usual hikaricp.* metrics,
+ * tagged with their pool name.
+ */
+public class WorkloadPools implements AutoCloseable {
+
+    private final Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+
+    public WorkloadPools(WorkloadPoolProperties properties,
+                         DataSourceProperties dataSourceProperties,
+                         Binder binder,
+                         MeterRegistry meterRegistry) {
+        pools.put(Workload.MUTATION, create("WalletMutationPool", properties.getMutations(),
+                dataSourceProperties, binder, meterRegistry));
+        pools.put(Workload.READ, create("WalletReadPool", properties.getReads(),
+                dataSourceProperties, binder, meterRegistry));
+        pools.put(Workload.EXPORT, create("WalletExportPool", properties.getExports(),
+                dataSourceProperties, binder, meterRegistry));
+        pools.put(Workload.ADMIN, create("WalletAdminPool", properties.getAdmin(),
+                dataSourceProperties, binder, meterRegistry));
+    }
+
+    public Map<Workload, DataSource> dataSources() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource create(String name,
+                                           WorkloadPoolProperties.Pool settings,
+                                           DataSourceProperties dataSourceProperties,
+                                           Binder binder,
+                                           MeterRegistry meterRegistry) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+        pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
@@ -0,0 +1,41 @@
+package com.game.wallet.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sends each transaction to the pool of its {@link Workload}: the one in
+ * {@link WorkloadContext} if set, otherwise reads for read-only transactions and mutations
+ * for the rest. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is only fetched once the transaction's read-only flag is known.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<Workload, Counter> routed = new EnumMap<>(Workload.class);
+
+    public WorkloadRoutingDataSource(MeterRegistry meterRegistry) {
+        for (Workload workload : Workload.values()) {
+            routed.put(workload, Counter.builder("wallet.datasource.workload")
+                    .tag("workload", workload.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Workload workload = WorkloadContext.current();
+        if (workload == null) {
+            workload = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    ? Workload.READ
+                    : Workload.MUTATION;
+        }
+        routed.get(workload).increment();
+        return workload;
+    }
+}
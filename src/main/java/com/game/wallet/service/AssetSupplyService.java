@@ -0,0 +1,225 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.SupplyProperties;
+import com.game.wallet.dto.AssetSupplyResponse;
+import com.game.wallet.dto.SupplyCheckResponse;
+import com.game.wallet.event.LedgerPostedEvent;
+import com.game.wallet.ledger.LedgerAggregates;
+import com.game.wallet.ledger.LedgerArchive;
+import com.game.wallet.model.Wallet;
+import com.game.wallet.repository.SupplyCounterRepository;
+import com.game.wallet.repository.WalletRepository;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running issued and burned totals per asset, kept in sharded counter rows that are updated
+ * in the same transaction as each ledger entry. Issued counts movements from SYSTEM or
+ * GENESIS to a user, burned counts movements from a user back to SYSTEM; circulating is
+ * their difference. The SYSTEM reserve is read from the SYSTEM wallet by primary key.
+ * With sharding, every shard keeps its own counters and SYSTEM wallets and the reads below
+ * add them up.
+ */
+@Service
+@Slf4j
+public class AssetSupplyService {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+
+    private final SupplyCounterRepository counterRepository;
+    private final WalletRepository walletRepository;
+    private final LedgerArchive ledgerArchive;
+    private final SupplyProperties properties;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Map<String, Map<String, long[]>> archivedTotals = new ConcurrentHashMap<>();
+
+    public AssetSupplyService(SupplyCounterRepository counterRepository,
+                              WalletRepository walletRepository,
+                              LedgerArchive ledgerArchive,
+                              SupplyProperties properties,
+                              ShardRouter shardRouter,
+                              PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.walletRepository = walletRepository;
+        this.ledgerArchive = ledgerArchive;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        LedgerAggregates aggregates = LedgerAggregates.of(event.getDebitUser(), event.getCreditUser(),
+                event.getAsset(), event.getAmount());
+        if (aggregates.changesSupply()) {
+            counterRepository.add(event.getAsset(), shardForCurrentThread(), aggregates.getIssued(),
+                    aggregates.getBurned());
+        }
+    }
+
+    /**
+     * Counts an issue that was posted without individual {@link LedgerPostedEvent}s, such as
+     * a bulk grant chunk. Must run in the transaction that wrote the ledger entries.
+     */
+    public void recordIssued(String asset, long amount) {
+        counterRepository.add(asset, shardForCurrentThread(), amount, 0);
+    }
+
+    /**
+     * Counts a burn that was posted without individual {@link LedgerPostedEvent}s, such as a
+     * batch of expired grants. Must run in the transaction that wrote the ledger entries.
+     */
+    public void recordBurned(String asset, long amount) {
+        counterRepository.add(asset, shardForCurrentThread(), 0, amount);
+    }
+
+    public List<AssetSupplyResponse> getSupply() {
+        Map<String, AssetSupplyResponse> supply = new TreeMap<>();
+        for (List<AssetSupplyResponse> shard : shardRouter.collect(this::shardSupply)) {
+            for (AssetSupplyResponse asset : shard) {
+                supply.merge(asset.getAsset(), asset, (a, b) -> AssetSupplyResponse.builder()
+                        .asset(a.getAsset())
+                        .issued(a.getIssued() + b.getIssued())
+                        .burned(a.getBurned() + b.getBurned())
+                        .circulating(a.getCirculating() + b.getCirculating())
+                        .systemReserve(a.getSystemReserve() == null ? b.getSystemReserve()
+                                : b.getSystemReserve() == null ? a.getSystemReserve()
+                                : a.getSystemReserve() + b.getSystemReserve())
+                        .build());
+            }
+        }
+        return new ArrayList<>(supply.values());
+    }
+
+    private List<AssetSupplyResponse> shardSupply() {
+        return snapshotTransaction.execute(status -> {
+            Map<String, Long> reserves = new HashMap<>();
+            for (Wallet wallet : walletRepository.findByUserId(SYSTEM_USER)) {
+                reserves.put(wallet.getAsset(), wallet.getBalance());
+            }
+
+            List<AssetSupplyResponse> supply = new ArrayList<>();
+            counterRepository.counterTotals().forEach((asset, totals) -> supply.add(AssetSupplyResponse.builder()
+                    .asset(asset)
+                    .issued(totals[0])
+                    .burned(totals[1])
+                    .circulating(totals[0] - totals[1])
+                    .systemReserve(reserves.get(asset))
+                    .build()));
+            return supply;
+        });
+    }
+
+    /**
+     * Compares the counters with totals aggregated from the ledger and its archive. Both are
+     * read from one snapshot, so in-flight writes cannot cause false mismatches.
+     */
+    public List<SupplyCheckResponse> verify() {
+        Map<String, SupplyCheckResponse> checks = new TreeMap<>();
+        for (List<SupplyCheckResponse> shard : shardRouter.collect(this::verifyShard)) {
+            for (SupplyCheckResponse check : shard) {
+                checks.merge(check.getAsset(), check, (a, b) -> SupplyCheckResponse.builder()
+                        .asset(a.getAsset())
+                        .counterIssued(a.getCounterIssued() + b.getCounterIssued())
+                        .ledgerIssued(a.getLedgerIssued() + b.getLedgerIssued())
+                        .counterBurned(a.getCounterBurned() + b.getCounterBurned())
+                        .ledgerBurned(a.getLedgerBurned() + b.getLedgerBurned())
+                        .consistent(a.isConsistent() && b.isConsistent())
+                        .build());
+            }
+        }
+        return new ArrayList<>(checks.values());
+    }
+
+    private List<SupplyCheckResponse> verifyShard() {
+        return snapshotTransaction.execute(status -> {
+            Map<String, long[]> counters = counterRepository.counterTotals();
+            Map<String, long[]> ledger = ledgerTotalsIncludingArchive();
+
+            Set<String> assets = new TreeSet<>(counters.keySet());
+            assets.addAll(ledger.keySet());
+
+            List<SupplyCheckResponse> results = new ArrayList<>();
+            for (String asset : assets) {
+                long[] counted = counters.getOrDefault(asset, new long[2]);
+                long[] expected = ledger.getOrDefault(asset, new long[2]);
+                boolean consistent = counted[0] == expected[0] && counted[1] == expected[1];
+                if (!consistent) {
+                    log.warn("Supply counters for {} on {} disagree with the ledger: issued {} vs {}, burned {} vs {}",
+                            asset, shardName(), counted[0], expected[0], counted[1], expected[1]);
+                }
+                results.add(SupplyCheckResponse.builder()
+                        .asset(asset)
+                        .counterIssued(counted[0])
+                        .ledgerIssued(expected[0])
+                        .counterBurned(counted[1])
+                        .ledgerBurned(expected[1])
+                        .consistent(consistent)
+                        .build());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Recomputes the counters from the ledger and its archive, e.g. when introducing them on
+     * an existing ledger or after a failed verification.
+     */
+    public void rebuild() {
+        shardRouter.forEachShard(() -> writeTransaction.executeWithoutResult(status -> {
+            Map<String, long[]> totals = ledgerTotalsIncludingArchive();
+            counterRepository.replaceAll(totals);
+            log.info("Rebuilt supply counters for {} assets on {}", totals.size(), shardName());
+        }));
+    }
+
+    private Map<String, long[]> ledgerTotalsIncludingArchive() {
+        Map<String, long[]> totals = new TreeMap<>(counterRepository.ledgerTotals());
+        for (YearMonth month : ledgerArchive.archivedMonths()) {
+            archivedTotals.computeIfAbsent(shardName() + "/" + month, key -> archiveTotals(month)).forEach((asset, values) -> {
+                long[] sum = totals.computeIfAbsent(asset, a -> new long[2]);
+                sum[0] += values[0];
+                sum[1] += values[1];
+            });
+        }
+        return totals;
+    }
+
+    private Map<String, long[]> archiveTotals(YearMonth month) {
+        Map<String, long[]> totals = new HashMap<>();
+        ledgerArchive.forEachEntry(month, entry -> {
+            LedgerAggregates aggregates = LedgerAggregates.of(entry.getDebitUser(), entry.getCreditUser(),
+                    entry.getAsset(), entry.getAmount());
+            if (aggregates.changesSupply()) {
+                long[] sum = totals.computeIfAbsent(entry.getAsset(), a -> new long[2]);
+                sum[0] += aggregates.getIssued();
+                sum[1] += aggregates.getBurned();
+            }
+        });
+        return totals;
+    }
+
+    private static String shardName() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : "default";
+    }
+
+    private int shardForCurrentThread() {
+        return LedgerAggregates.shardForCurrentThread(properties.getCounterShards());
+    }
+}
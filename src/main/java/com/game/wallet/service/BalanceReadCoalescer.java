@@ -0,0 +1,103 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.BalanceCoalescingProperties;
+import com.game.wallet.dto.BalanceResponse;
+import com.game.wallet.model.WalletId;
+import com.game.wallet.routing.ReadYourWritesTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight balance reads: concurrent lookups of the same wallet share one query. The
+ * first caller runs the query in its own read-only transaction; callers arriving while it
+ * is in flight wait for its result instead of taking a connection. A shared result is as
+ * fresh as a query started when the first caller arrived.
+ *
+ * <p>Users that wrote recently query on their own: a flight already in progress may run on
+ * a replica, or have started before their write committed, and would hide the write.
+ */
+@Component
+public class BalanceReadCoalescer {
+
+    private final BalanceCoalescingProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final Map<WalletId, CompletableFuture<BalanceResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter queries;
+    private final Counter collapsed;
+    private final Counter timeouts;
+
+    public BalanceReadCoalescer(BalanceCoalescingProperties properties,
+                                PlatformTransactionManager transactionManager,
+                                ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queries = Counter.builder("wallet.balance.reads").tag("result", "queried").register(meterRegistry);
+        this.collapsed = Counter.builder("wallet.balance.reads").tag("result", "collapsed").register(meterRegistry);
+        this.timeouts = Counter.builder("wallet.balance.reads").tag("result", "wait-timeout").register(meterRegistry);
+    }
+
+    public BalanceResponse load(WalletId wallet, Supplier<BalanceResponse> query) {
+        if (!properties.isEnabled() || wroteRecently(wallet.getUserId())) {
+            return runQuery(query);
+        }
+
+        CompletableFuture<BalanceResponse> flight = new CompletableFuture<>();
+        CompletableFuture<BalanceResponse> existing = inFlight.putIfAbsent(wallet, flight);
+        if (existing == null) {
+            try {
+                BalanceResponse result = runQuery(query);
+                flight.complete(result);
+                return result;
+            } catch (RuntimeException ex) {
+                flight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(wallet, flight);
+            }
+        }
+
+        try {
+            BalanceResponse result = existing.get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            collapsed.increment();
+            return result;
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            return runQuery(query);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Balance query failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for balance query", ex);
+        }
+    }
+
+    private boolean wroteRecently(String userId) {
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        return tracker != null && tracker.recentlyWrote(userId);
+    }
+
+    private BalanceResponse runQuery(Supplier<BalanceResponse> query) {
+        queries.increment();
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+}
@@ -0,0 +1,291 @@
+package com.game.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.wallet.config.BulkGrantProperties;
+import com.game.wallet.dto.BulkGrantRequest;
+import com.game.wallet.dto.BulkGrantResponse;
+import com.game.wallet.exception.AssetNotFoundException;
+import com.game.wallet.exception.InsufficientBalanceException;
+import com.game.wallet.grant.GrantFileFormat;
+import com.game.wallet.grant.GrantRow;
+import com.game.wallet.grant.GrantRowReader;
+import com.game.wallet.model.Asset;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.BulkGrantRepository;
+import com.game.wallet.repository.LedgerBatchWriter;
+import com.game.wallet.repository.LedgerSummaryWriter;
+import com.game.wallet.routing.Workload;
+import com.game.wallet.routing.WorkloadContext;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Grants an asset to every user in a streamed CSV or NDJSON list. Rows are cut into chunks
+ * that are written in parallel, each in its own transaction: one multi-row wallet upsert
+ * and one multi-row ledger insert per {@code rows-per-statement} users, a batched summary
+ * upsert, single supply counter and SYSTEM bucket updates and a checkpoint row. Re-running a grant with the
+ * same id and input skips the chunks that already committed.
+ *
+ * <p>For limited-supply assets every chunk debits the SYSTEM wallet first, in the same
+ * order as {@link WalletService#bonus}, so those chunks serialize on the SYSTEM row.
+ *
+ * <p>With sharding, each chunk is split by shard and every part is written and
+ * checkpointed on its shard against that shard's SYSTEM wallet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkGrantService {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+    private static final String GENESIS_USER = "GENESIS";
+
+    private final BulkGrantRepository bulkGrantRepository;
+    private final AssetRepository assetRepository;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final LedgerSummaryWriter ledgerSummaryWriter;
+    private final AssetSupplyService assetSupplyService;
+    private final SystemLedgerService systemLedgerService;
+    private final UserDirectory userDirectory;
+    private final ShardRouter shardRouter;
+    private final PlatformTransactionManager transactionManager;
+    private final BulkGrantProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public BulkGrantResponse grant(BulkGrantRequest request) {
+        Path file = resolve(request.getFile());
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return grant(request, reader, GrantFileFormat.fromFileName(request.getFile()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read grant file " + file, ex);
+        }
+    }
+
+    public BulkGrantResponse grant(BulkGrantRequest request, Reader input, GrantFileFormat format) {
+        long start = System.nanoTime();
+        Asset asset = assetRepository.findById(request.getAsset())
+                .orElseThrow(() -> new AssetNotFoundException("Asset not found: " + request.getAsset()));
+        shardRouter.forEachShard(() ->
+                bulkGrantRepository.register(request.getGrantId(), asset.getCode(), request.getReference()));
+
+        Job job = new Job(request, asset);
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+        Semaphore inFlight = new Semaphore(properties.getParallelism() * 2);
+        List<Future<?>> chunks = new ArrayList<>();
+
+        try (GrantRowReader rows = new GrantRowReader(input, format, request.getAmount(), objectMapper)) {
+            long chunkNo = 0;
+            List<GrantRow> chunk = new ArrayList<>(properties.getChunkSize());
+            GrantRow row;
+            while (job.failure.get() == null && (row = rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == properties.getChunkSize()) {
+                    chunks.add(submit(executor, inFlight, job, chunkNo++, chunk));
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty() && job.failure.get() == null) {
+                chunks.add(submit(executor, inFlight, job, chunkNo, chunk));
+            }
+        } catch (IOException ex) {
+            job.fail(new UncheckedIOException("Cannot read grant input", ex));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.fail(ex);
+        } catch (RuntimeException ex) {
+            job.fail(ex);
+        } finally {
+            executor.shutdown();
+        }
+
+        awaitAll(chunks, job);
+        Throwable failure = job.failure.get();
+        if (failure != null) {
+            log.warn("Grant {} stopped after {} chunks ({} users); re-run with the same grant id to resume",
+                    request.getGrantId(), job.completed.get() + job.skipped.get(), job.users.get());
+            if (failure instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Grant " + request.getGrantId() + " failed", failure);
+        }
+
+        long elapsed = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long perSecond = job.users.get() * 1000 / elapsed;
+        log.info("Grant {} of {} done: {} users, {} granted, {} chunks written, {} skipped, {} ms ({} users/s)",
+                request.getGrantId(), asset.getCode(), job.users.get(), job.amount.get(),
+                job.completed.get(), job.skipped.get(), elapsed, perSecond);
+
+        return BulkGrantResponse.builder()
+                .grantId(request.getGrantId())
+                .asset(asset.getCode())
+                .users(job.users.get())
+                .totalAmount(job.amount.get())
+                .chunks(job.completed.get())
+                .skippedChunks(job.skipped.get())
+                .elapsedMillis(elapsed)
+                .usersPerSecond(perSecond)
+                .build();
+    }
+
+    private Future<?> submit(ExecutorService executor, Semaphore inFlight, Job job,
+                             long chunkNo, List<GrantRow> rows) throws InterruptedException {
+        inFlight.acquire();
+        return executor.submit(() -> {
+            // Worker threads do not inherit the request's workload; grants are admin work either way.
+            try (WorkloadContext.Scope ignored = WorkloadContext.on(Workload.ADMIN)) {
+                if (job.failure.get() == null) {
+                    writeChunk(job, chunkNo, rows);
+                }
+            } catch (RuntimeException ex) {
+                job.fail(ex);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void awaitAll(List<Future<?>> chunks, Job job) {
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                job.fail(ex);
+                return;
+            } catch (ExecutionException ex) {
+                job.fail(ex.getCause());
+            }
+        }
+    }
+
+    private void writeChunk(Job job, long chunkNo, List<GrantRow> rows) {
+        Map<String, Long> amounts = new TreeMap<>();
+        for (GrantRow row : rows) {
+            if (SYSTEM_USER.equals(row.getUserId()) || GENESIS_USER.equals(row.getUserId())) {
+                throw new IllegalArgumentException("Cannot grant to " + row.getUserId());
+            }
+            amounts.merge(row.getUserId(), row.getAmount(), Math::addExact);
+        }
+
+        // Fails the chunk before any part is written; re-running the grant picks it up.
+        shardRouter.checkNotMoving(amounts.keySet());
+        boolean written = false;
+        for (Map.Entry<String, List<String>> part : shardRouter.partition(amounts.keySet()).entrySet()) {
+            Map<String, Long> partAmounts = new TreeMap<>();
+            part.getValue().forEach(userId -> partAmounts.put(userId, amounts.get(userId)));
+            try (ShardContext.Scope ignored = shardRouter.forShard(part.getKey())) {
+                written |= writeChunkPart(job, chunkNo, partAmounts);
+            }
+        }
+
+        if (written) {
+            job.completed.incrementAndGet();
+            log.debug("Grant {} chunk {} written: {} users", job.request.getGrantId(), chunkNo, amounts.size());
+        } else {
+            job.skipped.incrementAndGet();
+        }
+    }
+
+    private boolean writeChunkPart(Job job, long chunkNo, Map<String, Long> amounts) {
+        long total = amounts.values().stream().mapToLong(Long::longValue).reduce(0, Math::addExact);
+        String asset = job.asset.getCode();
+
+        Boolean written = new TransactionTemplate(transactionManager).execute(status -> {
+            if (!bulkGrantRepository.claimChunk(job.request.getGrantId(), chunkNo, amounts.size(), total)) {
+                return false;
+            }
+            if (job.asset.getLimitedSupply() && !bulkGrantRepository.debitSystem(asset, total)) {
+                throw new InsufficientBalanceException(
+                        "System wallet has insufficient balance for grant chunk " + chunkNo);
+            }
+
+            long systemRef = userDirectory.resolve(SYSTEM_USER);
+            Map<String, Long> refs = userDirectory.resolveAll(amounts.keySet());
+            List<String> users = new ArrayList<>(amounts.keySet());
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, Long> credits = new HashMap<>(users.size() * 2);
+
+            for (int from = 0; from < users.size(); from += properties.getRowsPerStatement()) {
+                List<String> slice = users.subList(from, Math.min(users.size(), from + properties.getRowsPerStatement()));
+                bulkGrantRepository.creditWallets(asset, slice, amounts, refs);
+
+                List<LedgerEntry> entries = new ArrayList<>(slice.size());
+                for (String userId : slice) {
+                    entries.add(LedgerEntry.builder()
+                            .debitUser(SYSTEM_USER)
+                            .creditUser(userId)
+                            .debitUserRef(systemRef)
+                            .creditUserRef(refs.get(userId))
+                            .asset(asset)
+                            .amount(amounts.get(userId))
+                            .idempotencyKey(job.request.getGrantId())
+                            .reference(job.request.getReference())
+                            .createdAt(now)
+                            .build());
+                    credits.put(refs.get(userId), amounts.get(userId));
+                }
+                ledgerBatchWriter.insertAll(entries);
+            }
+
+            ledgerSummaryWriter.addCredits(asset, now.toLocalDate(), credits);
+            assetSupplyService.recordIssued(asset, total);
+            systemLedgerService.recordDebits(asset, total, amounts.size());
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(written)) {
+            job.users.addAndGet(amounts.size());
+            job.amount.addAndGet(total);
+            return true;
+        }
+        return false;
+    }
+
+    Path resolve(String fileName) {
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new IllegalArgumentException("Invalid grant file name: " + fileName);
+        }
+        return file;
+    }
+
+    private static final class Job {
+
+        private final BulkGrantRequest request;
+        private final Asset asset;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong users = new AtomicLong();
+        private final AtomicLong amount = new AtomicLong();
+
+        private Job(BulkGrantRequest request, Asset asset) {
+            this.request = request;
+            this.asset = asset;
+        }
+
+        private void fail(Throwable ex) {
+            failure.compareAndSet(null, ex);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.HoldProperties;
+import com.game.wallet.event.HoldChangedEvent;
+import com.game.wallet.model.HoldStatus;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Releases holds that were neither captured nor released before they expired. Each batch
+ * claims expired holds with SKIP LOCKED, so several instances can run the job at once and
+ * a hold being captured concurrently is simply skipped.
+ */
+@Service
+@ConditionalOnProperty(prefix = "wallet.holds.expiry", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class HoldExpiryService {
+
+    private static final String CLAIM_EXPIRED = """
+            SELECT id, user_id, asset, amount FROM wallet_hold
+            WHERE status = 'HELD' AND expires_at <= ?
+            ORDER BY expires_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String MARK_EXPIRED =
+            "UPDATE wallet_hold SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String RELEASE_HELD =
+            "UPDATE wallet SET held = held - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE user_id = ? AND asset = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HoldProperties properties;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Scheduled(fixedDelayString = "${wallet.holds.expiry.interval-ms:30000}")
+    public void expireHolds() {
+        shardRouter.forEachShard(this::expireShard);
+    }
+
+    private void expireShard() {
+        int batchSize = properties.getExpiry().getBatchSize();
+        long total = 0;
+        int expired;
+        do {
+            expired = transactionTemplate.execute(status -> expireBatch(batchSize));
+            total += expired;
+        } while (expired == batchSize);
+
+        if (total > 0) {
+            log.info("Expired {} wallet holds", total);
+        }
+    }
+
+    private int expireBatch(int batchSize) {
+        List<Object[]> holdIds = new ArrayList<>();
+        Map<List<String>, Long> heldByWallet = new TreeMap<>((a, b) -> {
+            int byUser = a.get(0).compareTo(b.get(0));
+            return byUser != 0 ? byUser : a.get(1).compareTo(b.get(1));
+        });
+
+        // Holds of users being moved to another shard are left for a run after the move.
+        jdbcTemplate.query(CLAIM_EXPIRED, rs -> {
+            if (shardRouter.isMoving(rs.getString("user_id"))) {
+                return;
+            }
+            holdIds.add(new Object[]{rs.getLong("id")});
+            heldByWallet.merge(List.of(rs.getString("user_id"), rs.getString("asset")),
+                    rs.getLong("amount"), Long::sum);
+        }, Timestamp.valueOf(LocalDateTime.now()), batchSize);
+
+        if (holdIds.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(MARK_EXPIRED, holdIds);
+
+        List<Object[]> releases = new ArrayList<>(heldByWallet.size());
+        heldByWallet.forEach((wallet, amount) -> releases.add(new Object[]{amount, wallet.get(0), wallet.get(1)}));
+        jdbcTemplate.batchUpdate(RELEASE_HELD, releases);
+        heldByWallet.keySet().forEach(wallet ->
+                eventPublisher.publishEvent(new HoldChangedEvent(wallet.get(0), wallet.get(1), HoldStatus.EXPIRED)));
+
+        return holdIds.size();
+    }
+}
@@ -0,0 +1,263 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.LedgerExportProperties;
+import com.game.wallet.dto.LedgerFileResponse;
+import com.game.wallet.ledger.BinaryLedgerReader;
+import com.game.wallet.ledger.BinaryLedgerWriter;
+import com.game.wallet.ledger.LedgerArchive;
+import com.game.wallet.model.LedgerEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports the ledger to the binary format in {@link com.game.wallet.ledger}, imports it into
+ * an empty database and rebuilds wallet balances straight from the file without loading
+ * ledger entities. Only wallets that appear in the file are overwritten, and neither import
+ * nor replay runs while holds are active, since a replayed balance could fall below them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerFileService {
+
+    private static final String GENESIS = "GENESIS";
+
+    private static final String SELECT_LEDGER =
+            "SELECT id, debit_user, credit_user, asset, amount, idempotency_key, reference, created_at " +
+                    "FROM ledger_entry ORDER BY id";
+
+    private static final String INSERT_LEDGER =
+            "INSERT INTO ledger_entry (id, debit_user, credit_user, asset, amount, idempotency_key, reference, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_WALLET =
+            "INSERT INTO wallet (user_id, user_ref, asset, balance, held, version, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+                    "ON CONFLICT (user_id, asset) DO UPDATE " +
+                    "SET balance = EXCLUDED.balance, user_ref = COALESCE(wallet.user_ref, EXCLUDED.user_ref), " +
+                    "version = wallet.version + 1, updated_at = CURRENT_TIMESTAMP";
+
+    private static final String ACTIVE_HOLDS =
+            "SELECT EXISTS (SELECT 1 FROM wallet_hold WHERE status = 'HELD')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final LedgerArchive ledgerArchive;
+    private final LedgerExportProperties properties;
+    private final UserDirectory userDirectory;
+    private final LedgerSummaryService ledgerSummaryService;
+    private final AssetSupplyService assetSupplyService;
+    private final SystemLedgerService systemLedgerService;
+
+    public LedgerFileResponse export(String fileName) {
+        Path file = resolve(fileName);
+        long start = System.nanoTime();
+
+        try {
+            Files.createDirectories(file.getParent());
+            try (BinaryLedgerWriter writer = new BinaryLedgerWriter(file)) {
+                ledgerArchive.forEachEntry(writer::append);
+
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(SELECT_LEDGER);
+                    ps.setFetchSize(properties.getFetchSize());
+                    return ps;
+                }, (RowCallbackHandler) rs -> writer.append(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getLong(5),
+                        rs.getString(6),
+                        rs.getString(7),
+                        rs.getTimestamp(8).toLocalDateTime())));
+
+                writer.finish();
+                log.info("Exported {} ledger entries to {} ({} bytes)", writer.entries(), file, writer.bytesWritten());
+
+                return LedgerFileResponse.builder()
+                        .file(fileName)
+                        .entries(writer.entries())
+                        .bytes(writer.bytesWritten())
+                        .elapsedMillis(elapsedMillis(start))
+                        .build();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Ledger export to " + file + " failed", ex);
+        }
+    }
+
+    public LedgerFileResponse importFile(String fileName) {
+        Path file = resolve(fileName);
+        long start = System.nanoTime();
+
+        Boolean hasEntries = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM ledger_entry)", Boolean.class);
+        if (Boolean.TRUE.equals(hasEntries)) {
+            throw new IllegalStateException("Ledger must be empty before importing " + fileName);
+        }
+        requireNoActiveHolds("importing " + fileName);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Object[]> batch = new ArrayList<>(properties.getBatchSize());
+        long entries;
+
+        try (BinaryLedgerReader reader = new BinaryLedgerReader(file)) {
+            entries = reader.entries();
+            reader.forEachEntry(entry -> {
+                batch.add(toRow(entry));
+                if (batch.size() == properties.getBatchSize()) {
+                    tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_LEDGER, batch));
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_LEDGER, batch));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Ledger import from " + file + " failed", ex);
+        }
+
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('ledger_entry', 'id'), " +
+                "(SELECT COALESCE(MAX(id), 1) FROM ledger_entry))");
+        log.info("Imported {} ledger entries from {}", entries, file);
+
+        LedgerFileResponse replay = replay(fileName);
+        userDirectory.backfill();
+        ledgerSummaryService.rebuild();
+        assetSupplyService.rebuild();
+        systemLedgerService.rebuild();
+        replay.setElapsedMillis(elapsedMillis(start));
+        return replay;
+    }
+
+    public LedgerFileResponse replay(String fileName) {
+        Path file = resolve(fileName);
+        long start = System.nanoTime();
+        requireNoActiveHolds("replaying " + fileName);
+
+        try (BinaryLedgerReader reader = new BinaryLedgerReader(file)) {
+            String[] users = reader.users();
+            String[] assets = reader.assets();
+            long[][] balances = new long[assets.length][users.length];
+            BitSet[] touched = new BitSet[assets.length];
+            for (int a = 0; a < assets.length; a++) {
+                touched[a] = new BitSet(users.length);
+            }
+            int genesis = List.of(users).indexOf(GENESIS);
+
+            reader.scan((id, createdAtMicros, debitUser, creditUser, asset, amount) -> {
+                long[] assetBalances = balances[asset];
+                if (debitUser != genesis) {
+                    long next = assetBalances[debitUser] - amount;
+                    if (next < 0) {
+                        throw new IllegalStateException(
+                                "Negative balance during replay. User=" + users[debitUser] +
+                                        ", Asset=" + assets[asset] +
+                                        ", EntryId=" + id
+                        );
+                    }
+                    assetBalances[debitUser] = next;
+                }
+                assetBalances[creditUser] += amount;
+                touched[asset].set(creditUser);
+            });
+
+            long wallets = writeBalances(users, assets, balances, touched);
+            log.info("Rebuilt {} wallets from {} ledger entries in {}", wallets, reader.entries(), file);
+
+            return LedgerFileResponse.builder()
+                    .file(fileName)
+                    .entries(reader.entries())
+                    .bytes(Files.size(file))
+                    .wallets(wallets)
+                    .elapsedMillis(elapsedMillis(start))
+                    .build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Ledger replay from " + file + " failed", ex);
+        }
+    }
+
+    private long writeBalances(String[] users, String[] assets, long[][] balances, BitSet[] touched) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return tx.execute(status -> {
+            BitSet walletOwners = new BitSet(users.length);
+            for (BitSet assetTouched : touched) {
+                walletOwners.or(assetTouched);
+            }
+            List<String> owners = new ArrayList<>(walletOwners.cardinality());
+            walletOwners.stream().forEach(u -> owners.add(users[u]));
+            Map<String, Long> refs = userDirectory.resolveAll(owners);
+
+            long written = 0;
+            List<Object[]> batch = new ArrayList<>(properties.getBatchSize());
+            for (int a = 0; a < assets.length; a++) {
+                BitSet assetTouched = touched[a];
+                for (int u = assetTouched.nextSetBit(0); u >= 0; u = assetTouched.nextSetBit(u + 1)) {
+                    batch.add(new Object[]{users[u], refs.get(users[u]), assets[a], balances[a][u]});
+                    if (batch.size() == properties.getBatchSize()) {
+                        jdbcTemplate.batchUpdate(UPSERT_WALLET, batch);
+                        written += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_WALLET, batch);
+                written += batch.size();
+            }
+            return written;
+        });
+    }
+
+    private void requireNoActiveHolds(String action) {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(ACTIVE_HOLDS, Boolean.class))) {
+            throw new IllegalStateException("Release or capture the active holds before " + action);
+        }
+    }
+
+    private static Object[] toRow(LedgerEntry entry) {
+        return new Object[]{
+                entry.getId(),
+                entry.getDebitUser(),
+                entry.getCreditUser(),
+                entry.getAsset(),
+                entry.getAmount(),
+                entry.getIdempotencyKey(),
+                entry.getReference(),
+                Timestamp.valueOf(entry.getCreatedAt())
+        };
+    }
+
+    private Path resolve(String fileName) {
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new IllegalArgumentException("Invalid ledger file name: " + fileName);
+        }
+        return file;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
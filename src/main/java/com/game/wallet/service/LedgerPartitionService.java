@@ -0,0 +1,205 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.LedgerPartitionProperties;
+import com.game.wallet.ledger.LedgerArchive;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps ledger_entry partitioned by month: creates partitions ahead of time and moves
+ * partitions older than the retention window to the {@link LedgerArchive}. Runs on every
+ * shard when sharding is enabled.
+ *
+ * <p>Rows that landed in the default partition, because no partition covered their month
+ * yet or because they predate partitioning, are moved into their month's partition when it
+ * is created. Cold months left only in the default partition get a partition of their own
+ * first, so they are archived like any other month.
+ */
+@Service
+@ConditionalOnProperty(prefix = "wallet.ledger.partitioning", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerPartitionService {
+
+    private static final String PARENT_TABLE = "ledger_entry";
+    private static final String PARTITION_PREFIX = "ledger_entry_p";
+    private static final String DEFAULT_PARTITION = "ledger_entry_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int EXPORT_FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerArchive ledgerArchive;
+    private final LedgerPartitionProperties properties;
+    private final ShardRouter shardRouter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        shardRouter.forEachShard(this::createUpcomingPartitions);
+    }
+
+    @Scheduled(cron = "${wallet.ledger.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        shardRouter.forEachShard(() -> {
+            createUpcomingPartitions();
+            archiveColdPartitions();
+        });
+    }
+
+    public void createUpcomingPartitions() {
+        List<YearMonth> partitions = listPartitions();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            if (!partitions.contains(current.plusMonths(i))) {
+                createPartition(current.plusMonths(i));
+            }
+        }
+    }
+
+    public void archiveColdPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(properties.getRetentionMonths());
+        for (YearMonth month : defaultMonthsBefore(cutoff)) {
+            createPartition(month);
+        }
+
+        List<YearMonth> partitions = listPartitions();
+        for (YearMonth month : ledgerArchive.stagedMonths()) {
+            // Left behind by a run that stopped between dropping the partition and publishing;
+            // a month whose partition still exists is exported again below.
+            if (!partitions.contains(month)) {
+                ledgerArchive.publish(month);
+            }
+        }
+
+        for (YearMonth month : partitions) {
+            if (month.isBefore(cutoff)) {
+                archivePartition(month);
+            }
+        }
+    }
+
+    public List<YearMonth> listPartitions() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        JOIN pg_class p ON p.oid = i.inhparent
+                        WHERE p.relname = ?
+                        """, String.class, PARENT_TABLE)
+                .stream()
+                .filter(name -> name.startsWith(PARTITION_PREFIX))
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    private List<YearMonth> defaultMonthsBefore(YearMonth cutoff) {
+        return jdbcTemplate.queryForList(
+                        "SELECT DISTINCT CAST(date_trunc('month', created_at) AS DATE) FROM " + DEFAULT_PARTITION
+                                + " WHERE created_at < ?",
+                        Date.class, Timestamp.valueOf(cutoff.atDay(1).atStartOfDay()))
+                .stream()
+                .map(date -> YearMonth.from(date.toLocalDate()))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Creating a partition fails while the default partition holds rows of its range, so
+     * those rows are moved into a standalone table that is then attached, all in one
+     * transaction. The default partition is locked first so no new row of the range lands
+     * there in between.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        String bounds = String.format("FOR VALUES FROM ('%s') TO ('%s')", month.atDay(1), month.plusMonths(1).atDay(1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN EXCLUSIVE MODE");
+            Boolean stranded = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                    + " WHERE created_at >= ? AND created_at < ?)", Boolean.class, from, to);
+            if (!Boolean.TRUE.equals(stranded)) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + PARENT_TABLE
+                        + " " + bounds);
+                return;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + PARENT_TABLE
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + partition
+                    + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + partition + " " + bounds);
+            log.info("Created ledger partition {} with {} rows moved from {}", partition, moved, DEFAULT_PARTITION);
+        });
+    }
+
+    private void archivePartition(YearMonth month) {
+        String partition = partitionName(month);
+        log.info("Archiving ledger partition {}", partition);
+
+        Long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+
+        try (LedgerArchive.ArchiveWriter writer = ledgerArchive.open(month)) {
+            // Rows of a month archived before that reached the default partition afterwards
+            // are added to the published archive rather than replacing it.
+            long archived = ledgerArchive.forEachEntry(month, writer::write);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT id, debit_user, credit_user, asset, amount, idempotency_key, reference, created_at " +
+                                "FROM " + partition + " ORDER BY id");
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> writer.write(LedgerEntry.builder()
+                    .id(rs.getLong("id"))
+                    .debitUser(rs.getString("debit_user"))
+                    .creditUser(rs.getString("credit_user"))
+                    .asset(rs.getString("asset"))
+                    .amount(rs.getLong("amount"))
+                    .idempotencyKey(rs.getString("idempotency_key"))
+                    .reference(rs.getString("reference"))
+                    .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                    .build())));
+
+            if (!Objects.equals(expected + archived, writer.count())) {
+                throw new IllegalStateException("Archive of " + partition + " wrote " + writer.count()
+                        + " rows, expected " + (expected + archived));
+            }
+            writer.complete();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+        ledgerArchive.publish(month);
+        log.info("Ledger partition {} archived and dropped", partition);
+    }
+
+    private String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX);
+    }
+}
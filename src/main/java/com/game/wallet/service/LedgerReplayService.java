@@ -1,17 +1,22 @@
 package com.game.wallet.service;
 
+import com.game.wallet.ledger.LedgerArchive;
+import com.game.wallet.ledger.LedgerReplayEngine;
+import com.game.wallet.ledger.LedgerRow;
 import com.game.wallet.model.LedgerEntry;
 import com.game.wallet.model.Wallet;
-import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.LedgerRowReader;
 import com.game.wallet.repository.WalletRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,65 +25,67 @@ public class LedgerReplayService {
 
     private static final String GENESIS = "GENESIS";
 
-    private final LedgerRepository ledgerRepository;
+    private final LedgerRowReader ledgerRowReader;
     private final WalletRepository walletRepository;
+    private final LedgerArchive ledgerArchive;
+    private final UserDirectory userDirectory;
 
     @Transactional
     public void replayAll() {
         log.info("Starting TRUE ledger rebuild");
 
         List<Wallet> wallets = walletRepository.findAll();
-        wallets.forEach(w -> w.setBalance(0L));
 
-        Map<String, Wallet> walletMap = wallets.stream()
-                .collect(Collectors.toMap(
-                        w -> key(w.getUserId(), w.getAsset()),
-                        w -> w
-                ));
-
-        List<LedgerEntry> entries = ledgerRepository.findAllByOrderByIdAsc();
-        log.info("Replaying {} ledger entries", entries.size());
-
-        for (LedgerEntry entry : entries) {
+        Map<String, Integer> assetIndex = new HashMap<>();
+        LedgerReplayEngine engine = new LedgerReplayEngine(wallets.size());
+        for (Wallet wallet : wallets) {
+            engine.addWallet(userRef(wallet.getUserRef(), wallet.getUserId()),
+                    assetIndex(assetIndex, wallet.getAsset()));
+        }
 
-            Wallet credit = walletMap.get(key(entry.getCreditUser(), entry.getAsset()));
-            if (credit == null) {
-                throw new IllegalStateException(
-                        "Missing credit wallet during replay. EntryId=" + entry.getId()
-                );
-            }
+        LedgerRow archivedRow = new LedgerRow();
+        long archived = ledgerArchive.forEachEntry(entry -> engine.apply(toRow(entry, archivedRow, assetIndex)));
+        if (archived > 0) {
+            log.info("Replayed {} archived ledger entries", archived);
+        }
 
-            if (!GENESIS.equals(entry.getDebitUser())) {
+        ledgerRowReader.streamAll(assetCodes(assetIndex), engine::apply);
+        log.info("Replayed {} ledger entries", engine.applied() - archived);
 
-                Wallet debit = walletMap.get(key(entry.getDebitUser(), entry.getAsset()));
-                if (debit == null) {
-                    throw new IllegalStateException(
-                            "Missing debit wallet during replay. EntryId=" + entry.getId()
-                    );
-                }
+        for (int i = 0; i < wallets.size(); i++) {
+            wallets.get(i).setBalance(engine.balance(i));
+        }
+        walletRepository.saveAll(wallets);
 
-                long newDebitBalance = debit.getBalance() - entry.getAmount();
+        log.info("Ledger rebuild completed successfully");
+    }
 
-                if (newDebitBalance < 0) {
-                    throw new IllegalStateException(
-                            "Negative balance during replay. User=" + debit.getUserId() +
-                                    ", Asset=" + debit.getAsset() +
-                                    ", EntryId=" + entry.getId()
-                    );
-                }
+    private LedgerRow toRow(LedgerEntry entry, LedgerRow row, Map<String, Integer> assetIndex) {
+        long debitRef = GENESIS.equals(entry.getDebitUser())
+                ? LedgerRow.NO_DEBIT
+                : userRef(entry.getDebitUserRef(), entry.getDebitUser());
+        return row.set(entry.getId(), debitRef,
+                userRef(entry.getCreditUserRef(), entry.getCreditUser()),
+                assetIndex(assetIndex, entry.getAsset()),
+                entry.getAmount());
+    }
 
-                debit.setBalance(newDebitBalance);
-            }
+    private long userRef(Long ref, String userId) {
+        return ref != null ? ref : userDirectory.resolve(userId);
+    }
 
-            credit.setBalance(credit.getBalance() + entry.getAmount());
+    private static int assetIndex(Map<String, Integer> assetIndex, String asset) {
+        Integer index = assetIndex.get(asset);
+        if (index == null) {
+            index = assetIndex.size();
+            assetIndex.put(asset, index);
         }
-
-        walletRepository.saveAll(wallets);
-
-        log.info("Ledger rebuild completed successfully");
+        return index;
     }
 
-    private String key(String user, String asset) {
-        return user + "|" + asset;
+    private static List<String> assetCodes(Map<String, Integer> assetIndex) {
+        List<String> codes = new ArrayList<>(Collections.nCopies(assetIndex.size(), (String) null));
+        assetIndex.forEach((code, index) -> codes.set(index, code));
+        return codes;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.ReversalProperties;
+import com.game.wallet.dto.BulkReversalResponse;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Reverses every entry posted under a reference, e.g. the prizes of a cancelled tournament.
+ * Each shard is walked in id order over the reference index and every page is reversed in
+ * its own transaction, so a large reference never holds its wallet locks for long. Entries
+ * that were already reversed, or whose amount the user no longer has, are skipped; running
+ * the same reversal again picks up only what is still outstanding.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerReversalService {
+
+    private final LedgerRepository ledgerRepository;
+    private final WalletService walletService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ReversalProperties properties;
+
+    /**
+     * @param reversalId idempotency key of the compensating entries
+     */
+    public BulkReversalResponse reverseReference(String reference, String reversalId) {
+        if (reference == null || reference.isBlank() || reversalId == null || reversalId.isBlank()) {
+            throw new IllegalArgumentException("reference and reversalId are required");
+        }
+        long start = System.nanoTime();
+        long[] totals = new long[2];
+        for (long[] shard : shardRouter.collect(() -> reverseShard(reference, reversalId))) {
+            totals[0] += shard[0];
+            totals[1] += shard[1];
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        log.info("Reversed {} entries of reference {} ({} skipped) in {} ms", totals[0], reference, totals[1], elapsed);
+        return BulkReversalResponse.builder()
+                .reference(reference)
+                .reversalId(reversalId)
+                .reversed(totals[0])
+                .skipped(totals[1])
+                .elapsedMillis(elapsed)
+                .build();
+    }
+
+    private long[] reverseShard(String reference, String reversalId) {
+        int batchSize = properties.getBatchSize();
+        long[] totals = new long[2];
+        long afterId = 0;
+        int read;
+        do {
+            long from = afterId;
+            long[] batch = transactionTemplate.execute(status -> {
+                List<LedgerEntry> entries = ledgerRepository.findByReferenceAfter(reference, from,
+                        PageRequest.of(0, batchSize));
+                if (entries.isEmpty()) {
+                    return new long[]{0, 0, 0, from};
+                }
+                int fetched = entries.size();
+                if (fetched == batchSize) {
+                    entries = wholeOperations(entries);
+                }
+                long lastId = entries.get(entries.size() - 1).getId();
+                int considered = entries.size();
+                // Entries of users being moved count as skipped; running the reversal again after
+                // the move finds them on their new shard.
+                entries = entries.stream()
+                        .filter(entry -> !shardRouter.isMoving(entry.getDebitUser())
+                                && !shardRouter.isMoving(entry.getCreditUser()))
+                        .toList();
+                int reversed = walletService.reverseEntries(entries, reversalId, false).size();
+                return new long[]{fetched, considered, reversed, lastId};
+            });
+            read = (int) batch[0];
+            totals[0] += batch[2];
+            totals[1] += batch[1] - batch[2];
+            afterId = batch[3];
+        } while (read == batchSize);
+        return totals;
+    }
+
+    /**
+     * Drops the trailing entries of the page's last idempotency key, so the next page reads
+     * that operation whole; reversal markers tell identical entries apart by position. A
+     * page holding a single operation is kept as it is.
+     */
+    private static List<LedgerEntry> wholeOperations(List<LedgerEntry> page) {
+        String last = page.get(page.size() - 1).getIdempotencyKey();
+        int end = page.size();
+        while (end > 0 && page.get(end - 1).getIdempotencyKey().equals(last)) {
+            end--;
+        }
+        return end > 0 ? page.subList(0, end) : page;
+    }
+}
@@ -0,0 +1,116 @@
+package com.game.wallet.service;
+
+import com.game.wallet.dto.DailySummaryResponse;
+import com.game.wallet.dto.TransactionSummaryResponse;
+import com.game.wallet.event.LedgerPostedEvent;
+import com.game.wallet.ledger.LedgerAggregates;
+import com.game.wallet.model.LedgerDailySummary;
+import com.game.wallet.repository.LedgerDailySummaryRepository;
+import com.game.wallet.repository.LedgerSummaryWriter;
+import com.game.wallet.routing.ReadRoutingContext;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains ledger_daily_summary as ledger entries are written and serves the summary
+ * endpoint from it. The upsert runs inside the ledger-writing transaction, so summaries
+ * commit or roll back together with the entry. The row touched always belongs to a wallet
+ * the transaction has already locked, so it adds no new lock ordering.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerSummaryService {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 366;
+
+    private final LedgerSummaryWriter ledgerSummaryWriter;
+    private final LedgerDailySummaryRepository summaryRepository;
+    private final UserDirectory userDirectory;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        LedgerAggregates aggregates = LedgerAggregates.of(event.getDebitUser(), event.getCreditUser(),
+                event.getAsset(), event.getAmount());
+        LocalDate today = LocalDate.now();
+        if (aggregates.isDebitSummarized()) {
+            ledgerSummaryWriter.add(userDirectory.resolve(event.getDebitUser()), event.getAsset(), today,
+                    0, event.getAmount());
+        }
+        if (aggregates.isCreditSummarized()) {
+            ledgerSummaryWriter.add(userDirectory.resolve(event.getCreditUser()), event.getAsset(), today,
+                    event.getAmount(), 0);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionSummaryResponse getSummary(String userId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            throw new IllegalArgumentException("Summary range is limited to " + MAX_DAYS + " days");
+        }
+
+        List<LedgerDailySummary> rows;
+        try (ShardContext.Scope shard = shardRouter.forUser(userId);
+             ReadRoutingContext.Scope ignored = ReadRoutingContext.forUser(userId)) {
+            rows = userDirectory.find(userId)
+                    .map(ref -> summaryRepository.findByUserRefAndEntryDateBetweenOrderByAssetAscEntryDateAsc(ref, start, end))
+                    .orElse(List.of());
+        }
+
+        Map<String, TransactionSummaryResponse.AssetSummary> assets = new LinkedHashMap<>();
+        for (LedgerDailySummary row : rows) {
+            TransactionSummaryResponse.AssetSummary asset = assets.computeIfAbsent(row.getAsset(),
+                    code -> TransactionSummaryResponse.AssetSummary.builder()
+                            .asset(code)
+                            .credited(0L)
+                            .debited(0L)
+                            .entries(0L)
+                            .days(new ArrayList<>())
+                            .build());
+            asset.setCredited(asset.getCredited() + row.getCreditTotal());
+            asset.setDebited(asset.getDebited() + row.getDebitTotal());
+            asset.setEntries(asset.getEntries() + row.getEntryCount());
+            asset.getDays().add(DailySummaryResponse.builder()
+                    .date(row.getEntryDate())
+                    .credited(row.getCreditTotal())
+                    .debited(row.getDebitTotal())
+                    .entries(row.getEntryCount())
+                    .build());
+        }
+
+        return TransactionSummaryResponse.builder()
+                .userId(userId)
+                .from(start)
+                .to(end)
+                .assets(new ArrayList<>(assets.values()))
+                .build();
+    }
+
+    public void rebuild() {
+        shardRouter.forEachShard(() -> transactionTemplate.executeWithoutResult(status -> {
+            int rows = ledgerSummaryWriter.rebuild();
+            log.info("Rebuilt {} ledger summary rows", rows);
+        }));
+    }
+}
@@ -0,0 +1,296 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.BulkGrantProperties;
+import com.game.wallet.config.ScheduledGrantProperties;
+import com.game.wallet.grant.ScheduledGrant;
+import com.game.wallet.leaderboard.LeaderboardService;
+import com.game.wallet.model.Asset;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.BulkGrantRepository;
+import com.game.wallet.repository.LedgerBatchWriter;
+import com.game.wallet.repository.LedgerSummaryWriter;
+import com.game.wallet.repository.ScheduledGrantRepository;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Applies scheduled grants once they are due and takes expiring grants back, in batches.
+ * Each batch claims up to {@code batch-size} rows with SKIP LOCKED and posts them in one
+ * transaction per shard the way a bulk grant chunk is posted: one SYSTEM debit per asset,
+ * multi-row wallet upserts, one ledger insert and batched summary, supply and SYSTEM
+ * bucket updates. Full batches are followed straight away by the next one.
+ *
+ * <p>Only grants of bonus assets expire, so an expiry never takes purchased currency. It
+ * takes back what it granted, capped at the wallet's available balance; what the user
+ * already spent stays spent. The amount taken back is recorded on the grant.
+ */
+@Service
+@ConditionalOnProperty(prefix = "wallet.scheduled-grants", name = "enabled", havingValue = "true")
+@Slf4j
+public class ScheduledGrantProcessor {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+    private static final String EXPIRY_REFERENCE = "EXPIRY:";
+
+    private final ScheduledGrantRepository scheduledGrantRepository;
+    private final BulkGrantRepository bulkGrantRepository;
+    private final AssetRepository assetRepository;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final LedgerSummaryWriter ledgerSummaryWriter;
+    private final AssetSupplyService assetSupplyService;
+    private final SystemLedgerService systemLedgerService;
+    private final UserDirectory userDirectory;
+    private final LeaderboardService leaderboardService;
+    private final ShardRouter shardRouter;
+    private final ScheduledGrantProperties properties;
+    private final BulkGrantProperties bulkGrantProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ScheduledGrantProcessor(ScheduledGrantRepository scheduledGrantRepository,
+                                   BulkGrantRepository bulkGrantRepository,
+                                   AssetRepository assetRepository,
+                                   LedgerBatchWriter ledgerBatchWriter,
+                                   LedgerSummaryWriter ledgerSummaryWriter,
+                                   AssetSupplyService assetSupplyService,
+                                   SystemLedgerService systemLedgerService,
+                                   UserDirectory userDirectory,
+                                   LeaderboardService leaderboardService,
+                                   ShardRouter shardRouter,
+                                   ScheduledGrantProperties properties,
+                                   BulkGrantProperties bulkGrantProperties,
+                                   PlatformTransactionManager transactionManager) {
+        this.scheduledGrantRepository = scheduledGrantRepository;
+        this.bulkGrantRepository = bulkGrantRepository;
+        this.assetRepository = assetRepository;
+        this.ledgerBatchWriter = ledgerBatchWriter;
+        this.ledgerSummaryWriter = ledgerSummaryWriter;
+        this.assetSupplyService = assetSupplyService;
+        this.systemLedgerService = systemLedgerService;
+        this.userDirectory = userDirectory;
+        this.leaderboardService = leaderboardService;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.bulkGrantProperties = bulkGrantProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.scheduled-grants.interval-ms:1000}")
+    public void process() {
+        shardRouter.forEachShard(() -> {
+            long granted = drain(this::grantBatch);
+            long expired = drain(this::expireBatch);
+            if (granted > 0 || expired > 0) {
+                log.info("Applied {} scheduled grants and expired {}", granted, expired);
+            }
+        });
+    }
+
+    private long drain(Function<LocalDateTime, List<ScheduledGrant>> batch) {
+        long total = 0;
+        List<ScheduledGrant> claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> batch.apply(LocalDateTime.now()));
+            total += claimed.size();
+        } while (claimed.size() == properties.getBatchSize());
+        return total;
+    }
+
+    private List<ScheduledGrant> grantBatch(LocalDateTime now) {
+        List<ScheduledGrant> due = notMoving(scheduledGrantRepository.claimDue(now, properties.getBatchSize()));
+        List<ScheduledGrant> granted = new ArrayList<>(due.size());
+        List<ScheduledGrant> failed = new ArrayList<>();
+
+        byAsset(due).forEach((code, grants) -> {
+            Optional<Asset> asset = assetRepository.findById(code);
+            long total = sum(grants);
+            if (asset.isEmpty()) {
+                log.warn("Failing {} scheduled grants of unknown asset {}", grants.size(), code);
+                failed.addAll(grants);
+                return;
+            }
+            if (asset.get().getLimitedSupply() && !bulkGrantRepository.debitSystem(code, total)) {
+                log.warn("Failing {} scheduled grants of {}: SYSTEM wallet cannot cover {}", grants.size(), code, total);
+                failed.addAll(grants);
+                return;
+            }
+            grant(code, grants, total, now);
+            granted.addAll(grants);
+        });
+
+        if (!failed.isEmpty()) {
+            scheduledGrantRepository.markFailed(failed);
+        }
+        if (!granted.isEmpty()) {
+            scheduledGrantRepository.markGranted(granted, now);
+        }
+        return touchAfterCommit(due, granted, true);
+    }
+
+    private void grant(String asset, List<ScheduledGrant> grants, long total, LocalDateTime now) {
+        Map<String, Long> amounts = new TreeMap<>();
+        grants.forEach(grant -> amounts.merge(grant.getUserId(), grant.getAmount(), Math::addExact));
+        Map<String, Long> refs = userDirectory.resolveAll(amounts.keySet());
+        long systemRef = userDirectory.resolve(SYSTEM_USER);
+
+        List<String> users = new ArrayList<>(amounts.keySet());
+        int slice = bulkGrantProperties.getRowsPerStatement();
+        for (int from = 0; from < users.size(); from += slice) {
+            bulkGrantRepository.creditWallets(asset, users.subList(from, Math.min(users.size(), from + slice)),
+                    amounts, refs);
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>(grants.size());
+        Map<Long, Long> credits = new HashMap<>(amounts.size() * 2);
+        Map<Long, Long> counts = new HashMap<>(amounts.size() * 2);
+        for (ScheduledGrant grant : grants) {
+            Long ref = refs.get(grant.getUserId());
+            entries.add(ledgerEntry(SYSTEM_USER, systemRef, grant.getUserId(), ref,
+                    asset, grant.getAmount(), grant.getScheduleId(), grant.getReference(), now));
+            counts.merge(ref, 1L, Long::sum);
+        }
+        amounts.forEach((userId, amount) -> credits.put(refs.get(userId), amount));
+        ledgerBatchWriter.insertAll(entries);
+
+        ledgerSummaryWriter.addCredits(asset, now.toLocalDate(), credits, counts);
+        assetSupplyService.recordIssued(asset, total);
+        systemLedgerService.recordDebits(asset, total, entries.size());
+    }
+
+    private List<ScheduledGrant> expireBatch(LocalDateTime now) {
+        List<ScheduledGrant> expiring = notMoving(scheduledGrantRepository.claimExpired(now, properties.getBatchSize()));
+        Map<Long, Long> expiredAmounts = new LinkedHashMap<>();
+        byAsset(expiring).forEach((asset, grants) -> expiredAmounts.putAll(expire(asset, grants, now)));
+        if (!expiredAmounts.isEmpty()) {
+            scheduledGrantRepository.markExpired(expiredAmounts);
+        }
+        return touchAfterCommit(expiring, expiring, false);
+    }
+
+    private Map<Long, Long> expire(String asset, List<ScheduledGrant> grants, LocalDateTime now) {
+        Optional<Asset> bonus = assetRepository.findById(asset).filter(Asset::getBonus);
+        if (bonus.isEmpty()) {
+            // Scheduled before expiry was limited to bonus assets.
+            log.warn("Not taking back {} expired grants of {}: not a bonus asset", grants.size(), asset);
+            Map<Long, Long> none = new LinkedHashMap<>();
+            grants.forEach(grant -> none.put(grant.getId(), 0L));
+            return none;
+        }
+        List<String> users = grants.stream().map(ScheduledGrant::getUserId).distinct().sorted().toList();
+        Map<String, Long> refs = userDirectory.resolveAll(users);
+        long systemRef = userDirectory.resolve(SYSTEM_USER);
+        Map<String, Long> available = scheduledGrantRepository.lockAvailable(asset, users);
+
+        Map<Long, Long> taken = new LinkedHashMap<>();
+        Map<String, Long> debits = new TreeMap<>();
+        Map<Long, Long> counts = new HashMap<>();
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (ScheduledGrant grant : grants) {
+            long left = available.getOrDefault(grant.getUserId(), 0L);
+            long amount = Math.max(0, Math.min(grant.getAmount(), left));
+            taken.put(grant.getId(), amount);
+            if (amount == 0) {
+                continue;
+            }
+            available.put(grant.getUserId(), left - amount);
+            debits.merge(grant.getUserId(), amount, Long::sum);
+            counts.merge(refs.get(grant.getUserId()), 1L, Long::sum);
+            // Keyed apart from the grant so a lookup by idempotency key finds the grant alone.
+            String expiry = EXPIRY_REFERENCE + grant.getScheduleId();
+            entries.add(ledgerEntry(grant.getUserId(), refs.get(grant.getUserId()), SYSTEM_USER, systemRef,
+                    asset, amount, expiry, expiry, now));
+        }
+        if (debits.isEmpty()) {
+            return taken;
+        }
+
+        long total = debits.values().stream().mapToLong(Long::longValue).reduce(0, Math::addExact);
+        scheduledGrantRepository.debitWallets(asset, debits);
+        // Same order as a spend: user wallets first, then SYSTEM.
+        if (bonus.get().getLimitedSupply()) {
+            bulkGrantRepository.creditWallets(asset, List.of(SYSTEM_USER), Map.of(SYSTEM_USER, total),
+                    Map.of(SYSTEM_USER, systemRef));
+        }
+        ledgerBatchWriter.insertAll(entries);
+
+        Map<Long, Long> summaryDebits = new HashMap<>(debits.size() * 2);
+        debits.forEach((userId, amount) -> summaryDebits.put(refs.get(userId), amount));
+        ledgerSummaryWriter.addDebits(asset, now.toLocalDate(), summaryDebits, counts);
+        assetSupplyService.recordBurned(asset, total);
+        systemLedgerService.recordCredits(asset, total, entries.size());
+        return taken;
+    }
+
+    /**
+     * Tells the leaderboards about the changed wallets once the batch has committed.
+     */
+    private List<ScheduledGrant> touchAfterCommit(List<ScheduledGrant> claimed, List<ScheduledGrant> changed,
+                                                  boolean credit) {
+        if (!changed.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (ScheduledGrant grant : changed) {
+                        if (credit) {
+                            leaderboardService.touched(grant.getAsset(), SYSTEM_USER, grant.getUserId());
+                        } else {
+                            leaderboardService.touched(grant.getAsset(), grant.getUserId(), SYSTEM_USER);
+                        }
+                    }
+                }
+            });
+        }
+        return claimed;
+    }
+
+    /**
+     * Leaves grants of users being moved to another shard for a run after the move. A batch
+     * that skips any comes back short, so the drain stops instead of claiming them again.
+     */
+    private List<ScheduledGrant> notMoving(List<ScheduledGrant> claimed) {
+        return claimed.stream().filter(grant -> !shardRouter.isMoving(grant.getUserId())).toList();
+    }
+
+    private static Map<String, List<ScheduledGrant>> byAsset(List<ScheduledGrant> grants) {
+        Map<String, List<ScheduledGrant>> byAsset = new TreeMap<>();
+        grants.forEach(grant -> byAsset.computeIfAbsent(grant.getAsset(), asset -> new ArrayList<>()).add(grant));
+        return byAsset;
+    }
+
+    private static long sum(List<ScheduledGrant> grants) {
+        return grants.stream().mapToLong(ScheduledGrant::getAmount).reduce(0, Math::addExact);
+    }
+
+    private static LedgerEntry ledgerEntry(String debitUser, Long debitRef, String creditUser, Long creditRef,
+                                           String asset, long amount, String idempotencyKey, String reference,
+                                           LocalDateTime createdAt) {
+        return LedgerEntry.builder()
+                .debitUser(debitUser)
+                .creditUser(creditUser)
+                .debitUserRef(debitRef)
+                .creditUserRef(creditRef)
+                .asset(asset)
+                .amount(amount)
+                .idempotencyKey(idempotencyKey)
+                .reference(reference)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.game.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.wallet.config.ScheduledGrantProperties;
+import com.game.wallet.dto.ScheduledGrantRequest;
+import com.game.wallet.dto.ScheduledGrantResponse;
+import com.game.wallet.exception.AssetNotFoundException;
+import com.game.wallet.grant.GrantFileFormat;
+import com.game.wallet.grant.GrantRow;
+import com.game.wallet.grant.GrantRowReader;
+import com.game.wallet.model.Asset;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.ScheduledGrantRepository;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records future-dated and expiring grants in scheduled_grant, one row per user on that
+ * user's shard. {@link ScheduledGrantProcessor} applies them when they fall due.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledGrantService {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+    private static final String GENESIS_USER = "GENESIS";
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final ScheduledGrantRepository scheduledGrantRepository;
+    private final AssetRepository assetRepository;
+    private final BulkGrantService bulkGrantService;
+    private final ShardRouter shardRouter;
+    private final PlatformTransactionManager transactionManager;
+    private final ScheduledGrantProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public ScheduledGrantResponse schedule(ScheduledGrantRequest request) {
+        Path file = bulkGrantService.resolve(request.getFile());
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return schedule(request, reader, GrantFileFormat.fromFileName(request.getFile()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read grant file " + file, ex);
+        }
+    }
+
+    public ScheduledGrantResponse schedule(ScheduledGrantRequest request, Reader input, GrantFileFormat format) {
+        Asset asset = assetRepository.findById(request.getAsset())
+                .orElseThrow(() -> new AssetNotFoundException("Asset not found: " + request.getAsset()));
+        // An expiry cannot tell granted currency from bought currency in the same wallet.
+        if (request.getExpiresInDays() != null && !asset.getBonus()) {
+            throw new IllegalArgumentException("Only grants of bonus assets can expire, " + asset.getCode()
+                    + " is not one");
+        }
+        LocalDateTime grantAt = request.getGrantAt() != null ? request.getGrantAt() : LocalDateTime.now();
+        Long expiresInSeconds = request.getExpiresInDays() != null
+                ? request.getExpiresInDays() * SECONDS_PER_DAY
+                : null;
+
+        long users = 0;
+        long total = 0;
+        try (GrantRowReader rows = new GrantRowReader(input, format, request.getAmount(), objectMapper)) {
+            Map<String, Long> chunk = new TreeMap<>();
+            GrantRow row;
+            while ((row = rows.next()) != null) {
+                if (SYSTEM_USER.equals(row.getUserId()) || GENESIS_USER.equals(row.getUserId())) {
+                    throw new IllegalArgumentException("Cannot grant to " + row.getUserId());
+                }
+                chunk.merge(row.getUserId(), row.getAmount(), Math::addExact);
+                if (chunk.size() == properties.getChunkSize()) {
+                    users += write(request, grantAt, expiresInSeconds, chunk);
+                    total += sum(chunk);
+                    chunk = new TreeMap<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                users += write(request, grantAt, expiresInSeconds, chunk);
+                total += sum(chunk);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read grant input", ex);
+        }
+
+        log.info("Scheduled grant {} of {}: {} new users at {}, expiring after {} days",
+                request.getScheduleId(), request.getAsset(), users, grantAt, request.getExpiresInDays());
+
+        return ScheduledGrantResponse.builder()
+                .scheduleId(request.getScheduleId())
+                .asset(request.getAsset())
+                .users(users)
+                .totalAmount(total)
+                .grantAt(grantAt)
+                .expiresInDays(request.getExpiresInDays())
+                .build();
+    }
+
+    /**
+     * @return the number of grants cancelled; grants already applied are left alone
+     */
+    public long cancel(String scheduleId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long cancelled = 0;
+        for (Integer count : shardRouter.collect(() -> transaction.execute(status ->
+                scheduledGrantRepository.cancel(scheduleId)))) {
+            cancelled += count;
+        }
+        log.info("Cancelled {} pending grants of schedule {}", cancelled, scheduleId);
+        return cancelled;
+    }
+
+    private long write(ScheduledGrantRequest request, LocalDateTime grantAt, Long expiresInSeconds,
+                       Map<String, Long> amounts) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long scheduled = 0;
+        shardRouter.checkNotMoving(amounts.keySet());
+        for (Map.Entry<String, List<String>> part : shardRouter.partition(amounts.keySet()).entrySet()) {
+            Map<String, Long> partAmounts = new TreeMap<>();
+            part.getValue().forEach(userId -> partAmounts.put(userId, amounts.get(userId)));
+            try (ShardContext.Scope ignored = shardRouter.forShard(part.getKey())) {
+                Integer count = transaction.execute(status -> scheduledGrantRepository.schedule(
+                        request.getScheduleId(), request.getAsset(), request.getReference(),
+                        grantAt, expiresInSeconds, partAmounts));
+                scheduled += count != null ? count : 0;
+            }
+        }
+        return scheduled;
+    }
+
+    private static long sum(Map<String, Long> amounts) {
+        return amounts.values().stream().mapToLong(Long::longValue).reduce(0, Math::addExact);
+    }
+}
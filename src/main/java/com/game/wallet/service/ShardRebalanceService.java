@@ -0,0 +1,397 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.ShardingProperties;
+import com.game.wallet.dto.ShardMoveResponse;
+import com.game.wallet.ledger.ReversalMarkers;
+import com.game.wallet.ledger.ShardMoveSettlement;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardMap;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Moves one hash bucket of users from its shard to another. The bucket is frozen first, so
+ * requests for its users get a retryable SERVER_BUSY instead of writing to the source
+ * while it is copied, and background jobs leave the users for a later run. Then the users'
+ * wallets, holds, scheduled grants, daily summaries, ledger entries, idempotency keys and
+ * reversal markers are copied to the target, removed from the source, and the bucket is
+ * reassigned. Supply counters and SYSTEM buckets are rebuilt afterwards,
+ * because the users' SYSTEM entries now count on the target.
+ *
+ * <p>The SYSTEM wallets of limited-supply assets move with the entries: what the users were
+ * granted or spent comes back to the source's SYSTEM wallet and out of the target's, and a
+ * move fails before touching the source if the target's SYSTEM wallet cannot cover it.
+ * Transfers with users staying on the source are settled against SYSTEM on both shards, see
+ * {@link ShardMoveSettlement}, so each shard still replays to its own wallets. Archived
+ * partitions stay in the source shard's archive. The freeze only applies to this instance;
+ * other instances must not serve traffic for the bucket while it moves.
+ */
+@Service
+@ConditionalOnProperty(prefix = "wallet.datasource.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalanceService {
+
+    private static final Set<String> SYSTEM_USERS = Set.of("SYSTEM", "GENESIS");
+    private static final int FETCH_SIZE = 5000;
+
+    private static final String SELECT_WALLETS = """
+            SELECT user_id, asset, balance, held, version, created_at, updated_at
+            FROM wallet WHERE user_id = ANY(?)
+            """;
+
+    private static final String SELECT_HOLDS = """
+            SELECT id, user_id, asset, amount, status, idempotency_key, reference, expires_at, created_at, updated_at
+            FROM wallet_hold WHERE user_id = ANY(?)
+            """;
+
+    private static final String SELECT_SCHEDULED_GRANTS = """
+            SELECT id, schedule_id, user_id, asset, amount, reference, grant_at, expires_in_seconds, status,
+                   granted_at, expires_at, expired_amount, created_at, updated_at
+            FROM scheduled_grant WHERE user_id = ANY(?)
+            """;
+
+    private static final String SELECT_SUMMARIES = """
+            SELECT user_ref, asset, entry_date, credit_total, debit_total, entry_count
+            FROM ledger_daily_summary WHERE user_ref = ANY(?)
+            """;
+
+    // The SYSTEM conditions match the partial history indexes; moved users are never SYSTEM.
+    private static final String SELECT_ENTRIES = """
+            SELECT debit_user, credit_user, asset, amount, idempotency_key, reference, created_at
+            FROM ledger_entry
+            WHERE (debit_user_ref = ANY(?) AND debit_user <> 'SYSTEM')
+               OR (credit_user_ref = ANY(?) AND credit_user <> 'SYSTEM')
+            """;
+
+    private static final String SELECT_IDEMPOTENCY_KEYS = """
+            SELECT idempotency_key, operation, created_at FROM idempotency_key WHERE idempotency_key = ANY(?)
+            """;
+
+    private static final String DELETE_ENTRIES = """
+            DELETE FROM ledger_entry
+            WHERE (debit_user_ref = ANY(?) AND debit_user <> 'SYSTEM')
+               OR (credit_user_ref = ANY(?) AND credit_user <> 'SYSTEM')
+            """;
+
+    // Fails instead of driving SYSTEM below its holds; the CHECK constraint would as well,
+    // but without saying which shard and asset.
+    private static final String ADJUST_SYSTEM = """
+            UPDATE wallet
+            SET balance = balance + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = 'SYSTEM' AND asset = ? AND balance + ? >= held
+            """;
+
+    private static final String INSERT_WALLET = """
+            INSERT INTO wallet (user_id, user_ref, asset, balance, held, version, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_HOLD = """
+            INSERT INTO wallet_hold (id, user_id, asset, amount, status, idempotency_key, reference,
+                                     expires_at, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_SCHEDULED_GRANT = """
+            INSERT INTO scheduled_grant (id, schedule_id, user_id, asset, amount, reference, grant_at,
+                                         expires_in_seconds, status, granted_at, expires_at, expired_amount,
+                                         created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_SUMMARY = """
+            INSERT INTO ledger_daily_summary (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_ENTRY = """
+            INSERT INTO ledger_entry (debit_user, credit_user, debit_user_ref, credit_user_ref, asset, amount,
+                                      idempotency_key, reference, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_IDEMPOTENCY_KEY = """
+            INSERT INTO idempotency_key (idempotency_key, operation, created_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (idempotency_key, operation) DO NOTHING
+            """;
+
+    private final ShardRouter shardRouter;
+    private final ShardingProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final UserDirectory userDirectory;
+    private final AssetSupplyService assetSupplyService;
+    private final SystemLedgerService systemLedgerService;
+
+    public synchronized ShardMoveResponse moveBucket(int bucket, String target) {
+        ShardMap shardMap = shardRouter.shardMap();
+        String source = shardMap.shardOfBucket(bucket);
+        if (!shardMap.shards().contains(target)) {
+            throw new IllegalArgumentException("Unknown shard: " + target);
+        }
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("Bucket " + bucket + " already lives on " + target);
+        }
+
+        long start = System.nanoTime();
+        ShardMoveResponse.ShardMoveResponseBuilder result = ShardMoveResponse.builder()
+                .bucket(bucket)
+                .source(source)
+                .target(target);
+        long[] counts = new long[4];
+
+        shardRouter.freeze(bucket);
+        List<String> users;
+        Set<String> moving;
+        List<String> limitedAssets;
+        try {
+            Thread.sleep(properties.getMoveDrain().toMillis());
+            users = usersInBucket(source, bucket);
+            moving = new HashSet<>(users);
+            limitedAssets = limitedAssets(source);
+            for (List<String> batch : batches(users)) {
+                copy(source, target, batch, new ShardMoveSettlement(moving, limitedAssets), counts);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            shardRouter.unfreeze(bucket);
+            throw new IllegalStateException("Move of bucket " + bucket + " interrupted", ex);
+        } catch (RuntimeException ex) {
+            shardRouter.unfreeze(bucket);
+            throw ex;
+        }
+
+        // A failure from here on leaves the bucket frozen: the source is partly emptied, so
+        // serving it again would hide data. Re-running the move finishes it.
+        for (List<String> batch : batches(users)) {
+            delete(source, batch, new ShardMoveSettlement(moving, limitedAssets));
+        }
+        shardMap.reassign(bucket, target);
+        shardRouter.unfreeze(bucket);
+
+        assetSupplyService.rebuild();
+        systemLedgerService.rebuild();
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        log.warn("Moved bucket {} ({} users) from {} to {} in {} ms. Add wallet.datasource.sharding.bucket-map.{}: {} "
+                + "to the configuration of every instance before restarting", bucket, users.size(), source, target,
+                elapsed, bucket, target);
+
+        return result
+                .users(users.size())
+                .wallets(counts[0])
+                .holds(counts[1])
+                .ledgerEntries(counts[2])
+                .summaries(counts[3])
+                .elapsedMillis(elapsed)
+                .build();
+    }
+
+    private List<String> usersInBucket(String shard, int bucket) {
+        ShardMap shardMap = shardRouter.shardMap();
+        List<String> users = new ArrayList<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try (ShardContext.Scope ignored = ShardContext.on(shard)) {
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT DISTINCT user_id FROM wallet");
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                String userId = rs.getString(1);
+                if (!SYSTEM_USERS.contains(userId) && shardMap.bucketOf(userId) == bucket) {
+                    users.add(userId);
+                }
+            }));
+        }
+        Collections.sort(users);
+        return users;
+    }
+
+    private List<String> limitedAssets(String shard) {
+        try (ShardContext.Scope ignored = ShardContext.on(shard)) {
+            return jdbcTemplate.queryForList("SELECT code FROM asset WHERE limited_supply", String.class);
+        }
+    }
+
+    private void copy(String source, String target, List<String> users, ShardMoveSettlement settlement,
+                      long[] counts) {
+        String[] userIds = users.toArray(new String[0]);
+        List<Object[]> wallets = new ArrayList<>();
+        List<Object[]> holds = new ArrayList<>();
+        List<Object[]> scheduledGrants = new ArrayList<>();
+        List<Object[]> summaries = new ArrayList<>();
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> idempotencyKeys = new ArrayList<>();
+        Set<String> counterparties = new TreeSet<>(users);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try (ShardContext.Scope ignored = ShardContext.on(source)) {
+            readOnly.executeWithoutResult(status -> {
+                Map<Long, String> usersByRef = new HashMap<>();
+                userDirectory.resolveAll(users).forEach((userId, ref) -> usersByRef.put(ref, userId));
+                Long[] refs = usersByRef.keySet().toArray(new Long[0]);
+                Set<String> keys = new HashSet<>();
+
+                jdbcTemplate.query(SELECT_WALLETS, (RowCallbackHandler) rs -> wallets.add(new Object[]{
+                        rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+                        rs.getTimestamp(6), rs.getTimestamp(7)}), (Object) userIds);
+                jdbcTemplate.query(SELECT_HOLDS, (RowCallbackHandler) rs -> {
+                    holds.add(new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4),
+                            rs.getString(5), rs.getString(6), rs.getString(7), rs.getTimestamp(8),
+                            rs.getTimestamp(9), rs.getTimestamp(10)});
+                    keys.add(rs.getString(6));
+                }, (Object) userIds);
+                jdbcTemplate.query(SELECT_SCHEDULED_GRANTS, (RowCallbackHandler) rs -> {
+                    Object[] grant = new Object[14];
+                    for (int i = 0; i < grant.length; i++) {
+                        grant[i] = rs.getObject(i + 1);
+                    }
+                    scheduledGrants.add(grant);
+                }, (Object) userIds);
+                jdbcTemplate.query(SELECT_SUMMARIES, (RowCallbackHandler) rs -> summaries.add(new Object[]{
+                        usersByRef.get(rs.getLong(1)), rs.getString(2), rs.getDate(3), rs.getLong(4),
+                        rs.getLong(5), rs.getLong(6)}), (Object) refs);
+                // Reversal markers are keyed on entry content, so a settled entry needs its own.
+                ReversalMarkers markers = new ReversalMarkers();
+                ReversalMarkers settledMarkers = new ReversalMarkers();
+                Map<String, String> markersOnTarget = new HashMap<>();
+                jdbcTemplate.query(SELECT_ENTRIES, (RowCallbackHandler) rs -> {
+                    String debitUser = settlement.onTarget(rs.getString(1));
+                    String creditUser = settlement.onTarget(rs.getString(2));
+                    Timestamp createdAt = rs.getTimestamp(7);
+                    entries.add(new Object[]{debitUser, creditUser, rs.getString(3), rs.getLong(4),
+                            rs.getString(5), rs.getString(6), createdAt});
+                    counterparties.add(debitUser);
+                    counterparties.add(creditUser);
+                    keys.add(rs.getString(5));
+                    String marker = markers.next(rs.getString(5), rs.getString(1), rs.getString(2), rs.getString(3),
+                            rs.getLong(4), createdAt.toLocalDateTime());
+                    keys.add(marker);
+                    markersOnTarget.put(marker, settledMarkers.next(rs.getString(5), debitUser, creditUser,
+                            rs.getString(3), rs.getLong(4), createdAt.toLocalDateTime()));
+                }, refs, refs);
+                jdbcTemplate.query(SELECT_IDEMPOTENCY_KEYS, (RowCallbackHandler) rs -> idempotencyKeys.add(new Object[]{
+                        markersOnTarget.getOrDefault(rs.getString(1), rs.getString(1)), rs.getString(2),
+                        rs.getTimestamp(3)}), (Object) keys.toArray(new String[0]));
+            });
+        }
+
+        try (ShardContext.Scope ignored = ShardContext.on(target)) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Map<String, Long> refs = userDirectory.resolveAll(counterparties);
+                Long[] movedRefs = users.stream().map(refs::get).toArray(Long[]::new);
+
+                // Leftovers of an earlier, failed attempt; their SYSTEM share is given back first.
+                jdbcTemplate.query(SELECT_ENTRIES, (RowCallbackHandler) rs -> settlement.removed(
+                        rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4)), movedRefs, movedRefs);
+                jdbcTemplate.update("DELETE FROM wallet_hold WHERE user_id = ANY(?)", (Object) userIds);
+                jdbcTemplate.update("DELETE FROM scheduled_grant WHERE user_id = ANY(?)", (Object) userIds);
+                jdbcTemplate.update("DELETE FROM ledger_daily_summary WHERE user_ref = ANY(?)", (Object) movedRefs);
+                jdbcTemplate.update(DELETE_ENTRIES, movedRefs, movedRefs);
+                jdbcTemplate.update("DELETE FROM wallet WHERE user_id = ANY(?)", (Object) userIds);
+
+                jdbcTemplate.batchUpdate(INSERT_WALLET, wallets.stream().map(w -> new Object[]{
+                        w[0], refs.get((String) w[0]), w[1], w[2], w[3], w[4], w[5], w[6]}).toList());
+                jdbcTemplate.batchUpdate(INSERT_HOLD, holds);
+                jdbcTemplate.batchUpdate(INSERT_SCHEDULED_GRANT, scheduledGrants);
+                jdbcTemplate.batchUpdate(INSERT_SUMMARY, summaries.stream().map(s -> new Object[]{
+                        refs.get((String) s[0]), s[1], s[2], s[3], s[4], s[5]}).toList());
+                jdbcTemplate.batchUpdate(INSERT_ENTRY, entries.stream().map(e -> new Object[]{
+                        e[0], e[1], refs.get((String) e[0]), refs.get((String) e[1]), e[2], e[3], e[4], e[5], e[6]}).toList());
+                jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_KEY, idempotencyKeys);
+
+                entries.forEach(e -> settlement.written((String) e[0], (String) e[1], (String) e[2], (Long) e[3]));
+                adjustSystem(settlement.systemDeltas());
+            });
+        }
+
+        counts[0] += wallets.size();
+        counts[1] += holds.size();
+        counts[2] += entries.size();
+        counts[3] += summaries.size();
+    }
+
+    private void delete(String source, List<String> users, ShardMoveSettlement settlement) {
+        String[] userIds = users.toArray(new String[0]);
+        try (ShardContext.Scope ignored = ShardContext.on(source)) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Long[] refs = userDirectory.resolveAll(users).values().toArray(new Long[0]);
+
+                // Transfers with users staying here keep their half, with SYSTEM in place of the moved user.
+                List<Object[]> settled = new ArrayList<>();
+                Set<String> counterparties = new TreeSet<>();
+                ReversalMarkers markers = new ReversalMarkers();
+                ReversalMarkers settledMarkers = new ReversalMarkers();
+                Map<String, String> settledMarkerOf = new HashMap<>();
+                jdbcTemplate.query(SELECT_ENTRIES, (RowCallbackHandler) rs -> {
+                    String debitUser = rs.getString(1);
+                    String creditUser = rs.getString(2);
+                    settlement.removed(debitUser, creditUser, rs.getString(3), rs.getLong(4));
+                    String marker = markers.next(rs.getString(5), debitUser, creditUser, rs.getString(3),
+                            rs.getLong(4), rs.getTimestamp(7).toLocalDateTime());
+                    if (!settlement.crossesShards(debitUser, creditUser)) {
+                        return;
+                    }
+                    String settledDebit = settlement.onSource(debitUser);
+                    String settledCredit = settlement.onSource(creditUser);
+                    settled.add(new Object[]{settledDebit, settledCredit, rs.getString(3), rs.getLong(4),
+                            rs.getString(5), rs.getString(6), rs.getTimestamp(7)});
+                    counterparties.add(settledDebit);
+                    counterparties.add(settledCredit);
+                    settlement.written(settledDebit, settledCredit, rs.getString(3), rs.getLong(4));
+                    settledMarkerOf.put(marker, settledMarkers.next(rs.getString(5), settledDebit, settledCredit,
+                            rs.getString(3), rs.getLong(4), rs.getTimestamp(7).toLocalDateTime()));
+                }, refs, refs);
+                List<Object[]> reversed = new ArrayList<>();
+                jdbcTemplate.query(SELECT_IDEMPOTENCY_KEYS, (RowCallbackHandler) rs -> reversed.add(new Object[]{
+                        settledMarkerOf.get(rs.getString(1)), rs.getString(2), rs.getTimestamp(3)}),
+                        (Object) settledMarkerOf.keySet().toArray(new String[0]));
+
+                jdbcTemplate.update("DELETE FROM wallet_hold WHERE user_id = ANY(?)", (Object) userIds);
+                jdbcTemplate.update("DELETE FROM scheduled_grant WHERE user_id = ANY(?)", (Object) userIds);
+                jdbcTemplate.update("DELETE FROM ledger_daily_summary WHERE user_ref = ANY(?)", (Object) refs);
+                jdbcTemplate.update(DELETE_ENTRIES, refs, refs);
+                jdbcTemplate.update("DELETE FROM wallet WHERE user_id = ANY(?)", (Object) userIds);
+
+                Map<String, Long> settledRefs = userDirectory.resolveAll(counterparties);
+                jdbcTemplate.batchUpdate(INSERT_ENTRY, settled.stream().map(e -> new Object[]{
+                        e[0], e[1], settledRefs.get((String) e[0]), settledRefs.get((String) e[1]),
+                        e[2], e[3], e[4], e[5], e[6]}).toList());
+                jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_KEY, reversed);
+                adjustSystem(settlement.systemDeltas());
+            });
+        }
+    }
+
+    private void adjustSystem(Map<String, Long> deltas) {
+        deltas.forEach((asset, delta) -> {
+            if (jdbcTemplate.update(ADJUST_SYSTEM, delta, asset, delta) == 0) {
+                throw new IllegalStateException("SYSTEM " + asset + " wallet on " + ShardContext.current()
+                        + " is missing or cannot cover a change of " + delta);
+            }
+        });
+    }
+
+    private List<List<String>> batches(List<String> users) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += properties.getMoveBatchSize()) {
+            batches.add(users.subList(from, Math.min(users.size(), from + properties.getMoveBatchSize())));
+        }
+        return batches;
+    }
+}
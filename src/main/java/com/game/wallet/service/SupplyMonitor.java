@@ -0,0 +1,74 @@
+package com.game.wallet.service;
+
+import com.game.wallet.dto.AssetSupplyResponse;
+import com.game.wallet.dto.SupplyCheckResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes asset supply as gauges from a periodically refreshed snapshot, so scrapes never
+ * hit the database, and periodically verifies the counters against the ledger.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.supply.monitoring", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SupplyMonitor {
+
+    private final AssetSupplyService assetSupplyService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AssetSupplyResponse> snapshot = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> consistent = new ConcurrentHashMap<>();
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${wallet.supply.monitoring.refresh-interval-ms:15000}")
+    public void refresh() {
+        for (AssetSupplyResponse supply : assetSupplyService.getSupply()) {
+            snapshot.put(supply.getAsset(), supply);
+            register(supply.getAsset());
+        }
+    }
+
+    @Scheduled(cron = "${wallet.supply.monitoring.verify-cron:0 */15 * * * *}")
+    public void verify() {
+        for (SupplyCheckResponse check : assetSupplyService.verify()) {
+            consistent.put(check.getAsset(), check.isConsistent());
+            register(check.getAsset());
+        }
+    }
+
+    private void register(String asset) {
+        if (!registered.add(asset)) {
+            return;
+        }
+        gauge("wallet.supply.issued", asset, AssetSupplyResponse::getIssued);
+        gauge("wallet.supply.burned", asset, AssetSupplyResponse::getBurned);
+        gauge("wallet.supply.circulating", asset, AssetSupplyResponse::getCirculating);
+        gauge("wallet.supply.system_reserve", asset, AssetSupplyResponse::getSystemReserve);
+        Gauge.builder("wallet.supply.ledger_mismatch", consistent,
+                        checks -> Boolean.FALSE.equals(checks.get(asset)) ? 1 : 0)
+                .tag("asset", asset)
+                .register(meterRegistry);
+    }
+
+    private void gauge(String name, String asset, Function<AssetSupplyResponse, Long> field) {
+        ToDoubleFunction<Map<String, AssetSupplyResponse>> value = supplies -> {
+            AssetSupplyResponse supply = supplies.get(asset);
+            Long amount = supply != null ? field.apply(supply) : null;
+            return amount != null ? amount : Double.NaN;
+        };
+        Gauge.builder(name, snapshot, value)
+                .tag("asset", asset)
+                .register(meterRegistry);
+    }
+}
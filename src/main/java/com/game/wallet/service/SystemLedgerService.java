@@ -0,0 +1,131 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.SystemLedgerProperties;
+import com.game.wallet.dto.SystemLedgerBucketResponse;
+import com.game.wallet.event.LedgerPostedEvent;
+import com.game.wallet.ledger.LedgerAggregates;
+import com.game.wallet.repository.SystemLedgerRepository;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serves SYSTEM ledger activity as hourly debit and credit totals per asset. SYSTEM is the
+ * counterparty of nearly every entry, so its rows are left out of the per-user history
+ * indexes and read from system_ledger_bucket instead. Buckets are updated in the
+ * ledger-writing transaction, on a shard chosen per thread like the supply counters. With
+ * database sharding each shard buckets its own SYSTEM wallets and reads add them up.
+ */
+@Service
+@Slf4j
+public class SystemLedgerService {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+
+    private final SystemLedgerRepository systemLedgerRepository;
+    private final SystemLedgerProperties properties;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public SystemLedgerService(SystemLedgerRepository systemLedgerRepository,
+                               SystemLedgerProperties properties,
+                               ShardRouter shardRouter,
+                               PlatformTransactionManager transactionManager) {
+        this.systemLedgerRepository = systemLedgerRepository;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        LedgerAggregates aggregates = LedgerAggregates.of(event.getDebitUser(), event.getCreditUser(),
+                event.getAsset(), event.getAmount());
+        if (aggregates.changesSystemBucket()) {
+            systemLedgerRepository.add(currentBucket(), event.getAsset(), shardForCurrentThread(),
+                    aggregates.getSystemDebit(), aggregates.getSystemCredit(),
+                    aggregates.getSystemDebitCount(), aggregates.getSystemCreditCount());
+        }
+    }
+
+    /**
+     * Counts SYSTEM debits that were posted without individual {@link LedgerPostedEvent}s,
+     * such as a bulk grant chunk. Must run in the transaction that wrote the ledger entries.
+     */
+    public void recordDebits(String asset, long amount, long entries) {
+        systemLedgerRepository.add(currentBucket(), asset, shardForCurrentThread(), amount, 0, entries, 0);
+    }
+
+    /**
+     * Counts SYSTEM credits that were posted without individual {@link LedgerPostedEvent}s,
+     * such as a batch of expired grants. Must run in the transaction that wrote the entries.
+     */
+    public void recordCredits(String asset, long amount, long entries) {
+        systemLedgerRepository.add(currentBucket(), asset, shardForCurrentThread(), 0, amount, 0, entries);
+    }
+
+    /**
+     * @param asset asset code, or {@code null} for all assets
+     * @param from  inclusive, defaults to 24 hours before {@code to}
+     * @param to    exclusive, defaults to the end of the current hour
+     */
+    public List<SystemLedgerBucketResponse> getActivity(String asset, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = to != null ? to : currentBucket().plusHours(1);
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_RANGE);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= properties.getMaxRangeDays()) {
+            throw new IllegalArgumentException("SYSTEM ledger range is limited to " + properties.getMaxRangeDays() + " days");
+        }
+        Map<String, SystemLedgerBucketResponse> buckets = new TreeMap<>();
+        for (List<SystemLedgerBucketResponse> shard : shardRouter.collect(() ->
+                readTransaction.execute(status -> systemLedgerRepository.findBuckets(asset, start, end)))) {
+            for (SystemLedgerBucketResponse bucket : shard) {
+                buckets.merge(bucket.getBucketStart() + "/" + bucket.getAsset(), bucket, (a, b) ->
+                        SystemLedgerBucketResponse.builder()
+                                .bucketStart(a.getBucketStart())
+                                .asset(a.getAsset())
+                                .debited(a.getDebited() + b.getDebited())
+                                .credited(a.getCredited() + b.getCredited())
+                                .debitEntries(a.getDebitEntries() + b.getDebitEntries())
+                                .creditEntries(a.getCreditEntries() + b.getCreditEntries())
+                                .net(a.getNet() + b.getNet())
+                                .build());
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * Recomputes the buckets covered by the live ledger, e.g. after an import.
+     */
+    public void rebuild() {
+        shardRouter.forEachShard(() -> writeTransaction.executeWithoutResult(status -> {
+            int buckets = systemLedgerRepository.rebuild();
+            log.info("Rebuilt {} SYSTEM ledger buckets", buckets);
+        }));
+    }
+
+    private static LocalDateTime currentBucket() {
+        return LedgerAggregates.systemBucket(LocalDateTime.now());
+    }
+
+    private int shardForCurrentThread() {
+        return LedgerAggregates.shardForCurrentThread(properties.getShards());
+    }
+}
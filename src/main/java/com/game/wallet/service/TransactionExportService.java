@@ -0,0 +1,144 @@
+package com.game.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.wallet.config.LedgerExportProperties;
+import com.game.wallet.export.HistoryExport;
+import com.game.wallet.export.HistoryExportFormat;
+import com.game.wallet.export.HistoryRowWriter;
+import com.game.wallet.routing.ReadRoutingContext;
+import com.game.wallet.routing.Workload;
+import com.game.wallet.routing.WorkloadContext;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Streams a user's complete entry history from a JDBC cursor straight to an output stream,
+ * oldest first. Memory use is one fetch of rows plus the writer's buffer, whatever the
+ * length of the history. Entries of archived months are not included; they are served by
+ * the archive endpoint.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+
+    private static final String SYSTEM_USER = "SYSTEM";
+
+    // The SYSTEM conditions repeat the predicates of the partial history indexes.
+    private static final String SELECT_HISTORY =
+            "SELECT id, debit_user, credit_user, asset, amount, reference, created_at FROM ledger_entry " +
+                    "WHERE ((debit_user_ref = ? AND debit_user <> 'SYSTEM') " +
+                    "OR (credit_user_ref = ? AND credit_user <> 'SYSTEM'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final UserDirectory userDirectory;
+    private final ShardRouter shardRouter;
+    private final LedgerExportProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Validates an export before any of the response is written.
+     *
+     * @param from first day included, or null for the start of the history
+     * @param to   last day included, or null for today
+     */
+    public HistoryExport prepare(String userId, String format, LocalDate from, LocalDate to, String asset) {
+        if (SYSTEM_USER.equals(userId)) {
+            throw new IllegalArgumentException("SYSTEM history is served by /v1/admin/system-ledger");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return HistoryExport.builder()
+                .userId(userId)
+                .format(HistoryExportFormat.of(format))
+                .from(from != null ? from.atStartOfDay() : null)
+                .to(to != null ? to.plusDays(1).atStartOfDay() : null)
+                .asset(asset)
+                .build();
+    }
+
+    /**
+     * @return the number of entries written
+     */
+    public long write(HistoryExport export, OutputStream out) {
+        long start = System.nanoTime();
+        // An export holds its connection for as long as the client takes to read it.
+        try (ShardContext.Scope shard = shardRouter.forUser(export.getUserId());
+             ReadRoutingContext.Scope reader = ReadRoutingContext.forUser(export.getUserId());
+             WorkloadContext.Scope ignored = WorkloadContext.on(Workload.EXPORT)) {
+            HistoryRowWriter writer = new HistoryRowWriter(out, export.getFormat(), objectMapper);
+            Optional<Long> userRef = userDirectory.find(export.getUserId());
+            if (userRef.isPresent()) {
+                stream(export, userRef.get(), writer);
+            }
+            writer.flush();
+            log.info("Exported {} entries of user {} as {} in {} ms", writer.rows(), export.getUserId(),
+                    export.getFormat(), (System.nanoTime() - start) / 1_000_000);
+            return writer.rows();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("History export for " + export.getUserId() + " failed", ex);
+        }
+    }
+
+    private void stream(HistoryExport export, long userRef, HistoryRowWriter writer) {
+        StringBuilder sql = new StringBuilder(SELECT_HISTORY);
+        List<Object> parameters = new ArrayList<>(List.of(userRef, userRef));
+        if (export.getFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            parameters.add(Timestamp.valueOf(export.getFrom()));
+        }
+        if (export.getTo() != null) {
+            sql.append(" AND created_at < ?");
+            parameters.add(Timestamp.valueOf(export.getTo()));
+        }
+        if (export.getAsset() != null) {
+            sql.append(" AND asset = ?");
+            parameters.add(export.getAsset());
+        }
+        sql.append(" ORDER BY created_at, id");
+
+        // PostgreSQL only streams with a fetch size inside a transaction.
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            ps.setFetchSize(properties.getFetchSize());
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                writer.write(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getLong(5),
+                        rs.getString(6),
+                        rs.getTimestamp(7).toLocalDateTime());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }));
+    }
+}
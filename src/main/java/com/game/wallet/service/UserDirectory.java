@@ -0,0 +1,211 @@
+package com.game.wallet.service;
+
+import com.game.wallet.model.UserAccount;
+import com.game.wallet.repository.DatabasePlatform;
+import com.game.wallet.repository.UserAccountRepository;
+import com.game.wallet.sharding.ShardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns user ids into the surrogate {@code user_account.id} stored on wallets and ledger
+ * entries. Lookups are cached; new ids are inserted in the caller's transaction with an
+ * insert that ignores conflicts, so a concurrent insert of the same user never aborts it and
+ * no second connection is needed. Refs of users inserted by the caller are only cached once
+ * its transaction commits. With sharding every shard numbers its users independently, so
+ * refs are cached per shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDirectory {
+
+    private static final int MAX_CACHED = 1_000_000;
+
+    private static final String POSTGRES_INSERT =
+            "INSERT INTO user_account (user_id, created_at) VALUES (?, CURRENT_TIMESTAMP) ON CONFLICT (user_id) DO NOTHING";
+
+    private static final String STANDARD_MERGE = """
+            MERGE INTO user_account t
+            USING (VALUES (CAST(? AS VARCHAR(100)))) AS s (user_id)
+            ON t.user_id = s.user_id
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, created_at) VALUES (s.user_id, CURRENT_TIMESTAMP)
+            """;
+
+    private final UserAccountRepository userAccountRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    private final Map<String, Map<String, Long>> caches = new ConcurrentHashMap<>();
+
+    public long resolve(String userId) {
+        Long cached = cache().get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Long> existing = userAccountRepository.findByUserId(userId).map(UserAccount::getId);
+        if (existing.isPresent()) {
+            remember(cache(), userId, existing.get());
+            return existing.get();
+        }
+        return create(userId);
+    }
+
+    public Optional<Long> find(String userId) {
+        Long cached = cache().get(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> ref = userAccountRepository.findByUserId(userId).map(UserAccount::getId);
+        ref.ifPresent(id -> remember(cache(), userId, id));
+        return ref;
+    }
+
+    /**
+     * Set-based {@link #resolve(String)} for bulk writers: interns all missing users with one
+     * insert and reads their refs back with one query.
+     */
+    public Map<String, Long> resolveAll(Collection<String> userIds) {
+        Map<String, Long> refs = new HashMap<>(userIds.size() * 2);
+        List<String> missing = new ArrayList<>();
+        Map<String, Long> cache = cache();
+        for (String userId : userIds) {
+            Long cached = cache.get(userId);
+            if (cached != null) {
+                refs.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return refs;
+        }
+
+        Map<String, Long> inserted = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO user_account (user_id, created_at)
+                    SELECT u, CURRENT_TIMESTAMP FROM unnest(?) AS u
+                    ON CONFLICT (user_id) DO NOTHING
+                    RETURNING user_id, id
+                    """);
+            ps.setArray(1, con.createArrayOf("varchar", missing.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> inserted.put(rs.getString(1), rs.getLong(2)));
+        refs.putAll(inserted);
+        rememberAfterCommit(inserted);
+
+        List<String> existing = missing.stream().filter(userId -> !inserted.containsKey(userId)).toList();
+        if (!existing.isEmpty()) {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT user_id, id FROM user_account WHERE user_id = ANY(?)");
+                ps.setArray(1, con.createArrayOf("varchar", existing.toArray()));
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                String userId = rs.getString(1);
+                long ref = rs.getLong(2);
+                refs.put(userId, ref);
+                remember(cache, userId, ref);
+            });
+        }
+        return refs;
+    }
+
+    /**
+     * Interns every user referenced by wallets or ledger entries and fills missing refs.
+     * Used after bulk loads that bypass {@link #resolve(String)}.
+     */
+    public void backfill() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            int users = jdbcTemplate.update("""
+                    INSERT INTO user_account (user_id, created_at)
+                    SELECT user_id, CURRENT_TIMESTAMP FROM (
+                        SELECT user_id FROM wallet
+                        UNION SELECT debit_user FROM ledger_entry
+                        UNION SELECT credit_user FROM ledger_entry
+                    ) u
+                    ON CONFLICT (user_id) DO NOTHING
+                    """);
+            int wallets = jdbcTemplate.update("""
+                    UPDATE wallet w SET user_ref = u.id
+                    FROM user_account u
+                    WHERE w.user_ref IS NULL AND u.user_id = w.user_id
+                    """);
+            int debits = jdbcTemplate.update("""
+                    UPDATE ledger_entry l SET debit_user_ref = u.id
+                    FROM user_account u
+                    WHERE l.debit_user_ref IS NULL AND u.user_id = l.debit_user
+                    """);
+            int credits = jdbcTemplate.update("""
+                    UPDATE ledger_entry l SET credit_user_ref = u.id
+                    FROM user_account u
+                    WHERE l.credit_user_ref IS NULL AND u.user_id = l.credit_user
+                    """);
+            log.info("User ref backfill: {} users interned, {} wallets, {} debit and {} credit ledger refs filled",
+                    users, wallets, debits, credits);
+        });
+    }
+
+    private long create(String userId) {
+        int inserted = jdbcTemplate.update(databasePlatform.isPostgres() ? POSTGRES_INSERT : STANDARD_MERGE, userId);
+        Long ref = jdbcTemplate.queryForObject("SELECT id FROM user_account WHERE user_id = ?", Long.class, userId);
+        if (inserted > 0) {
+            rememberAfterCommit(Map.of(userId, ref));
+        } else {
+            remember(cache(), userId, ref);
+        }
+        return ref;
+    }
+
+    /**
+     * A ref inserted by a transaction that rolls back is never reused, so it must not be
+     * cached before the insert commits.
+     */
+    private void rememberAfterCommit(Map<String, Long> inserted) {
+        if (inserted.isEmpty()) {
+            return;
+        }
+        Map<String, Long> cache = cache();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inserted.forEach((userId, ref) -> remember(cache, userId, ref));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                inserted.forEach((userId, ref) -> remember(cache, userId, ref));
+            }
+        });
+    }
+
+    private Map<String, Long> cache() {
+        String shard = ShardContext.current();
+        return caches.computeIfAbsent(shard != null ? shard : "", key -> new ConcurrentHashMap<>());
+    }
+
+    private static void remember(Map<String, Long> cache, String userId, long ref) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(userId, ref);
+    }
+}
@@ -1,114 +1,586 @@
 package com.game.wallet.service;
 
+import com.game.wallet.config.HoldProperties;
+import com.game.wallet.config.ReversalProperties;
+import com.game.wallet.contention.WalletContentionTracker;
 import com.game.wallet.dto.*;
+import com.game.wallet.event.HoldChangedEvent;
+import com.game.wallet.event.LedgerPostedEvent;
+import com.game.wallet.exception.AlreadyReversedException;
 import com.game.wallet.exception.AssetNotFoundException;
 import com.game.wallet.exception.DuplicateRequestException;
+import com.game.wallet.exception.HoldNotActiveException;
+import com.game.wallet.exception.HoldNotFoundException;
 import com.game.wallet.exception.InsufficientBalanceException;
+import com.game.wallet.exception.LedgerEntryNotFoundException;
 import com.game.wallet.exception.WalletNotFoundException;
+import com.game.wallet.ledger.LedgerArchive;
+import com.game.wallet.ledger.ReversalMarkers;
 import com.game.wallet.model.Asset;
+import com.game.wallet.model.HoldStatus;
 import com.game.wallet.model.IdempotencyKey;
 import com.game.wallet.model.LedgerEntry;
 import com.game.wallet.model.Wallet;
+import com.game.wallet.model.WalletHold;
+import com.game.wallet.model.WalletId;
 import com.game.wallet.repository.AssetRepository;
 import com.game.wallet.repository.IdempotencyRepository;
+import com.game.wallet.repository.LedgerBatchWriter;
 import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.TransactionTimeouts;
+import com.game.wallet.repository.WalletCreditWriter;
+import com.game.wallet.repository.WalletHoldRepository;
 import com.game.wallet.repository.WalletRepository;
+import com.game.wallet.routing.ReadRoutingContext;
+import com.game.wallet.sharding.ShardContext;
+import com.game.wallet.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WalletService {
 
     private static final String SYSTEM_USER = "SYSTEM";
+    private static final String REVERSAL_PREFIX = "REVERSAL:";
 
     private final WalletRepository walletRepository;
     private final LedgerRepository ledgerRepository;
     private final IdempotencyRepository idempotencyRepository;
     private final AssetRepository assetRepository;
-
+    private final LedgerArchive ledgerArchive;
+    private final UserDirectory userDirectory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final WalletHoldRepository holdRepository;
+    private final HoldProperties holdProperties;
+    private final BalanceReadCoalescer balanceReadCoalescer;
+    private final WalletContentionTracker contentionTracker;
+    private final WalletCreditWriter walletCreditWriter;
+    private final ShardRouter shardRouter;
+    private final TransactionTimeouts transactionTimeouts;
+    private final ReversalProperties reversalProperties;
+
+    @Retryable(interceptor = "transientFailureInterceptor")
     @Transactional
     public void topUp(TopUpRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUser(request.getUserId())) {
+            transactionTimeouts.apply("topUp");
 
-        checkDuplicate(request.getIdempotencyKey(), "TOPUP");
+            checkDuplicate(request.getIdempotencyKey(), "TOPUP");
 
-        Asset asset = getAsset(request.getAsset());
+            Asset asset = getAsset(request.getAsset());
+            if (asset.getBonus()) {
+                throw new IllegalArgumentException("Bonus asset " + asset.getCode() + " is only granted, not bought");
+            }
 
-        if (asset.getLimitedSupply()) {
-            Wallet systemWallet = getWalletForUpdate(SYSTEM_USER, request.getAsset());
+            if (asset.getLimitedSupply()) {
+                Wallet systemWallet = getWalletForUpdate(SYSTEM_USER, request.getAsset());
 
-            if (systemWallet.getBalance() < request.getAmount()) {
-                throw new InsufficientBalanceException("System wallet has insufficient balance");
+                if (systemWallet.getBalance() < request.getAmount()) {
+                    throw new InsufficientBalanceException("System wallet has insufficient balance");
+                }
+
+                systemWallet.debit(request.getAmount());
             }
 
-            systemWallet.debit(request.getAmount());
+            creditWallet(request.getUserId(), request.getAsset(), request.getAmount());
+
+            saveLedger(SYSTEM_USER, request.getUserId(), request.getAsset(),
+                    request.getAmount(), request.getIdempotencyKey(), "TOP-UP");
+
+            saveIdempotency(request.getIdempotencyKey(), "TOPUP");
         }
+    }
+
+    @Retryable(interceptor = "transientFailureInterceptor")
+    @Transactional
+    public void bonus(BonusRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUser(request.getUserId())) {
+            transactionTimeouts.apply("bonus");
 
-        Wallet userWallet = getOrCreateWallet(request.getUserId(), request.getAsset());
-        userWallet.credit(request.getAmount());
+            checkDuplicate(request.getIdempotencyKey(), "BONUS");
 
-        saveLedger(SYSTEM_USER, request.getUserId(), request.getAsset(),
-                request.getAmount(), request.getIdempotencyKey(), "TOP-UP");
+            Asset asset = getAsset(request.getAsset());
 
-        saveIdempotency(request.getIdempotencyKey(), "TOPUP");
+            if (asset.getLimitedSupply()) {
+                Wallet systemWallet = getWalletForUpdate(SYSTEM_USER, request.getAsset());
+
+                if (systemWallet.getBalance() < request.getAmount()) {
+                    throw new InsufficientBalanceException("System wallet has insufficient balance");
+                }
+
+                systemWallet.debit(request.getAmount());
+            }
+
+            creditWallet(request.getUserId(), request.getAsset(), request.getAmount());
+
+            saveLedger(SYSTEM_USER, request.getUserId(), request.getAsset(),
+                    request.getAmount(), request.getIdempotencyKey(), request.getReason());
+
+            saveIdempotency(request.getIdempotencyKey(), "BONUS");
+        }
     }
 
+    @Retryable(interceptor = "transientFailureInterceptor")
     @Transactional
-    public void bonus(BonusRequest request) {
+    public void spend(SpendRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUser(request.getUserId())) {
+            transactionTimeouts.apply("spend");
 
-        checkDuplicate(request.getIdempotencyKey(), "BONUS");
+            checkDuplicate(request.getIdempotencyKey(), "SPEND");
 
-        Asset asset = getAsset(request.getAsset());
+            Wallet userWallet = getWalletForUpdate(request.getUserId(), request.getAsset());
 
-        if (asset.getLimitedSupply()) {
-            Wallet systemWallet = getWalletForUpdate(SYSTEM_USER, request.getAsset());
+            if (userWallet.getAvailable() < request.getAmount()) {
+                throw new InsufficientBalanceException("User wallet has insufficient balance");
+            }
+
+            userWallet.debit(request.getAmount());
+
+            Asset asset = getAsset(request.getAsset());
 
-            if (systemWallet.getBalance() < request.getAmount()) {
-                throw new InsufficientBalanceException("System wallet has insufficient balance");
+            if (asset.getLimitedSupply()) {
+                creditWallet(SYSTEM_USER, request.getAsset(), request.getAmount());
             }
 
-            systemWallet.debit(request.getAmount());
+            saveLedger(request.getUserId(), SYSTEM_USER, request.getAsset(),
+                    request.getAmount(), request.getIdempotencyKey(), request.getOrderId());
+
+            saveIdempotency(request.getIdempotencyKey(), "SPEND");
         }
+    }
 
-        Wallet userWallet = getOrCreateWallet(request.getUserId(), request.getAsset());
-        userWallet.credit(request.getAmount());
+    @Retryable(interceptor = "transientFailureInterceptor")
+    @Transactional
+    public void transfer(TransferRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUsers(List.of(request.getFromUserId(), request.getToUserId()))) {
+            transactionTimeouts.apply("transfer");
+
+            checkDuplicate(request.getIdempotencyKey(), "TRANSFER");
+
+            TradeLeg leg = new TradeLeg(request.getFromUserId(), request.getToUserId(),
+                    request.getAsset(), request.getAmount());
+            String reference = request.getReference() != null ? request.getReference() : "TRANSFER";
 
-        saveLedger(SYSTEM_USER, request.getUserId(), request.getAsset(),
-                request.getAmount(), request.getIdempotencyKey(), request.getReason());
+            applyLegs(List.of(leg), request.getIdempotencyKey(), reference);
 
-        saveIdempotency(request.getIdempotencyKey(), "BONUS");
+            saveIdempotency(request.getIdempotencyKey(), "TRANSFER");
+        }
     }
 
+    @Retryable(interceptor = "transientFailureInterceptor")
     @Transactional
-    public void spend(SpendRequest request) {
+    public void trade(TradeRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUsers(usersOf(request.getLegs()))) {
+            transactionTimeouts.apply("trade");
+
+            checkDuplicate(request.getIdempotencyKey(), "TRADE");
+
+            String reference = request.getReference() != null ? request.getReference() : "TRADE";
+
+            applyLegs(request.getLegs(), request.getIdempotencyKey(), reference);
+
+            saveIdempotency(request.getIdempotencyKey(), "TRADE");
+        }
+    }
+
+    /**
+     * Reserves funds with a single conditional update; no row lock is held once this returns.
+     */
+    @Retryable(interceptor = "transientFailureInterceptor")
+    @Transactional
+    public HoldResponse reserve(ReserveRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUser(request.getUserId())) {
+            transactionTimeouts.apply("reserve");
+
+            checkDuplicate(request.getIdempotencyKey(), "RESERVE");
+
+            getAsset(request.getAsset());
+
+            if (walletRepository.reserve(request.getUserId(), request.getAsset(), request.getAmount()) == 0) {
+                if (walletRepository.findByUserIdAndAsset(request.getUserId(), request.getAsset()).isEmpty()) {
+                    throw new WalletNotFoundException(
+                            String.format("Wallet not found for user: %s, asset: %s", request.getUserId(), request.getAsset()));
+                }
+                throw new InsufficientBalanceException("User wallet has insufficient available balance");
+            }
+
+            WalletHold hold = holdRepository.save(WalletHold.builder()
+                    .userId(request.getUserId())
+                    .asset(request.getAsset())
+                    .amount(request.getAmount())
+                    .status(HoldStatus.HELD)
+                    .idempotencyKey(request.getIdempotencyKey())
+                    .reference(request.getReference())
+                    .expiresAt(LocalDateTime.now().plus(holdTtl(request.getTtlSeconds())))
+                    .build());
+            publishHoldChanged(hold);
+
+            saveIdempotency(request.getIdempotencyKey(), "RESERVE");
+            return toHoldResponse(hold);
+        }
+    }
+
+    /**
+     * Turns an active hold into a spend: the held amount leaves the wallet and goes to the
+     * SYSTEM wallet for limited-supply assets, exactly like {@link #spend}.
+     */
+    @Retryable(interceptor = "transientFailureInterceptor")
+    @Transactional
+    public HoldResponse capture(Long holdId) {
+        try (ShardContext.Scope ignored = shardRouter.forShardWhere(() -> holdRepository.existsOnCurrentShard(holdId))) {
+            transactionTimeouts.apply("capture");
+
+            WalletHold hold = getHold(holdId);
+            shardRouter.checkNotMoving(hold.getUserId());
+
+            if (holdRepository.markCaptured(holdId, LocalDateTime.now()) == 0) {
+                throw notActive(hold);
+            }
+            if (walletRepository.captureHeld(hold.getUserId(), hold.getAsset(), hold.getAmount()) == 0) {
+                throw new IllegalStateException("Wallet no longer holds the amount reserved by hold " + holdId);
+            }
+
+            Asset asset = getAsset(hold.getAsset());
+
+            if (asset.getLimitedSupply()) {
+                creditWallet(SYSTEM_USER, hold.getAsset(), hold.getAmount());
+            }
+
+            saveLedger(hold.getUserId(), SYSTEM_USER, hold.getAsset(), hold.getAmount(), hold.getIdempotencyKey(),
+                    hold.getReference() != null ? hold.getReference() : "HOLD-" + holdId);
+
+            hold.setStatus(HoldStatus.CAPTURED);
+            publishHoldChanged(hold);
+            return toHoldResponse(hold);
+        }
+    }
+
+    @Retryable(interceptor = "transientFailureInterceptor")
+    @Transactional
+    public HoldResponse release(Long holdId) {
+        try (ShardContext.Scope ignored = shardRouter.forShardWhere(() -> holdRepository.existsOnCurrentShard(holdId))) {
+            transactionTimeouts.apply("release");
+
+            WalletHold hold = getHold(holdId);
+            shardRouter.checkNotMoving(hold.getUserId());
+
+            if (holdRepository.markReleased(holdId) == 0) {
+                throw notActive(hold);
+            }
+            if (walletRepository.releaseHeld(hold.getUserId(), hold.getAsset(), hold.getAmount()) == 0) {
+                throw new IllegalStateException("Wallet no longer holds the amount reserved by hold " + holdId);
+            }
+
+            hold.setStatus(HoldStatus.RELEASED);
+            publishHoldChanged(hold);
+            return toHoldResponse(hold);
+        }
+    }
+
+    /**
+     * Writes compensating entries for everything the user posted under the original
+     * idempotency key or order id, in one transaction. Each original entry can be reversed
+     * once; the money moves back the way it came.
+     */
+    @Retryable(interceptor = "transientFailureInterceptor")
+    @Transactional
+    public ReversalResponse reverse(ReverseRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.forUser(request.getUserId())) {
+            transactionTimeouts.apply("reverse");
+
+            checkDuplicate(request.getIdempotencyKey(), "REVERSE");
+
+            List<LedgerEntry> originals = findOriginals(request);
+            if (originals.size() > reversalProperties.getMaxEntries()) {
+                throw new IllegalArgumentException(String.format(
+                        "%d entries match; reverse more than %d entries with a bulk reversal by reference",
+                        originals.size(), reversalProperties.getMaxEntries()));
+            }
+
+            List<LedgerEntry> reversals = reverseEntries(originals, request.getIdempotencyKey(), true);
+
+            saveIdempotency(request.getIdempotencyKey(), "REVERSE");
+            return ReversalResponse.builder()
+                    .userId(request.getUserId())
+                    .idempotencyKey(request.getIdempotencyKey())
+                    .entries(reversals.stream().map(this::toLedgerResponse).toList())
+                    .build();
+        }
+    }
 
-        checkDuplicate(request.getIdempotencyKey(), "SPEND");
+    /**
+     * Reverses entries in the caller's transaction: locks the wallets involved, moves each
+     * amount back from the original credit side to the original debit side and writes the
+     * compensating entries with one insert. SYSTEM balances only move for limited-supply
+     * assets, as when the entry was posted. Wallets that do not exist yet are created by the
+     * same upsert top-ups use. A {@link ReversalMarkers marker} row per original entry in
+     * the idempotency table stops it from being reversed twice; {@code originals} must be
+     * in id order and hold every entry of each idempotency key they include.
+     *
+     * <p>With {@code strict} set, an entry that was already reversed or whose amount is no
+     * longer available fails the call; otherwise it is skipped and left for a later run.
+     *
+     * @return the compensating entries written
+     */
+    public List<LedgerEntry> reverseEntries(List<LedgerEntry> originals, String idempotencyKey, boolean strict) {
+        ReversalMarkers markerNames = new ReversalMarkers();
+        Map<String, LedgerEntry> byMarker = new LinkedHashMap<>();
+        for (LedgerEntry original : originals) {
+            String marker = markerNames.next(original.getIdempotencyKey(), original.getDebitUser(),
+                    original.getCreditUser(), original.getAsset(), original.getAmount(), original.getCreatedAt());
+            if (original.getReference() != null && original.getReference().startsWith(REVERSAL_PREFIX)) {
+                if (strict) {
+                    throw new IllegalArgumentException("Ledger entry " + original.getId() + " is itself a reversal");
+                }
+                continue;
+            }
+            byMarker.put(marker, original);
+        }
+        if (!byMarker.isEmpty()) {
+            Set<String> reversed = idempotencyRepository.findExistingKeys(byMarker.keySet(), ReversalMarkers.OPERATION);
+            if (strict && !reversed.isEmpty()) {
+                throw new AlreadyReversedException(reversed.size() + " of the ledger entries were already reversed");
+            }
+            byMarker.keySet().removeAll(reversed);
+        }
+        if (byMarker.isEmpty()) {
+            return List.of();
+        }
 
-        Wallet userWallet = getWalletForUpdate(request.getUserId(), request.getAsset());
+        Set<String> userIds = new TreeSet<>();
+        Map<String, Asset> assets = new TreeMap<>();
+        Set<String> systemAssets = new TreeSet<>();
+        for (LedgerEntry original : byMarker.values()) {
+            Asset asset = assets.computeIfAbsent(original.getAsset(), this::getAsset);
+            for (String userId : List.of(original.getDebitUser(), original.getCreditUser())) {
+                if (!SYSTEM_USER.equals(userId)) {
+                    userIds.add(userId);
+                } else if (asset.getLimitedSupply()) {
+                    systemAssets.add(asset.getCode());
+                }
+            }
+        }
+
+        Map<WalletId, Wallet> wallets = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (Wallet wallet : walletRepository.findAllForUpdate(userIds, assets.keySet())) {
+                wallets.put(new WalletId(wallet.getUserId(), wallet.getAsset()), wallet);
+            }
+        }
+        // SYSTEM is locked after the user wallets, the order spend and capture take them in.
+        for (String asset : systemAssets) {
+            lockWallet(SYSTEM_USER, asset).ifPresent(wallet -> wallets.put(new WalletId(SYSTEM_USER, asset), wallet));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<WalletId, Long> created = new TreeMap<>(Comparator.comparing(WalletId::getUserId)
+                .thenComparing(WalletId::getAsset));
+        List<IdempotencyKey> markers = new ArrayList<>(byMarker.size());
+        List<LedgerEntry> reversals = new ArrayList<>(byMarker.size());
+        for (Map.Entry<String, LedgerEntry> marked : byMarker.entrySet()) {
+            LedgerEntry original = marked.getValue();
+            WalletId from = new WalletId(original.getCreditUser(), original.getAsset());
+            WalletId to = new WalletId(original.getDebitUser(), original.getAsset());
+            long amount = original.getAmount();
+            boolean moves = assets.get(original.getAsset()).getLimitedSupply();
+
+            if (!SYSTEM_USER.equals(from.getUserId()) || moves) {
+                Wallet source = wallets.get(from);
+                long pending = created.getOrDefault(from, 0L);
+                if (source != null && source.getAvailable() >= amount) {
+                    source.debit(amount);
+                } else if (source == null && pending >= amount) {
+                    created.put(from, pending - amount);
+                } else if (strict) {
+                    throw new InsufficientBalanceException(
+                            "User " + from.getUserId() + " no longer has the amount of ledger entry " + original.getId());
+                } else {
+                    continue;
+                }
+            }
+            if (!SYSTEM_USER.equals(to.getUserId()) || moves) {
+                Wallet target = wallets.get(to);
+                if (target != null) {
+                    target.credit(amount);
+                } else {
+                    created.merge(to, amount, Long::sum);
+                }
+            }
+
+            LedgerEntry reversal = ledgerEntry(from.getUserId(), to.getUserId(), original.getAsset(), amount,
+                    idempotencyKey, REVERSAL_PREFIX + original.getIdempotencyKey());
+            reversal.setCreatedAt(now);
+            reversals.add(reversal);
+            markers.add(new IdempotencyKey(marked.getKey(), ReversalMarkers.OPERATION));
+        }
+
+        try {
+            idempotencyRepository.saveAllAndFlush(markers);
+        } catch (DataIntegrityViolationException ex) {
+            throw new AlreadyReversedException("A concurrent reversal claimed the same ledger entries");
+        }
+        created.forEach((wallet, amount) -> {
+            if (amount > 0) {
+                creditWallet(wallet.getUserId(), wallet.getAsset(), amount);
+            }
+        });
+        ledgerBatchWriter.insertAll(reversals);
+        reversals.forEach(this::publishPosted);
+        return reversals;
+    }
 
-        if (userWallet.getBalance() < request.getAmount()) {
-            throw new InsufficientBalanceException("User wallet has insufficient balance");
+    private List<LedgerEntry> findOriginals(ReverseRequest request) {
+        boolean byKey = request.getOriginalIdempotencyKey() != null;
+        if (byKey == (request.getOrderId() != null)) {
+            throw new IllegalArgumentException("Exactly one of originalIdempotencyKey and orderId is required");
+        }
+        if (SYSTEM_USER.equals(request.getUserId())) {
+            throw new IllegalArgumentException("Reversals are requested for the user of the original operation");
         }
+        List<LedgerEntry> originals = byKey
+                ? ledgerRepository.findByIdempotencyKeyForUser(request.getOriginalIdempotencyKey(), request.getUserId())
+                : ledgerRepository.findByReferenceForUser(request.getOrderId(), request.getUserId());
+        if (originals.isEmpty()) {
+            throw new LedgerEntryNotFoundException(byKey
+                    ? "No ledger entries of user " + request.getUserId() + " for key " + request.getOriginalIdempotencyKey()
+                    : "No ledger entries of user " + request.getUserId() + " for order " + request.getOrderId());
+        }
+        return originals;
+    }
 
-        userWallet.debit(request.getAmount());
+    private static Set<String> usersOf(List<TradeLeg> legs) {
+        Set<String> userIds = new TreeSet<>();
+        if (legs != null) {
+            for (TradeLeg leg : legs) {
+                userIds.add(leg.getFromUserId());
+                userIds.add(leg.getToUserId());
+            }
+        }
+        return userIds;
+    }
 
-        Asset asset = getAsset(request.getAsset());
+    private WalletHold getHold(Long holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found: " + holdId));
+    }
 
-        if (asset.getLimitedSupply()) {
-            Wallet systemWallet = getOrCreateWallet(SYSTEM_USER, request.getAsset());
-            systemWallet.credit(request.getAmount());
+    private HoldNotActiveException notActive(WalletHold hold) {
+        if (hold.getStatus() == HoldStatus.HELD) {
+            return new HoldNotActiveException("Hold " + hold.getId() + " has expired");
         }
+        return new HoldNotActiveException("Hold " + hold.getId() + " is already " + hold.getStatus());
+    }
 
-        saveLedger(request.getUserId(), SYSTEM_USER, request.getAsset(),
-                request.getAmount(), request.getIdempotencyKey(), request.getOrderId());
+    private Duration holdTtl(Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            return holdProperties.getDefaultTtl();
+        }
+        Duration requested = Duration.ofSeconds(ttlSeconds);
+        return requested.compareTo(holdProperties.getMaxTtl()) > 0 ? holdProperties.getMaxTtl() : requested;
+    }
 
-        saveIdempotency(request.getIdempotencyKey(), "SPEND");
+    private HoldResponse toHoldResponse(WalletHold hold) {
+        return HoldResponse.builder()
+                .holdId(hold.getId())
+                .userId(hold.getUserId())
+                .asset(hold.getAsset())
+                .amount(hold.getAmount())
+                .status(hold.getStatus())
+                .reference(hold.getReference())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+
+    /**
+     * Locks every wallet touched by the legs in canonical order with a single query, applies
+     * the legs in request order and writes all ledger entries with one insert.
+     */
+    private void applyLegs(List<TradeLeg> legs, String idempotencyKey, String reference) {
+        Set<String> userIds = new TreeSet<>();
+        Set<String> assets = new TreeSet<>();
+        for (TradeLeg leg : legs) {
+            if (leg.getFromUserId().equals(leg.getToUserId())) {
+                throw new IllegalArgumentException("Cannot transfer to the same user: " + leg.getFromUserId());
+            }
+            if (SYSTEM_USER.equals(leg.getFromUserId()) || SYSTEM_USER.equals(leg.getToUserId())) {
+                throw new IllegalArgumentException("Transfers cannot involve the system wallet");
+            }
+            if (assets.add(leg.getAsset())) {
+                getAsset(leg.getAsset());
+            }
+            userIds.add(leg.getFromUserId());
+            userIds.add(leg.getToUserId());
+        }
+
+        Map<WalletId, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findAllForUpdate(userIds, assets)) {
+            wallets.put(new WalletId(wallet.getUserId(), wallet.getAsset()), wallet);
+        }
+
+        // Wallets a leg creates are credited by upsert once all legs are applied; a later leg
+        // may already spend what an earlier one sent there.
+        Map<WalletId, Long> created = new TreeMap<>(Comparator.comparing(WalletId::getUserId)
+                .thenComparing(WalletId::getAsset));
+        List<LedgerEntry> entries = new ArrayList<>(legs.size());
+        for (TradeLeg leg : legs) {
+            WalletId fromId = new WalletId(leg.getFromUserId(), leg.getAsset());
+            Wallet from = wallets.get(fromId);
+            if (from == null && !created.containsKey(fromId)) {
+                throw new WalletNotFoundException(
+                        String.format("Wallet not found for user: %s, asset: %s", leg.getFromUserId(), leg.getAsset()));
+            }
+            long available = from != null ? from.getAvailable() : created.get(fromId);
+            if (available < leg.getAmount()) {
+                throw new InsufficientBalanceException("User " + leg.getFromUserId() + " has insufficient balance");
+            }
+            if (from != null) {
+                from.debit(leg.getAmount());
+            } else {
+                created.put(fromId, available - leg.getAmount());
+            }
+
+            Wallet to = wallets.get(new WalletId(leg.getToUserId(), leg.getAsset()));
+            if (to != null) {
+                to.credit(leg.getAmount());
+            } else {
+                created.merge(new WalletId(leg.getToUserId(), leg.getAsset()), leg.getAmount(), Long::sum);
+            }
+
+            entries.add(ledgerEntry(leg.getFromUserId(), leg.getToUserId(), leg.getAsset(),
+                    leg.getAmount(), idempotencyKey, reference));
+        }
+
+        created.forEach((wallet, amount) -> {
+            if (amount > 0) {
+                creditWallet(wallet.getUserId(), wallet.getAsset(), amount);
+            }
+        });
+        ledgerBatchWriter.insertAll(entries);
+        entries.forEach(this::publishPosted);
     }
 
 
@@ -134,7 +606,7 @@ public class WalletService {
     }
 
     private Wallet getWalletForUpdate(String userId, String asset) {
-        return walletRepository.findByUserIdAndAssetForUpdate(userId, asset)
+        return lockWallet(userId, asset)
                 .orElseThrow(() ->
                         new WalletNotFoundException(
                                 String.format("Wallet not found for user: %s, asset: %s", userId, asset)
@@ -142,60 +614,104 @@ public class WalletService {
                 );
     }
 
-    private Wallet getOrCreateWallet(String userId, String asset) {
-        return walletRepository.findByUserIdAndAssetForUpdate(userId, asset)
-                .orElseGet(() -> {
-                    Wallet wallet = new Wallet();
-                    wallet.setUserId(userId);
-                    wallet.setAsset(asset);
-                    wallet.setBalance(0L);
-                    wallet.setVersion(0L);
-                    return walletRepository.save(wallet);
-                });
+    /**
+     * Creates-or-credits in one statement; the row lock it takes is timed like
+     * {@link #lockWallet}.
+     */
+    private void creditWallet(String userId, String asset, long amount) {
+        long start = System.nanoTime();
+        walletCreditWriter.credit(userId, userDirectory.resolve(userId), asset, amount);
+        contentionTracker.record(userId, asset, System.nanoTime() - start);
+    }
+
+    private Optional<Wallet> lockWallet(String userId, String asset) {
+        long start = System.nanoTime();
+        Optional<Wallet> wallet = walletRepository.findByUserIdAndAssetForUpdate(userId, asset);
+        contentionTracker.record(userId, asset, System.nanoTime() - start);
+        return wallet;
     }
 
     private void saveLedger(String debitUser, String creditUser, String asset,
                             Long amount, String idempotencyKey, String reference) {
 
-        LedgerEntry entry = LedgerEntry.builder()
+        LedgerEntry entry = ledgerEntry(debitUser, creditUser, asset, amount, idempotencyKey, reference);
+
+        ledgerRepository.save(entry);
+        publishPosted(entry);
+    }
+
+    private LedgerEntry ledgerEntry(String debitUser, String creditUser, String asset,
+                                    Long amount, String idempotencyKey, String reference) {
+        return LedgerEntry.builder()
                 .debitUser(debitUser)
                 .creditUser(creditUser)
+                .debitUserRef(userDirectory.resolve(debitUser))
+                .creditUserRef(userDirectory.resolve(creditUser))
                 .asset(asset)
                 .amount(amount)
                 .idempotencyKey(idempotencyKey)
                 .reference(reference)
                 .build();
+    }
 
-        ledgerRepository.save(entry);
+    private void publishHoldChanged(WalletHold hold) {
+        eventPublisher.publishEvent(new HoldChangedEvent(hold.getUserId(), hold.getAsset(), hold.getStatus()));
     }
 
-    @Transactional(readOnly = true)
-    public Page<LedgerResponse> getTransactions(String userId, Pageable pageable) {
-        return ledgerRepository
-                .findByDebitUserOrCreditUser(userId, userId, pageable)
-                .map(entry -> LedgerResponse.builder()
-                        .debitUser(entry.getDebitUser())
-                        .creditUser(entry.getCreditUser())
-                        .asset(entry.getAsset())
-                        .amount(entry.getAmount())
-                        .reference(entry.getReference())
-                        .createdAt(entry.getCreatedAt())
-                        .build());
+    private void publishPosted(LedgerEntry entry) {
+        eventPublisher.publishEvent(new LedgerPostedEvent(entry.getDebitUser(), entry.getCreditUser(),
+                entry.getAsset(), entry.getAmount(), entry.getReference()));
     }
 
+    @Retryable(interceptor = "transientFailureInterceptor")
     @Transactional(readOnly = true)
-    public BalanceResponse getBalance(String userId, String asset) {
+    public Page<LedgerResponse> getTransactions(String userId, Pageable pageable) {
+        if (SYSTEM_USER.equals(userId)) {
+            throw new IllegalArgumentException("SYSTEM history is served by /v1/admin/system-ledger");
+        }
+        try (ShardContext.Scope shard = shardRouter.forUser(userId);
+             ReadRoutingContext.Scope ignored = ReadRoutingContext.forUser(userId)) {
+            transactionTimeouts.apply("getTransactions");
+            return userDirectory.find(userId)
+                    .map(ref -> ledgerRepository.findUserHistory(ref, pageable))
+                    .orElseGet(() -> Page.empty(pageable));
+        }
+    }
 
-        Wallet wallet = walletRepository.findByUserIdAndAsset(userId, asset)
-                .orElseThrow(() ->
-                        new WalletNotFoundException(
-                                "Wallet not found for user=" + userId + ", asset=" + asset));
+    public List<LedgerResponse> getArchivedTransactions(String userId, YearMonth month) {
+        List<LedgerResponse> transactions = new ArrayList<>();
+        try (ShardContext.Scope ignored = shardRouter.forUser(userId)) {
+            ledgerArchive.forEachEntry(month, entry -> {
+                if (userId.equals(entry.getDebitUser()) || userId.equals(entry.getCreditUser())) {
+                    transactions.add(toLedgerResponse(entry));
+                }
+            });
+        }
+        return transactions;
+    }
 
-        return BalanceResponse.builder()
-                .userId(wallet.getUserId())
-                .asset(wallet.getAsset())
-                .balance(wallet.getBalance())
-                .version(wallet.getVersion())
+    private LedgerResponse toLedgerResponse(LedgerEntry entry) {
+        return LedgerResponse.builder()
+                .debitUser(entry.getDebitUser())
+                .creditUser(entry.getCreditUser())
+                .asset(entry.getAsset())
+                .amount(entry.getAmount())
+                .reference(entry.getReference())
+                .createdAt(entry.getCreatedAt())
                 .build();
     }
-}
\ No newline at end of file
+
+    public BalanceResponse getBalance(String userId, String asset) {
+        return balanceReadCoalescer.load(new WalletId(userId, asset), () -> readBalance(userId, asset));
+    }
+
+    private BalanceResponse readBalance(String userId, String asset) {
+        try (ShardContext.Scope shard = shardRouter.forUser(userId);
+             ReadRoutingContext.Scope ignored = ReadRoutingContext.forUser(userId)) {
+            return walletRepository.findBalance(userId, asset)
+                    .orElseThrow(() ->
+                            new WalletNotFoundException(
+                                    "Wallet not found for user=" + userId + ", asset=" + asset));
+        }
+    }
+}
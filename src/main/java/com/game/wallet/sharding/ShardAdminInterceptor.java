@@ -0,0 +1,41 @@
+package com.game.wallet.sharding;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Lets single-database admin tools such as ledger replay, export and import target one
+ * shard through a {@code shard} request parameter. Requests without it run on the
+ * primary shard.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.datasource.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardAdminInterceptor implements HandlerInterceptor {
+
+    static final String SCOPE_ATTRIBUTE = ShardAdminInterceptor.class.getName() + ".scope";
+
+    private final ShardRouter shardRouter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String shard = request.getParameter("shard");
+        if (shard != null && !shard.isBlank()) {
+            request.setAttribute(SCOPE_ATTRIBUTE, shardRouter.forShard(shard));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object scope = request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            ((ShardContext.Scope) scope).close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.game.wallet.sharding;
+
+/**
+ * Names the shard the current thread's next transaction runs on. Like
+ * {@link com.game.wallet.routing.ReadRoutingContext} it must be set before the first
+ * query of the transaction; afterwards the connection is already bound.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Scope on(String shard) {
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        return () -> {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        };
+    }
+
+    public static String current() {
+        return SHARD.get();
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.game.wallet.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Maps users to shards through a fixed number of hash buckets. The hash only depends on
+ * the user id, so a user stays in the same bucket forever; moving users between shards
+ * means reassigning whole buckets.
+ */
+public class ShardMap {
+
+    private final List<String> shards;
+    private final AtomicReferenceArray<String> assignments;
+
+    public ShardMap(List<String> shards, int buckets, Map<Integer, String> overrides) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (buckets < shards.size()) {
+            throw new IllegalArgumentException("Need at least as many buckets as shards, got " + buckets);
+        }
+        if (new HashSet<>(shards).size() != shards.size()) {
+            throw new IllegalArgumentException("Duplicate shard names: " + shards);
+        }
+        this.shards = List.copyOf(shards);
+        this.assignments = new AtomicReferenceArray<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            assignments.set(bucket, this.shards.get(bucket % this.shards.size()));
+        }
+        overrides.forEach(this::reassign);
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public int buckets() {
+        return assignments.length();
+    }
+
+    public int bucketOf(String userId) {
+        return (int) (Integer.toUnsignedLong(hash(userId)) % assignments.length());
+    }
+
+    public String shardOf(String userId) {
+        return assignments.get(bucketOf(userId));
+    }
+
+    public String shardOfBucket(int bucket) {
+        checkBucket(bucket);
+        return assignments.get(bucket);
+    }
+
+    public void reassign(int bucket, String shard) {
+        checkBucket(bucket);
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        assignments.set(bucket, shard);
+    }
+
+    /**
+     * @return shard name to the number of buckets it owns, in shard order
+     */
+    public Map<String, Integer> bucketCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        shards.forEach(shard -> counts.put(shard, 0));
+        for (int bucket = 0; bucket < assignments.length(); bucket++) {
+            counts.merge(assignments.get(bucket), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes with a murmur3 finalizer, so ids that differ only in a
+     * trailing digit still spread over all buckets.
+     */
+    static int hash(String userId) {
+        int h = 0x811C9DC5;
+        for (byte b : userId.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private void checkBucket(int bucket) {
+        if (bucket < 0 || bucket >= assignments.length()) {
+            throw new IllegalArgumentException("Bucket out of range: " + bucket);
+        }
+    }
+}
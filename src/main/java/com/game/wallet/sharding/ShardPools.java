@@ -0,0 +1,46 @@
+package com.game.wallet.sharding;
+
+import com.game.wallet.config.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns one Hikari pool per configured shard node besides the primary and closes them on
+ * shutdown.
+ */
+public class ShardPools implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public ShardPools(List<ShardingProperties.Node> nodes, String driverClassName) {
+        for (ShardingProperties.Node node : nodes) {
+            if (node.getName() == null || node.getUrl() == null) {
+                throw new IllegalStateException("Every wallet.datasource.sharding node needs a name and a url");
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("WalletShardPool-" + node.getName());
+            pool.setJdbcUrl(node.getUrl());
+            pool.setUsername(node.getUsername());
+            pool.setPassword(node.getPassword());
+            pool.setMaximumPoolSize(node.getMaximumPoolSize());
+            if (driverClassName != null) {
+                pool.setDriverClassName(driverClassName);
+            }
+            pools.put(node.getName(), pool);
+        }
+    }
+
+    public Map<String, DataSource> dataSources() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,195 @@
+package com.game.wallet.sharding;
+
+import com.game.wallet.config.ShardingProperties;
+import com.game.wallet.exception.ServerBusyException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard a unit of work runs on by setting the {@link ShardContext}. With
+ * sharding disabled every method is a no-op that runs the work once against the single
+ * database, so callers do not need to know whether sharding is on.
+ *
+ * <p>Every shard has its own SYSTEM wallets. A user's grants and spends only touch the
+ * SYSTEM wallet on the user's shard, so SYSTEM never needs a cross-shard transaction.
+ */
+@Component
+public class ShardRouter {
+
+    private static final ShardContext.Scope UNSHARDED = () -> {
+    };
+    private static final Set<String> SYSTEM_USERS = Set.of("SYSTEM", "GENESIS");
+
+    private final ShardMap shardMap;
+    private final String primaryShard;
+    private final Set<Integer> frozenBuckets = ConcurrentHashMap.newKeySet();
+
+    public ShardRouter(ShardingProperties properties) {
+        this.primaryShard = properties.getPrimaryShard();
+        if (properties.isEnabled()) {
+            List<String> shards = new ArrayList<>();
+            shards.add(properties.getPrimaryShard());
+            properties.getNodes().forEach(node -> shards.add(node.getName()));
+            this.shardMap = new ShardMap(shards, properties.getBuckets(), properties.getBucketMap());
+        } else {
+            this.shardMap = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return shardMap != null;
+    }
+
+    public ShardMap shardMap() {
+        if (shardMap == null) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        return shardMap;
+    }
+
+    public String primaryShard() {
+        return primaryShard;
+    }
+
+    public ShardContext.Scope forUser(String userId) {
+        if (shardMap == null) {
+            return UNSHARDED;
+        }
+        checkNotMoving(userId);
+        return ShardContext.on(shardMap.shardOf(userId));
+    }
+
+    /**
+     * Routes work that touches several users, such as a transfer. All of them must live on
+     * the same shard; movements between shards would need a distributed transaction.
+     */
+    public ShardContext.Scope forUsers(Collection<String> userIds) {
+        if (shardMap == null || userIds.isEmpty()) {
+            return UNSHARDED;
+        }
+        Set<String> shards = new TreeSet<>();
+        for (String userId : userIds) {
+            checkNotMoving(userId);
+            shards.add(shardMap.shardOf(userId));
+        }
+        if (shards.size() > 1) {
+            throw new IllegalArgumentException("Users " + userIds + " live on different shards " + shards
+                    + "; cross-shard transfers are not supported");
+        }
+        return ShardContext.on(shards.iterator().next());
+    }
+
+    public ShardContext.Scope forShard(String shard) {
+        if (shardMap == null) {
+            return UNSHARDED;
+        }
+        if (!shardMap.shards().contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return ShardContext.on(shard);
+    }
+
+    /**
+     * Routes to the first shard on which {@code probe} returns true, for lookups by an id
+     * that does not name the user. The probe runs once per shard and must open its own
+     * transaction. Falls back to the primary shard when no shard matches. Writers must call
+     * {@link #checkNotMoving(String)} once they know the user.
+     */
+    public ShardContext.Scope forShardWhere(BooleanSupplier probe) {
+        if (shardMap == null) {
+            return UNSHARDED;
+        }
+        for (String shard : shardMap.shards()) {
+            try (ShardContext.Scope ignored = ShardContext.on(shard)) {
+                if (probe.getAsBoolean()) {
+                    return ShardContext.on(shard);
+                }
+            }
+        }
+        return ShardContext.on(primaryShard);
+    }
+
+    /**
+     * Groups users by the shard that owns them, in shard order. Writers must call
+     * {@link #checkNotMoving(Collection)} first.
+     */
+    public Map<String, List<String>> partition(Collection<String> userIds) {
+        if (shardMap == null) {
+            return Map.of(primaryShard, new ArrayList<>(userIds));
+        }
+        Map<String, List<String>> byShard = new LinkedHashMap<>();
+        shardMap.shards().forEach(shard -> byShard.put(shard, new ArrayList<>()));
+        for (String userId : userIds) {
+            byShard.get(shardMap.shardOf(userId)).add(userId);
+        }
+        byShard.values().removeIf(List::isEmpty);
+        return byShard;
+    }
+
+    /**
+     * Runs {@code action} once per shard, or once when sharding is disabled. Each run must
+     * open its own transaction, and a run that writes must leave users for which
+     * {@link #isMoving(String)} is true for a later run.
+     */
+    public void forEachShard(Runnable action) {
+        collect(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Cross-shard read fan-out: runs {@code action} once per shard and returns the results
+     * in shard order. Each run must open its own transaction.
+     */
+    public <T> List<T> collect(Supplier<T> action) {
+        if (shardMap == null) {
+            return Collections.singletonList(action.get());
+        }
+        List<T> results = new ArrayList<>(shardMap.shards().size());
+        for (String shard : shardMap.shards()) {
+            try (ShardContext.Scope ignored = ShardContext.on(shard)) {
+                results.add(action.get());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * True while the user's bucket is being moved to another shard. Anything written for the
+     * user meanwhile could land on the source after it was copied and be lost. SYSTEM and
+     * GENESIS exist on every shard and never move.
+     */
+    public boolean isMoving(String userId) {
+        return shardMap != null && !frozenBuckets.isEmpty() && !SYSTEM_USERS.contains(userId)
+                && frozenBuckets.contains(shardMap.bucketOf(userId));
+    }
+
+    public void checkNotMoving(String userId) {
+        if (isMoving(userId)) {
+            throw new ServerBusyException("Wallets of " + userId + " are being moved to another shard, retry shortly");
+        }
+    }
+
+    public void checkNotMoving(Collection<String> userIds) {
+        if (!frozenBuckets.isEmpty()) {
+            userIds.forEach(this::checkNotMoving);
+        }
+    }
+
+    public void freeze(int bucket) {
+        frozenBuckets.add(bucket);
+    }
+
+    public void unfreeze(int bucket) {
+        frozenBuckets.remove(bucket);
+    }
+
+    public Set<Integer> frozenBuckets() {
+        return Collections.unmodifiableSet(frozenBuckets);
+    }
+}
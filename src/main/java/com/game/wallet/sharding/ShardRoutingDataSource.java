@@ -0,0 +1,24 @@
+package com.game.wallet.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends each connection to the shard named by {@link ShardContext}, or to the primary
+ * shard when none is set. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is only fetched at the first query, after the service has picked the shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final String primaryShard;
+
+    public ShardRoutingDataSource(String primaryShard) {
+        this.primaryShard = primaryShard;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : primaryShard;
+    }
+}
@@ -0,0 +1,125 @@
+package com.game.wallet.sharding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings every shard besides the primary to the same schema, since spring.sql.init only
+ * runs against the primary. Then staggers the wallet_hold id sequences so hold ids are
+ * unique across shards and a hold can be found by id alone.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.datasource.sharding", name = "enabled", havingValue = "true")
+@DependsOnDatabaseInitialization
+@RequiredArgsConstructor
+@Slf4j
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private static final String OPTIONAL_PREFIX = "optional:";
+
+    private final ShardPools shardPools;
+    private final ShardRouter shardRouter;
+    private final DataSource dataSource;
+    private final ResourceLoader resourceLoader;
+    private final ObjectProvider<SqlInitializationProperties> sqlInitializationProperties;
+
+    @Override
+    public void afterPropertiesSet() {
+        SqlInitializationProperties sqlInit = sqlInitializationProperties.getIfAvailable();
+        if (sqlInit != null && sqlInit.getMode() == DatabaseInitializationMode.ALWAYS) {
+            shardPools.dataSources().forEach((shard, pool) -> initialize(shard, pool, sqlInit));
+        }
+        alignHoldIds();
+    }
+
+    private void initialize(String shard, DataSource pool, SqlInitializationProperties sqlInit) {
+        List<Resource> scripts = new ArrayList<>();
+        scripts.addAll(resolve(sqlInit.getSchemaLocations()));
+        scripts.addAll(resolve(sqlInit.getDataLocations()));
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(scripts.toArray(new Resource[0]));
+        populator.setContinueOnError(sqlInit.isContinueOnError());
+        if (sqlInit.getSeparator() != null) {
+            populator.setSeparator(sqlInit.getSeparator());
+        }
+        if (sqlInit.getEncoding() != null) {
+            populator.setSqlScriptEncoding(sqlInit.getEncoding().name());
+        }
+        populator.execute(pool);
+        log.info("Initialized shard {} with {} scripts", shard, scripts.size());
+    }
+
+    private List<Resource> resolve(List<String> locations) {
+        List<Resource> resources = new ArrayList<>();
+        if (locations == null) {
+            return resources;
+        }
+        for (String location : locations) {
+            boolean optional = location.startsWith(OPTIONAL_PREFIX);
+            Resource resource = resourceLoader.getResource(optional ? location.substring(OPTIONAL_PREFIX.length()) : location);
+            if (resource.exists()) {
+                resources.add(resource);
+            } else if (!optional) {
+                throw new IllegalStateException("SQL script not found: " + location);
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Shard {@code i} of {@code n} only hands out ids congruent to {@code i + 1} modulo
+     * {@code n}, starting above the highest id issued on any shard so far.
+     */
+    private void alignHoldIds() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<String> shards = shardRouter.shardMap().shards();
+        int n = shards.size();
+
+        Map<String, String> sequences = holdSequences(jdbcTemplate, shards);
+        long highest = 0;
+        for (Map.Entry<String, String> sequence : sequences.entrySet()) {
+            try (ShardContext.Scope ignored = ShardContext.on(sequence.getKey())) {
+                highest = Math.max(highest, jdbcTemplate.queryForObject(
+                        "SELECT last_value FROM " + sequence.getValue(), Long.class));
+            }
+        }
+
+        for (Map.Entry<String, String> sequence : sequences.entrySet()) {
+            int residue = (shards.indexOf(sequence.getKey()) + 1) % n;
+            long aligned = highest + Math.floorMod(residue - highest, n);
+            try (ShardContext.Scope ignored = ShardContext.on(sequence.getKey())) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence.getValue() + " INCREMENT BY " + n);
+                jdbcTemplate.queryForObject("SELECT setval(CAST(? AS regclass), ?)", Long.class, sequence.getValue(), aligned);
+            }
+        }
+        log.info("Hold ids staggered over {} shards above {}", n, highest);
+    }
+
+    private static Map<String, String> holdSequences(JdbcTemplate jdbcTemplate, List<String> shards) {
+        Map<String, String> sequences = new LinkedHashMap<>();
+        for (String shard : shards) {
+            try (ShardContext.Scope ignored = ShardContext.on(shard)) {
+                sequences.put(shard, jdbcTemplate.queryForObject(
+                        "SELECT pg_get_serial_sequence('wallet_hold', 'id')", String.class));
+            }
+        }
+        return sequences;
+    }
+}
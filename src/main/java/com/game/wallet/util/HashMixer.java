@@ -0,0 +1,14 @@
+package com.game.wallet.util;
+
+final class HashMixer {
+
+    static final float LOAD_FACTOR = 0.5f;
+
+    private HashMixer() {
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
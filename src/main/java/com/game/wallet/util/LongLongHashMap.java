@@ -0,0 +1,174 @@
+package com.game.wallet.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code long}. {@link #slotOf(long)} exposes
+ * the internal slot so hot loops can read and update a value with a single probe.
+ * Not thread-safe.
+ */
+public class LongLongHashMap {
+
+    public static final int ZERO_KEY_SLOT = -2;
+    public static final int NOT_FOUND = -1;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public long get(long key, long defaultValue) {
+        int slot = slotOf(key);
+        return slot == NOT_FOUND ? defaultValue : valueAt(slot);
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) != NOT_FOUND;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = HashMixer.mix(key) & mask;
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                values[slot] = value;
+                return;
+            }
+            if (existing == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long addTo(long key, long delta) {
+        int slot = slotOf(key);
+        if (slot == NOT_FOUND) {
+            put(key, delta);
+            return delta;
+        }
+        long updated = valueAt(slot) + delta;
+        setValueAt(slot, updated);
+        return updated;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or {@link #NOT_FOUND}. A slot stays valid until
+     * the next insertion of a new key.
+     */
+    public int slotOf(long key) {
+        if (key == 0) {
+            return hasZeroKey ? ZERO_KEY_SLOT : NOT_FOUND;
+        }
+        int slot = HashMixer.mix(key) & mask;
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                return slot;
+            }
+            if (existing == 0) {
+                return NOT_FOUND;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long valueAt(int slot) {
+        return slot == ZERO_KEY_SLOT ? zeroValue : values[slot];
+    }
+
+    public void setValueAt(int slot, long value) {
+        if (slot == ZERO_KEY_SLOT) {
+            zeroValue = value;
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, 0L);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    public void forEach(LongLongConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0L, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = HashMixer.mix(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * HashMixer.LOAD_FACTOR));
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 4) / (double) HashMixer.LOAD_FACTOR);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Map too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+}
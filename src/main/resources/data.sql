@@ -1,23 +1,29 @@
-INSERT INTO asset (code, limited_supply) VALUES
-('GOLD', false),
-('DIAMOND', true),
-('POINTS', false)
+INSERT INTO asset (code, limited_supply, bonus) VALUES
+('GOLD', false, false),
+('DIAMOND', true, false),
+('POINTS', false, false),
+('EVENT_TOKEN', false, true)
 ON CONFLICT (code) DO NOTHING;
 
-INSERT INTO wallet (user_id, asset, balance, version) VALUES
-('SYSTEM', 'DIAMOND', 1000000, 0),
-('SYSTEM', 'GOLD', 0, 0),
-('SYSTEM', 'POINTS', 0, 0)
-ON CONFLICT (user_id, asset) DO NOTHING;
-
-INSERT INTO wallet (user_id, asset, balance, version) VALUES
-('user1', 'GOLD', 1000, 0),
-('user1', 'DIAMOND', 10, 0),
-('user1', 'POINTS', 100, 0)
-ON CONFLICT (user_id, asset) DO NOTHING;
+INSERT INTO user_account (user_id) VALUES
+('SYSTEM'),
+('user1'),
+('user2')
+ON CONFLICT (user_id) DO NOTHING;
 
-INSERT INTO wallet (user_id, asset, balance, version) VALUES
-('user2', 'GOLD', 500, 0),
-('user2', 'DIAMOND', 5, 0),
-('user2', 'POINTS', 50, 0)
+INSERT INTO wallet (user_id, user_ref, asset, balance, version)
+SELECT w.user_id, u.id, w.asset, w.balance, 0
+FROM (VALUES
+    ('SYSTEM', 'DIAMOND', 1000000),
+    ('SYSTEM', 'GOLD', 0),
+    ('SYSTEM', 'POINTS', 0),
+    ('SYSTEM', 'EVENT_TOKEN', 0),
+    ('user1', 'GOLD', 1000),
+    ('user1', 'DIAMOND', 10),
+    ('user1', 'POINTS', 100),
+    ('user2', 'GOLD', 500),
+    ('user2', 'DIAMOND', 5),
+    ('user2', 'POINTS', 50)
+) AS w(user_id, asset, balance)
+JOIN user_account u ON u.user_id = w.user_id
 ON CONFLICT (user_id, asset) DO NOTHING;
@@ -0,0 +1,20 @@
+-- One-off count of ledger entries written before asset_supply_counter existed.
+-- Only covers ledger_entry; if partitions were already archived, use
+-- POST /v1/admin/supply/rebuild instead, which also reads the archive.
+
+BEGIN;
+
+LOCK TABLE asset_supply_counter IN EXCLUSIVE MODE;
+
+DELETE FROM asset_supply_counter;
+
+INSERT INTO asset_supply_counter (asset, shard, issued, burned)
+SELECT asset, 0,
+    SUM(CASE WHEN debit_user IN ('SYSTEM', 'GENESIS') AND credit_user NOT IN ('SYSTEM', 'GENESIS')
+        THEN amount ELSE 0 END),
+    SUM(CASE WHEN debit_user NOT IN ('SYSTEM', 'GENESIS') AND credit_user IN ('SYSTEM', 'GENESIS')
+        THEN amount ELSE 0 END)
+FROM ledger_entry
+GROUP BY asset;
+
+COMMIT;
@@ -0,0 +1,24 @@
+-- One-off backfill of user surrogate ids for data written before user_account
+-- existed. Safe to re-run; only rows with a missing ref are touched.
+
+BEGIN;
+
+INSERT INTO user_account (user_id)
+SELECT user_id FROM wallet
+UNION SELECT debit_user FROM ledger_entry
+UNION SELECT credit_user FROM ledger_entry
+ON CONFLICT (user_id) DO NOTHING;
+
+UPDATE wallet w SET user_ref = u.id
+FROM user_account u
+WHERE w.user_ref IS NULL AND u.user_id = w.user_id;
+
+UPDATE ledger_entry l SET debit_user_ref = u.id
+FROM user_account u
+WHERE l.debit_user_ref IS NULL AND u.user_id = l.debit_user;
+
+UPDATE ledger_entry l SET credit_user_ref = u.id
+FROM user_account u
+WHERE l.credit_user_ref IS NULL AND u.user_id = l.credit_user;
+
+COMMIT;
@@ -0,0 +1,21 @@
+-- One-off summary of ledger entries written before ledger_daily_summary existed.
+-- Run after db/intern-users.sql so every entry has its user refs. Replaces any
+-- existing summary rows.
+
+BEGIN;
+
+DELETE FROM ledger_daily_summary;
+
+INSERT INTO ledger_daily_summary (user_ref, asset, entry_date, credit_total, debit_total, entry_count)
+SELECT user_ref, asset, entry_date, SUM(credit), SUM(debit), COUNT(*)
+FROM (
+    SELECT credit_user_ref AS user_ref, asset, created_at::date AS entry_date, amount AS credit, 0 AS debit
+    FROM ledger_entry WHERE credit_user NOT IN ('SYSTEM', 'GENESIS')
+    UNION ALL
+    SELECT debit_user_ref, asset, created_at::date, 0, amount
+    FROM ledger_entry WHERE debit_user NOT IN ('SYSTEM', 'GENESIS')
+) movements
+WHERE user_ref IS NOT NULL
+GROUP BY user_ref, asset, entry_date;
+
+COMMIT;
@@ -0,0 +1,57 @@
+-- One-off conversion of an existing unpartitioned ledger_entry table into the
+-- monthly partitioned layout from schema.sql. Run with the application stopped.
+-- Partitions for every month that already holds rows are created before the copy;
+-- LedgerPartitionService takes over premaking future months on the next start.
+
+BEGIN;
+
+ALTER TABLE ledger_entry RENAME TO ledger_entry_unpartitioned;
+ALTER INDEX ledger_entry_pkey RENAME TO ledger_entry_unpartitioned_pkey;
+ALTER INDEX idx_ledger_idempotency RENAME TO idx_ledger_idempotency_old;
+ALTER INDEX idx_ledger_debit_user RENAME TO idx_ledger_debit_user_old;
+ALTER INDEX idx_ledger_credit_user RENAME TO idx_ledger_credit_user_old;
+ALTER TABLE ledger_entry_unpartitioned RENAME CONSTRAINT fk_ledger_asset TO fk_ledger_asset_old;
+
+CREATE TABLE ledger_entry (
+    id BIGINT NOT NULL DEFAULT nextval('ledger_entry_id_seq'),
+    debit_user VARCHAR(100) NOT NULL,
+    credit_user VARCHAR(100) NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    amount BIGINT NOT NULL CHECK (amount > 0),
+    idempotency_key VARCHAR(255) NOT NULL,
+    reference VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_ledger_asset FOREIGN KEY (asset) REFERENCES asset(code)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE ledger_entry_id_seq OWNED BY ledger_entry.id;
+
+CREATE TABLE ledger_entry_default PARTITION OF ledger_entry DEFAULT;
+
+DO $$
+DECLARE
+    m DATE;
+BEGIN
+    FOR m IN
+        SELECT DISTINCT date_trunc('month', created_at)::date
+        FROM ledger_entry_unpartitioned
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE ledger_entry_p%s PARTITION OF ledger_entry FOR VALUES FROM (%L) TO (%L)',
+            to_char(m, 'YYYYMM'), m, (m + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
+
+INSERT INTO ledger_entry
+SELECT id, debit_user, credit_user, asset, amount, idempotency_key, reference, created_at
+FROM ledger_entry_unpartitioned;
+
+CREATE INDEX idx_ledger_idempotency ON ledger_entry(idempotency_key);
+CREATE INDEX idx_ledger_debit_user ON ledger_entry(debit_user);
+CREATE INDEX idx_ledger_credit_user ON ledger_entry(credit_user);
+
+DROP TABLE ledger_entry_unpartitioned;
+
+COMMIT;
@@ -0,0 +1,20 @@
+-- One-off bucketing of SYSTEM ledger entries written before system_ledger_bucket existed.
+-- Only covers ledger_entry; SYSTEM activity in archived partitions is not bucketed.
+
+BEGIN;
+
+LOCK TABLE system_ledger_bucket IN EXCLUSIVE MODE;
+
+DELETE FROM system_ledger_bucket;
+
+INSERT INTO system_ledger_bucket (bucket_start, asset, shard, debit_total, credit_total, debit_count, credit_count)
+SELECT date_trunc('hour', created_at), asset, 0,
+    SUM(CASE WHEN debit_user = 'SYSTEM' THEN amount ELSE 0 END),
+    SUM(CASE WHEN credit_user = 'SYSTEM' THEN amount ELSE 0 END),
+    COUNT(*) FILTER (WHERE debit_user = 'SYSTEM'),
+    COUNT(*) FILTER (WHERE credit_user = 'SYSTEM')
+FROM ledger_entry
+WHERE debit_user = 'SYSTEM' OR credit_user = 'SYSTEM'
+GROUP BY date_trunc('hour', created_at), asset;
+
+COMMIT;
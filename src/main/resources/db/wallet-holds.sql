@@ -0,0 +1,10 @@
+-- One-off migration adding the held-amount guard to wallet tables created before holds
+-- existed. schema.sql adds the column itself; the check is added NOT VALID first so the
+-- table is not locked while existing rows are validated.
+
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS held BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE wallet
+    ADD CONSTRAINT chk_wallet_held CHECK (held >= 0 AND held <= balance) NOT VALID;
+
+ALTER TABLE wallet VALIDATE CONSTRAINT chk_wallet_held;
@@ -1,45 +1,218 @@
 CREATE TABLE IF NOT EXISTS asset (
     code VARCHAR(20) PRIMARY KEY,
-    limited_supply BOOLEAN NOT NULL DEFAULT false
+    limited_supply BOOLEAN NOT NULL DEFAULT false,
+    -- Only ever granted, never bought; the only assets whose grants may expire.
+    bonus BOOLEAN NOT NULL DEFAULT false
+);
+
+ALTER TABLE asset ADD COLUMN IF NOT EXISTS bonus BOOLEAN NOT NULL DEFAULT false;
+
+-- Surrogate ids for user strings. Wallets and ledger entries carry user_ref /
+-- debit_user_ref / credit_user_ref so history indexes and replay work on BIGINTs
+-- instead of VARCHAR(100). Existing data is backfilled with db/intern-users.sql.
+--
+-- The VARCHAR user columns stay for compatibility: API responses, exports, archives and
+-- the reactive and sharded writers all read them, so rows are wider by the refs until
+-- those move over. The ledger no longer indexes the strings at all; the wallet key is
+-- still (user_id, asset) because every wallet lookup and wallet_hold's foreign key use it.
+CREATE TABLE IF NOT EXISTS user_account (
+    id BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(100) NOT NULL UNIQUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 CREATE TABLE IF NOT EXISTS wallet (
     user_id VARCHAR(100) NOT NULL,
+    user_ref BIGINT,
     asset VARCHAR(20) NOT NULL,
     balance BIGINT NOT NULL DEFAULT 0 CHECK (balance >= 0),
+    -- Sum of active holds; available balance is balance - held.
+    held BIGINT NOT NULL DEFAULT 0,
     version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
 
     PRIMARY KEY (user_id, asset),
+    CONSTRAINT chk_wallet_held CHECK (held >= 0 AND held <= balance),
     CONSTRAINT fk_wallet_asset FOREIGN KEY (asset) REFERENCES asset(code)
 );
 
-CREATE INDEX IF NOT EXISTS idx_wallet_user_asset
-    ON wallet(user_id, asset);
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS user_ref BIGINT;
 
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS held BIGINT NOT NULL DEFAULT 0;
 
+-- Duplicated the (user_id, asset) primary key index.
+DROP INDEX IF EXISTS idx_wallet_user_asset;
+
+
+-- Range-partitioned by month on created_at. Monthly partitions are created ahead of
+-- time by LedgerPartitionService; the default partition only catches rows outside
+-- every premade range. Existing unpartitioned tables are converted with
+-- db/partition-ledger-entry.sql.
 CREATE TABLE IF NOT EXISTS ledger_entry (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     debit_user VARCHAR(100) NOT NULL,
     credit_user VARCHAR(100) NOT NULL,
+    debit_user_ref BIGINT,
+    credit_user_ref BIGINT,
     asset VARCHAR(20) NOT NULL,
     amount BIGINT NOT NULL CHECK (amount > 0),
     idempotency_key VARCHAR(255) NOT NULL,
     reference VARCHAR(500),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
 
+    PRIMARY KEY (id, created_at),
     CONSTRAINT fk_ledger_asset FOREIGN KEY (asset) REFERENCES asset(code)
-);
+) PARTITION BY RANGE (created_at);
+
+-- Only once ledger_entry is partitioned: an existing unpartitioned table is left alone
+-- until db/partition-ledger-entry.sql has converted it. The body is a quoted string
+-- rather than dollar-quoted so the script splitter keeps it in one statement.
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table
+               WHERE partrelid = ''ledger_entry''::regclass) THEN
+        CREATE TABLE IF NOT EXISTS ledger_entry_default PARTITION OF ledger_entry DEFAULT;
+    END IF;
+END';
 
 CREATE INDEX IF NOT EXISTS idx_ledger_idempotency
     ON ledger_entry(idempotency_key);
 
-CREATE INDEX IF NOT EXISTS idx_ledger_debit_user
-    ON ledger_entry(debit_user);
+-- Order and tournament lookups for reversals; the id keeps bulk reversal pages in order.
+CREATE INDEX IF NOT EXISTS idx_ledger_reference
+    ON ledger_entry(reference, id);
+
+ALTER TABLE ledger_entry ADD COLUMN IF NOT EXISTS debit_user_ref BIGINT;
+ALTER TABLE ledger_entry ADD COLUMN IF NOT EXISTS credit_user_ref BIGINT;
+
+-- Replaced by the ref-keyed history indexes below; nothing indexes the user strings.
+DROP INDEX IF EXISTS idx_ledger_debit_user;
+DROP INDEX IF EXISTS idx_ledger_credit_user;
+
+-- History indexes skip SYSTEM rows: SYSTEM is the counterparty of almost every entry and
+-- its activity is read from system_ledger_bucket instead.
+DROP INDEX IF EXISTS idx_ledger_debit_user_ref;
+DROP INDEX IF EXISTS idx_ledger_credit_user_ref;
+
+CREATE INDEX IF NOT EXISTS idx_ledger_debit_history
+    ON ledger_entry(debit_user_ref, created_at)
+    WHERE debit_user <> 'SYSTEM';
+
+CREATE INDEX IF NOT EXISTS idx_ledger_credit_history
+    ON ledger_entry(credit_user_ref, created_at)
+    WHERE credit_user <> 'SYSTEM';
+
+
+-- Per user, asset and day totals, maintained in the ledger-writing transaction.
+-- Existing ledgers are summarized with db/ledger-daily-summary.sql.
+CREATE TABLE IF NOT EXISTS ledger_daily_summary (
+    user_ref BIGINT NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    entry_date DATE NOT NULL,
+    credit_total BIGINT NOT NULL DEFAULT 0,
+    debit_total BIGINT NOT NULL DEFAULT 0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_ref, entry_date, asset)
+);
+
+
+-- Issued and burned totals per asset, spread over shards so concurrent grants do not
+-- queue on one row. Existing ledgers are counted with db/asset-supply-counter.sql.
+CREATE TABLE IF NOT EXISTS asset_supply_counter (
+    asset VARCHAR(20) NOT NULL,
+    shard INT NOT NULL,
+    issued BIGINT NOT NULL DEFAULT 0,
+    burned BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (asset, shard)
+);
+
+
+-- Hourly SYSTEM debit and credit totals per asset, sharded like asset_supply_counter.
+-- Existing ledgers are bucketed with db/system-ledger-bucket.sql.
+CREATE TABLE IF NOT EXISTS system_ledger_bucket (
+    bucket_start TIMESTAMP NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    shard INT NOT NULL,
+    debit_total BIGINT NOT NULL DEFAULT 0,
+    credit_total BIGINT NOT NULL DEFAULT 0,
+    debit_count BIGINT NOT NULL DEFAULT 0,
+    credit_count BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (bucket_start, asset, shard)
+);
+
+
+-- Bulk grants and their completed chunks; a re-run skips chunks recorded here.
+CREATE TABLE IF NOT EXISTS bulk_grant (
+    grant_id VARCHAR(255) PRIMARY KEY,
+    asset VARCHAR(20) NOT NULL,
+    reference VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS bulk_grant_chunk (
+    grant_id VARCHAR(255) NOT NULL,
+    chunk_no BIGINT NOT NULL,
+    users INT NOT NULL,
+    amount BIGINT NOT NULL,
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (grant_id, chunk_no),
+    CONSTRAINT fk_bulk_grant_chunk_grant FOREIGN KEY (grant_id) REFERENCES bulk_grant(grant_id)
+);
+
+
+-- Grants applied at grant_at by the scheduled grant poller and, when expires_in_seconds is
+-- set, debited back to SYSTEM that long after they were granted. One row per user and
+-- schedule, so posting a schedule again does not grant twice.
+CREATE TABLE IF NOT EXISTS scheduled_grant (
+    id BIGSERIAL PRIMARY KEY,
+    schedule_id VARCHAR(255) NOT NULL,
+    user_id VARCHAR(100) NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    amount BIGINT NOT NULL CHECK (amount > 0),
+    reference VARCHAR(500) NOT NULL,
+    grant_at TIMESTAMP NOT NULL,
+    expires_in_seconds BIGINT CHECK (expires_in_seconds > 0),
+    status VARCHAR(20) NOT NULL DEFAULT 'SCHEDULED',
+    granted_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    expired_amount BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_scheduled_grant_user UNIQUE (schedule_id, user_id)
+);
+
+-- The poller only scans grants still waiting to be granted or to expire.
+CREATE INDEX IF NOT EXISTS idx_scheduled_grant_due
+    ON scheduled_grant(grant_at) WHERE status = 'SCHEDULED';
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_grant_expiry
+    ON scheduled_grant(expires_at) WHERE status = 'GRANTED' AND expires_at IS NOT NULL;
+
+
+CREATE TABLE IF NOT EXISTS wallet_hold (
+    id BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(100) NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    amount BIGINT NOT NULL CHECK (amount > 0),
+    status VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    reference VARCHAR(500),
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_wallet_hold_wallet FOREIGN KEY (user_id, asset) REFERENCES wallet(user_id, asset)
+);
 
-CREATE INDEX IF NOT EXISTS idx_ledger_credit_user
-    ON ledger_entry(credit_user);
+-- Only active holds are scanned by the expiry job.
+CREATE INDEX IF NOT EXISTS idx_wallet_hold_expiry
+    ON wallet_hold(expires_at) WHERE status = 'HELD';
 
 
 CREATE TABLE IF NOT EXISTS idempotency_key (
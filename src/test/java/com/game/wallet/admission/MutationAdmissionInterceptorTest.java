@@ -0,0 +1,65 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.config.AdmissionProperties;
+import com.game.wallet.exception.ServerBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MutationAdmissionInterceptor Tests")
+class MutationAdmissionInterceptorTest {
+
+    private MutationConcurrencyLimiter limiter;
+    private MutationAdmissionInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrentMutations(1);
+        limiter = new MutationConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        interceptor = new MutationAdmissionInterceptor(limiter);
+    }
+
+    @Test
+    @DisplayName("Should free the permit while a request is suspended")
+    void testSuspendedRequestFreesPermit() {
+        MockHttpServletRequest waiting = post();
+        MockHttpServletRequest other = post();
+
+        interceptor.preHandle(waiting, new MockHttpServletResponse(), null);
+        interceptor.suspend(waiting);
+
+        assertEquals(0, limiter.inFlight());
+        assertTrue(interceptor.preHandle(other, new MockHttpServletResponse(), null));
+        interceptor.afterCompletion(other, new MockHttpServletResponse(), null, null);
+
+        interceptor.resume(waiting);
+        assertEquals(1, limiter.inFlight());
+        interceptor.afterCompletion(waiting, new MockHttpServletResponse(), null, null);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("Should reject a resumed request when the cap was reached meanwhile")
+    void testResumeRejectedWhenFull() {
+        MockHttpServletRequest waiting = post();
+        MockHttpServletRequest other = post();
+
+        interceptor.preHandle(waiting, new MockHttpServletResponse(), null);
+        interceptor.suspend(waiting);
+        interceptor.preHandle(other, new MockHttpServletResponse(), null);
+
+        assertThrows(ServerBusyException.class, () -> interceptor.resume(waiting));
+        interceptor.afterCompletion(waiting, new MockHttpServletResponse(), null, null);
+        assertEquals(1, limiter.inFlight());
+    }
+
+    private static MockHttpServletRequest post() {
+        return new MockHttpServletRequest("POST", "/v1/wallet/spend");
+    }
+}
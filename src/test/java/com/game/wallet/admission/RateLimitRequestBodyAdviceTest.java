@@ -0,0 +1,66 @@
+package com.game.wallet.admission;
+
+import com.game.wallet.controller.WalletController;
+import com.game.wallet.dto.TradeLeg;
+import com.game.wallet.dto.TradeRequest;
+import com.game.wallet.exception.RateLimitExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.MethodParameter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitRequestBodyAdvice Tests")
+class RateLimitRequestBodyAdviceTest {
+
+    @Mock
+    private UserRateLimiter rateLimiter;
+
+    @InjectMocks
+    private RateLimitRequestBodyAdvice advice;
+
+    @Test
+    @DisplayName("Should take a token from every distinct sender of a trade")
+    void testTradeLimitsEverySender() throws Exception {
+        TradeRequest request = trade();
+        when(rateLimiter.tryAcquire("trade", "user1")).thenReturn(true);
+        when(rateLimiter.tryAcquire("trade", "user2")).thenReturn(true);
+
+        assertSame(request, advice.afterBodyRead(request, null, tradeParameter(), TradeRequest.class, null));
+
+        verify(rateLimiter).tryAcquire("trade", "user1");
+        verify(rateLimiter).tryAcquire("trade", "user2");
+    }
+
+    @Test
+    @DisplayName("Should reject a trade when any sender is over its limit")
+    void testTradeRejectedBySecondSender() throws Exception {
+        when(rateLimiter.tryAcquire("trade", "user1")).thenReturn(true);
+        when(rateLimiter.tryAcquire("trade", "user2")).thenReturn(false);
+
+        assertThrows(RateLimitExceededException.class,
+                () -> advice.afterBodyRead(trade(), null, tradeParameter(), TradeRequest.class, null));
+    }
+
+    private static TradeRequest trade() {
+        TradeRequest request = new TradeRequest();
+        request.setLegs(List.of(
+                new TradeLeg("user1", "user2", "GOLD", 100L),
+                new TradeLeg("user2", "user1", "GEMS", 4L),
+                new TradeLeg("user1", "user3", "GOLD", 10L)));
+        return request;
+    }
+
+    private static MethodParameter tradeParameter() throws NoSuchMethodException {
+        return new MethodParameter(WalletController.class.getMethod("trade", TradeRequest.class), 0);
+    }
+}
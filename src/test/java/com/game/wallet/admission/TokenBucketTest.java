@@ -0,0 +1,40 @@
+package com.game.wallet.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucket Tests")
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Should allow a burst up to capacity and then reject")
+    void testBurst() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+    }
+
+    @Test
+    @DisplayName("Should refill at the configured rate without exceeding capacity")
+    void testRefill() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(SECOND / 4));
+
+        assertTrue(bucket.tryAcquire(SECOND / 2));
+        assertFalse(bucket.tryAcquire(SECOND / 2));
+
+        assertTrue(bucket.isIdle(10 * SECOND));
+        assertTrue(bucket.tryAcquire(10 * SECOND));
+        assertTrue(bucket.tryAcquire(10 * SECOND));
+        assertFalse(bucket.tryAcquire(10 * SECOND));
+    }
+}
@@ -0,0 +1,177 @@
+package com.game.wallet.benchmark;
+
+import com.game.wallet.ledger.LedgerReplayEngine;
+import com.game.wallet.ledger.LedgerRow;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.model.Wallet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous replay inner loop (String-keyed HashMap of entities, key
+ * concatenation and boxed balances per entry) with {@link LedgerReplayEngine} fed from a
+ * reused {@link LedgerRow}. Scores are ledger entries per second; run with
+ * {@code main} to include the GC profiler's gc.alloc.rate.norm (bytes per entry).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LedgerReplayBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int USERS = 100_000;
+    private static final String[] ASSETS = {"GOLD", "DIAMOND", "POINTS"};
+    private static final String SYSTEM = "SYSTEM";
+    private static final String GENESIS = "GENESIS";
+    private static final long SYSTEM_REF = USERS + 1L;
+
+    private LedgerEntry[] entries;
+    private long[] ids;
+    private long[] debitRefs;
+    private long[] creditRefs;
+    private int[] assetIndexes;
+    private long[] amounts;
+
+    private List<Wallet> wallets;
+    private long[] walletRefs;
+    private int[] walletAssets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[][] balances = new long[ASSETS.length][USERS + 2];
+
+        entries = new LedgerEntry[ENTRIES];
+        ids = new long[ENTRIES];
+        debitRefs = new long[ENTRIES];
+        creditRefs = new long[ENTRIES];
+        assetIndexes = new int[ENTRIES];
+        amounts = new long[ENTRIES];
+
+        for (int i = 0; i < ENTRIES; i++) {
+            int asset = random.nextInt(ASSETS.length);
+            long user = 1 + random.nextInt(USERS);
+            long amount = 1 + random.nextInt(100);
+            long debit;
+            long credit;
+
+            if (i < ASSETS.length) {
+                asset = i;
+                debit = LedgerRow.NO_DEBIT;
+                credit = SYSTEM_REF;
+                amount = Long.MAX_VALUE / 4;
+            } else if (balances[asset][(int) user] >= amount && random.nextInt(3) == 0) {
+                debit = user;
+                credit = SYSTEM_REF;
+            } else {
+                debit = SYSTEM_REF;
+                credit = user;
+            }
+            if (debit != LedgerRow.NO_DEBIT) {
+                balances[asset][(int) debit] -= amount;
+            }
+            balances[asset][(int) credit] += amount;
+
+            ids[i] = i + 1;
+            debitRefs[i] = debit;
+            creditRefs[i] = credit;
+            assetIndexes[i] = asset;
+            amounts[i] = amount;
+            entries[i] = LedgerEntry.builder()
+                    .id(i + 1L)
+                    .debitUser(new String(name(debit)))
+                    .creditUser(new String(name(credit)))
+                    .asset(new String(ASSETS[asset]))
+                    .amount(amount)
+                    .build();
+        }
+
+        wallets = new ArrayList<>();
+        List<long[]> keys = new ArrayList<>();
+        for (long ref = 1; ref <= SYSTEM_REF; ref++) {
+            for (int asset = 0; asset < ASSETS.length; asset++) {
+                Wallet wallet = new Wallet();
+                wallet.setUserId(name(ref));
+                wallet.setUserRef(ref);
+                wallet.setAsset(ASSETS[asset]);
+                wallet.setBalance(0L);
+                wallets.add(wallet);
+                keys.add(new long[]{ref, asset});
+            }
+        }
+        walletRefs = new long[wallets.size()];
+        walletAssets = new int[wallets.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            walletRefs[i] = keys.get(i)[0];
+            walletAssets[i] = (int) keys.get(i)[1];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void stringKeyedEntities(Blackhole blackhole) {
+        wallets.forEach(w -> w.setBalance(0L));
+        Map<String, Wallet> walletMap = new HashMap<>();
+        for (Wallet wallet : wallets) {
+            walletMap.put(wallet.getUserId() + "|" + wallet.getAsset(), wallet);
+        }
+
+        for (LedgerEntry entry : entries) {
+            Wallet credit = walletMap.get(entry.getCreditUser() + "|" + entry.getAsset());
+            if (!GENESIS.equals(entry.getDebitUser())) {
+                Wallet debit = walletMap.get(entry.getDebitUser() + "|" + entry.getAsset());
+                long newDebitBalance = debit.getBalance() - entry.getAmount();
+                if (newDebitBalance < 0) {
+                    throw new IllegalStateException("Negative balance");
+                }
+                debit.setBalance(newDebitBalance);
+            }
+            credit.setBalance(credit.getBalance() + entry.getAmount());
+        }
+        blackhole.consume(walletMap);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void primitiveEngine(Blackhole blackhole) {
+        LedgerReplayEngine engine = new LedgerReplayEngine(walletRefs.length);
+        for (int i = 0; i < walletRefs.length; i++) {
+            engine.addWallet(walletRefs[i], walletAssets[i]);
+        }
+
+        LedgerRow row = new LedgerRow();
+        for (int i = 0; i < ENTRIES; i++) {
+            engine.apply(row.set(ids[i], debitRefs[i], creditRefs[i], assetIndexes[i], amounts[i]));
+        }
+        blackhole.consume(engine.balance(0));
+    }
+
+    private static String name(long ref) {
+        if (ref == LedgerRow.NO_DEBIT) {
+            return GENESIS;
+        }
+        return ref == SYSTEM_REF ? SYSTEM : "user" + ref;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LedgerReplayBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,176 @@
+package com.game.wallet.benchmark;
+
+import com.game.wallet.WalletApplication;
+import com.game.wallet.dto.BalanceResponse;
+import com.game.wallet.dto.LedgerResponse;
+import com.game.wallet.model.Asset;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.model.Wallet;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.WalletRepository;
+import com.game.wallet.service.UserDirectory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous read path, which loaded managed {@link LedgerEntry} and
+ * {@link Wallet} entities and mapped them to responses, with the constructor projections
+ * now behind {@code getTransactions} and {@code getBalance}. Both run in a read-only
+ * transaction against the in-memory H2 database of the test profile. Run with {@code main}
+ * to include the GC profiler's gc.alloc.rate.norm (bytes per read).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class WalletReadBenchmark {
+
+    private static final String USER = "bench-user";
+    private static final String SYSTEM = "SYSTEM";
+    private static final String ASSET = "GOLD";
+    private static final int ENTRIES = 1_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String HISTORY_WHERE = " WHERE (l.debitUserRef = :userRef AND l.debitUser <> 'SYSTEM')"
+            + " OR (l.creditUserRef = :userRef AND l.creditUser <> 'SYSTEM')";
+
+    private ConfigurableApplicationContext context;
+    private LedgerRepository ledgerRepository;
+    private WalletRepository walletRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private Pageable pageable;
+    private long userRef;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.game.wallet=INFO",
+                        "logging.level.org.hibernate.SQL=WARN")
+                .run();
+        ledgerRepository = context.getBean(LedgerRepository.class);
+        walletRepository = context.getBean(WalletRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        UserDirectory userDirectory = context.getBean(UserDirectory.class);
+        userRef = userDirectory.resolve(USER);
+        long systemRef = userDirectory.resolve(SYSTEM);
+
+        context.getBean(AssetRepository.class).save(new Asset(ASSET, false));
+        Wallet wallet = new Wallet();
+        wallet.setUserId(USER);
+        wallet.setAsset(ASSET);
+        wallet.setBalance((long) ENTRIES);
+        walletRepository.save(wallet);
+
+        List<LedgerEntry> entries = new ArrayList<>(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            entries.add(LedgerEntry.builder()
+                    .debitUser(SYSTEM)
+                    .creditUser(USER)
+                    .debitUserRef(systemRef)
+                    .creditUserRef(userRef)
+                    .asset(ASSET)
+                    .amount(1L)
+                    .idempotencyKey("bench-" + i)
+                    .reference("BENCH")
+                    .build());
+        }
+        ledgerRepository.saveAll(entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entityHistory(Blackhole blackhole) {
+        blackhole.consume(readOnly.execute(status -> {
+            List<LedgerEntry> entries = entityManager
+                    .createQuery("SELECT l FROM LedgerEntry l" + HISTORY_WHERE + " ORDER BY l.createdAt DESC",
+                            LedgerEntry.class)
+                    .setParameter("userRef", userRef)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            List<LedgerResponse> page = new ArrayList<>(entries.size());
+            for (LedgerEntry entry : entries) {
+                page.add(LedgerResponse.builder()
+                        .debitUser(entry.getDebitUser())
+                        .creditUser(entry.getCreditUser())
+                        .asset(entry.getAsset())
+                        .amount(entry.getAmount())
+                        .reference(entry.getReference())
+                        .createdAt(entry.getCreatedAt())
+                        .build());
+            }
+            long total = entityManager.createQuery("SELECT COUNT(l) FROM LedgerEntry l" + HISTORY_WHERE, Long.class)
+                    .setParameter("userRef", userRef)
+                    .getSingleResult();
+            blackhole.consume(total);
+            return page;
+        }));
+    }
+
+    @Benchmark
+    public void projectedHistory(Blackhole blackhole) {
+        blackhole.consume(readOnly.execute(status -> ledgerRepository.findUserHistory(userRef, pageable)));
+    }
+
+    @Benchmark
+    public void entityBalance(Blackhole blackhole) {
+        blackhole.consume(readOnly.execute(status -> {
+            Wallet wallet = walletRepository.findByUserIdAndAsset(USER, ASSET).orElseThrow();
+            return BalanceResponse.builder()
+                    .userId(wallet.getUserId())
+                    .asset(wallet.getAsset())
+                    .balance(wallet.getBalance())
+                    .held(wallet.getHeld())
+                    .available(wallet.getAvailable())
+                    .version(wallet.getVersion())
+                    .build();
+        }));
+    }
+
+    @Benchmark
+    public void projectedBalance(Blackhole blackhole) {
+        blackhole.consume(readOnly.execute(status -> walletRepository.findBalance(USER, ASSET).orElseThrow()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WalletReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
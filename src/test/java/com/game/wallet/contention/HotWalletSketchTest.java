@@ -0,0 +1,62 @@
+package com.game.wallet.contention;
+
+import com.game.wallet.model.WalletId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HotWalletSketch Tests")
+class HotWalletSketchTest {
+
+    private static final WalletId SYSTEM_GOLD = new WalletId("SYSTEM", "GOLD");
+
+    @Test
+    @DisplayName("Should keep the heaviest wallet when more wallets than capacity are seen")
+    void testTopK() {
+        HotWalletSketch sketch = new HotWalletSketch(3);
+        for (int i = 0; i < 100; i++) {
+            sketch.add(SYSTEM_GOLD, 10);
+            sketch.add(new WalletId("user" + i, "GOLD"), 1);
+        }
+
+        List<HotWalletSketch.Entry> top = sketch.top(3);
+
+        assertEquals(3, top.size());
+        assertEquals(SYSTEM_GOLD, top.get(0).wallet);
+        assertEquals(1000, top.get(0).weight);
+        assertEquals(0, top.get(0).error);
+        assertEquals(100, top.get(0).samples);
+    }
+
+    @Test
+    @DisplayName("Should count an evicted wallet's weight as error for its replacement")
+    void testEvictionError() {
+        HotWalletSketch sketch = new HotWalletSketch(1);
+        sketch.add(SYSTEM_GOLD, 5);
+
+        long guaranteed = sketch.add(new WalletId("user1", "GOLD"), 2);
+
+        assertEquals(2, guaranteed);
+        HotWalletSketch.Entry entry = sketch.top(1).get(0);
+        assertEquals("user1", entry.wallet.getUserId());
+        assertEquals(7, entry.weight);
+        assertEquals(5, entry.error);
+    }
+
+    @Test
+    @DisplayName("Should halve weights on decay and drop wallets that cooled down")
+    void testDecay() {
+        HotWalletSketch sketch = new HotWalletSketch(4);
+        sketch.add(SYSTEM_GOLD, 8);
+        sketch.add(new WalletId("user1", "GOLD"), 1);
+
+        sketch.decay();
+
+        List<HotWalletSketch.Entry> top = sketch.top(4);
+        assertEquals(1, top.size());
+        assertEquals(4, top.get(0).weight);
+    }
+}
@@ -0,0 +1,102 @@
+package com.game.wallet.controller;
+
+import com.game.wallet.dto.BalanceResponse;
+import com.game.wallet.dto.TopUpRequest;
+import com.game.wallet.dto.TransferRequest;
+import com.game.wallet.exception.DuplicateRequestException;
+import com.game.wallet.exception.GlobalExceptionHandler;
+import com.game.wallet.exception.WalletNotFoundException;
+import com.game.wallet.reactive.ReactiveWalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ReactiveWalletController Tests")
+class ReactiveWalletControllerTest {
+
+    private ReactiveWalletService walletService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        walletService = mock(ReactiveWalletService.class);
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        client = WebTestClient.bindToController(new ReactiveWalletController(walletService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .validator(validator)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should successfully process top-up request")
+    void testTopUp_Success() {
+        when(walletService.topUp(any(TopUpRequest.class))).thenReturn(Mono.empty());
+
+        client.post().uri("/v1/wallet/topup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TopUpRequest("user123", "GOLD", 100L, "topup-001"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.message").isEqualTo("Wallet top-up successful");
+
+        verify(walletService, times(1)).topUp(any(TopUpRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should return validation error for invalid top-up request")
+    void testTopUp_ValidationError() {
+        client.post().uri("/v1/wallet/topup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TopUpRequest("", "GOLD", -100L, ""))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("VALIDATION_ERROR");
+
+        verify(walletService, never()).topUp(any(TopUpRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should return conflict error for duplicate transfer")
+    void testTransfer_DuplicateRequest() {
+        when(walletService.transfer(any(TransferRequest.class))).thenReturn(Mono.error(new DuplicateRequestException()));
+
+        client.post().uri("/v1/wallet/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TransferRequest("user1", "user2", "GOLD", 10L, "transfer-001", null))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("DUPLICATE_REQUEST");
+    }
+
+    @Test
+    @DisplayName("Should return balance and map a missing wallet to 404")
+    void testGetBalance() {
+        when(walletService.getBalance("user123", "GOLD")).thenReturn(Mono.just(BalanceResponse.builder()
+                .userId("user123").asset("GOLD").balance(100L).held(30L).available(70L).version(2L).build()));
+        when(walletService.getBalance("nobody", "GOLD")).thenReturn(Mono.error(new WalletNotFoundException("Wallet not found")));
+
+        client.get().uri("/v1/wallet/balance?userId=user123&asset=GOLD")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.available").isEqualTo(70);
+
+        client.get().uri("/v1/wallet/balance?userId=nobody&asset=GOLD")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("WALLET_NOT_FOUND");
+    }
+}
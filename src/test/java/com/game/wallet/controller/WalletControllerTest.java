@@ -2,10 +2,20 @@ package com.game.wallet.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.game.wallet.dto.BonusRequest;
+import com.game.wallet.dto.LeaderboardEntryResponse;
+import com.game.wallet.dto.LeaderboardResponse;
+import com.game.wallet.dto.ReverseRequest;
 import com.game.wallet.dto.SpendRequest;
 import com.game.wallet.dto.TopUpRequest;
+import com.game.wallet.exception.AlreadyReversedException;
 import com.game.wallet.exception.DuplicateRequestException;
 import com.game.wallet.exception.InsufficientBalanceException;
+import com.game.wallet.exception.OperationTimeoutException;
+import com.game.wallet.export.HistoryExport;
+import com.game.wallet.export.HistoryExportFormat;
+import com.game.wallet.leaderboard.LeaderboardService;
+import com.game.wallet.service.LedgerSummaryService;
+import com.game.wallet.service.TransactionExportService;
 import com.game.wallet.service.WalletService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +25,17 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -34,6 +52,15 @@ class WalletControllerTest {
     @MockitoBean
     private WalletService walletService;
 
+    @MockitoBean
+    private LedgerSummaryService ledgerSummaryService;
+
+    @MockitoBean
+    private TransactionExportService transactionExportService;
+
+    @MockitoBean
+    private LeaderboardService leaderboardService;
+
     @Test
     @DisplayName("Should successfully process top-up request")
     void testTopUp_Success() throws Exception {
@@ -131,4 +158,92 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.code").value("INSUFFICIENT_BALANCE"));
     }
+
+    @Test
+    @DisplayName("Should return a retryable timeout when the wallet stays locked")
+    void testSpend_LockTimeout() throws Exception {
+        SpendRequest request = new SpendRequest("user123", "GOLD", 10L, "spend-003", "order-790");
+
+        doThrow(new OperationTimeoutException("spend timed out (lock-timeout); retry later", null))
+                .when(walletService).spend(any(SpendRequest.class));
+
+        mockMvc.perform(post("/v1/wallet/spend")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.code").value("OPERATION_TIMEOUT"));
+    }
+
+    @Test
+    @DisplayName("Should reject reversing an entry twice")
+    void testReverse_AlreadyReversed() throws Exception {
+        ReverseRequest request = new ReverseRequest("user123", "reverse-001", "spend-001", null);
+
+        when(walletService.reverse(any(ReverseRequest.class)))
+                .thenThrow(new AlreadyReversedException("1 of the ledger entries were already reversed"));
+
+        mockMvc.perform(post("/v1/wallet/reverse")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.code").value("ALREADY_REVERSED"));
+    }
+
+    @Test
+    @DisplayName("Should stream a transaction export as an attachment")
+    void testExportTransactions_Streams() throws Exception {
+        HistoryExport export = HistoryExport.builder().userId("user123").format(HistoryExportFormat.CSV).build();
+        when(transactionExportService.prepare(eq("user123"), eq("csv"), any(), any(), any())).thenReturn(export);
+        when(transactionExportService.write(eq(export), any(OutputStream.class))).thenAnswer(i -> {
+            OutputStream out = i.getArgument(1);
+            out.write("id,debitUser\n1,SYSTEM\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/v1/wallet/transactions/export")
+                        .param("userId", "user123")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions-user123.csv\""))
+                .andExpect(content().string("id,debitUser\n1,SYSTEM\n"));
+    }
+
+    @Test
+    @DisplayName("Should reject an export before streaming when the request is invalid")
+    void testExportTransactions_Invalid() throws Exception {
+        when(transactionExportService.prepare(eq("user123"), eq("xml"), any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Unsupported export format: xml. Use ndjson or csv"));
+
+        mockMvc.perform(get("/v1/wallet/transactions/export")
+                        .param("userId", "user123")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_REQUEST"));
+
+        verify(transactionExportService, never()).write(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return the leaderboard of an asset")
+    void testLeaderboard() throws Exception {
+        when(leaderboardService.getLeaderboard("GOLD", 10)).thenReturn(LeaderboardResponse.builder()
+                .asset("GOLD")
+                .entries(List.of(LeaderboardEntryResponse.builder().rank(1).userId("user123").balance(500L).build()))
+                .build());
+
+        mockMvc.perform(get("/v1/wallet/leaderboard").param("asset", "GOLD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.asset").value("GOLD"))
+                .andExpect(jsonPath("$.data.entries[0].rank").value(1))
+                .andExpect(jsonPath("$.data.entries[0].userId").value("user123"))
+                .andExpect(jsonPath("$.data.entries[0].balance").value(500));
+    }
 }
@@ -0,0 +1,67 @@
+package com.game.wallet.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HistoryRowWriter Tests")
+class HistoryRowWriterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should write a CSV header and quote fields that need it")
+    void testCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HistoryRowWriter writer = new HistoryRowWriter(out, HistoryExportFormat.CSV, objectMapper);
+        writer.write(1L, "SYSTEM", "user_1", "GOLD", 100L, "TOP-UP", CREATED_AT);
+        writer.write(2L, "user_1", "SYSTEM", "GOLD", 5L, "order \"A\", line 2", CREATED_AT);
+        writer.write(3L, "user_1", "user_2", "GEMS", 7L, null, CREATED_AT);
+        writer.flush();
+
+        assertEquals("""
+                id,debitUser,creditUser,asset,amount,reference,createdAt
+                1,SYSTEM,user_1,GOLD,100,TOP-UP,2025-01-02T03:04:05
+                2,user_1,SYSTEM,GOLD,5,"order ""A"", line 2",2025-01-02T03:04:05
+                3,user_1,user_2,GEMS,7,,2025-01-02T03:04:05
+                """, out.toString(StandardCharsets.UTF_8));
+        assertEquals(3, writer.rows());
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void testNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HistoryRowWriter writer = new HistoryRowWriter(out, HistoryExportFormat.NDJSON, objectMapper);
+        writer.write(1L, "SYSTEM", "user_1", "GOLD", 100L, "line\nbreak", CREATED_AT);
+        writer.write(2L, "user_1", "SYSTEM", "GOLD", 5L, null, CREATED_AT);
+        writer.flush();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("line\nbreak", first.get("reference").asText());
+        assertEquals("2025-01-02T03:04:05", first.get("createdAt").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(5L, second.get("amount").asLong());
+        assertTrue(second.get("reference").isNull());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown formats")
+    void testUnknownFormat() {
+        assertEquals(HistoryExportFormat.CSV, HistoryExportFormat.of(" CSV "));
+        assertThrows(IllegalArgumentException.class, () -> HistoryExportFormat.of("xml"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.game.wallet.grant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GrantRowReader Tests")
+class GrantRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should read CSV rows, skipping the header and blank lines")
+    void testCsv() throws IOException {
+        String csv = "userId,amount\nuser_1,10\n\nuser_2\nuser_3, 30\n";
+        try (GrantRowReader reader = new GrantRowReader(new StringReader(csv), GrantFileFormat.CSV, 5L, objectMapper)) {
+            assertRow(reader.next(), "user_1", 10);
+            assertRow(reader.next(), "user_2", 5);
+            assertRow(reader.next(), "user_3", 30);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not treat a first user id starting with 'user' as a header")
+    void testCsvWithoutHeader() throws IOException {
+        try (GrantRowReader reader = new GrantRowReader(new StringReader("user_1,10\n"), GrantFileFormat.CSV, null, objectMapper)) {
+            assertRow(reader.next(), "user_1", 10);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read NDJSON rows")
+    void testNdjson() throws IOException {
+        String ndjson = "{\"userId\":\"user_1\",\"amount\":7}\n{\"userId\":\"user_2\"}\n";
+        try (GrantRowReader reader = new GrantRowReader(new StringReader(ndjson), GrantFileFormat.NDJSON, 3L, objectMapper)) {
+            assertRow(reader.next(), "user_1", 7);
+            assertRow(reader.next(), "user_2", 3);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject rows without a positive amount, naming the line")
+    void testInvalidRows() {
+        GrantRowReader missingAmount = new GrantRowReader(new StringReader("user_1\n"), GrantFileFormat.CSV, null, objectMapper);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, missingAmount::next);
+        assertTrue(ex.getMessage().contains("line 1"));
+
+        GrantRowReader negative = new GrantRowReader(new StringReader("userId\nuser_1,-4\n"), GrantFileFormat.CSV, null, objectMapper);
+        ex = assertThrows(IllegalArgumentException.class, negative::next);
+        assertTrue(ex.getMessage().contains("line 2"));
+
+        GrantRowReader badJson = new GrantRowReader(new StringReader("{\"amount\":1}\n"), GrantFileFormat.NDJSON, null, objectMapper);
+        assertThrows(IllegalArgumentException.class, badJson::next);
+    }
+
+    @Test
+    @DisplayName("Should pick the format from the file extension")
+    void testFormatFromFileName() {
+        assertEquals(GrantFileFormat.CSV, GrantFileFormat.fromFileName("season.CSV"));
+        assertEquals(GrantFileFormat.NDJSON, GrantFileFormat.fromFileName("season.ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> GrantFileFormat.fromFileName("season.xlsx"));
+    }
+
+    private static void assertRow(GrantRow row, String userId, long amount) {
+        assertNotNull(row);
+        assertEquals(userId, row.getUserId());
+        assertEquals(amount, row.getAmount());
+    }
+}
@@ -0,0 +1,66 @@
+package com.game.wallet.leaderboard;
+
+import com.game.wallet.dto.LeaderboardEntryResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BalanceLeaderboard Tests")
+class BalanceLeaderboardTest {
+
+    @Test
+    @DisplayName("Should rank by balance, then user id, and serve at most size entries")
+    void testRanking() {
+        BalanceLeaderboard board = new BalanceLeaderboard(2, 4);
+        board.reset(Map.of("a", 10L, "b", 30L, "c", 30L), -1);
+
+        assertEquals(List.of("b", "c"), users(board.top(10)));
+        assertEquals(1, board.top(10).get(0).getRank());
+        assertEquals(List.of("b"), users(board.top(1)));
+    }
+
+    @Test
+    @DisplayName("Should admit wallets above the floor and evict the poorest beyond capacity")
+    void testAdmissionAndEviction() {
+        BalanceLeaderboard board = new BalanceLeaderboard(2, 3);
+        board.reset(Map.of("a", 50L, "b", 40L, "c", 30L), 20);
+
+        board.update("d", 10);
+        assertFalse(board.isTracked("d"));
+
+        board.update("e", 45);
+        assertTrue(board.isTracked("e"));
+        assertFalse(board.isTracked("c"));
+        assertEquals(List.of("a", "e"), users(board.top(10)));
+
+        board.update("a", 5);
+        assertFalse(board.isTracked("a"));
+        assertEquals(List.of("e", "b"), users(board.top(10)));
+        assertFalse(board.needsRebuild());
+    }
+
+    @Test
+    @DisplayName("Should need a rebuild once too few wallets can be ranked")
+    void testNeedsRebuild() {
+        BalanceLeaderboard board = new BalanceLeaderboard(2, 2);
+        board.reset(Map.of("a", 50L, "b", 40L), 30);
+
+        board.update("b", 10);
+        assertTrue(board.needsRebuild());
+        assertEquals(List.of("a"), users(board.top(10)));
+
+        BalanceLeaderboard complete = new BalanceLeaderboard(2, 2);
+        complete.reset(Map.of("a", 50L), -1);
+        complete.remove("a");
+        assertFalse(complete.needsRebuild());
+        assertTrue(complete.top(10).isEmpty());
+    }
+
+    private static List<String> users(List<LeaderboardEntryResponse> entries) {
+        return entries.stream().map(LeaderboardEntryResponse::getUserId).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.game.wallet.ledger;
+
+import com.game.wallet.model.LedgerEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Binary ledger file Tests")
+class BinaryLedgerFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should round-trip entries across multiple blocks")
+    void testRoundTrip() throws Exception {
+        Path file = tempDir.resolve("ledger.wld");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 12, 0, 0, 123_456_000);
+        int count = BinaryLedgerFormat.BLOCK_ENTRIES + 10;
+
+        try (BinaryLedgerWriter writer = new BinaryLedgerWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                writer.append(LedgerEntry.builder()
+                        .id(1000L + i * 3L)
+                        .debitUser(i == 0 ? "GENESIS" : "SYSTEM")
+                        .creditUser("user" + (i % 7))
+                        .asset(i % 2 == 0 ? "GOLD" : "DIAMOND")
+                        .amount(i + 1L)
+                        .idempotencyKey("key-" + i)
+                        .reference(i % 5 == 0 ? null : "ref\t" + i)
+                        .createdAt(start.plusSeconds(i))
+                        .build());
+            }
+            writer.finish();
+        }
+
+        List<LedgerEntry> read = new ArrayList<>();
+        try (BinaryLedgerReader reader = new BinaryLedgerReader(file)) {
+            assertEquals(count, reader.entries());
+            assertEquals(9, reader.users().length);
+            assertEquals(2, reader.assets().length);
+            reader.forEachEntry(read::add);
+        }
+
+        assertEquals(count, read.size());
+        LedgerEntry last = read.get(count - 1);
+        assertEquals(1000L + (count - 1) * 3L, last.getId());
+        assertEquals("user" + ((count - 1) % 7), last.getCreditUser());
+        assertEquals((long) count, last.getAmount());
+        assertEquals("key-" + (count - 1), last.getIdempotencyKey());
+        assertEquals(start.plusSeconds(count - 1), last.getCreatedAt());
+        assertNull(read.get(5).getReference());
+        assertEquals("ref\t6", read.get(6).getReference());
+    }
+
+    @Test
+    @DisplayName("Should scan primitive columns without decoding strings")
+    void testScan() throws Exception {
+        Path file = tempDir.resolve("scan.wld");
+        try (BinaryLedgerWriter writer = new BinaryLedgerWriter(file)) {
+            writer.append(1L, "GENESIS", "SYSTEM", "GOLD", 500L, "k1", null, LocalDateTime.now());
+            writer.append(2L, "SYSTEM", "user1", "GOLD", 200L, "k2", "TOP-UP", LocalDateTime.now());
+            writer.append(3L, "user1", "SYSTEM", "GOLD", 50L, "k3", "order-1", LocalDateTime.now());
+            writer.finish();
+        }
+
+        long[] balances = new long[3];
+        try (BinaryLedgerReader reader = new BinaryLedgerReader(file)) {
+            reader.scan((id, createdAtMicros, debitUser, creditUser, asset, amount) -> {
+                if (debitUser != 0) {
+                    balances[debitUser] -= amount;
+                }
+                balances[creditUser] += amount;
+            });
+            assertArrayEquals(new String[]{"GENESIS", "SYSTEM", "user1"}, reader.users());
+        }
+
+        assertEquals(350L, balances[1]);
+        assertEquals(150L, balances[2]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.game.wallet.ledger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LedgerAggregates Tests")
+class LedgerAggregatesTest {
+
+    @Test
+    @DisplayName("Should count a grant as issued supply and a SYSTEM debit")
+    void testGrant() {
+        LedgerAggregates grant = LedgerAggregates.of("SYSTEM", "user1", "GOLD", 100L);
+
+        assertFalse(grant.isDebitSummarized());
+        assertTrue(grant.isCreditSummarized());
+        assertEquals(100L, grant.getIssued());
+        assertEquals(0L, grant.getBurned());
+        assertEquals(100L, grant.getSystemDebit());
+        assertEquals(0L, grant.getSystemCredit());
+        assertEquals(1L, grant.getSystemDebitCount());
+        assertEquals(0L, grant.getSystemCreditCount());
+    }
+
+    @Test
+    @DisplayName("Should count a spend as burned supply and a SYSTEM credit")
+    void testSpend() {
+        LedgerAggregates spend = LedgerAggregates.of("user1", "SYSTEM", "GOLD", 40L);
+
+        assertTrue(spend.isDebitSummarized());
+        assertFalse(spend.isCreditSummarized());
+        assertEquals(0L, spend.getIssued());
+        assertEquals(40L, spend.getBurned());
+        assertEquals(40L, spend.getSystemCredit());
+        assertEquals(1L, spend.getSystemCreditCount());
+    }
+
+    @Test
+    @DisplayName("Should only summarize a transfer between users")
+    void testTransfer() {
+        LedgerAggregates transfer = LedgerAggregates.of("user1", "user2", "GOLD", 25L);
+
+        assertTrue(transfer.isDebitSummarized());
+        assertTrue(transfer.isCreditSummarized());
+        assertFalse(transfer.changesSupply());
+        assertFalse(transfer.changesSystemBucket());
+    }
+
+    @Test
+    @DisplayName("Should leave genesis funding of SYSTEM out of supply but count it in the SYSTEM bucket")
+    void testGenesis() {
+        LedgerAggregates genesis = LedgerAggregates.of("GENESIS", "SYSTEM", "GOLD", 10000L);
+
+        assertFalse(genesis.isDebitSummarized());
+        assertFalse(genesis.isCreditSummarized());
+        assertFalse(genesis.changesSupply());
+        assertTrue(genesis.changesSystemBucket());
+        assertEquals(10000L, genesis.getSystemCredit());
+    }
+}
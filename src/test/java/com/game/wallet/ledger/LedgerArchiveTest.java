@@ -0,0 +1,172 @@
+package com.game.wallet.ledger;
+
+import com.game.wallet.config.LedgerPartitionProperties;
+import com.game.wallet.config.ShardingProperties;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.model.Wallet;
+import com.game.wallet.repository.LedgerRowReader;
+import com.game.wallet.repository.WalletRepository;
+import com.game.wallet.service.LedgerReplayService;
+import com.game.wallet.service.UserDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("LedgerArchive Tests")
+class LedgerArchiveTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private LedgerArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        LedgerPartitionProperties properties = new LedgerPartitionProperties();
+        properties.setArchiveDirectory(tempDir.toString());
+        archive = new LedgerArchive(properties, new ShardingProperties());
+    }
+
+    @Test
+    @DisplayName("Should keep a completed export hidden until it is published")
+    void testStagedUntilPublished() {
+        write(entry(1L, "SYSTEM", "user1", 100L, "grant-1", null));
+
+        assertEquals(List.of(), archive.archivedMonths());
+        assertEquals(List.of(MONTH), archive.stagedMonths());
+        assertFalse(archive.contains(MONTH));
+        assertEquals(0, archive.forEachEntry(entry -> fail("staged entries must not be read")));
+
+        archive.publish(MONTH);
+
+        assertEquals(List.of(MONTH), archive.archivedMonths());
+        assertEquals(List.of(), archive.stagedMonths());
+        assertTrue(archive.contains(MONTH));
+    }
+
+    @Test
+    @DisplayName("Should read back published entries with escaped fields and nulls")
+    void testReadBack() {
+        LedgerEntry first = entry(1L, "SYSTEM", "user\t1", 100L, "grant-1", "order\\7\nnote");
+        LedgerEntry second = entry(2L, "user\t1", "SYSTEM", 40L, "spend-1", null);
+        write(first, second);
+        archive.publish(MONTH);
+
+        List<LedgerEntry> read = new ArrayList<>();
+        assertEquals(2, archive.forEachEntry(read::add));
+
+        assertEquals(2, read.size());
+        assertSameEntry(first, read.get(0));
+        assertSameEntry(second, read.get(1));
+    }
+
+    @Test
+    @DisplayName("Should not leave a staged file when the export is not completed")
+    void testAbandonedExport() throws Exception {
+        try (LedgerArchive.ArchiveWriter writer = archive.open(MONTH)) {
+            writer.write(entry(1L, "SYSTEM", "user1", 100L, "grant-1", null));
+        }
+
+        assertEquals(List.of(), archive.stagedMonths());
+        assertEquals(List.of(), archive.archivedMonths());
+    }
+
+    @Test
+    @DisplayName("Should replay published archive months before the database and skip staged ones")
+    @SuppressWarnings("unchecked")
+    void testReplay() {
+        write(entry(1L, "GENESIS", "SYSTEM", 1000L, "genesis", null),
+                entry(2L, "SYSTEM", "user1", 100L, "grant-1", null),
+                entry(3L, "user1", "SYSTEM", 30L, "spend-1", null));
+        archive.publish(MONTH);
+
+        // A later month still staged: its partition has not been dropped yet and is
+        // read from the database, so replaying the staged copy would count it twice.
+        try (LedgerArchive.ArchiveWriter writer = archive.open(MONTH.plusMonths(1))) {
+            writer.write(entry(4L, "SYSTEM", "user1", 500L, "grant-2", null));
+            writer.complete();
+        } catch (Exception ex) {
+            fail(ex);
+        }
+
+        Wallet user = wallet("user1", 2L, 0L);
+        Wallet system = wallet("SYSTEM", 1L, 0L);
+        WalletRepository walletRepository = mock(WalletRepository.class);
+        when(walletRepository.findAll()).thenReturn(List.of(user, system));
+
+        LedgerRowReader ledgerRowReader = mock(LedgerRowReader.class);
+        doAnswer(invocation -> {
+            Consumer<LedgerRow> consumer = invocation.getArgument(1);
+            consumer.accept(new LedgerRow().set(4L, 1L, 2L, 0, 500L));
+            return null;
+        }).when(ledgerRowReader).streamAll(any(), any(Consumer.class));
+
+        UserDirectory userDirectory = mock(UserDirectory.class);
+        when(userDirectory.resolve("SYSTEM")).thenReturn(1L);
+        when(userDirectory.resolve("user1")).thenReturn(2L);
+
+        new LedgerReplayService(ledgerRowReader, walletRepository, archive, userDirectory).replayAll();
+
+        assertEquals(570L, user.getBalance());
+        assertEquals(430L, system.getBalance());
+    }
+
+    private void write(LedgerEntry... entries) {
+        try (LedgerArchive.ArchiveWriter writer = archive.open(MONTH)) {
+            for (LedgerEntry entry : entries) {
+                writer.write(entry);
+            }
+            writer.complete();
+        } catch (Exception ex) {
+            fail(ex);
+        }
+    }
+
+    private static LedgerEntry entry(long id, String debitUser, String creditUser, long amount,
+                                     String idempotencyKey, String reference) {
+        return LedgerEntry.builder()
+                .id(id)
+                .debitUser(debitUser)
+                .creditUser(creditUser)
+                .asset("GOLD")
+                .amount(amount)
+                .idempotencyKey(idempotencyKey)
+                .reference(reference)
+                .createdAt(LocalDateTime.of(2025, 1, 15, 10, 30).plusSeconds(id))
+                .build();
+    }
+
+    private static Wallet wallet(String userId, long userRef, long balance) {
+        Wallet wallet = new Wallet();
+        wallet.setUserId(userId);
+        wallet.setUserRef(userRef);
+        wallet.setAsset("GOLD");
+        wallet.setBalance(balance);
+        return wallet;
+    }
+
+    private static void assertSameEntry(LedgerEntry expected, LedgerEntry actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getDebitUser(), actual.getDebitUser());
+        assertEquals(expected.getCreditUser(), actual.getCreditUser());
+        assertEquals(expected.getAsset(), actual.getAsset());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getIdempotencyKey(), actual.getIdempotencyKey());
+        assertEquals(expected.getReference(), actual.getReference());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+    }
+}
@@ -0,0 +1,109 @@
+package com.game.wallet.ledger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardMoveSettlement Tests")
+class ShardMoveSettlementTest {
+
+    private record Entry(String debitUser, String creditUser, String asset, long amount) {
+    }
+
+    @Test
+    @DisplayName("Should leave both shards replaying to their wallets after a move")
+    void testMoveKeepsShardsReplayable() {
+        List<Entry> source = new ArrayList<>(List.of(
+                new Entry("GENESIS", "SYSTEM", "GOLD", 10000),
+                new Entry("SYSTEM", "mover", "GOLD", 300),
+                new Entry("SYSTEM", "stayer", "GOLD", 200),
+                new Entry("mover", "stayer", "GOLD", 50),
+                new Entry("stayer", "mover", "GOLD", 20),
+                new Entry("mover", "SYSTEM", "GOLD", 10)));
+        List<Entry> target = new ArrayList<>(List.of(new Entry("GENESIS", "SYSTEM", "GOLD", 5000)));
+        Map<String, Long> sourceWallets = replay(source);
+        Map<String, Long> targetWallets = replay(target);
+
+        // Copy: every entry of the moving user, with the staying user replaced by SYSTEM.
+        ShardMoveSettlement copy = new ShardMoveSettlement(List.of("mover"), List.of("GOLD"));
+        List<Entry> moving = source.stream()
+                .filter(e -> e.debitUser().equals("mover") || e.creditUser().equals("mover"))
+                .toList();
+        for (Entry e : moving) {
+            Entry copied = new Entry(copy.onTarget(e.debitUser()), copy.onTarget(e.creditUser()), e.asset(), e.amount());
+            target.add(copied);
+            copy.written(copied.debitUser(), copied.creditUser(), copied.asset(), copied.amount());
+        }
+        targetWallets.put("mover", sourceWallets.remove("mover"));
+        copy.systemDeltas().forEach((asset, delta) -> targetWallets.merge("SYSTEM", delta, Long::sum));
+
+        // Delete: the entries leave the source, transfers with the staying user are settled.
+        ShardMoveSettlement delete = new ShardMoveSettlement(List.of("mover"), List.of("GOLD"));
+        source.removeAll(moving);
+        for (Entry e : moving) {
+            delete.removed(e.debitUser(), e.creditUser(), e.asset(), e.amount());
+            if (delete.crossesShards(e.debitUser(), e.creditUser())) {
+                Entry settled = new Entry(delete.onSource(e.debitUser()), delete.onSource(e.creditUser()),
+                        e.asset(), e.amount());
+                source.add(settled);
+                delete.written(settled.debitUser(), settled.creditUser(), settled.asset(), settled.amount());
+            }
+        }
+        delete.systemDeltas().forEach((asset, delta) -> sourceWallets.merge("SYSTEM", delta, Long::sum));
+
+        assertEquals(Map.of("GOLD", -260L), copy.systemDeltas());
+        assertEquals(Map.of("GOLD", 260L), delete.systemDeltas());
+        assertEquals(replay(source), sourceWallets);
+        assertEquals(replay(target), targetWallets);
+        assertEquals(230L, sourceWallets.get("stayer"));
+        assertEquals(260L, targetWallets.get("mover"));
+        assertEquals(9510L + 5000L, sourceWallets.get("SYSTEM") + targetWallets.get("SYSTEM"));
+    }
+
+    @Test
+    @DisplayName("Should not settle transfers between users moving together")
+    void testTransferWithinMovedUsers() {
+        ShardMoveSettlement settlement = new ShardMoveSettlement(List.of("a", "b"), List.of("GOLD"));
+
+        assertFalse(settlement.crossesShards("a", "b"));
+        assertFalse(settlement.crossesShards("SYSTEM", "a"));
+        assertFalse(settlement.crossesShards("GENESIS", "a"));
+        assertTrue(settlement.crossesShards("a", "c"));
+        assertEquals("b", settlement.onTarget("b"));
+        assertEquals("SYSTEM", settlement.onTarget("c"));
+        assertEquals("SYSTEM", settlement.onSource("a"));
+        assertEquals("c", settlement.onSource("c"));
+    }
+
+    @Test
+    @DisplayName("Should only track SYSTEM changes of limited-supply assets")
+    void testUnlimitedAssetsIgnored() {
+        ShardMoveSettlement settlement = new ShardMoveSettlement(List.of("a"), List.of("GOLD"));
+
+        settlement.written("SYSTEM", "a", "GEMS", 100);
+        settlement.written("SYSTEM", "a", "GOLD", 40);
+        settlement.removed("SYSTEM", "a", "GOLD", 15);
+        settlement.written("a", "SYSTEM", "GOLD", 5);
+        settlement.removed("a", "SYSTEM", "GOLD", 5);
+
+        assertEquals(Map.of("GOLD", -25L), settlement.systemDeltas());
+    }
+
+    private static Map<String, Long> replay(List<Entry> entries) {
+        Map<String, Long> balances = new HashMap<>();
+        for (Entry e : entries) {
+            if (!e.debitUser().equals("GENESIS")) {
+                long balance = balances.merge(e.debitUser(), -e.amount(), Long::sum);
+                assertTrue(balance >= 0, "negative balance for " + e.debitUser());
+            }
+            balances.merge(e.creditUser(), e.amount(), Long::sum);
+        }
+        return balances;
+    }
+}
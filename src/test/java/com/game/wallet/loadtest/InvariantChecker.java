@@ -0,0 +1,120 @@
+package com.game.wallet.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consistency checks run after a load run, straight against the database plus the
+ * service's own supply verification. Ledger checks only see ledger_entry, so runs must not
+ * span a partition archive.
+ */
+class InvariantChecker {
+
+    private static final String NEGATIVE_WALLETS =
+            "SELECT COUNT(*) FROM wallet WHERE balance < 0 OR held < 0 OR held > balance";
+
+    private static final String LEDGER_MISMATCHES = """
+            SELECT COUNT(*) FROM wallet w
+            LEFT JOIN (
+                SELECT user_id, asset, SUM(delta) AS net FROM (
+                    SELECT credit_user AS user_id, asset, amount AS delta FROM ledger_entry WHERE credit_user LIKE ?
+                    UNION ALL
+                    SELECT debit_user, asset, -amount FROM ledger_entry WHERE debit_user LIKE ?
+                ) movements
+                GROUP BY user_id, asset
+            ) l ON l.user_id = w.user_id AND l.asset = w.asset
+            WHERE w.user_id LIKE ? AND w.balance <> COALESCE(l.net, 0)
+            """;
+
+    private static final String ASSET_TOTAL = "SELECT COALESCE(SUM(balance), 0) FROM wallet WHERE asset = ?";
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    InvariantChecker(LoadTestConfig config, HttpClient httpClient, ObjectMapper objectMapper) {
+        this.config = config;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    long limitedAssetTotal() throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement ps = connection.prepareStatement(ASSET_TOTAL)) {
+            ps.setString(1, config.limitedAsset);
+            return singleLong(ps);
+        }
+    }
+
+    List<String> check(long limitedTotalBefore) throws Exception {
+        List<String> failures = new ArrayList<>();
+        try (Connection connection = connect()) {
+            try (PreparedStatement ps = connection.prepareStatement(NEGATIVE_WALLETS)) {
+                long negative = singleLong(ps);
+                report(failures, negative == 0, "No negative balances or over-held wallets", negative + " wallets");
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(LEDGER_MISMATCHES)) {
+                String pattern = config.userPrefix() + "%";
+                ps.setString(1, pattern);
+                ps.setString(2, pattern);
+                ps.setString(3, pattern);
+                long mismatched = singleLong(ps);
+                report(failures, mismatched == 0, "Load user balances equal their ledger sums",
+                        mismatched + " wallets differ");
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(ASSET_TOTAL)) {
+                ps.setString(1, config.limitedAsset);
+                long after = singleLong(ps);
+                report(failures, after == limitedTotalBefore, "Limited-supply " + config.limitedAsset + " is conserved",
+                        "before " + limitedTotalBefore + ", after " + after);
+            }
+        }
+
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(config.adminUrl + "/v1/admin/supply/verify"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        List<String> inconsistent = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            for (JsonNode asset : objectMapper.readTree(response.body()).path("data")) {
+                if (!asset.path("consistent").asBoolean()) {
+                    inconsistent.add(asset.path("asset").asText());
+                }
+            }
+        }
+        report(failures, response.statusCode() == 200 && inconsistent.isEmpty(), "Supply counters match the ledger",
+                response.statusCode() == 200 ? "inconsistent: " + inconsistent : "HTTP " + response.statusCode());
+        return failures;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(config.jdbcUrl, config.jdbcUser, config.jdbcPassword);
+    }
+
+    private static long singleLong(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void report(List<String> failures, boolean passed, String name, String detail) {
+        System.out.printf("  [%s] %s%n", passed ? "PASS" : "FAIL", passed ? name : name + " (" + detail + ")");
+        if (!passed) {
+            failures.add(name);
+        }
+    }
+}
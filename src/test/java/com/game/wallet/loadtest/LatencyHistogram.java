@@ -0,0 +1,76 @@
+package com.game.wallet.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram in microseconds: 32 linear sub-buckets per power
+ * of two, so any recorded value is reported within about 3%.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(index(micros));
+        total.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long maxMicros() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound, in microseconds, of the bucket holding that percentile
+     */
+    public long percentileMicros(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int sub = index % SUB_BUCKETS;
+        if (shift >= 63 - SUB_BITS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
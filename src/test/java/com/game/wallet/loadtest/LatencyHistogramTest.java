@@ -0,0 +1,39 @@
+package com.game.wallet.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report percentiles within bucket precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000, histogram.maxMicros());
+        assertEquals(5_000, histogram.percentileMicros(50), 5_000 * 0.04);
+        assertEquals(9_900, histogram.percentileMicros(99), 9_900 * 0.04);
+        assertEquals(10_000, histogram.percentileMicros(100));
+    }
+
+    @Test
+    @DisplayName("Should map every value into a bucket whose upper bound covers it")
+    void testBuckets() {
+        for (long value : new long[]{0, 31, 32, 63, 64, 1_000, 123_456_789L, Long.MAX_VALUE / 2}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.upperBound(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.upperBound(index - 1) < value);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.game.wallet.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Load run settings, read from {@code -Dload.*} system properties. Defaults target the
+ * local profile: the service on port 8080 and PostgreSQL database {@code testing}.
+ */
+public class LoadTestConfig {
+
+    final String baseUrl = property("base-url", "http://localhost:8080");
+    // Seeding and supply checks use the admin API, which only the servlet stack serves.
+    final String adminUrl = property("admin-url", baseUrl);
+    final String jdbcUrl = property("jdbc-url", "jdbc:postgresql://localhost:5432/testing");
+    final String jdbcUser = property("jdbc-user", "postgres");
+    final String jdbcPassword = property("jdbc-password", "admin123");
+    final WorkloadMix mix = WorkloadMix.valueOf(property("mix", "SPEND_HEAVY").toUpperCase(Locale.ROOT));
+    final int targetRps = Integer.parseInt(property("rps", "500"));
+    final Duration duration = Duration.parse(property("duration", "PT60S"));
+    final int users = Integer.parseInt(property("users", "10000"));
+    final double zipfTheta = Double.parseDouble(property("zipf-theta", "0.99"));
+    final int maxInFlight = Integer.parseInt(property("max-in-flight", "256"));
+    final String limitedAsset = property("limited-asset", "DIAMOND");
+    final String unlimitedAsset = property("unlimited-asset", "GOLD");
+    final long seedAmount = Long.parseLong(property("seed-amount", "1000"));
+    final long seedLimitedAmount = Long.parseLong(property("seed-limited-amount", "20"));
+    final long seed = Long.parseLong(property("seed", "42"));
+    final String runId = property("run-id",
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")));
+
+    String userPrefix() {
+        return "load-" + runId + "-";
+    }
+
+    String userId(long index) {
+        return userPrefix() + index;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mix=%s rps=%d duration=%s users=%d theta=%.2f maxInFlight=%d run=%s",
+                mix, targetRps, duration, users, zipfTheta, maxInFlight, runId);
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("load." + name, defaultValue);
+    }
+}
@@ -0,0 +1,236 @@
+package com.game.wallet.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.wallet.loadtest.WorkloadMix.Operation;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator and soak harness for a running service. Seeds a fresh set of
+ * users through the bulk grant endpoint, drives the wallet endpoints at a fixed request
+ * rate with a {@link WorkloadMix} and Zipfian user choice, then prints throughput, latency
+ * percentiles and the {@link InvariantChecker} results. Latency is measured from each
+ * request's scheduled send time, so a stalled server shows up as latency rather than as a
+ * lower request rate. Exits non-zero if an invariant fails.
+ *
+ * <p>Settings are described in {@link LoadTestConfig}; see the README for how to run it.
+ */
+public class WalletLoadGenerator {
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ZipfianGenerator users;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final AtomicLong dropped = new AtomicLong();
+
+    WalletLoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.users = new ZipfianGenerator(config.users, config.zipfTheta);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        System.out.println("Wallet load run: " + config);
+        System.exit(new WalletLoadGenerator(config).run() ? 0 : 1);
+    }
+
+    boolean run() throws Exception {
+        seed(config.unlimitedAsset, config.seedAmount);
+        seed(config.limitedAsset, config.seedLimitedAmount);
+
+        InvariantChecker checker = new InvariantChecker(config, httpClient, objectMapper);
+        long limitedBefore = checker.limitedAssetTotal();
+
+        long elapsedNanos = drive();
+        report(elapsedNanos);
+
+        System.out.println("Invariants:");
+        List<String> failures = checker.check(limitedBefore);
+        return failures.isEmpty();
+    }
+
+    private long drive() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(config.seed);
+        Semaphore inFlight = new Semaphore(config.maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.targetRps;
+        long start = System.nanoTime();
+        long end = start + config.duration.toNanos();
+        long nextReport = start + TimeUnit.SECONDS.toNanos(10);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    dropped.incrementAndGet();
+                    continue;
+                }
+                Operation operation = config.mix.nextOperation(random);
+                HttpRequest request = request(operation, random);
+                long sentAt = scheduled;
+                executor.execute(() -> {
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        stats.get(operation).record(response.statusCode(), System.nanoTime() - sentAt);
+                    } catch (Exception ex) {
+                        stats.get(operation).record(-1, System.nanoTime() - sentAt);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (System.nanoTime() >= nextReport) {
+                    System.out.printf("  %ds: %d requests sent, %d in flight, %d dropped%n",
+                            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), totalSent(),
+                            config.maxInFlight - inFlight.availablePermits(), dropped.get());
+                    nextReport += TimeUnit.SECONDS.toNanos(10);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        String user = config.userId(users.next(random));
+        String asset = config.mix.nextIsLimited(random) ? config.limitedAsset : config.unlimitedAsset;
+        long amount = 1 + random.nextInt(asset.equals(config.limitedAsset) ? 2 : 20);
+        String key = UUID.randomUUID().toString();
+
+        return switch (operation) {
+            case TOPUP -> post("/v1/wallet/topup", Map.of(
+                    "userId", user, "asset", asset, "amount", amount, "idempotencyKey", key));
+            case BONUS -> post("/v1/wallet/bonus", Map.of(
+                    "userId", user, "asset", asset, "amount", amount, "idempotencyKey", key, "reason", "load"));
+            case SPEND -> post("/v1/wallet/spend", Map.of(
+                    "userId", user, "asset", asset, "amount", amount, "idempotencyKey", key, "reference", "load"));
+            case TRANSFER -> post("/v1/wallet/transfer", Map.of(
+                    "fromUserId", user, "toUserId", config.userId(random.nextInt(config.users)), "asset", asset,
+                    "amount", amount, "idempotencyKey", key, "reference", "load"));
+            case BALANCE -> HttpRequest.newBuilder(URI.create(config.baseUrl + "/v1/wallet/balance?userId="
+                            + URLEncoder.encode(user, StandardCharsets.UTF_8) + "&asset=" + asset))
+                    .GET()
+                    .build();
+        };
+    }
+
+    private HttpRequest post(String path, Map<String, Object> body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(config.baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Funds every load user through the bulk grant upload, so spends have something to spend.
+     */
+    private void seed(String asset, long amount) throws Exception {
+        StringBuilder csv = new StringBuilder("userId,amount\n");
+        for (long i = 0; i < config.users; i++) {
+            csv.append(config.userId(i)).append(',').append(amount).append('\n');
+        }
+
+        String boundary = "load-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Map<String, String> fields = Map.of(
+                "grantId", "load-" + config.runId + "-" + asset,
+                "asset", asset,
+                "reference", "Load test seed " + config.runId);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + field.getKey()
+                    + "\"\r\n\r\n" + field.getValue() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"seed.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(csv.toString().getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(config.adminUrl + "/v1/admin/grants/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding " + asset + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+        System.out.printf("Seeded %d users with %d %s%n", config.users, amount, asset);
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long sent = totalSent();
+        System.out.printf("%nSent %d requests in %.1fs: %.0f req/s (target %d), %d dropped by the client%n",
+                sent, seconds, sent / seconds, config.targetRps, dropped.get());
+        System.out.printf("%-9s %9s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n", "operation", "requests", "2xx",
+                "rejected", "throttled", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, s) -> {
+            if (s.latency.count() == 0) {
+                return;
+            }
+            System.out.printf("%-9s %9d %9d %9d %9d %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n", operation,
+                    s.latency.count(), s.ok.get(), s.rejected.get(), s.throttled.get(), s.errors.get(),
+                    s.latency.percentileMicros(50) / 1000.0, s.latency.percentileMicros(90) / 1000.0,
+                    s.latency.percentileMicros(99) / 1000.0, s.latency.percentileMicros(99.9) / 1000.0,
+                    s.latency.maxMicros() / 1000.0);
+        });
+    }
+
+    private long totalSent() {
+        return stats.values().stream().mapToLong(s -> s.latency.count()).sum();
+    }
+
+    /**
+     * Per-operation outcome counts. Rejected covers expected business refusals (insufficient
+     * balance, duplicate, not found); throttled is HTTP 429; errors are 5xx and I/O failures.
+     */
+    private static final class Stats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong ok = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private void record(int status, long latencyNanos) {
+            latency.recordNanos(latencyNanos);
+            if (status >= 200 && status < 300) {
+                ok.incrementAndGet();
+            } else if (status == 429) {
+                throttled.incrementAndGet();
+            } else if (status >= 400 && status < 500) {
+                rejected.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
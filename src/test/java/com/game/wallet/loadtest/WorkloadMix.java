@@ -0,0 +1,45 @@
+package com.game.wallet.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Relative operation weights for a load run, and the share of operations that target the
+ * limited-supply asset (and therefore the SYSTEM wallet row).
+ */
+public enum WorkloadMix {
+    SPEND_HEAVY(15, 5, 60, 10, 10, 0.2),
+    TOPUP_HEAVY(60, 15, 15, 5, 5, 0.2),
+    LIMITED_SUPPLY_HEAVY(35, 10, 35, 10, 10, 0.9);
+
+    public enum Operation {
+        TOPUP, BONUS, SPEND, TRANSFER, BALANCE
+    }
+
+    private final int[] cumulative;
+    private final double limitedShare;
+
+    WorkloadMix(int topUp, int bonus, int spend, int transfer, int balance, double limitedShare) {
+        int[] weights = {topUp, bonus, spend, transfer, balance};
+        this.cumulative = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        this.limitedShare = limitedShare;
+    }
+
+    public Operation nextOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (pick < cumulative[i]) {
+                return Operation.values()[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    public boolean nextIsLimited(SplittableRandom random) {
+        return random.nextDouble() < limitedShare;
+    }
+}
@@ -0,0 +1,59 @@
+package com.game.wallet.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipfian item picker after Gray et al., "Quickly Generating Billion-Record Synthetic
+ * Databases", as used by YCSB. Item 0 is the most popular; with {@code theta} 0.99 a few
+ * users take most of the traffic, the way whales and bots do in production.
+ */
+public class ZipfianGenerator {
+
+    private final long items;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double halfPowTheta;
+
+    public ZipfianGenerator(long items, double theta) {
+        if (items < 2 || theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Need at least 2 items and 0 < theta < 1");
+        }
+        this.items = items;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(items, theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+        this.halfPowTheta = 1 + Math.pow(0.5, theta);
+    }
+
+    public long next(SplittableRandom random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < halfPowTheta) {
+            return 1;
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    public long items() {
+        return items;
+    }
+
+    public double theta() {
+        return theta;
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1.0 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
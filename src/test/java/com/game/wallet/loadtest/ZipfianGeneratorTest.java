@@ -0,0 +1,41 @@
+package com.game.wallet.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ZipfianGenerator Tests")
+class ZipfianGeneratorTest {
+
+    @Test
+    @DisplayName("Should stay in range and favour the first items")
+    void testSkew() {
+        ZipfianGenerator generator = new ZipfianGenerator(1000, 0.99);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] counts = new long[1000];
+
+        for (int i = 0; i < 100_000; i++) {
+            long item = generator.next(random);
+            assertTrue(item >= 0 && item < 1000);
+            counts[(int) item]++;
+        }
+
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        long topTen = 0;
+        for (int i = 0; i < 10; i++) {
+            topTen += counts[i];
+        }
+        assertTrue(topTen > 30_000, "top 1% of users should get a large share of traffic, got " + topTen);
+    }
+
+    @Test
+    @DisplayName("Should reject theta outside (0, 1)")
+    void testInvalidTheta() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(100, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(1, 0.5));
+    }
+}
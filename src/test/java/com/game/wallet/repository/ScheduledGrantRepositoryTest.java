@@ -0,0 +1,72 @@
+package com.game.wallet.repository;
+
+import com.game.wallet.grant.ScheduledGrant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScheduledGrantRepository Tests")
+class ScheduledGrantRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 7, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ScheduledGrantRepository scheduledGrantRepository;
+
+    @Test
+    @DisplayName("Should claim due grants oldest first, skipping rows other pollers hold")
+    void testClaimDue() {
+        scheduledGrantRepository.claimDue(NOW, 50);
+
+        verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("status = 'SCHEDULED' AND grant_at <= ?")
+                        && sql.contains("ORDER BY grant_at")
+                        && sql.contains("FOR UPDATE SKIP LOCKED")),
+                any(RowMapper.class), eq(Timestamp.valueOf(NOW)), eq(50));
+    }
+
+    @Test
+    @DisplayName("Should claim expired grants among granted ones only, skipping locked rows")
+    void testClaimExpired() {
+        scheduledGrantRepository.claimExpired(NOW, 50);
+
+        verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("status = 'GRANTED' AND expires_at <= ?")
+                        && sql.contains("FOR UPDATE SKIP LOCKED")),
+                any(RowMapper.class), eq(Timestamp.valueOf(NOW)), eq(50));
+    }
+
+    @Test
+    @DisplayName("Should set expires_at from the grant time, and leave it empty for grants that never expire")
+    @SuppressWarnings("unchecked")
+    void testMarkGranted() {
+        ScheduledGrant expiring = new ScheduledGrant(1L, "weekend", "user_1", "GEMS", 100L, "Weekend bonus", 3600L);
+        ScheduledGrant permanent = new ScheduledGrant(2L, "weekend", "user_2", "GEMS", 100L, "Weekend bonus", null);
+
+        scheduledGrantRepository.markGranted(List.of(expiring, permanent), NOW);
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(argThat((String sql) -> sql.contains("expires_at = ?")), batch.capture());
+        assertArrayEquals(new Object[]{Timestamp.valueOf(NOW), Timestamp.valueOf(NOW.plusHours(1)), 1L},
+                batch.getValue().get(0));
+        assertArrayEquals(new Object[]{Timestamp.valueOf(NOW), null, 2L}, batch.getValue().get(1));
+    }
+}
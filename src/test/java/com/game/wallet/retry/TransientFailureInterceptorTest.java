@@ -0,0 +1,98 @@
+package com.game.wallet.retry;
+
+import com.game.wallet.config.TransactionTimeoutProperties;
+import com.game.wallet.exception.OperationTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransientFailureInterceptor Tests")
+class TransientFailureInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private TransactionTimeoutProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TransactionTimeoutProperties();
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(2));
+    }
+
+    @Test
+    @DisplayName("Should run the operation again after a deadlock")
+    void retriesDeadlocks() {
+        Operation operation = proxy(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new PessimisticLockingFailureException("deadlock", new SQLException("deadlock detected", "40P01"));
+            }
+            return "done";
+        });
+
+        assertEquals("done", operation.spend());
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("wallet.transaction.retries")
+                .tag("operation", "spend").tag("failure", "deadlock").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should give up on serialization failures after the configured attempts")
+    void stopsAfterMaxAttempts() {
+        Operation operation = proxy(() -> {
+            calls.incrementAndGet();
+            throw new CannotAcquireLockException("conflict", new SQLException("could not serialize", "40001"));
+        });
+
+        assertThrows(CannotAcquireLockException.class, operation::spend);
+        assertEquals(properties.getRetry().getMaxAttempts(), calls.get());
+    }
+
+    @Test
+    @DisplayName("Should turn lock timeouts into an operation timeout without retrying")
+    void lockTimeoutsFailFast() {
+        Operation operation = proxy(() -> {
+            calls.incrementAndGet();
+            throw new CannotAcquireLockException("lock", new SQLException("canceling statement due to lock timeout", "55P03"));
+        });
+
+        assertThrows(OperationTimeoutException.class, operation::spend);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("wallet.transaction.timeouts")
+                .tag("operation", "spend").tag("failure", "lock-timeout").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should pass other failures through untouched")
+    void otherFailures() {
+        Operation operation = proxy(() -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("bad request");
+        });
+
+        assertThrows(IllegalArgumentException.class, operation::spend);
+        assertEquals(1, calls.get());
+    }
+
+    private Operation proxy(Supplier<String> body) {
+        ProxyFactory factory = new ProxyFactory((Operation) body::get);
+        factory.addInterface(Operation.class);
+        factory.addAdvice(new TransientFailureInterceptor(properties, meterRegistry));
+        return (Operation) factory.getProxy();
+    }
+
+    interface Operation {
+        String spend();
+    }
+}
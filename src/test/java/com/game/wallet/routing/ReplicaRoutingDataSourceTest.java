@@ -0,0 +1,80 @@
+package com.game.wallet.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        lagMonitor = mock(ReplicaLagMonitor.class);
+        tracker = mock(ReadYourWritesTracker.class);
+        when(lagMonitor.isHealthy(anyString())).thenReturn(true);
+        routing = new ReplicaRoutingDataSource(List.of("replica-1", "replica-2"), lagMonitor, tracker,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Writes always go to the primary")
+    void writesUsePrimary() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("Read-only transactions alternate between healthy replicas")
+    void readsRoundRobin() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("A user who wrote recently reads from the primary")
+    void readYourWrites() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(tracker.recentlyWrote("user123")).thenReturn(true);
+
+        try (ReadRoutingContext.Scope ignored = ReadRoutingContext.forUser("user123")) {
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        }
+        try (ReadRoutingContext.Scope ignored = ReadRoutingContext.forUser("user456")) {
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Lagging replicas are skipped and reads fall back to the primary")
+    void laggingReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isHealthy("replica-1")).thenReturn(false);
+
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+
+        when(lagMonitor.isHealthy("replica-2")).thenReturn(false);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,54 @@
+package com.game.wallet.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("WorkloadRoutingDataSource Tests")
+class WorkloadRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WorkloadRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new WorkloadRoutingDataSource(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Read-write transactions use the mutation pool and read-only ones the read pool")
+    void routesByReadOnlyFlag() {
+        assertEquals(Workload.MUTATION, routing.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(Workload.READ, routing.determineCurrentLookupKey());
+
+        assertEquals(1.0, meterRegistry.get("wallet.datasource.workload").tag("workload", "read").counter().count());
+    }
+
+    @Test
+    @DisplayName("An explicit workload wins and is restored when its scope closes")
+    void explicitWorkload() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (WorkloadContext.Scope ignored = WorkloadContext.on(Workload.ADMIN)) {
+            assertEquals(Workload.ADMIN, routing.determineCurrentLookupKey());
+            try (WorkloadContext.Scope nested = WorkloadContext.on(Workload.MUTATION)) {
+                assertEquals(Workload.MUTATION, routing.determineCurrentLookupKey());
+            }
+            assertEquals(Workload.ADMIN, routing.determineCurrentLookupKey());
+        }
+        assertEquals(Workload.READ, routing.determineCurrentLookupKey());
+    }
+}
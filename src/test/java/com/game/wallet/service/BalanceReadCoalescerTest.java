@@ -0,0 +1,124 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.BalanceCoalescingProperties;
+import com.game.wallet.dto.BalanceResponse;
+import com.game.wallet.exception.WalletNotFoundException;
+import com.game.wallet.model.WalletId;
+import com.game.wallet.routing.ReadYourWritesTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("BalanceReadCoalescer Tests")
+class BalanceReadCoalescerTest {
+
+    private static final WalletId WALLET = new WalletId("SYSTEM", "GOLD");
+
+    private BalanceCoalescingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadYourWritesTracker tracker;
+    private BalanceReadCoalescer coalescer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new BalanceCoalescingProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = mock(ReadYourWritesTracker.class);
+        ObjectProvider<ReadYourWritesTracker> trackerProvider = mock(ObjectProvider.class);
+        when(trackerProvider.getIfAvailable()).thenReturn(tracker);
+        coalescer = new BalanceReadCoalescer(properties, mock(PlatformTransactionManager.class), trackerProvider,
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight query between concurrent callers")
+    void testConcurrentReadsCollapse() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        BalanceResponse balance = BalanceResponse.builder().userId("SYSTEM").asset("GOLD").balance(100L).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BalanceResponse> leader = executor.submit(() -> coalescer.load(WALLET, () -> {
+                queries.incrementAndGet();
+                queryStarted.countDown();
+                await(releaseQuery);
+                return balance;
+            }));
+            queryStarted.await();
+
+            Future<BalanceResponse> follower = executor.submit(() -> coalescer.load(WALLET, () -> {
+                queries.incrementAndGet();
+                return balance;
+            }));
+            Thread.sleep(100);
+            releaseQuery.countDown();
+
+            assertSame(balance, leader.get(1, TimeUnit.SECONDS));
+            assertSame(balance, follower.get(1, TimeUnit.SECONDS));
+            assertEquals(1, queries.get());
+            assertEquals(1.0, meterRegistry.get("wallet.balance.reads").tag("result", "collapsed").counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not let a user who just wrote join a flight that may predate the write")
+    void testRecentWriterQueriesAlone() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        BalanceResponse stale = BalanceResponse.builder().userId("SYSTEM").asset("GOLD").balance(100L).build();
+        BalanceResponse fresh = BalanceResponse.builder().userId("SYSTEM").asset("GOLD").balance(150L).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<BalanceResponse> leader = executor.submit(() -> coalescer.load(WALLET, () -> {
+                queryStarted.countDown();
+                await(releaseQuery);
+                return stale;
+            }));
+            queryStarted.await();
+
+            when(tracker.recentlyWrote("SYSTEM")).thenReturn(true);
+            assertSame(fresh, coalescer.load(WALLET, () -> fresh));
+
+            releaseQuery.countDown();
+            assertSame(stale, leader.get(1, TimeUnit.SECONDS));
+            assertEquals(0.0, meterRegistry.get("wallet.balance.reads").tag("result", "collapsed").counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should rethrow the shared query's failure")
+    void testFailureIsShared() {
+        assertThrows(WalletNotFoundException.class, () -> coalescer.load(WALLET, () -> {
+            throw new WalletNotFoundException("missing");
+        }));
+
+        BalanceResponse balance = BalanceResponse.builder().balance(5L).build();
+        assertSame(balance, coalescer.load(WALLET, () -> balance));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
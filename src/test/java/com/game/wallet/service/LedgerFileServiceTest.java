@@ -0,0 +1,97 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.LedgerExportProperties;
+import com.game.wallet.dto.LedgerFileResponse;
+import com.game.wallet.ledger.BinaryLedgerWriter;
+import com.game.wallet.ledger.LedgerArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("LedgerFileService Tests")
+class LedgerFileServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 7, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    private LedgerFileService ledgerFileService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LedgerExportProperties properties = new LedgerExportProperties();
+        properties.setDirectory(directory.toString());
+        ledgerFileService = new LedgerFileService(jdbcTemplate, transactionManager, mock(LedgerArchive.class),
+                properties, userDirectory, mock(LedgerSummaryService.class), mock(AssetSupplyService.class),
+                mock(SystemLedgerService.class));
+
+        try (BinaryLedgerWriter writer = new BinaryLedgerWriter(directory.resolve("ledger.bin"))) {
+            writer.append(1L, "GENESIS", "SYSTEM", "GOLD", 1000L, "genesis", null, NOW);
+            writer.append(2L, "SYSTEM", "user1", "GOLD", 300L, "grant-1", null, NOW);
+            writer.finish();
+        }
+        when(userDirectory.resolveAll(any())).thenReturn(new HashMap<>(Map.of("SYSTEM", 1L, "user1", 2L)));
+    }
+
+    @Test
+    @DisplayName("Should overwrite only the replayed wallets and fill their user refs")
+    @SuppressWarnings("unchecked")
+    void testReplayWritesReplayedWalletsOnly() {
+        when(jdbcTemplate.queryForObject(contains("wallet_hold"), eq(Boolean.class))).thenReturn(false);
+
+        LedgerFileResponse response = ledgerFileService.replay("ledger.bin");
+
+        assertEquals(2L, response.getWallets());
+        verify(jdbcTemplate, never()).update(anyString());
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(argThat((String sql) -> sql.contains("user_ref")), rows.capture());
+        assertTrue(rows.getValue().stream().anyMatch(row -> row[0].equals("SYSTEM") && row[1].equals(1L)
+                && row[3].equals(700L)));
+        assertTrue(rows.getValue().stream().anyMatch(row -> row[0].equals("user1") && row[1].equals(2L)
+                && row[3].equals(300L)));
+    }
+
+    @Test
+    @DisplayName("Should refuse to replay while holds are active")
+    void testReplayRejectedWithActiveHolds() {
+        when(jdbcTemplate.queryForObject(contains("wallet_hold"), eq(Boolean.class))).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> ledgerFileService.replay("ledger.bin"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
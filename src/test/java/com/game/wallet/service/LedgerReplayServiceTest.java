@@ -1,8 +1,9 @@
 package com.game.wallet.service;
 
-import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.ledger.LedgerArchive;
+import com.game.wallet.ledger.LedgerRow;
 import com.game.wallet.model.Wallet;
-import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.LedgerRowReader;
 import com.game.wallet.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,9 +15,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,11 +28,17 @@ import static org.mockito.Mockito.*;
 class LedgerReplayServiceTest {
 
     @Mock
-    private LedgerRepository ledgerRepository;
+    private LedgerRowReader ledgerRowReader;
 
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private LedgerArchive ledgerArchive;
+
+    @Mock
+    private UserDirectory userDirectory;
+
     @InjectMocks
     private LedgerReplayService ledgerReplayService;
 
@@ -39,11 +49,13 @@ class LedgerReplayServiceTest {
     void setUp() {
         userWallet = new Wallet();
         userWallet.setUserId("user1");
+        userWallet.setUserRef(2L);
         userWallet.setAsset("GOLD");
         userWallet.setBalance(500L);
 
         systemWallet = new Wallet();
         systemWallet.setUserId("SYSTEM");
+        systemWallet.setUserRef(1L);
         systemWallet.setAsset("GOLD");
         systemWallet.setBalance(10000L);
     }
@@ -52,40 +64,12 @@ class LedgerReplayServiceTest {
     @DisplayName("Should replay all ledger entries correctly")
     void testReplayAll() {
 
-        LedgerEntry genesis = LedgerEntry.builder()
-                .id(0L)
-                .debitUser("GENESIS")
-                .creditUser("SYSTEM")
-                .asset("GOLD")
-                .amount(10000L)
-                .idempotencyKey("init")
-                .reference("INITIAL_MINT")
-                .build();
-
-        LedgerEntry entry1 = LedgerEntry.builder()
-                .id(1L)
-                .debitUser("SYSTEM")
-                .creditUser("user1")
-                .asset("GOLD")
-                .amount(100L)
-                .idempotencyKey("key1")
-                .reference("TOP-UP")
-                .build();
-
-        LedgerEntry entry2 = LedgerEntry.builder()
-                .id(2L)
-                .debitUser("user1")
-                .creditUser("SYSTEM")
-                .asset("GOLD")
-                .amount(50L)
-                .idempotencyKey("key2")
-                .reference("SPEND")
-                .build();
-
-        List<LedgerEntry> entries = Arrays.asList(genesis, entry1, entry2);
-
         when(walletRepository.findAll()).thenReturn(Arrays.asList(userWallet, systemWallet));
-        when(ledgerRepository.findAllByOrderByIdAsc()).thenReturn(entries);
+        stream(
+                new long[]{0L, LedgerRow.NO_DEBIT, 1L, 10000L},
+                new long[]{1L, 1L, 2L, 100L},
+                new long[]{2L, 2L, 1L, 50L}
+        );
 
         // ACT
         ledgerReplayService.replayAll();
@@ -94,14 +78,16 @@ class LedgerReplayServiceTest {
         assertEquals(50L, userWallet.getBalance());
         assertEquals(9950L, systemWallet.getBalance());
 
+        verify(ledgerRowReader).streamAll(eq(List.of("GOLD")), any());
         verify(walletRepository).saveAll(any());
     }
+
     @Test
     @DisplayName("Should handle empty ledger gracefully")
     void testReplayAll_EmptyLedger() {
 
         when(walletRepository.findAll()).thenReturn(Arrays.asList(userWallet, systemWallet));
-        when(ledgerRepository.findAllByOrderByIdAsc()).thenReturn(List.of());
+        stream();
 
         // ACT
         ledgerReplayService.replayAll();
@@ -111,4 +97,30 @@ class LedgerReplayServiceTest {
 
         verify(walletRepository).saveAll(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should reject entries that drive a balance negative")
+    void testReplayAll_NegativeBalance() {
+
+        when(walletRepository.findAll()).thenReturn(Arrays.asList(userWallet, systemWallet));
+        stream(new long[]{1L, 2L, 1L, 10L});
+
+        assertThrows(IllegalStateException.class, () -> ledgerReplayService.replayAll());
+        verify(walletRepository, never()).saveAll(any());
+    }
+
+    /**
+     * Each row is {id, debitRef, creditRef, amount}; all rows are GOLD (asset index 0).
+     */
+    @SuppressWarnings("unchecked")
+    private void stream(long[]... rows) {
+        doAnswer(invocation -> {
+            Consumer<LedgerRow> consumer = invocation.getArgument(1);
+            LedgerRow row = new LedgerRow();
+            for (long[] r : rows) {
+                consumer.accept(row.set(r[0], r[1], r[2], 0, r[3]));
+            }
+            return null;
+        }).when(ledgerRowReader).streamAll(any(), any(Consumer.class));
+    }
+}
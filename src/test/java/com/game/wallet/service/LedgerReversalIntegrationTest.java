@@ -0,0 +1,156 @@
+package com.game.wallet.service;
+
+import com.game.wallet.dto.BonusRequest;
+import com.game.wallet.dto.BulkReversalResponse;
+import com.game.wallet.dto.ReversalResponse;
+import com.game.wallet.dto.ReverseRequest;
+import com.game.wallet.dto.SpendRequest;
+import com.game.wallet.exception.AlreadyReversedException;
+import com.game.wallet.exception.DuplicateRequestException;
+import com.game.wallet.model.Asset;
+import com.game.wallet.model.Wallet;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.IdempotencyRepository;
+import com.game.wallet.repository.LedgerDailySummaryRepository;
+import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.WalletHoldRepository;
+import com.game.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Ledger Reversal Integration Tests")
+class LedgerReversalIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private LedgerReversalService ledgerReversalService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private LedgerRepository ledgerRepository;
+
+    @MockitoSpyBean
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private WalletHoldRepository holdRepository;
+
+    @Autowired
+    private LedgerDailySummaryRepository summaryRepository;
+
+    @Autowired
+    private AssetSupplyService assetSupplyService;
+
+    @Autowired
+    private SystemLedgerService systemLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRepository.deleteAll();
+        holdRepository.deleteAll();
+        summaryRepository.deleteAll();
+        ledgerRepository.deleteAll();
+        walletRepository.deleteAll();
+        assetRepository.deleteAll();
+        assetSupplyService.rebuild();
+        systemLedgerService.rebuild();
+
+        assetRepository.save(new Asset("GOLD", true));
+
+        Wallet systemGold = new Wallet();
+        systemGold.setUserId("SYSTEM");
+        systemGold.setAsset("GOLD");
+        systemGold.setBalance(100000L);
+        walletRepository.save(systemGold);
+
+        Wallet userGold = new Wallet();
+        userGold.setUserId("user1");
+        userGold.setAsset("GOLD");
+        userGold.setBalance(1000L);
+        walletRepository.save(userGold);
+    }
+
+    @Test
+    @DisplayName("Should reverse a spend once and refuse a second reversal under any key")
+    void testReverseOnce() {
+        walletService.spend(new SpendRequest("user1", "GOLD", 100L, "spend-r1", "ORD-R1"));
+
+        ReversalResponse response = walletService.reverse(new ReverseRequest("user1", "reverse-1", "spend-r1", null));
+
+        assertEquals(1, response.getEntries().size());
+        assertEquals("REVERSAL:spend-r1", response.getEntries().get(0).getReference());
+        assertEquals(1000L, balance("user1"));
+        assertEquals(100000L, balance("SYSTEM"));
+        assertEquals(2, ledgerRepository.count());
+
+        assertThrows(DuplicateRequestException.class,
+                () -> walletService.reverse(new ReverseRequest("user1", "reverse-1", "spend-r1", null)));
+        assertThrows(AlreadyReversedException.class,
+                () -> walletService.reverse(new ReverseRequest("user1", "reverse-2", null, "ORD-R1")));
+        assertEquals(1000L, balance("user1"));
+        assertEquals(2, ledgerRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reject a reversal that loses the race for the marker rows")
+    void testConcurrentReversalLosesOnMarker() {
+        walletService.spend(new SpendRequest("user1", "GOLD", 100L, "spend-r2", "ORD-R2"));
+        walletService.reverse(new ReverseRequest("user1", "reverse-3", "spend-r2", null));
+
+        // As if the winning reversal committed after this one checked for markers.
+        doReturn(Set.of()).when(idempotencyRepository).findExistingKeys(any(), any());
+
+        assertThrows(AlreadyReversedException.class,
+                () -> walletService.reverse(new ReverseRequest("user1", "reverse-4", "spend-r2", null)));
+        assertEquals(1000L, balance("user1"));
+        assertEquals(100000L, balance("SYSTEM"));
+        assertEquals(2, ledgerRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reverse a reference in bulk, skip what cannot be covered and resume on a rerun")
+    void testBulkReversal() {
+        walletService.bonus(new BonusRequest("user2", "GOLD", 100L, "prize-1", "TOURNEY-1"));
+        walletService.bonus(new BonusRequest("user3", "GOLD", 100L, "prize-2", "TOURNEY-1"));
+        walletService.spend(new SpendRequest("user3", "GOLD", 60L, "spend-r3", "ORD-R3"));
+
+        BulkReversalResponse first = ledgerReversalService.reverseReference("TOURNEY-1", "cancel-1");
+
+        assertEquals(1L, first.getReversed());
+        assertEquals(1L, first.getSkipped());
+        assertEquals(0L, balance("user2"));
+        assertEquals(40L, balance("user3"));
+        assertEquals(100000L - 100L + 60L, balance("SYSTEM"));
+
+        walletService.bonus(new BonusRequest("user3", "GOLD", 60L, "refill-1", "REFILL"));
+        BulkReversalResponse second = ledgerReversalService.reverseReference("TOURNEY-1", "cancel-1");
+
+        assertEquals(1L, second.getReversed());
+        assertEquals(1L, second.getSkipped());
+        assertEquals(0L, balance("user3"));
+    }
+
+    private long balance(String userId) {
+        return walletRepository.findByUserIdAndAsset(userId, "GOLD").orElseThrow().getBalance();
+    }
+}
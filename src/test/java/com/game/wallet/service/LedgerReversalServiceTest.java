@@ -0,0 +1,100 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.ReversalProperties;
+import com.game.wallet.dto.BulkReversalResponse;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerReversalService Tests")
+class LedgerReversalServiceTest {
+
+    @Mock
+    private LedgerRepository ledgerRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ReversalProperties properties = new ReversalProperties();
+
+    @InjectMocks
+    private LedgerReversalService ledgerReversalService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(3);
+        lenient().when(shardRouter.collect(any())).thenAnswer(invocation ->
+                List.of(((Supplier<?>) invocation.getArgument(0)).get()));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should page by id and never split the entries of one operation")
+    void testPagesKeepOperationsWhole() {
+        LedgerEntry a = entry(1L, "prize-1");
+        LedgerEntry b = entry(2L, "trade-1");
+        LedgerEntry c = entry(3L, "trade-1");
+        LedgerEntry d = entry(4L, "prize-2");
+
+        when(ledgerRepository.findByReferenceAfter(eq("TOURNEY-1"), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(a, b, c));
+        when(ledgerRepository.findByReferenceAfter(eq("TOURNEY-1"), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(b, c, d));
+        when(ledgerRepository.findByReferenceAfter(eq("TOURNEY-1"), eq(3L), any(Pageable.class)))
+                .thenReturn(List.of(d));
+        when(walletService.reverseEntries(List.of(a), "cancel-1", false)).thenReturn(List.of(a));
+        when(walletService.reverseEntries(List.of(b, c), "cancel-1", false)).thenReturn(List.of(b, c));
+        when(walletService.reverseEntries(List.of(d), "cancel-1", false)).thenReturn(List.of());
+
+        BulkReversalResponse response = ledgerReversalService.reverseReference("TOURNEY-1", "cancel-1");
+
+        assertEquals(3L, response.getReversed());
+        assertEquals(1L, response.getSkipped());
+        verify(ledgerRepository, times(3)).findByReferenceAfter(eq("TOURNEY-1"), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should require a reference and a reversal id")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> ledgerReversalService.reverseReference(" ", "cancel-1"));
+        assertThrows(IllegalArgumentException.class, () -> ledgerReversalService.reverseReference("TOURNEY-1", null));
+        verifyNoInteractions(ledgerRepository, walletService);
+    }
+
+    private static LedgerEntry entry(long id, String idempotencyKey) {
+        return LedgerEntry.builder()
+                .id(id).debitUser("SYSTEM").creditUser("user" + id).asset("GOLD").amount(100L)
+                .idempotencyKey(idempotencyKey).reference("TOURNEY-1").createdAt(LocalDateTime.now())
+                .build();
+    }
+}
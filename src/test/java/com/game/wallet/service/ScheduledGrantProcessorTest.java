@@ -0,0 +1,200 @@
+package com.game.wallet.service;
+
+import com.game.wallet.config.BulkGrantProperties;
+import com.game.wallet.config.ScheduledGrantProperties;
+import com.game.wallet.config.ShardingProperties;
+import com.game.wallet.grant.ScheduledGrant;
+import com.game.wallet.leaderboard.LeaderboardService;
+import com.game.wallet.model.Asset;
+import com.game.wallet.model.LedgerEntry;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.BulkGrantRepository;
+import com.game.wallet.repository.LedgerBatchWriter;
+import com.game.wallet.repository.LedgerSummaryWriter;
+import com.game.wallet.repository.ScheduledGrantRepository;
+import com.game.wallet.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ScheduledGrantProcessor Tests")
+class ScheduledGrantProcessorTest {
+
+    @Mock
+    private ScheduledGrantRepository scheduledGrantRepository;
+
+    @Mock
+    private BulkGrantRepository bulkGrantRepository;
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @Mock
+    private LedgerBatchWriter ledgerBatchWriter;
+
+    @Mock
+    private LedgerSummaryWriter ledgerSummaryWriter;
+
+    @Mock
+    private AssetSupplyService assetSupplyService;
+
+    @Mock
+    private SystemLedgerService systemLedgerService;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduledGrantProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new ScheduledGrantProcessor(scheduledGrantRepository, bulkGrantRepository, assetRepository,
+                ledgerBatchWriter, ledgerSummaryWriter, assetSupplyService, systemLedgerService, userDirectory,
+                leaderboardService, new ShardRouter(new ShardingProperties()), new ScheduledGrantProperties(),
+                new BulkGrantProperties(), transactionManager);
+
+        when(assetRepository.findById("GEMS")).thenReturn(Optional.of(new Asset("GEMS", false, true)));
+        when(assetRepository.findById("DIAMOND")).thenReturn(Optional.of(new Asset("DIAMOND", true, true)));
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(new Asset("GOLD", false)));
+        when(userDirectory.resolve("SYSTEM")).thenReturn(1L);
+        when(userDirectory.resolveAll(any())).thenAnswer(invocation -> {
+            Map<String, Long> refs = new HashMap<>();
+            for (String userId : invocation.<Collection<String>>getArgument(0)) {
+                refs.put(userId, 100L + refs.size());
+            }
+            return refs;
+        });
+
+        // Processor batches register an after-commit leaderboard update.
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should post due grants and mark them granted")
+    void testGrantDue() {
+        ScheduledGrant first = grant(1L, "user_1", "GEMS", 100L);
+        ScheduledGrant second = grant(2L, "user_2", "GEMS", 40L);
+        when(scheduledGrantRepository.claimDue(any(), anyInt())).thenReturn(List.of(first, second));
+
+        processor.process();
+
+        verify(bulkGrantRepository).creditWallets(eq("GEMS"), eq(List.of("user_1", "user_2")),
+                eq(Map.of("user_1", 100L, "user_2", 40L)), anyMap());
+        verify(bulkGrantRepository, never()).debitSystem(anyString(), anyLong());
+        verify(ledgerBatchWriter).insertAll(argThat(entries -> entries.size() == 2));
+        verify(assetSupplyService).recordIssued("GEMS", 140L);
+        verify(scheduledGrantRepository).markGranted(eq(List.of(first, second)), any());
+        verify(scheduledGrantRepository, never()).markFailed(any());
+    }
+
+    @Test
+    @DisplayName("Should count every grant of a user as its own summary entry")
+    void testGrantDue_CountsEntriesPerUser() {
+        ScheduledGrant first = grant(1L, "user_1", "GEMS", 100L);
+        ScheduledGrant second = grant(2L, "user_1", "GEMS", 40L);
+        when(scheduledGrantRepository.claimDue(any(), anyInt())).thenReturn(List.of(first, second));
+
+        processor.process();
+
+        verify(ledgerBatchWriter).insertAll(argThat(entries -> entries.size() == 2));
+        verify(ledgerSummaryWriter).addCredits(eq("GEMS"), any(), eq(Map.of(100L, 140L)), eq(Map.of(100L, 2L)));
+    }
+
+    @Test
+    @DisplayName("Should mark grants FAILED when SYSTEM cannot cover them or the asset is unknown")
+    void testGrantDue_Failed() {
+        ScheduledGrant uncovered = grant(1L, "user_1", "DIAMOND", 500L);
+        ScheduledGrant unknown = grant(2L, "user_2", "RUBIES", 10L);
+        when(scheduledGrantRepository.claimDue(any(), anyInt())).thenReturn(List.of(uncovered, unknown));
+        when(bulkGrantRepository.debitSystem("DIAMOND", 500L)).thenReturn(false);
+
+        processor.process();
+
+        verify(scheduledGrantRepository).markFailed(List.of(uncovered, unknown));
+        verify(scheduledGrantRepository, never()).markGranted(any(), any());
+        verify(bulkGrantRepository, never()).creditWallets(anyString(), anyList(), anyMap(), anyMap());
+        verify(ledgerBatchWriter, never()).insertAll(any());
+        verify(assetSupplyService, never()).recordIssued(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should cap an expiry at the available balance and record what was taken")
+    @SuppressWarnings("unchecked")
+    void testExpire_CappedAtAvailable() {
+        ScheduledGrant first = grant(1L, "user_1", "DIAMOND", 100L);
+        ScheduledGrant second = grant(2L, "user_1", "DIAMOND", 50L);
+        when(scheduledGrantRepository.claimExpired(any(), anyInt())).thenReturn(List.of(first, second));
+        when(scheduledGrantRepository.lockAvailable("DIAMOND", List.of("user_1")))
+                .thenReturn(new HashMap<>(Map.of("user_1", 30L)));
+
+        processor.process();
+
+        verify(scheduledGrantRepository).debitWallets("DIAMOND", Map.of("user_1", 30L));
+        verify(bulkGrantRepository).creditWallets("DIAMOND", List.of("SYSTEM"), Map.of("SYSTEM", 30L),
+                Map.of("SYSTEM", 1L));
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerBatchWriter).insertAll(entries.capture());
+        assertEquals(1, entries.getValue().size());
+        assertEquals(30L, entries.getValue().get(0).getAmount());
+        assertEquals("EXPIRY:weekend", entries.getValue().get(0).getReference());
+        assertEquals("EXPIRY:weekend", entries.getValue().get(0).getIdempotencyKey());
+        verify(assetSupplyService).recordBurned("DIAMOND", 30L);
+        verify(scheduledGrantRepository).markExpired(Map.of(1L, 30L, 2L, 0L));
+    }
+
+    @Test
+    @DisplayName("Should not take back expired grants of assets that are not bonus-only")
+    void testExpire_NonBonusAsset() {
+        ScheduledGrant legacy = grant(1L, "user_1", "GOLD", 100L);
+        when(scheduledGrantRepository.claimExpired(any(), anyInt())).thenReturn(List.of(legacy));
+
+        processor.process();
+
+        verify(scheduledGrantRepository, never()).lockAvailable(anyString(), anyList());
+        verify(scheduledGrantRepository, never()).debitWallets(anyString(), anyMap());
+        verify(ledgerBatchWriter, never()).insertAll(any());
+        verify(scheduledGrantRepository).markExpired(Map.of(1L, 0L));
+    }
+
+    private static ScheduledGrant grant(long id, String userId, String asset, long amount) {
+        return new ScheduledGrant(id, "weekend", userId, asset, amount, "Weekend bonus", 604800L);
+    }
+}
@@ -0,0 +1,144 @@
+package com.game.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.wallet.config.ScheduledGrantProperties;
+import com.game.wallet.dto.ScheduledGrantRequest;
+import com.game.wallet.dto.ScheduledGrantResponse;
+import com.game.wallet.exception.AssetNotFoundException;
+import com.game.wallet.grant.GrantFileFormat;
+import com.game.wallet.model.Asset;
+import com.game.wallet.repository.AssetRepository;
+import com.game.wallet.repository.ScheduledGrantRepository;
+import com.game.wallet.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ScheduledGrantService Tests")
+class ScheduledGrantServiceTest {
+
+    private static final LocalDateTime GRANT_AT = LocalDateTime.of(2025, 6, 7, 0, 0);
+
+    @Mock
+    private ScheduledGrantRepository scheduledGrantRepository;
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @Mock
+    private BulkGrantService bulkGrantService;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ScheduledGrantProperties properties = new ScheduledGrantProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ScheduledGrantService scheduledGrantService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setChunkSize(2);
+        when(assetRepository.findById("GEMS")).thenReturn(Optional.of(new Asset("GEMS", false, true)));
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(new Asset("GOLD", false)));
+        when(shardRouter.partition(any())).thenAnswer(invocation ->
+                Map.of("shard-1", new ArrayList<>(invocation.<Collection<String>>getArgument(0))));
+        when(scheduledGrantRepository.schedule(anyString(), anyString(), anyString(), any(), any(), anyMap()))
+                .thenAnswer(invocation -> invocation.<Map<String, Long>>getArgument(5).size());
+    }
+
+    @Test
+    @DisplayName("Should schedule every listed user in chunks with the expiry in seconds")
+    void testSchedule() {
+        ScheduledGrantRequest request = new ScheduledGrantRequest("weekend", "weekend.csv", "GEMS", 100L,
+                "Weekend bonus", GRANT_AT, 7);
+
+        ScheduledGrantResponse response = scheduledGrantService.schedule(request,
+                new StringReader("userId,amount\nuser_1,10\nuser_2\nuser_3,7\n"), GrantFileFormat.CSV);
+
+        assertEquals(3L, response.getUsers());
+        assertEquals(117L, response.getTotalAmount());
+        assertEquals(GRANT_AT, response.getGrantAt());
+        verify(scheduledGrantRepository).schedule("weekend", "GEMS", "Weekend bonus", GRANT_AT, 604800L,
+                Map.of("user_1", 10L, "user_2", 100L));
+        verify(scheduledGrantRepository).schedule("weekend", "GEMS", "Weekend bonus", GRANT_AT, 604800L,
+                Map.of("user_3", 7L));
+    }
+
+    @Test
+    @DisplayName("Should refuse to schedule grants to the system wallets")
+    void testSchedule_SystemUser() {
+        ScheduledGrantRequest request = new ScheduledGrantRequest("weekend", "weekend.csv", "GEMS", 100L,
+                "Weekend bonus", GRANT_AT, null);
+
+        assertThrows(IllegalArgumentException.class, () -> scheduledGrantService.schedule(request,
+                new StringReader("SYSTEM\n"), GrantFileFormat.CSV));
+        verify(scheduledGrantRepository, never()).schedule(anyString(), anyString(), anyString(), any(), any(), anyMap());
+    }
+
+    @Test
+    @DisplayName("Should refuse expiring grants of assets that can be bought")
+    void testSchedule_ExpiryOfNonBonusAsset() {
+        ScheduledGrantRequest request = new ScheduledGrantRequest("weekend", "weekend.csv", "GOLD", 100L,
+                "Weekend bonus", GRANT_AT, 7);
+
+        assertThrows(IllegalArgumentException.class, () -> scheduledGrantService.schedule(request,
+                new StringReader("user_1\n"), GrantFileFormat.CSV));
+        verify(scheduledGrantRepository, never()).schedule(anyString(), anyString(), anyString(), any(), any(), anyMap());
+    }
+
+    @Test
+    @DisplayName("Should schedule non-expiring grants of any asset")
+    void testSchedule_NonBonusWithoutExpiry() {
+        ScheduledGrantRequest request = new ScheduledGrantRequest("weekend", "weekend.csv", "GOLD", 100L,
+                "Weekend bonus", GRANT_AT, null);
+
+        ScheduledGrantResponse response = scheduledGrantService.schedule(request,
+                new StringReader("user_1\n"), GrantFileFormat.CSV);
+
+        assertEquals(1L, response.getUsers());
+        verify(scheduledGrantRepository).schedule("weekend", "GOLD", "Weekend bonus", GRANT_AT, null,
+                Map.of("user_1", 100L));
+    }
+
+    @Test
+    @DisplayName("Should reject schedules for unknown assets")
+    void testSchedule_UnknownAsset() {
+        ScheduledGrantRequest request = new ScheduledGrantRequest("weekend", "weekend.csv", "RUBIES", 100L,
+                "Weekend bonus", GRANT_AT, null);
+
+        assertThrows(AssetNotFoundException.class, () -> scheduledGrantService.schedule(request,
+                new StringReader("user_1\n"), GrantFileFormat.CSV));
+        verify(scheduledGrantRepository, never()).schedule(anyString(), anyString(), anyString(), any(), any(), anyMap());
+    }
+}
@@ -1,24 +1,48 @@
 package com.game.wallet.service;
 
+import com.game.wallet.dto.AssetSupplyResponse;
+import com.game.wallet.dto.BalanceResponse;
 import com.game.wallet.dto.BonusRequest;
+import com.game.wallet.dto.HoldResponse;
+import com.game.wallet.dto.LeaderboardEntryResponse;
+import com.game.wallet.dto.LedgerResponse;
+import com.game.wallet.dto.ReserveRequest;
 import com.game.wallet.dto.SpendRequest;
+import com.game.wallet.dto.SupplyCheckResponse;
+import com.game.wallet.dto.SystemLedgerBucketResponse;
 import com.game.wallet.dto.TopUpRequest;
+import com.game.wallet.dto.TransactionSummaryResponse;
+import com.game.wallet.dto.TradeLeg;
+import com.game.wallet.dto.TradeRequest;
+import com.game.wallet.exception.AssetNotFoundException;
 import com.game.wallet.exception.DuplicateRequestException;
+import com.game.wallet.exception.HoldNotActiveException;
 import com.game.wallet.exception.InsufficientBalanceException;
+import com.game.wallet.export.HistoryExport;
+import com.game.wallet.leaderboard.LeaderboardService;
 import com.game.wallet.model.Asset;
+import com.game.wallet.model.LedgerDailySummary;
 import com.game.wallet.model.Wallet;
 import com.game.wallet.repository.AssetRepository;
 import com.game.wallet.repository.IdempotencyRepository;
+import com.game.wallet.repository.LedgerDailySummaryRepository;
 import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.WalletHoldRepository;
 import com.game.wallet.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
@@ -45,13 +69,38 @@ class WalletServiceIntegrationTest {
     @Autowired
     private IdempotencyRepository idempotencyRepository;
 
+    @Autowired
+    private WalletHoldRepository holdRepository;
+
+    @Autowired
+    private LedgerDailySummaryRepository summaryRepository;
+
+    @Autowired
+    private LedgerSummaryService ledgerSummaryService;
+
+    @Autowired
+    private AssetSupplyService assetSupplyService;
+
+    @Autowired
+    private SystemLedgerService systemLedgerService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     @BeforeEach
     @Transactional
     void setUp() {
         idempotencyRepository.deleteAll();
+        holdRepository.deleteAll();
+        summaryRepository.deleteAll();
         ledgerRepository.deleteAll();
         walletRepository.deleteAll();
         assetRepository.deleteAll();
+        assetSupplyService.rebuild();
+        systemLedgerService.rebuild();
 
         Asset goldAsset = new Asset("GOLD", true);
         Asset gemsAsset = new Asset("GEMS", false);
@@ -187,4 +236,216 @@ class WalletServiceIntegrationTest {
 
         assertEquals(3, ledgerRepository.count());
     }
+
+    @Test
+    @DisplayName("Should apply every trade leg atomically")
+    void testTrade() {
+        Wallet user2Gems = new Wallet();
+        user2Gems.setUserId("user2");
+        user2Gems.setAsset("GEMS");
+        user2Gems.setBalance(10L);
+        walletRepository.save(user2Gems);
+
+        walletService.trade(new TradeRequest(List.of(
+                new TradeLeg("user1", "user2", "GOLD", 100L),
+                new TradeLeg("user2", "user1", "GEMS", 4L)
+        ), "trade-1", "TRADE-1"));
+
+        assertEquals(900L, walletRepository.findByUserIdAndAsset("user1", "GOLD").orElseThrow().getBalance());
+        assertEquals(100L, walletRepository.findByUserIdAndAsset("user2", "GOLD").orElseThrow().getBalance());
+        assertEquals(4L, walletRepository.findByUserIdAndAsset("user1", "GEMS").orElseThrow().getBalance());
+        assertEquals(6L, walletRepository.findByUserIdAndAsset("user2", "GEMS").orElseThrow().getBalance());
+        assertEquals(2, ledgerRepository.count());
+
+        TradeRequest overdrawn = new TradeRequest(List.of(
+                new TradeLeg("user2", "user1", "GOLD", 50L),
+                new TradeLeg("user1", "user2", "GEMS", 5L)
+        ), "trade-2", null);
+        assertThrows(InsufficientBalanceException.class, () -> walletService.trade(overdrawn));
+
+        assertEquals(100L, walletRepository.findByUserIdAndAsset("user2", "GOLD").orElseThrow().getBalance());
+        assertEquals(2, ledgerRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reserve, release and capture holds against the available balance")
+    void testHoldLifecycle() {
+        HoldResponse released = walletService.reserve(new ReserveRequest("user1", "GOLD", 600L, "hold-1", null, null));
+        assertThrows(InsufficientBalanceException.class,
+                () -> walletService.reserve(new ReserveRequest("user1", "GOLD", 500L, "hold-2", null, null)));
+
+        walletService.release(released.getHoldId());
+        assertThrows(HoldNotActiveException.class, () -> walletService.capture(released.getHoldId()));
+
+        HoldResponse captured = walletService.reserve(new ReserveRequest("user1", "GOLD", 700L, "hold-3", "ORD-1", 60L));
+        assertEquals(700L, walletService.getBalance("user1", "GOLD").getHeld());
+        assertThrows(InsufficientBalanceException.class,
+                () -> walletService.spend(new SpendRequest("user1", "GOLD", 400L, "hold-spend", "order-1")));
+
+        walletService.capture(captured.getHoldId());
+
+        Wallet userWallet = walletRepository.findByUserIdAndAsset("user1", "GOLD").orElseThrow();
+        Wallet systemWallet = walletRepository.findByUserIdAndAsset("SYSTEM", "GOLD").orElseThrow();
+        assertEquals(300L, userWallet.getBalance());
+        assertEquals(0L, userWallet.getHeld());
+        assertEquals(100700L, systemWallet.getBalance());
+        assertEquals(1, ledgerRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should maintain daily summaries alongside ledger entries")
+    void testTransactionSummary() {
+        walletService.topUp(new TopUpRequest("user1", "GOLD", 100L, "summary-1"));
+        walletService.bonus(new BonusRequest("user1", "GOLD", 50L, "summary-2", "Test bonus"));
+        walletService.spend(new SpendRequest("user1", "GOLD", 30L, "summary-3", "order-1"));
+
+        TransactionSummaryResponse summary = ledgerSummaryService.getSummary("user1", null, null);
+
+        assertEquals(1, summary.getAssets().size());
+        TransactionSummaryResponse.AssetSummary gold = summary.getAssets().get(0);
+        assertEquals("GOLD", gold.getAsset());
+        assertEquals(150L, gold.getCredited());
+        assertEquals(30L, gold.getDebited());
+        assertEquals(3L, gold.getEntries());
+        assertEquals(1, gold.getDays().size());
+    }
+
+    @Test
+    @DisplayName("Should keep summaries of archived days when rebuilding from the ledger")
+    void testSummaryRebuildKeepsArchivedDays() {
+        walletService.topUp(new TopUpRequest("user1", "GOLD", 100L, "rebuild-1"));
+        walletService.spend(new SpendRequest("user1", "GOLD", 30L, "rebuild-2", "order-1"));
+        Long userRef = summaryRepository.findAll().get(0).getUserRef();
+        LocalDate archivedDay = LocalDate.now().minusYears(1);
+        summaryRepository.save(new LedgerDailySummary(userRef, "GOLD", archivedDay, 500L, 0L, 4L));
+
+        ledgerSummaryService.rebuild();
+
+        List<LedgerDailySummary> rows = summaryRepository.findAll();
+        assertEquals(2, rows.size());
+        LedgerDailySummary archived = rows.stream().filter(row -> row.getEntryDate().equals(archivedDay))
+                .findFirst().orElseThrow();
+        assertEquals(500L, archived.getCreditTotal());
+        LedgerDailySummary live = rows.stream().filter(row -> !row.getEntryDate().equals(archivedDay))
+                .findFirst().orElseThrow();
+        assertEquals(100L, live.getCreditTotal());
+        assertEquals(30L, live.getDebitTotal());
+        assertEquals(2L, live.getEntryCount());
+    }
+
+    @Test
+    @DisplayName("Should keep supply counters in step with the ledger")
+    void testAssetSupply() {
+        walletService.topUp(new TopUpRequest("user1", "GOLD", 100L, "supply-1"));
+        walletService.bonus(new BonusRequest("user1", "GOLD", 50L, "supply-2", "Test bonus"));
+        walletService.spend(new SpendRequest("user1", "GOLD", 30L, "supply-3", "order-1"));
+
+        List<AssetSupplyResponse> supply = assetSupplyService.getSupply();
+
+        assertEquals(1, supply.size());
+        AssetSupplyResponse gold = supply.get(0);
+        assertEquals("GOLD", gold.getAsset());
+        assertEquals(150L, gold.getIssued());
+        assertEquals(30L, gold.getBurned());
+        assertEquals(120L, gold.getCirculating());
+        assertEquals(99880L, gold.getSystemReserve());
+
+        List<SupplyCheckResponse> checks = assetSupplyService.verify();
+        assertEquals(1, checks.size());
+        assertTrue(checks.get(0).isConsistent());
+    }
+
+    @Test
+    @DisplayName("SYSTEM activity is served from hourly buckets, not entry history")
+    void testSystemLedgerBuckets() {
+        walletService.topUp(new TopUpRequest("user1", "GOLD", 100L, "system-1"));
+        walletService.bonus(new BonusRequest("user1", "GOLD", 50L, "system-2", "Test bonus"));
+        walletService.spend(new SpendRequest("user1", "GOLD", 30L, "system-3", "order-1"));
+
+        List<SystemLedgerBucketResponse> buckets = systemLedgerService.getActivity("GOLD", null, null);
+
+        assertFalse(buckets.isEmpty());
+        assertEquals(150L, buckets.stream().mapToLong(SystemLedgerBucketResponse::getDebited).sum());
+        assertEquals(30L, buckets.stream().mapToLong(SystemLedgerBucketResponse::getCredited).sum());
+        assertEquals(2L, buckets.stream().mapToLong(SystemLedgerBucketResponse::getDebitEntries).sum());
+        assertEquals(1L, buckets.stream().mapToLong(SystemLedgerBucketResponse::getCreditEntries).sum());
+
+        assertEquals(3, walletService.getTransactions("user1", PageRequest.of(0, 20)).getTotalElements());
+        assertThrows(IllegalArgumentException.class,
+                () -> walletService.getTransactions("SYSTEM", PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("History and balance are read as projections, sorted and paged")
+    void testProjectedReads() {
+        walletService.topUp(new TopUpRequest("user1", "GOLD", 100L, "read-1"));
+        walletService.spend(new SpendRequest("user1", "GOLD", 30L, "read-2", "order-1"));
+        walletService.reserve(new ReserveRequest("user1", "GOLD", 70L, "read-3", null, null));
+
+        Page<LedgerResponse> page = walletService.getTransactions("user1",
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "amount")));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+        LedgerResponse smallest = page.getContent().get(0);
+        assertEquals(30L, smallest.getAmount());
+        assertEquals("user1", smallest.getDebitUser());
+        assertEquals("SYSTEM", smallest.getCreditUser());
+        assertEquals("order-1", smallest.getReference());
+        assertNotNull(smallest.getCreatedAt());
+
+        BalanceResponse balance = walletService.getBalance("user1", "GOLD");
+        assertEquals(1070L, balance.getBalance());
+        assertEquals(70L, balance.getHeld());
+        assertEquals(1000L, balance.getAvailable());
+        assertNotNull(balance.getVersion());
+    }
+
+    @Test
+    @DisplayName("Export streams the filtered history oldest first")
+    void testTransactionExport() {
+        walletService.topUp(new TopUpRequest("user1", "GOLD", 100L, "export-1"));
+        walletService.topUp(new TopUpRequest("user1", "GEMS", 5L, "export-2"));
+        walletService.spend(new SpendRequest("user1", "GOLD", 30L, "export-3", "order, 1"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HistoryExport export = transactionExportService.prepare("user1", "csv", LocalDate.now(), LocalDate.now(), "GOLD");
+        long rows = transactionExportService.write(export, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals("id,debitUser,creditUser,asset,amount,reference,createdAt", lines[0]);
+        assertTrue(lines[1].contains(",SYSTEM,user1,GOLD,100,TOP-UP,"));
+        assertTrue(lines[2].contains(",user1,SYSTEM,GOLD,30,\"order, 1\","));
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        HistoryExport yesterday = transactionExportService.prepare("user1", "ndjson",
+                LocalDate.now().minusDays(1), LocalDate.now().minusDays(1), null);
+        assertEquals(0, transactionExportService.write(yesterday, empty));
+        assertEquals(0, empty.size());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionExportService.prepare("SYSTEM", "csv", null, null, null));
+    }
+
+    @Test
+    @DisplayName("Leaderboard follows committed mutations and leaves out SYSTEM")
+    void testLeaderboard() {
+        leaderboardService.rebuildAll();
+        walletService.topUp(new TopUpRequest("user2", "GOLD", 1500L, "board-1"));
+        walletService.topUp(new TopUpRequest("user3", "GOLD", 500L, "board-2"));
+        leaderboardService.refresh();
+
+        List<LeaderboardEntryResponse> entries = leaderboardService.getLeaderboard("GOLD", 10).getEntries();
+        assertEquals(List.of("user2", "user1", "user3"), entries.stream().map(LeaderboardEntryResponse::getUserId).toList());
+        assertEquals(1500L, entries.get(0).getBalance());
+
+        walletService.spend(new SpendRequest("user2", "GOLD", 1000L, "board-3", "order-1"));
+        leaderboardService.refresh();
+
+        entries = leaderboardService.getLeaderboard("GOLD", 2).getEntries();
+        assertEquals(List.of("user1", "user2"), entries.stream().map(LeaderboardEntryResponse::getUserId).toList());
+        assertThrows(AssetNotFoundException.class, () -> leaderboardService.getLeaderboard("NOPE", 10));
+    }
 }
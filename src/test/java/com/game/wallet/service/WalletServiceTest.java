@@ -1,34 +1,63 @@
 package com.game.wallet.service;
 
+import com.game.wallet.config.HoldProperties;
+import com.game.wallet.config.ReversalProperties;
+import com.game.wallet.contention.WalletContentionTracker;
 import com.game.wallet.dto.BonusRequest;
+import com.game.wallet.dto.HoldResponse;
+import com.game.wallet.dto.ReserveRequest;
+import com.game.wallet.dto.ReversalResponse;
+import com.game.wallet.dto.ReverseRequest;
 import com.game.wallet.dto.SpendRequest;
 import com.game.wallet.dto.TopUpRequest;
+import com.game.wallet.dto.TradeLeg;
+import com.game.wallet.dto.TradeRequest;
+import com.game.wallet.dto.TransferRequest;
+import com.game.wallet.event.HoldChangedEvent;
+import com.game.wallet.exception.AlreadyReversedException;
 import com.game.wallet.exception.AssetNotFoundException;
 import com.game.wallet.exception.DuplicateRequestException;
+import com.game.wallet.exception.HoldNotActiveException;
 import com.game.wallet.exception.InsufficientBalanceException;
+import com.game.wallet.exception.LedgerEntryNotFoundException;
 import com.game.wallet.exception.WalletNotFoundException;
 import com.game.wallet.model.Asset;
+import com.game.wallet.model.HoldStatus;
 import com.game.wallet.model.IdempotencyKey;
 import com.game.wallet.model.LedgerEntry;
 import com.game.wallet.model.Wallet;
+import com.game.wallet.model.WalletHold;
 import com.game.wallet.repository.AssetRepository;
 import com.game.wallet.repository.IdempotencyRepository;
+import com.game.wallet.repository.LedgerBatchWriter;
 import com.game.wallet.repository.LedgerRepository;
+import com.game.wallet.repository.TransactionTimeouts;
+import com.game.wallet.repository.WalletCreditWriter;
+import com.game.wallet.repository.WalletHoldRepository;
 import com.game.wallet.repository.WalletRepository;
+import com.game.wallet.sharding.ShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +76,39 @@ class WalletServiceTest {
     @Mock
     private AssetRepository assetRepository;
 
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LedgerBatchWriter ledgerBatchWriter;
+
+    @Mock
+    private WalletHoldRepository holdRepository;
+
+    @Spy
+    private HoldProperties holdProperties = new HoldProperties();
+
+    @Mock
+    private BalanceReadCoalescer balanceReadCoalescer;
+
+    @Mock
+    private WalletContentionTracker contentionTracker;
+
+    @Mock
+    private WalletCreditWriter walletCreditWriter;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private TransactionTimeouts transactionTimeouts;
+
+    @Spy
+    private ReversalProperties reversalProperties = new ReversalProperties();
+
     @InjectMocks
     private WalletService walletService;
 
@@ -77,33 +139,27 @@ class WalletServiceTest {
 
         when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
         when(walletRepository.findByUserIdAndAssetForUpdate("SYSTEM", "GOLD")).thenReturn(Optional.of(systemWallet));
-        when(walletRepository.findByUserIdAndAssetForUpdate("user123", "GOLD")).thenReturn(Optional.of(userWallet));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(i -> i.getArgument(0));
 
         walletService.topUp(request);
 
         assertEquals(9900L, systemWallet.getBalance());
-        assertEquals(600L, userWallet.getBalance());
+        verify(walletCreditWriter).credit(eq("user123"), any(), eq("GOLD"), eq(100L));
         verify(ledgerRepository).save(any(LedgerEntry.class));
         verify(idempotencyRepository).save(any(IdempotencyKey.class));
+        verify(contentionTracker).record(eq("SYSTEM"), eq("GOLD"), anyLong());
+        verify(contentionTracker).record(eq("user123"), eq("GOLD"), anyLong());
     }
 
     @Test
     void testTopUp_UnlimitedSupply_Success() {
         TopUpRequest request = new TopUpRequest("user123", "GEMS", 100L, "idem-2");
 
-        Wallet gemsWallet = new Wallet();
-        gemsWallet.setUserId("user123");
-        gemsWallet.setAsset("GEMS");
-        gemsWallet.setBalance(500L);
-
         when(assetRepository.findById("GEMS")).thenReturn(Optional.of(unlimitedAsset));
-        when(walletRepository.findByUserIdAndAssetForUpdate("user123", "GEMS")).thenReturn(Optional.of(gemsWallet));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(i -> i.getArgument(0));
 
         walletService.topUp(request);
 
-        assertEquals(600L, gemsWallet.getBalance());
+        verify(walletCreditWriter).credit(eq("user123"), any(), eq("GEMS"), eq(100L));
+        verify(walletRepository, never()).findByUserIdAndAssetForUpdate(any(), any());
         verify(ledgerRepository).save(any(LedgerEntry.class));
         verify(idempotencyRepository).save(any(IdempotencyKey.class));
     }
@@ -114,13 +170,11 @@ class WalletServiceTest {
 
         when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
         when(walletRepository.findByUserIdAndAssetForUpdate("SYSTEM", "GOLD")).thenReturn(Optional.of(systemWallet));
-        when(walletRepository.findByUserIdAndAssetForUpdate("user123", "GOLD")).thenReturn(Optional.of(userWallet));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(i -> i.getArgument(0));
 
         walletService.bonus(request);
 
         assertEquals(9950L, systemWallet.getBalance());
-        assertEquals(550L, userWallet.getBalance());
+        verify(walletCreditWriter).credit(eq("user123"), any(), eq("GOLD"), eq(50L));
         verify(ledgerRepository).save(any(LedgerEntry.class));
         verify(idempotencyRepository).save(any(IdempotencyKey.class));
     }
@@ -131,13 +185,11 @@ class WalletServiceTest {
 
         when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
         when(walletRepository.findByUserIdAndAssetForUpdate("user123", "GOLD")).thenReturn(Optional.of(userWallet));
-        when(walletRepository.findByUserIdAndAssetForUpdate("SYSTEM", "GOLD")).thenReturn(Optional.of(systemWallet));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(i -> i.getArgument(0));
 
         walletService.spend(request);
 
         assertEquals(470L, userWallet.getBalance());
-        assertEquals(10030L, systemWallet.getBalance());
+        verify(walletCreditWriter).credit(eq("SYSTEM"), any(), eq("GOLD"), eq(30L));
         verify(ledgerRepository).save(any(LedgerEntry.class));
         verify(idempotencyRepository).save(any(IdempotencyKey.class));
     }
@@ -196,6 +248,17 @@ class WalletServiceTest {
         assertThrows(AssetNotFoundException.class, () -> walletService.topUp(request));
     }
 
+    @Test
+    void testTopUp_BonusAssetRejected() {
+        TopUpRequest request = new TopUpRequest("user123", "EVENT_TOKEN", 100L, "idem-7b");
+
+        when(assetRepository.findById("EVENT_TOKEN")).thenReturn(Optional.of(new Asset("EVENT_TOKEN", false, true)));
+
+        assertThrows(IllegalArgumentException.class, () -> walletService.topUp(request));
+        verify(walletCreditWriter, never()).credit(any(), any(), any(), anyLong());
+        verify(ledgerRepository, never()).save(any(LedgerEntry.class));
+    }
+
     @Test
     void testSpend_WalletNotFound() {
         SpendRequest request = new SpendRequest("user999", "GOLD", 100L, "idem-8", "order");
@@ -211,12 +274,240 @@ class WalletServiceTest {
 
         when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
         when(walletRepository.findByUserIdAndAssetForUpdate("SYSTEM", "GOLD")).thenReturn(Optional.of(systemWallet));
-        when(walletRepository.findByUserIdAndAssetForUpdate("newuser", "GOLD")).thenReturn(Optional.empty());
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(i -> i.getArgument(0));
+        when(userDirectory.resolve("newuser")).thenReturn(42L);
 
         walletService.topUp(request);
 
-        verify(walletRepository).save(any(Wallet.class));
+        verify(walletCreditWriter).credit("newuser", 42L, "GOLD", 100L);
+        verify(walletRepository, never()).findByUserIdAndAssetForUpdate(eq("newuser"), any());
+        verify(walletRepository, never()).save(any(Wallet.class));
         verify(ledgerRepository).save(any(LedgerEntry.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransfer_Success() {
+        TransferRequest request = new TransferRequest("user123", "user456", "GOLD", 200L, "idem-10", null);
+
+        Wallet recipient = new Wallet();
+        recipient.setUserId("user456");
+        recipient.setAsset("GOLD");
+        recipient.setBalance(50L);
+
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.findAllForUpdate(any(), any())).thenReturn(List.of(userWallet, recipient));
+
+        walletService.transfer(request);
+
+        assertEquals(300L, userWallet.getBalance());
+        assertEquals(250L, recipient.getBalance());
+        verify(ledgerBatchWriter).insertAll(argThat(entries -> entries.size() == 1));
+        verify(idempotencyRepository).save(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void testTrade_AllLegsAppliedWithOneLedgerInsert() {
+        Asset diamond = new Asset("DIAMOND", true);
+
+        Wallet sellerDiamond = new Wallet();
+        sellerDiamond.setUserId("user456");
+        sellerDiamond.setAsset("DIAMOND");
+        sellerDiamond.setBalance(3L);
+
+        TradeRequest request = new TradeRequest(List.of(
+                new TradeLeg("user123", "user456", "GOLD", 100L),
+                new TradeLeg("user456", "user123", "DIAMOND", 1L)
+        ), "idem-11", "TRADE-1");
+
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(assetRepository.findById("DIAMOND")).thenReturn(Optional.of(diamond));
+        when(walletRepository.findAllForUpdate(any(), any())).thenReturn(List.of(userWallet, sellerDiamond));
+
+        walletService.trade(request);
+
+        assertEquals(400L, userWallet.getBalance());
+        assertEquals(2L, sellerDiamond.getBalance());
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletCreditWriter).credit(eq("user456"), any(), eq("GOLD"), eq(100L));
+        verify(walletCreditWriter).credit(eq("user123"), any(), eq("DIAMOND"), eq(1L));
+        verify(ledgerBatchWriter).insertAll(argThat(entries -> entries.size() == 2));
+    }
+
+    @Test
+    void testTrade_LaterLegSpendsFromWalletCreatedByEarlierLeg() {
+        TradeRequest request = new TradeRequest(List.of(
+                new TradeLeg("user123", "user456", "GOLD", 100L),
+                new TradeLeg("user456", "user789", "GOLD", 40L)
+        ), "idem-30", null);
+
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.findAllForUpdate(any(), any())).thenReturn(List.of(userWallet));
+
+        walletService.trade(request);
+
+        assertEquals(400L, userWallet.getBalance());
+        verify(walletCreditWriter).credit(eq("user456"), any(), eq("GOLD"), eq(60L));
+        verify(walletCreditWriter).credit(eq("user789"), any(), eq("GOLD"), eq(40L));
+        verify(ledgerBatchWriter).insertAll(argThat(entries -> entries.size() == 2));
+    }
+
+    @Test
+    void testTrade_InsufficientBalanceWritesNothing() {
+        TradeRequest request = new TradeRequest(List.of(
+                new TradeLeg("user123", "user456", "GOLD", 5000L)
+        ), "idem-12", null);
+
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.findAllForUpdate(any(), any())).thenReturn(List.of(userWallet));
+
+        assertThrows(InsufficientBalanceException.class, () -> walletService.trade(request));
+        verify(ledgerBatchWriter, never()).insertAll(any());
+    }
+
+    @Test
+    void testReserve_Success() {
+        ReserveRequest request = new ReserveRequest("user123", "GOLD", 100L, "idem-13", "ORD-1", null);
+
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.reserve("user123", "GOLD", 100L)).thenReturn(1);
+        when(holdRepository.save(any(WalletHold.class))).thenAnswer(i -> {
+            WalletHold hold = i.getArgument(0);
+            hold.setId(7L);
+            return hold;
+        });
+
+        HoldResponse response = walletService.reserve(request);
+
+        assertEquals(7L, response.getHoldId());
+        assertEquals(HoldStatus.HELD, response.getStatus());
+        assertTrue(response.getExpiresAt().isAfter(LocalDateTime.now()));
+        verify(idempotencyRepository).save(any(IdempotencyKey.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof HoldChangedEvent changed
+                && changed.getUserId().equals("user123") && changed.getStatus() == HoldStatus.HELD));
+    }
+
+    @Test
+    void testReserve_InsufficientAvailableBalance() {
+        ReserveRequest request = new ReserveRequest("user123", "GOLD", 1000L, "idem-14", null, null);
+
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.reserve("user123", "GOLD", 1000L)).thenReturn(0);
+        when(walletRepository.findByUserIdAndAsset("user123", "GOLD")).thenReturn(Optional.of(userWallet));
+
+        assertThrows(InsufficientBalanceException.class, () -> walletService.reserve(request));
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    void testCapture_CreditsSystemAndWritesLedger() {
+        WalletHold hold = WalletHold.builder().id(7L).userId("user123").asset("GOLD").amount(100L)
+                .status(HoldStatus.HELD).idempotencyKey("idem-15").expiresAt(LocalDateTime.now().plusMinutes(5)).build();
+
+        when(holdRepository.findById(7L)).thenReturn(Optional.of(hold));
+        when(holdRepository.markCaptured(eq(7L), any())).thenReturn(1);
+        when(walletRepository.captureHeld("user123", "GOLD", 100L)).thenReturn(1);
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+
+        HoldResponse response = walletService.capture(7L);
+
+        assertEquals(HoldStatus.CAPTURED, response.getStatus());
+        verify(walletCreditWriter).credit(eq("SYSTEM"), any(), eq("GOLD"), eq(100L));
+        verify(ledgerRepository).save(any(LedgerEntry.class));
+    }
+
+    @Test
+    void testCapture_AlreadySettled() {
+        WalletHold hold = WalletHold.builder().id(8L).userId("user123").asset("GOLD").amount(100L)
+                .status(HoldStatus.RELEASED).idempotencyKey("idem-16").expiresAt(LocalDateTime.now().plusMinutes(5)).build();
+
+        when(holdRepository.findById(8L)).thenReturn(Optional.of(hold));
+        when(holdRepository.markCaptured(eq(8L), any())).thenReturn(0);
+
+        assertThrows(HoldNotActiveException.class, () -> walletService.capture(8L));
+        verify(walletRepository, never()).captureHeld(any(), any(), anyLong());
+    }
+
+    @Test
+    void testSpend_RespectsHeldAmount() {
+        userWallet.setHeld(450L);
+        SpendRequest request = new SpendRequest("user123", "GOLD", 100L, "idem-17", "order");
+
+        when(walletRepository.findByUserIdAndAssetForUpdate("user123", "GOLD")).thenReturn(Optional.of(userWallet));
+
+        assertThrows(InsufficientBalanceException.class, () -> walletService.spend(request));
+    }
+
+    @Test
+    void testReverse_SpendMovesBackFromSystem() {
+        LedgerEntry original = LedgerEntry.builder()
+                .id(42L).debitUser("user123").creditUser("SYSTEM").asset("GOLD").amount(100L)
+                .idempotencyKey("spend-1").reference("ORD-1").createdAt(LocalDateTime.now()).build();
+        ReverseRequest request = new ReverseRequest("user123", "idem-20", "spend-1", null);
+
+        when(ledgerRepository.findByIdempotencyKeyForUser("spend-1", "user123")).thenReturn(List.of(original));
+        when(idempotencyRepository.findExistingKeys(any(), eq("REVERSED"))).thenReturn(Set.of());
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.findAllForUpdate(any(), any())).thenReturn(List.of(userWallet));
+        when(walletRepository.findByUserIdAndAssetForUpdate("SYSTEM", "GOLD")).thenReturn(Optional.of(systemWallet));
+
+        ReversalResponse response = walletService.reverse(request);
+
+        assertEquals(600L, userWallet.getBalance());
+        assertEquals(9900L, systemWallet.getBalance());
+        assertEquals(1, response.getEntries().size());
+        assertEquals("SYSTEM", response.getEntries().get(0).getDebitUser());
+        assertEquals("REVERSAL:spend-1", response.getEntries().get(0).getReference());
+        verify(idempotencyRepository).saveAllAndFlush(argThat(markers -> ((List<?>) markers).size() == 1));
+        verify(ledgerBatchWriter).insertAll(argThat(entries -> entries.size() == 1));
+    }
+
+    @Test
+    void testReverse_CreditsMissingWalletWithUpsert() {
+        LedgerEntry original = LedgerEntry.builder()
+                .id(43L).debitUser("user456").creditUser("user123").asset("GOLD").amount(100L)
+                .idempotencyKey("transfer-1").reference("TRANSFER").createdAt(LocalDateTime.now()).build();
+        ReverseRequest request = new ReverseRequest("user123", "idem-24", "transfer-1", null);
+
+        when(ledgerRepository.findByIdempotencyKeyForUser("transfer-1", "user123")).thenReturn(List.of(original));
+        when(idempotencyRepository.findExistingKeys(any(), eq("REVERSED"))).thenReturn(Set.of());
+        when(assetRepository.findById("GOLD")).thenReturn(Optional.of(limitedAsset));
+        when(walletRepository.findAllForUpdate(any(), any())).thenReturn(List.of(userWallet));
+        when(userDirectory.resolve("user456")).thenReturn(7L);
+
+        walletService.reverse(request);
+
+        assertEquals(400L, userWallet.getBalance());
+        verify(walletCreditWriter).credit("user456", 7L, "GOLD", 100L);
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletRepository, never()).findByUserIdAndAssetForUpdate(eq("SYSTEM"), any());
+    }
+
+    @Test
+    void testReverse_AlreadyReversed() {
+        LedgerEntry original = LedgerEntry.builder()
+                .id(42L).debitUser("user123").creditUser("SYSTEM").asset("GOLD").amount(100L)
+                .idempotencyKey("spend-1").reference("ORD-1").createdAt(LocalDateTime.now()).build();
+        ReverseRequest request = new ReverseRequest("user123", "idem-21", null, "ORD-1");
+
+        when(ledgerRepository.findByReferenceForUser("ORD-1", "user123")).thenReturn(List.of(original));
+        when(idempotencyRepository.findExistingKeys(any(), eq("REVERSED"))).thenReturn(Set.of("reversed:42"));
+
+        assertThrows(AlreadyReversedException.class, () -> walletService.reverse(request));
+        verify(ledgerBatchWriter, never()).insertAll(any());
+        verify(walletRepository, never()).findAllForUpdate(any(), any());
+    }
+
+    @Test
+    void testReverse_RequiresExactlyOneOriginal() {
+        assertThrows(IllegalArgumentException.class,
+                () -> walletService.reverse(new ReverseRequest("user123", "idem-22", "spend-1", "ORD-1")));
+        assertThrows(LedgerEntryNotFoundException.class,
+                () -> walletService.reverse(new ReverseRequest("user123", "idem-23", "missing", null)));
+    }
+
+    @Test
+    void testGetTransactions_SystemServedByAggregate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> walletService.getTransactions("SYSTEM", PageRequest.of(0, 20)));
+        verifyNoInteractions(ledgerRepository);
+    }
+}
@@ -0,0 +1,80 @@
+package com.game.wallet.sharding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardMap Tests")
+class ShardMapTest {
+
+    private static final List<String> SHARDS = List.of("shard-1", "shard-2", "shard-3");
+
+    @Test
+    @DisplayName("Should keep a user in the same bucket across instances")
+    void testStableBuckets() {
+        ShardMap first = new ShardMap(SHARDS, 1024, Map.of());
+        ShardMap second = new ShardMap(SHARDS, 1024, Map.of());
+
+        for (int i = 0; i < 1000; i++) {
+            String userId = "user" + i;
+            int bucket = first.bucketOf(userId);
+            assertTrue(bucket >= 0 && bucket < 1024);
+            assertEquals(bucket, second.bucketOf(userId));
+            assertEquals(first.shardOf(userId), second.shardOf(userId));
+        }
+    }
+
+    @Test
+    @DisplayName("Should spread sequential user ids over all buckets")
+    void testDistribution() {
+        ShardMap shardMap = new ShardMap(SHARDS, 64, Map.of());
+        int[] users = new int[64];
+        for (int i = 0; i < 64_000; i++) {
+            users[shardMap.bucketOf("user" + i)]++;
+        }
+
+        for (int count : users) {
+            assertTrue(count > 800 && count < 1200, "Bucket holds " + count + " of 1000 expected users");
+        }
+    }
+
+    @Test
+    @DisplayName("Should assign buckets round-robin and apply overrides")
+    void testAssignment() {
+        ShardMap shardMap = new ShardMap(SHARDS, 6, Map.of(4, "shard-3"));
+
+        assertEquals("shard-1", shardMap.shardOfBucket(0));
+        assertEquals("shard-2", shardMap.shardOfBucket(1));
+        assertEquals("shard-3", shardMap.shardOfBucket(2));
+        assertEquals("shard-3", shardMap.shardOfBucket(4));
+        assertEquals(Map.of("shard-1", 1, "shard-2", 1, "shard-3", 4),
+                Map.copyOf(new ShardMap(SHARDS, 6, Map.of(0, "shard-3", 1, "shard-3")).bucketCounts()));
+    }
+
+    @Test
+    @DisplayName("Should route a user to the new shard after its bucket is reassigned")
+    void testReassign() {
+        ShardMap shardMap = new ShardMap(SHARDS, 1024, Map.of());
+        int bucket = shardMap.bucketOf("player42");
+        String target = shardMap.shardOf("player42").equals("shard-1") ? "shard-2" : "shard-1";
+
+        shardMap.reassign(bucket, target);
+
+        assertEquals(target, shardMap.shardOf("player42"));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown shards and buckets out of range")
+    void testRejectsInvalidAssignments() {
+        ShardMap shardMap = new ShardMap(SHARDS, 16, Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> shardMap.reassign(3, "shard-9"));
+        assertThrows(IllegalArgumentException.class, () -> shardMap.reassign(16, "shard-1"));
+        assertThrows(IllegalArgumentException.class, () -> new ShardMap(SHARDS, 16, Map.of(1, "shard-9")));
+        assertThrows(IllegalArgumentException.class, () -> new ShardMap(SHARDS, 2, Map.of()));
+    }
+}
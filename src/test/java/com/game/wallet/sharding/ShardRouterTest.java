@@ -0,0 +1,53 @@
+package com.game.wallet.sharding;
+
+import com.game.wallet.config.ShardingProperties;
+import com.game.wallet.exception.ServerBusyException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardRouter Tests")
+class ShardRouterTest {
+
+    @Test
+    @DisplayName("Should report users of a frozen bucket as moving, but never SYSTEM or GENESIS")
+    void testMovingUsers() {
+        ShardRouter router = shardedRouter();
+        int bucket = router.shardMap().bucketOf("user1");
+        router.freeze(bucket);
+        router.freeze(router.shardMap().bucketOf("SYSTEM"));
+        router.freeze(router.shardMap().bucketOf("GENESIS"));
+
+        assertTrue(router.isMoving("user1"));
+        assertFalse(router.isMoving("SYSTEM"));
+        assertFalse(router.isMoving("GENESIS"));
+        assertThrows(ServerBusyException.class, () -> router.checkNotMoving("user1"));
+        assertThrows(ServerBusyException.class, () -> router.checkNotMoving(List.of("SYSTEM", "user1")));
+        assertThrows(ServerBusyException.class, () -> router.forUser("user1"));
+
+        router.unfreeze(bucket);
+        assertFalse(router.isMoving("user1"));
+        assertDoesNotThrow(() -> router.checkNotMoving(List.of("SYSTEM", "user1")));
+    }
+
+    @Test
+    @DisplayName("Should never report users as moving when sharding is disabled")
+    void testUnsharded() {
+        ShardRouter router = new ShardRouter(new ShardingProperties());
+
+        assertFalse(router.isMoving("user1"));
+        assertDoesNotThrow(() -> router.checkNotMoving(List.of("user1", "user2")));
+    }
+
+    private static ShardRouter shardedRouter() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        ShardingProperties.Node node = new ShardingProperties.Node();
+        node.setName("shard-2");
+        properties.setNodes(List.of(node));
+        return new ShardRouter(properties);
+    }
+}
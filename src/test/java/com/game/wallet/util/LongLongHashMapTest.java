@@ -0,0 +1,51 @@
+package com.game.wallet.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LongLongHashMap Tests")
+class LongLongHashMapTest {
+
+    @Test
+    @DisplayName("Should accumulate values and grow past initial capacity")
+    void testAddToAndGrow() {
+        LongLongHashMap map = new LongLongHashMap(2);
+
+        for (long i = 1; i <= 10_000; i++) {
+            map.addTo(i, i);
+            map.addTo(i, 1);
+        }
+
+        assertEquals(10_000, map.size());
+        assertEquals(43L, map.get(42L, -1L));
+        assertEquals(-1L, map.get(10_001L, -1L));
+
+        AtomicLong sum = new AtomicLong();
+        map.forEach((key, value) -> sum.addAndGet(value));
+        assertEquals(10_000L * 10_001L / 2 + 10_000L, sum.get());
+    }
+
+    @Test
+    @DisplayName("Should read and update through slots including the zero key")
+    void testSlots() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0L, 5L);
+        map.put(7L, 9L);
+
+        int zeroSlot = map.slotOf(0L);
+        int sevenSlot = map.slotOf(7L);
+        assertEquals(LongLongHashMap.NOT_FOUND, map.slotOf(8L));
+
+        map.setValueAt(zeroSlot, 6L);
+        map.setValueAt(sevenSlot, map.valueAt(sevenSlot) + 1);
+
+        assertEquals(6L, map.get(0L, 0L));
+        assertEquals(10L, map.get(7L, 0L));
+        assertTrue(map.containsKey(0L));
+        assertEquals(2, map.size());
+    }
+}